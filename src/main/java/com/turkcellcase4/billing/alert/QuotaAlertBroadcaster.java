@@ -0,0 +1,181 @@
+package com.turkcellcase4.billing.alert;
+
+import com.turkcellcase4.billing.dto.QuotaAlertDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kota uyarılarını açık SSE bağlantılarına dağıtır.
+ * <p>
+ * SseEmitter servlet async ile çalıştığından açık bağlantı başına thread tutulmaz; gönderimler
+ * küçük bir havuzda yapılır, olay üreten istek thread'i beklemez. Kopan bağlantılar gönderim
+ * hatasında ya da periyodik heartbeat sırasında temizlenir.
+ */
+@Component
+@Slf4j
+public class QuotaAlertBroadcaster {
+
+    private static final String EVENT_NAME = "quota-alert";
+
+    private final long timeoutMs;
+    private final ExecutorService dispatcher;
+    private final ConcurrentHashMap<Long, Set<SseEmitter>> userEmitters = new ConcurrentHashMap<>();
+    private final Set<SseEmitter> globalEmitters = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public QuotaAlertBroadcaster(
+            @Value("${usage.alerts.sse-timeout-ms:1800000}") long timeoutMs,
+            @Value("${usage.alerts.dispatch-threads:4}") int dispatchThreads) {
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "quota-alert-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tek kullanıcının uyarılarını dinleyen bağlantı
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        userEmitters.compute(userId, (id, emitters) -> {
+            Set<SseEmitter> target = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            target.add(emitter);
+            return target;
+        });
+        connections.incrementAndGet();
+        // Boşalan küme aynı compute içinde kaldırılır, eşzamanlı abonelikle yarışmaz
+        onClose(emitter, () -> userEmitters.computeIfPresent(userId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        }));
+        return emitter;
+    }
+
+    /**
+     * Tüm kullanıcıların uyarılarını dinleyen bağlantı
+     */
+    public SseEmitter subscribeAll() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        globalEmitters.add(emitter);
+        connections.incrementAndGet();
+        onClose(emitter, () -> {
+            if (globalEmitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+        });
+        return emitter;
+    }
+
+    public void publish(QuotaAlertDTO alert) {
+        Set<SseEmitter> targets = userEmitters.get(alert.getUserId());
+        if ((targets == null || targets.isEmpty()) && globalEmitters.isEmpty()) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                if (targets != null) {
+                    sendAll(targets, alert);
+                }
+                sendAll(globalEmitters, alert);
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Uyarıya bağlı arka plan işini (ör. kalıcı durum yazımı) gönderim havuzunda çalıştırır; olay üreten
+     * thread beklemez. Havuz kapanmışsa false döner.
+     */
+    public boolean execute(Runnable task) {
+        try {
+            dispatcher.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Proxy'lerin boşta bağlantıyı kapatmaması ve kopan istemcilerin bulunması için yorum satırı gönderir
+     */
+    @Scheduled(fixedDelayString = "${usage.alerts.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (connections.get() == 0) {
+            return;
+        }
+        List<Set<SseEmitter>> groups = new ArrayList<>(userEmitters.values());
+        groups.add(globalEmitters);
+        dispatcher.execute(() -> {
+            for (Set<SseEmitter> emitters : groups) {
+                for (SseEmitter emitter : emitters) {
+                    try {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } catch (IOException | IllegalStateException e) {
+                        emitter.completeWithError(e);
+                    }
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        userEmitters.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        globalEmitters.forEach(SseEmitter::complete);
+    }
+
+    private static void onClose(SseEmitter emitter, Runnable remove) {
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+    }
+
+    private void sendAll(Set<SseEmitter> emitters, QuotaAlertDTO alert) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(alert, MediaType.APPLICATION_JSON));
+                delivered.incrementAndGet();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE gönderimi başarısız, bağlantı kapatılıyor: {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.turkcellcase4.billing.alert;
+
+import com.turkcellcase4.common.enums.QuotaAlertLevel;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Kullanıcının bir dönemdeki kota eşiklerini ve her metrikte ulaşılan en yüksek seviyeyi tutar.
+ * Eşikler kurulumda hesaplanır; her güncellemede yalnızca sıradaki eşikle karşılaştırma yapılır.
+ * Seviye CAS ile ilerletildiğinden eşzamanlı güncellemelerde her eşik bir kez tetiklenir.
+ */
+public final class QuotaTracker {
+
+    public static final int DATA = 0;
+    public static final int VOICE = 1;
+    public static final int SMS = 2;
+    static final int METRIC_COUNT = 3;
+
+    private static final QuotaAlertLevel[] LEVELS = QuotaAlertLevel.values();
+    private static final int NONE = -1;
+
+    private final Long planId;
+    private final int periodKey;
+    // Kota yoksa (null/0) ilgili metrik izlenmez
+    private final long[] limits = new long[METRIC_COUNT];
+    private final long[][] thresholds = new long[METRIC_COUNT][];
+    private final AtomicIntegerArray levels = new AtomicIntegerArray(METRIC_COUNT);
+
+    /**
+     * @param dataLimitMilliMb veri kotası (MB * 1000)
+     */
+    public QuotaTracker(Long planId, int periodKey, long dataLimitMilliMb, long minutesLimit, long smsLimit) {
+        this.planId = planId;
+        this.periodKey = periodKey;
+        limits[DATA] = dataLimitMilliMb;
+        limits[VOICE] = minutesLimit;
+        limits[SMS] = smsLimit;
+        for (int metric = 0; metric < METRIC_COUNT; metric++) {
+            long limit = limits[metric];
+            // %80, %100 ve kotanın üstü
+            thresholds[metric] = new long[]{(limit * 4 + 4) / 5, limit, limit + 1};
+            levels.set(metric, NONE);
+        }
+    }
+
+    public Long getPlanId() {
+        return planId;
+    }
+
+    public int getPeriodKey() {
+        return periodKey;
+    }
+
+    public long limit(int metric) {
+        return limits[metric];
+    }
+
+    public boolean isTracked(int metric) {
+        return limits[metric] > 0;
+    }
+
+    /**
+     * Metrikte ulaşılan seviyenin ordinal değeri; henüz tetiklenmediyse -1
+     */
+    public int levelOrdinal(int metric) {
+        return levels.get(metric);
+    }
+
+    /**
+     * Kalıcı durumdan okunan seviyeyi uygular; yalnızca ileri alınır
+     */
+    public void restore(int metric, int levelOrdinal) {
+        int target = Math.min(levelOrdinal, LEVELS.length - 1);
+        levels.accumulateAndGet(metric, target, Math::max);
+    }
+
+    /**
+     * Güncel toplamın ulaştığı yeni seviyeyi döner; yeni bir eşik geçilmediyse null.
+     * Aynı anda birden fazla eşik geçilirse yalnızca en yükseği bildirilir.
+     */
+    public QuotaAlertLevel evaluate(int metric, long total) {
+        if (limits[metric] <= 0) {
+            return null;
+        }
+        int current = levels.get(metric);
+        if (current == LEVELS.length - 1 || total < thresholds[metric][current + 1]) {
+            return null;
+        }
+        int reached = current + 1;
+        while (reached + 1 < LEVELS.length && total >= thresholds[metric][reached + 1]) {
+            reached++;
+        }
+        while (true) {
+            if (levels.compareAndSet(metric, current, reached)) {
+                return LEVELS[reached];
+            }
+            current = levels.get(metric);
+            if (current >= reached) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.turkcellcase4.billing.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Bellek eşlemeli (mmap), salt okunur arşiv segmenti. İndeksler dosyadan doğrudan ikili aramayla okunur;
+ * heap'te yalnızca başlık bilgisi tutulur, bir kayıt için yalnızca ait olduğu blok açılır.
+ */
+final class ArchiveSegment {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int periodKey;
+    private final int count;
+    private final int indexOffset;
+    private final int billIndexOffset;
+    private final long minBillId;
+    private final long maxBillId;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != ArchiveSegmentWriter.MAGIC || buffer.getInt(4) != ArchiveSegmentWriter.VERSION) {
+            throw new IllegalStateException("Geçersiz arşiv segmenti: " + path);
+        }
+        this.periodKey = buffer.getInt(8);
+        this.count = buffer.getInt(12);
+        this.indexOffset = Math.toIntExact(buffer.getLong(16));
+        this.billIndexOffset = Math.toIntExact(buffer.getLong(24));
+        this.minBillId = count > 0 ? billIdAt(billIndexAt(0)) : Long.MAX_VALUE;
+        this.maxBillId = count > 0 ? billIdAt(billIndexAt(count - 1)) : Long.MIN_VALUE;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Arşiv segmenti 2 GB sınırını aşıyor: " + path);
+            }
+            return new ArchiveSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int periodKey() {
+        return periodKey;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    long minBillId() {
+        return minBillId;
+    }
+
+    long maxBillId() {
+        return maxBillId;
+    }
+
+    boolean contains(long billId) {
+        return positionOf(billId) >= 0;
+    }
+
+    Optional<ArchivedBill> findByBillId(long billId) {
+        int position = positionOf(billId);
+        return position >= 0 ? Optional.of(read(position, null)) : Optional.empty();
+    }
+
+    /**
+     * Kullanıcının bu segmentteki faturaları; ardışık kayıtlar aynı bloktaysa blok bir kez açılır
+     */
+    List<ArchivedBill> findByUser(long userId) {
+        List<ArchivedBill> bills = new ArrayList<>();
+        BlockCache cache = new BlockCache();
+        for (int i = firstOfUser(userId); i < count && userIdAt(i) == userId; i++) {
+            bills.add(read(i, cache));
+        }
+        return bills;
+    }
+
+    private int positionOf(long billId) {
+        if (billId < minBillId || billId > maxBillId) {
+            return -1;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = billIndexAt(mid);
+            long candidate = billIdAt(position);
+            if (candidate < billId) {
+                low = mid + 1;
+            } else if (candidate > billId) {
+                high = mid - 1;
+            } else {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    // userId için ilk indeks girişi (lower bound)
+    private int firstOfUser(long userId) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (userIdAt(mid) < userId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private ArchivedBill read(int position, BlockCache cache) {
+        int entry = indexOffset + position * ArchiveSegmentWriter.ENTRY_SIZE;
+        int blockOffset = Math.toIntExact(buffer.getLong(entry + 16));
+        int blockLength = buffer.getInt(entry + 24);
+        int recordOffset = buffer.getInt(entry + 28);
+        byte[] block = cache != null && cache.offset == blockOffset ? cache.data : inflate(blockOffset, blockLength);
+        if (cache != null) {
+            cache.offset = blockOffset;
+            cache.data = block;
+        }
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(block, recordOffset, block.length - recordOffset));
+            return ArchivedBill.readFrom(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Arşiv kaydı okunamadı: " + path, e);
+        }
+    }
+
+    private byte[] inflate(int blockOffset, int blockLength) {
+        int rawLength = buffer.getInt(blockOffset);
+        ByteBuffer compressed = buffer.slice(blockOffset + Integer.BYTES, blockLength - Integer.BYTES);
+        byte[] raw = new byte[rawLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, rawLength - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Beklenmeyen blok sonu");
+                }
+                read += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Arşiv bloğu bozuk: " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private long userIdAt(int position) {
+        return buffer.getLong(indexOffset + position * ArchiveSegmentWriter.ENTRY_SIZE);
+    }
+
+    private long billIdAt(int position) {
+        return buffer.getLong(indexOffset + position * ArchiveSegmentWriter.ENTRY_SIZE + 8);
+    }
+
+    private int billIndexAt(int rank) {
+        return buffer.getInt(billIndexOffset + rank * Integer.BYTES);
+    }
+
+    private static final class BlockCache {
+        private int offset = -1;
+        private byte[] data;
+    }
+}
@@ -0,0 +1,167 @@
+package com.turkcellcase4.billing.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import java.util.zip.Deflater;
+
+/**
+ * Tek seferlik segment yazıcısı. Faturalar (userId, billId) sırasıyla eklenir ve ~64 KB'lık bloklar halinde
+ * sıkıştırılır; dosya önce .tmp adıyla yazılır, diske zorlanır ve tamamlanınca atomik olarak yerine taşınır,
+ * ardından dizin de diske zorlanır.
+ * Yayınlanan segment bir daha değiştirilmez.
+ * <p>
+ * Düzen: başlık (32 byte) | bloklar ([ham uzunluk int][deflate]) | kullanıcı indeksi | fatura ID indeksi
+ */
+public final class ArchiveSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x54424152;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    // userId, billId, blok ofseti (long), blok uzunluğu, blok içi ofset (int)
+    static final int ENTRY_SIZE = 32;
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final Path tmp;
+    private final int periodKey;
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater();
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE + 8 * 1024);
+    private final DataOutputStream blockOut = new DataOutputStream(block);
+    private final byte[] deflateBuffer = new byte[BLOCK_SIZE];
+
+    private long[] userIds = new long[1024];
+    private long[] billIds = new long[1024];
+    private long[] blockOffsets = new long[1024];
+    private int[] blockLengths = new int[1024];
+    private int[] recordOffsets = new int[1024];
+    private int count;
+    private int blockStart;
+    private boolean finished;
+
+    ArchiveSegmentWriter(Path target, int periodKey) throws IOException {
+        this.target = target;
+        this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.periodKey = periodKey;
+        this.channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.channel.position(HEADER_SIZE);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public void append(ArchivedBill bill) throws IOException {
+        if (count > 0 && (bill.userId() < userIds[count - 1]
+                || (bill.userId() == userIds[count - 1] && bill.billId() <= billIds[count - 1]))) {
+            throw new IllegalArgumentException("Faturalar (userId, billId) sırasıyla eklenmelidir: " + bill.billId());
+        }
+        if (count == userIds.length) {
+            int capacity = count * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            billIds = Arrays.copyOf(billIds, capacity);
+            blockOffsets = Arrays.copyOf(blockOffsets, capacity);
+            blockLengths = Arrays.copyOf(blockLengths, capacity);
+            recordOffsets = Arrays.copyOf(recordOffsets, capacity);
+        }
+        userIds[count] = bill.userId();
+        billIds[count] = bill.billId();
+        recordOffsets[count] = block.size();
+        bill.writeTo(blockOut);
+        count++;
+        if (block.size() >= BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * İndeksleri ve başlığı yazar, dosyayı yayınlar
+     */
+    public Path finish() throws IOException {
+        flushBlock();
+        long indexOffset = channel.position();
+        ByteBuffer index = ByteBuffer.allocate(count * ENTRY_SIZE);
+        for (int i = 0; i < count; i++) {
+            index.putLong(userIds[i]).putLong(billIds[i]).putLong(blockOffsets[i])
+                    .putInt(blockLengths[i]).putInt(recordOffsets[i]);
+        }
+        writeFully(index.flip());
+
+        long billIndexOffset = channel.position();
+        int[] byBillId = IntStream.range(0, count).boxed()
+                .sorted(Comparator.comparingLong(i -> billIds[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        ByteBuffer billIndex = ByteBuffer.allocate(count * Integer.BYTES);
+        for (int position : byBillId) {
+            billIndex.putInt(position);
+        }
+        writeFully(billIndex.flip());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(VERSION).putInt(periodKey).putInt(count)
+                .putLong(indexOffset).putLong(billIndexOffset);
+        channel.position(0);
+        writeFully(header.flip());
+        channel.force(true);
+        channel.close();
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        // Taşıma dizin girdisidir; sıcak satırlar silinmeden önce dizin de diske zorlanır
+        try (FileChannel directory = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+        finished = true;
+        return target;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        long offset = channel.position();
+        writeFully(ByteBuffer.allocate(Integer.BYTES).putInt(raw.length).flip());
+        int length = Integer.BYTES;
+        while (!deflater.finished()) {
+            int written = deflater.deflate(deflateBuffer);
+            writeFully(ByteBuffer.wrap(deflateBuffer, 0, written));
+            length += written;
+        }
+        for (int i = blockStart; i < count; i++) {
+            blockOffsets[i] = offset;
+            blockLengths[i] = length;
+        }
+        blockStart = count;
+        block.reset();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
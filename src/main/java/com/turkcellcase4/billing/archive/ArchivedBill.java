@@ -0,0 +1,94 @@
+package com.turkcellcase4.billing.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arşiv segmentindeki tek fatura kaydı: başlık ve kalemler. Segment bloklarına ikili (binary) olarak yazılır.
+ */
+public record ArchivedBill(long billId, long userId, LocalDate periodStart, LocalDate periodEnd, LocalDate issueDate,
+                           BigDecimal totalAmount, String currency, List<ArchivedItem> items) {
+
+    public int periodKey() {
+        return periodStart.getYear() * 100 + periodStart.getMonthValue();
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(billId);
+        out.writeLong(userId);
+        writeDate(out, periodStart);
+        writeDate(out, periodEnd);
+        writeDate(out, issueDate);
+        writeDecimal(out, totalAmount);
+        writeString(out, currency);
+        out.writeInt(items.size());
+        for (ArchivedItem item : items) {
+            out.writeLong(item.itemId());
+            writeString(out, item.category());
+            writeString(out, item.subtype());
+            writeString(out, item.description());
+            writeDecimal(out, item.amount());
+            writeDecimal(out, item.unitPrice());
+            out.writeInt(item.quantity() != null ? item.quantity() : 0);
+            writeDecimal(out, item.taxRate());
+        }
+    }
+
+    static ArchivedBill readFrom(DataInput in) throws IOException {
+        long billId = in.readLong();
+        long userId = in.readLong();
+        LocalDate periodStart = readDate(in);
+        LocalDate periodEnd = readDate(in);
+        LocalDate issueDate = readDate(in);
+        BigDecimal totalAmount = readDecimal(in);
+        String currency = readString(in);
+        int itemCount = in.readInt();
+        List<ArchivedItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ArchivedItem(in.readLong(), readString(in), readString(in), readString(in),
+                    readDecimal(in), readDecimal(in), in.readInt(), readDecimal(in)));
+        }
+        return new ArchivedBill(billId, userId, periodStart, periodEnd, issueDate, totalAmount, currency, items);
+    }
+
+    // Boş değerler için işaret baytı kullanılır
+    private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeInt((int) date.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        String value = readString(in);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public record ArchivedItem(long itemId, String category, String subtype, String description, BigDecimal amount,
+                               BigDecimal unitPrice, Integer quantity, BigDecimal taxRate) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.turkcellcase4.billing.archive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Soğuk katman: bills.archive.dir altındaki değişmez fatura segmentleri. Açılışta mevcut segmentler
+ * eşlenir, arşivleme sırasında yazılan segmentler anında eklenir. Dizin boşsa arşiv kapalıdır ve
+ * tüm sorgular boş döner.
+ * <p>
+ * Fatura ID sorguları segmentleri tek tek denemez: segmentler en küçük fatura ID'sine göre sıralı tutulur,
+ * ikili aramayla aralığı ID'yi kapsayabilecek segmentlere inilir.
+ */
+@Component
+@Slf4j
+public class BillArchiveStore {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile RangeIndex rangeIndex = RangeIndex.EMPTY;
+
+    public BillArchiveStore(@Value("${bills.archive.dir:}") String directory) {
+        this.directory = directory == null || directory.isBlank() ? null : Paths.get(directory);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        // Yarım kalmış yazım; kaynak satırlar sıcak tablodan silinmemişti
+                        Files.deleteIfExists(file);
+                    } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                        segments.add(ArchiveSegment.open(file));
+                    }
+                }
+            }
+            rangeIndex = RangeIndex.of(segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fatura arşivi açılamadı: " + directory, e);
+        }
+        if (!segments.isEmpty()) {
+            log.info("Fatura arşivi yüklendi: {} segment, {} fatura", segments.size(),
+                    segments.stream().mapToLong(ArchiveSegment::count).sum());
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public Optional<ArchivedBill> findByBillId(long billId) {
+        RangeIndex index = rangeIndex;
+        for (int i = index.lastStartingAtOrBefore(billId); i >= 0 && index.maxUpTo[i] >= billId; i--) {
+            Optional<ArchivedBill> bill = index.segments[i].findByBillId(billId);
+            if (bill.isPresent()) {
+                return bill;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<ArchivedBill> findByUserIdAndPeriodKey(long userId, int periodKey) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.periodKey() == periodKey) {
+                List<ArchivedBill> bills = segment.findByUser(userId);
+                if (!bills.isEmpty()) {
+                    return Optional.of(bills.get(0));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean contains(long billId) {
+        RangeIndex index = rangeIndex;
+        for (int i = index.lastStartingAtOrBefore(billId); i >= 0 && index.maxUpTo[i] >= billId; i--) {
+            if (index.segments[i].contains(billId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dönem için yeni segment yazıcısı; dosya adı benzersizdir, mevcut segmentlere dokunulmaz
+     */
+    public ArchiveSegmentWriter newWriter(int periodKey) throws IOException {
+        if (directory == null) {
+            throw new IllegalStateException("Fatura arşivi kapalı (bills.archive.dir)");
+        }
+        Path target = directory.resolve(String.format("bills-%d-%d%s", periodKey, System.nanoTime(), SEGMENT_SUFFIX));
+        return new ArchiveSegmentWriter(target, periodKey);
+    }
+
+    /**
+     * Tamamlanmış segmenti okumaya açar
+     */
+    public synchronized void publish(Path segmentFile) throws IOException {
+        segments.add(ArchiveSegment.open(segmentFile));
+        rangeIndex = RangeIndex.of(segments);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("directory", directory != null ? directory.toString() : null);
+        stats.put("segments", segments.size());
+        stats.put("bills", segments.stream().mapToLong(ArchiveSegment::count).sum());
+        stats.put("bytes", segments.stream().mapToLong(ArchiveSegment::sizeBytes).sum());
+        stats.put("periods", segments.stream().map(ArchiveSegment::periodKey).distinct().count());
+        return stats;
+    }
+
+    /**
+     * Segmentlerin fatura ID aralıkları: en küçük ID'ye göre sıralı segmentler ve her konuma kadarki en büyük ID.
+     * Segment yayınlandığında yeniden kurulur; okuyucular değişmez kopyayı kullanır.
+     */
+    private static final class RangeIndex {
+
+        private static final RangeIndex EMPTY = new RangeIndex(new ArchiveSegment[0]);
+
+        private final ArchiveSegment[] segments;
+        private final long[] minBillIds;
+        private final long[] maxUpTo;
+
+        private RangeIndex(ArchiveSegment[] segments) {
+            this.segments = segments;
+            this.minBillIds = new long[segments.length];
+            this.maxUpTo = new long[segments.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < segments.length; i++) {
+                minBillIds[i] = segments[i].minBillId();
+                max = Math.max(max, segments[i].maxBillId());
+                maxUpTo[i] = max;
+            }
+        }
+
+        static RangeIndex of(List<ArchiveSegment> segments) {
+            ArchiveSegment[] sorted = segments.stream()
+                    .filter(segment -> segment.count() > 0)
+                    .sorted(Comparator.comparingLong(ArchiveSegment::minBillId))
+                    .toArray(ArchiveSegment[]::new);
+            return new RangeIndex(sorted);
+        }
+
+        // En küçük ID'si billId'den büyük olmayan son segment; yoksa -1. Geriye doğru maxUpTo >= billId
+        // olduğu sürece taranır, çakışmayan aralıklarda tek segmente bakılır
+        int lastStartingAtOrBefore(long billId) {
+            int position = Arrays.binarySearch(minBillIds, billId);
+            if (position >= 0) {
+                while (position + 1 < minBillIds.length && minBillIds[position + 1] == billId) {
+                    position++;
+                }
+                return position;
+            }
+            return -position - 2;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.turkcellcase4.billing.billrun;
+
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.RecurringCharge;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.UsageTotals;
+import com.turkcellcase4.billing.rating.Money;
+import com.turkcellcase4.billing.rating.RatingBatch;
+import com.turkcellcase4.billing.rating.TariffCompiler;
+import com.turkcellcase4.billing.rating.TariffEvaluator;
+import com.turkcellcase4.catalog.model.Plan;
+import com.turkcellcase4.common.enums.ItemCategory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dönem kullanımını plan kotaları ve aşım ücretlerine göre fatura kalemlerine çevirir.
+ * Kalem tipleri mevcut faturalarla aynıdır (plan_fee, data_overage, ..., kdv); aşım tutarları planın aşım
+ * biçimiyle {@link TariffEvaluator} üzerinden kuruş cinsinden hesaplanır, miktar başlanan birim (GB, dakika, SMS, MB) olarak yazılır.
+ * Fatura koşusu sayfanın kullanımını önce {@link #rateUsage} ile toplu fiyatlar, kalemleri satır satır üretir.
+ */
+@Component
+@RequiredArgsConstructor
+public class BillRater {
+
+    private final TariffCompiler tariffCompiler;
+
+    /**
+     * Kullanımları tek batch'te fiyatlar; plans ve usage aynı sıradadır, kullanımı olmayan satır null olabilir.
+     * Aynı planın ardışık satırları tek {@link TariffEvaluator#rateAll} çağrısıyla fiyatlandığından satırlar plana
+     * göre sıralı verilmelidir.
+     */
+    public RatingBatch rateUsage(List<Plan> plans, List<UsageTotals> usage) {
+        RatingBatch batch = new RatingBatch(plans.size());
+        for (UsageTotals totals : usage) {
+            if (totals != null) {
+                batch.add(TariffEvaluator.milliMbOfMb(totals.mbUsed()), totals.minutesUsed(), totals.smsUsed(),
+                        TariffEvaluator.milliMbOfMb(totals.roamingMb()));
+            } else {
+                batch.add(0, 0, 0, 0);
+            }
+        }
+        int from = 0;
+        while (from < plans.size()) {
+            Plan plan = plans.get(from);
+            int to = from + 1;
+            while (to < plans.size() && plans.get(to) == plan) {
+                to++;
+            }
+            tariffCompiler.compile(plan).rateAll(batch, from, to);
+            from = to;
+        }
+        return batch;
+    }
+
+    /**
+     * Batch'te fiyatlanmış satırın kalemleri; plan satırın fiyatlandığı plandır
+     */
+    public RatedBill rate(Plan plan, RatingBatch batch, int row, List<RecurringCharge> recurring) {
+        TariffEvaluator tariff = tariffCompiler.compile(plan);
+        BigDecimal taxRate = tariffCompiler.taxRate();
+        List<RatedItem> items = new ArrayList<>();
+        long subtotal = Money.ofLira(plan.getMonthlyPrice());
+        items.add(new RatedItem(ItemCategory.VAS, "plan_fee", plan.getPlanName(),
+                Money.toLira(subtotal), plan.getMonthlyPrice(), 1, taxRate));
+
+        subtotal += addOverage(items, ItemCategory.DATA, "data_overage", "Data Aşımı",
+                tariff.dataExcess(batch.dataMilliMb(row)), TariffEvaluator.MILLI_MB_PER_GB,
+                batch.dataCharge(row), tariff.dataRatePerGb(), taxRate);
+        subtotal += addOverage(items, ItemCategory.VOICE, "voice_overage", "Dakika Aşımı",
+                tariff.minutesExcess(batch.minutes(row)), 1,
+                batch.voiceCharge(row), tariff.minuteRate(), taxRate);
+        subtotal += addOverage(items, ItemCategory.SMS, "sms_overage", "SMS Aşımı",
+                tariff.smsExcess(batch.sms(row)), 1,
+                batch.smsCharge(row), tariff.smsRate(), taxRate);
+        subtotal += addOverage(items, ItemCategory.ROAMING, "roaming_data", "Yurt Dışı Data",
+                Math.max(0, batch.roamingMilliMb(row)), TariffEvaluator.MILLI_MB_PER_MB,
+                batch.roamingCharge(row), tariff.roamingRatePerMb(), taxRate);
+
+        if (recurring != null) {
+            for (RecurringCharge charge : recurring) {
+                long amount = Money.ofLira(charge.unitPrice());
+                subtotal += amount;
+                items.add(new RatedItem(ItemCategory.VAS, charge.subtype(), charge.description(),
+                        Money.toLira(amount), charge.unitPrice(), 1, taxRate));
+            }
+        }
+
+        long tax = tariffCompiler.tax(subtotal);
+        items.add(new RatedItem(ItemCategory.TAX, "kdv", "KDV", Money.toLira(tax), taxRate, 1, BigDecimal.ZERO));
+        return new RatedBill(items, Money.toLira(subtotal + tax));
+    }
+
+    /**
+     * @return kalemin kuruş tutarı; aşım yoksa 0
+     */
+    private long addOverage(List<RatedItem> items, ItemCategory category, String subtype, String description,
+                            long excess, long unitSize, long amount, long unitPrice, BigDecimal taxRate) {
+        long quantity = Money.startedUnits(excess, unitSize);
+        if (quantity == 0 || amount == 0) {
+            return 0;
+        }
+        items.add(new RatedItem(category, subtype, description, Money.toLira(amount), Money.toLira(unitPrice),
+                Math.toIntExact(quantity), taxRate));
+        return amount;
+    }
+
+    public record RatedItem(ItemCategory category, String subtype, String description, BigDecimal amount,
+                            BigDecimal unitPrice, int quantity, BigDecimal taxRate) {
+    }
+
+    public record RatedBill(List<RatedItem> items, BigDecimal totalAmount) {
+    }
+}
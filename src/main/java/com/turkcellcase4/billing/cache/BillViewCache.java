@@ -0,0 +1,239 @@
+package com.turkcellcase4.billing.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcellcase4.billing.archive.BillArchiveStore;
+import com.turkcellcase4.billing.dto.BillResponseDTO;
+import com.turkcellcase4.billing.repository.BillRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Kesilmiş faturaların JSON gövdelerini (fatura, kalemler, özet, fark) serileştirilmiş halde saklar.
+ * Kesilmiş fatura değişmediğinden kayıtların süresi dolmaz; bellek LRU ile giriş sayısı ve toplam
+ * byte üzerinden sınırlanır. Her gövde için içerik özetinden güçlü bir ETag üretilir.
+ * Düzenleme tarihi gelmemiş faturalar cache'lenmez; fark görünümü için iki faturanın da kesilmiş olması gerekir.
+ * Toplu yükleme kesilmiş bir faturayı güncellerse kayıtları commit sonrasında düşürülür.
+ */
+@Component
+public class BillViewCache {
+
+    public enum View {
+        BILL, ITEMS, SUMMARY, DIFF
+    }
+
+    private final ObjectMapper objectMapper;
+    private final BillRepository billRepository;
+    private final BillArchiveStore billArchiveStore;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Key, CachedView> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    // Geçersiz kılmadan önce başlamış bir yükleme eski gövdeyi geri yazmasın diye artırılır
+    private final AtomicLong generation = new AtomicLong();
+
+    public BillViewCache(
+            ObjectMapper objectMapper,
+            BillRepository billRepository,
+            BillArchiveStore billArchiveStore,
+            @Value("${bills.view-cache.max-entries:20000}") int maxEntries,
+            @Value("${bills.view-cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.billRepository = billRepository;
+        this.billArchiveStore = billArchiveStore;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Görünümü cache'ten döner; yoksa loader ile üretip serileştirir.
+     * Loader'ın fırlattığı hatalar (ör. fatura bulunamadı) olduğu gibi iletilir.
+     */
+    public CachedView get(Long billId, View view, Supplier<?> loader) {
+        return get(billId, view, null, loader);
+    }
+
+    /**
+     * Karşılaştırmalı görünümler (DIFF) için; kayıt (billId, against) çiftine bağlıdır
+     */
+    public CachedView get(Long billId, View view, Long against, Supplier<?> loader) {
+        Key key = new Key(billId, view, against);
+        synchronized (entries) {
+            CachedView cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        Object value = loader.get();
+        CachedView loaded = serialize(value);
+        if (!isIssued(billId, value) || (against != null && !isIssued(against, null))) {
+            uncacheable.incrementAndGet();
+            return loaded;
+        }
+        synchronized (entries) {
+            if (generation.get() != loadGeneration) {
+                return loaded;
+            }
+            CachedView previous = entries.put(key, loaded);
+            totalBytes += loaded.body().length - (previous != null ? previous.body().length : 0);
+            evictIfNeeded();
+        }
+        return loaded;
+    }
+
+    /**
+     * If-None-Match başlığı ETag ile eşleşiyorsa true; 304 sayacı da burada artar
+     */
+    public boolean matches(String ifNoneMatch, CachedView view) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || view.etag().equals(tag)) {
+                notModified.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void invalidate(Long billId) {
+        invalidate(List.of(billId));
+    }
+
+    /**
+     * Faturaların (ve onlarla karşılaştırılan fark görünümlerinin) kayıtlarını düşürür;
+     * açık transaction varsa commit sonrasına bırakılır
+     */
+    public void invalidate(Collection<Long> billIds) {
+        if (billIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(billIds);
+        Runnable invalidate = () -> {
+            synchronized (entries) {
+                generation.incrementAndGet();
+                Iterator<Map.Entry<Key, CachedView>> iterator = entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Key, CachedView> entry = iterator.next();
+                    Key key = entry.getKey();
+                    if (ids.contains(key.billId()) || (key.against() != null && ids.contains(key.against()))) {
+                        totalBytes -= entry.getValue().body().length;
+                        iterator.remove();
+                        invalidations.incrementAndGet();
+                    }
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        long bytes;
+        synchronized (entries) {
+            size = entries.size();
+            bytes = totalBytes;
+        }
+        long lookups = hits.get() + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("bytes", bytes);
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits.get() / lookups);
+        stats.put("notModified", notModified.get());
+        stats.put("evictions", evictions.get());
+        stats.put("uncacheable", uncacheable.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    // entries kilidi altında çağrılır
+    private void evictIfNeeded() {
+        Iterator<CachedView> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            totalBytes -= eldest.next().body().length;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isIssued(Long billId, Object value) {
+        if (!(value instanceof BillResponseDTO) && billArchiveStore.contains(billId)) {
+            // Arşivlenmiş fatura değişmez
+            return true;
+        }
+        LocalDate issueDate = value instanceof BillResponseDTO bill
+                ? bill.getIssueDate()
+                : billRepository.findIssueDateById(billId).orElse(null);
+        return issueDate != null && !issueDate.isAfter(LocalDate.now());
+    }
+
+    private CachedView serialize(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new CachedView(body, "\"" + digest(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Fatura görünümü serileştirilemedi", e);
+        }
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            // 128 bit ETag için yeterli
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+
+    public record CachedView(byte[] body, String etag) {
+    }
+
+    private record Key(Long billId, View view, Long against) {
+    }
+}
@@ -1,13 +1,28 @@
 package com.turkcellcase4.billing.controller;
 
+import com.turkcellcase4.billing.cache.BillViewCache;
+import com.turkcellcase4.billing.cache.BillViewCache.CachedView;
+import com.turkcellcase4.billing.cache.BillViewCache.View;
+import com.turkcellcase4.billing.dto.BillArchiveReportDTO;
+import com.turkcellcase4.billing.dto.BillBatchRequestDTO;
+import com.turkcellcase4.billing.dto.BillBatchResultDTO;
+import com.turkcellcase4.billing.dto.BillPageDTO;
 import com.turkcellcase4.billing.dto.BillResponseDTO;
-import com.turkcellcase4.billing.dto.BillItemDTO;
-import com.turkcellcase4.billing.dto.BillSummaryDTO;
+import com.turkcellcase4.billing.dto.BillRunDTO;
 import com.turkcellcase4.billing.dto.CreateBillRequestDTO;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import com.turkcellcase4.billing.service.BillArchiveService;
+import com.turkcellcase4.billing.service.BillBatchService;
+import com.turkcellcase4.billing.service.BillDiffService;
+import com.turkcellcase4.billing.service.BillRunService;
 import com.turkcellcase4.billing.service.BillService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,6 +30,8 @@ import jakarta.validation.Valid;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/bills")
@@ -24,12 +41,19 @@ import java.util.List;
 public class BillController {
 
     private final BillService billService;
+    private final BillRunService billRunService;
+    private final BillBatchService billBatchService;
+    private final BillViewCache billViewCache;
+    private final BillArchiveService billArchiveService;
+    private final BillPeriodIndex billPeriodIndex;
+    private final BillDiffService billDiffService;
 
     @GetMapping("/{billId}")
-    public ResponseEntity<BillResponseDTO> getBillById(@PathVariable Long billId) {
+    public ResponseEntity<byte[]> getBillById(
+            @PathVariable Long billId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /bills/{} - Getting bill by ID", billId);
-        BillResponseDTO bill = billService.getBillById(billId);
-        return ResponseEntity.ok(bill);
+        return cachedView(billId, View.BILL, ifNoneMatch, () -> billService.getBillById(billId));
     }
 
     @GetMapping("/user/{userId}/period")
@@ -55,18 +79,55 @@ public class BillController {
         return ResponseEntity.ok(periods);
     }
 
+    @GetMapping("/{userId}/page")
+    public ResponseEntity<BillPageDTO> getBillPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        log.info("GET /bills/{}/page?cursor={}&size={} - Getting bill page", userId, cursor, size);
+        return ResponseEntity.ok(billService.getBillPage(userId, cursor, size, from, to));
+    }
+
     @GetMapping("/{billId}/items")
-    public ResponseEntity<List<BillItemDTO>> getBillItemsByBillId(@PathVariable Long billId) {
+    public ResponseEntity<byte[]> getBillItemsByBillId(
+            @PathVariable Long billId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /bills/{}/items - Getting bill items", billId);
-        List<BillItemDTO> items = billService.getBillItemsByBillId(billId);
-        return ResponseEntity.ok(items);
+        return cachedView(billId, View.ITEMS, ifNoneMatch, () -> billService.getBillItemsByBillId(billId));
     }
 
     @GetMapping("/{billId}/summary")
-    public ResponseEntity<BillSummaryDTO> getBillSummary(@PathVariable Long billId) {
+    public ResponseEntity<byte[]> getBillSummary(
+            @PathVariable Long billId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET /bills/{}/summary - Getting bill summary", billId);
-        BillSummaryDTO summary = billService.getBillSummary(billId);
-        return ResponseEntity.ok(summary);
+        return cachedView(billId, View.SUMMARY, ifNoneMatch, () -> billService.getBillSummary(billId));
+    }
+
+    @GetMapping("/{billId}/diff")
+    public ResponseEntity<byte[]> getBillDiff(
+            @PathVariable Long billId,
+            @RequestParam(required = false) Long against,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("GET /bills/{}/diff?against={} - Getting bill diff", billId, against);
+        Long againstBillId = billDiffService.resolveAgainstBillId(billId, against);
+        CachedView cached = billViewCache.get(billId, View.DIFF, againstBillId,
+                () -> billDiffService.diff(billId, againstBillId));
+        return cachedResponse(cached, ifNoneMatch);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getViewCacheStats() {
+        log.info("GET /bills/cache/stats - Getting bill view cache stats");
+        return ResponseEntity.ok(billViewCache.getStats());
+    }
+
+    @GetMapping("/cache/period-index")
+    public ResponseEntity<Map<String, Object>> getPeriodIndexStats() {
+        log.info("GET /bills/cache/period-index - Getting bill period index stats");
+        return ResponseEntity.ok(billPeriodIndex.getStats());
     }
 
     @GetMapping("/{userId}/range")
@@ -85,4 +146,70 @@ public class BillController {
         BillResponseDTO bill = billService.createBill(request);
         return ResponseEntity.ok(bill);
     }
+
+    /**
+     * Dış sistemlerden toplu fatura alımı; geçersiz faturalar yanıtta fatura bazında raporlanır
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BillBatchResultDTO> createBills(@Valid @RequestBody BillBatchRequestDTO request) {
+        log.info("POST /bills/batch - Creating {} bills", request.getBills().size());
+        return ResponseEntity.ok(billBatchService.createBills(request.getBills()));
+    }
+
+    /**
+     * Dönem (yyyy-MM) için toplu fatura koşusunu başlatır ya da yarıda kalan koşuyu sürdürür
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<BillRunDTO> startBillRun(@RequestParam String period) {
+        log.info("POST /bills/runs?period={} - Starting bill run", period);
+        BillRunDTO run = billRunService.startRun(period);
+        return ResponseEntity.accepted().body(run);
+    }
+
+    @GetMapping("/runs")
+    public ResponseEntity<List<BillRunDTO>> getBillRuns() {
+        log.info("GET /bills/runs - Getting bill runs");
+        return ResponseEntity.ok(billRunService.getRuns());
+    }
+
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<BillRunDTO> getBillRun(@PathVariable Long runId) {
+        log.info("GET /bills/runs/{} - Getting bill run", runId);
+        return ResponseEntity.ok(billRunService.getRun(runId));
+    }
+
+    /**
+     * Saklama süresini aşan faturaları soğuk arşive taşır
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<BillArchiveReportDTO> runArchive() {
+        log.info("POST /bills/archive/run - Archiving old bills");
+        return ResponseEntity.ok(billArchiveService.archive());
+    }
+
+    @GetMapping("/archive/stats")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        log.info("GET /bills/archive/stats - Getting bill archive stats");
+        return ResponseEntity.ok(billArchiveService.getStats());
+    }
+
+    /**
+     * Fatura görünümünü hazır JSON olarak döner; istemcideki ETag güncelse gövdesiz 304 döner.
+     * no-cache ile tarayıcı her yüklemede koşullu istek gönderir.
+     */
+    private ResponseEntity<byte[]> cachedView(Long billId, View view, String ifNoneMatch, Supplier<?> loader) {
+        return cachedResponse(billViewCache.get(billId, view, loader), ifNoneMatch);
+    }
+
+    private ResponseEntity<byte[]> cachedResponse(CachedView cached, String ifNoneMatch) {
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (billViewCache.matches(ifNoneMatch, cached)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.etag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(cached.etag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.body());
+    }
 }
@@ -21,6 +21,7 @@ public class BonusController {
     private final CohortService cohortService;
     private final TaxAnalysisService taxAnalysisService;
     private final AutofixService autofixService;
+    private final AnomalyService anomalyService;
 
     // ===== LLM AÇIKLAMALARI =====
     
@@ -53,6 +54,31 @@ public class BonusController {
         }
     }
 
+    /**
+     * Kullanıcının dönemdeki tüm anomalileri için AI açıklamalarını tek toplu çağrıyla üretir
+     */
+    @PostMapping("/llm/anomalies")
+    public ResponseEntity<AnomalyResponseDTO> getAnomalyExplanations(
+            @RequestParam Long userId,
+            @RequestParam String period,
+            @RequestParam(defaultValue = "") String userContext) {
+        log.info("POST /bonus/llm/anomalies - Getting batched AI explanations for user: {} and period: {}", userId, period);
+        
+        AnomalyRequestDTO request = new AnomalyRequestDTO();
+        request.setUserId(userId);
+        request.setPeriod(period);
+        AnomalyResponseDTO response = anomalyService.detectAnomalies(request);
+        
+        List<AnomalyDTO> anomalies = response.getAnomalies();
+        if (anomalies != null && !anomalies.isEmpty()) {
+            List<String> explanations = llmExplanationService.generateAnomalyExplanations(anomalies, userContext);
+            for (int i = 0; i < anomalies.size(); i++) {
+                anomalies.get(i).setAiExplanation(explanations.get(i));
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Kohort analizi için AI destekli açıklama üretir
      */
@@ -96,6 +122,15 @@ public class BonusController {
         }
     }
 
+    /**
+     * Gemini istemcisinin devre kesici, gecikme ve cache metriklerini döner
+     */
+    @GetMapping("/llm/health")
+    public ResponseEntity<Map<String, Object>> getLlmHealth() {
+        log.info("GET /bonus/llm/health - Getting LLM client health");
+        return ResponseEntity.ok(llmExplanationService.getClientHealth());
+    }
+
     // ===== KOHORT KİYASI =====
     
     /**
@@ -4,13 +4,19 @@ import com.turkcellcase4.billing.dto.ExplainRequestDTO;
 import com.turkcellcase4.billing.dto.ExplainResponseDTO;
 import com.turkcellcase4.billing.dto.BillSummaryDTO;
 import com.turkcellcase4.billing.dto.CategoryBreakdownDTO;
+import com.turkcellcase4.billing.service.BillSummaryJobService;
 import com.turkcellcase4.billing.service.ExplainService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import jakarta.validation.Valid;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/explain")
@@ -20,6 +26,7 @@ import jakarta.validation.Valid;
 public class ExplainController {
 
     private final ExplainService explainService;
+    private final BillSummaryJobService billSummaryJobService;
 
     @PostMapping
     public ResponseEntity<ExplainResponseDTO> explainBill(@Valid @RequestBody ExplainRequestDTO request) {
@@ -43,4 +50,33 @@ public class ExplainController {
         CategoryBreakdownDTO breakdown = explainService.getCategoryBreakdown(billId, category);
         return ResponseEntity.ok(breakdown);
     }
+
+    /**
+     * Özet ve kategori dökümünü hemen gönderir, AI açıklamasını üretildikçe parça parça akıtır
+     */
+    @GetMapping(value = "/{billId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamExplanation(@PathVariable Long billId) {
+        log.info("GET /explain/{}/stream - Streaming bill explanation", billId);
+        BillSummaryDTO summary = explainService.getBillSummary(billId);
+        List<CategoryBreakdownDTO> breakdown = explainService.getCategoryBreakdowns(billId);
+
+        Flux<ServerSentEvent<Object>> head = Flux.just(
+                ServerSentEvent.builder((Object) summary).event("summary").build(),
+                ServerSentEvent.builder((Object) breakdown).event("breakdown").build());
+        Flux<ServerSentEvent<Object>> tokens = explainService.streamNaturalLanguageSummary(billId, breakdown)
+                .map(chunk -> ServerSentEvent.builder((Object) chunk).event("token").build());
+        Flux<ServerSentEvent<Object>> done = Flux.just(
+                ServerSentEvent.builder((Object) "").event("done").build());
+
+        return Flux.concat(head, tokens, done);
+    }
+
+    /**
+     * Arka plan AI özet kuyruğunun ilerleme metriklerini döner
+     */
+    @GetMapping("/jobs/stats")
+    public ResponseEntity<Map<String, Object>> getSummaryJobStats() {
+        log.info("GET /explain/jobs/stats - Getting summary job queue stats");
+        return ResponseEntity.ok(billSummaryJobService.getQueueStats());
+    }
 }
@@ -0,0 +1,69 @@
+package com.turkcellcase4.billing.controller;
+
+import com.turkcellcase4.billing.service.ExportService;
+import com.turkcellcase4.common.enums.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Fatura, kalem ve günlük kullanım geçmişinin CSV/NDJSON olarak akış halinde dışa aktarımı
+ */
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+
+    @GetMapping("/{userId}/bills")
+    public ResponseEntity<StreamingResponseBody> exportBills(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        log.info("GET /export/{}/bills?format={} - Exporting bills", userId, format);
+        return attachment("bills-" + userId, format, exportService.exportBills(userId, from, to, format));
+    }
+
+    @GetMapping("/{userId}/items")
+    public ResponseEntity<StreamingResponseBody> exportBillItems(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        log.info("GET /export/{}/items?format={} - Exporting bill items", userId, format);
+        return attachment("bill-items-" + userId, format, exportService.exportBillItems(userId, from, to, format));
+    }
+
+    @GetMapping("/{userId}/usage")
+    public ResponseEntity<StreamingResponseBody> exportUsage(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("GET /export/{}/usage?format={} - Exporting daily usage", userId, format);
+        return attachment("usage-" + userId, format, exportService.exportUsage(userId, from, to, format));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String name, ExportFormat format, StreamingResponseBody body) {
+        boolean csv = format == ExportFormat.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+}
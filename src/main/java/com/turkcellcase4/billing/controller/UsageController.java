@@ -1,16 +1,31 @@
 package com.turkcellcase4.billing.controller;
 
+import com.turkcellcase4.billing.dto.CurrentUsageDTO;
 import com.turkcellcase4.billing.dto.UsageDTO;
+import com.turkcellcase4.billing.dto.UsageEventDTO;
+import com.turkcellcase4.billing.dto.UsageIncrementDTO;
+import com.turkcellcase4.billing.dto.UsageMonthlyDTO;
+import com.turkcellcase4.billing.dto.UsagePartitionReportDTO;
+import com.turkcellcase4.billing.dto.UsageRangeStatsDTO;
 import com.turkcellcase4.billing.dto.UsageSummaryDTO;
+import com.turkcellcase4.billing.service.LiveUsageService;
+import com.turkcellcase4.billing.service.QuotaAlertService;
+import com.turkcellcase4.billing.service.UsageRollupService;
+import com.turkcellcase4.billing.service.UsagePartitionService;
 import com.turkcellcase4.billing.service.UsageService;
+import com.turkcellcase4.billing.service.UsageTimeSeriesService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/usage")
@@ -20,6 +35,11 @@ import java.util.List;
 public class UsageController {
 
     private final UsageService usageService;
+    private final UsageRollupService usageRollupService;
+    private final UsageTimeSeriesService usageTimeSeriesService;
+    private final LiveUsageService liveUsageService;
+    private final QuotaAlertService quotaAlertService;
+    private final UsagePartitionService usagePartitionService;
 
     /**
      * Kullanıcının belirli dönemdeki günlük kullanım verilerini getirir
@@ -142,4 +162,128 @@ public class UsageController {
         UsageSummaryDTO summary = usageService.getUsageSummary(userId, period);
         return ResponseEntity.ok(summary);
     }
+
+    /**
+     * Günlük kullanıma artış ekler; aynı gün için gelen değerler toplanır ve aylık toplam güncellenir
+     */
+    @PostMapping("/{userId}/daily")
+    public ResponseEntity<UsageDTO> addDailyUsage(
+            @PathVariable Long userId,
+            @Valid @RequestBody UsageIncrementDTO increment) {
+        log.info("POST /usage/{}/daily - Adding daily usage for {}", userId, increment.getDate());
+        UsageDTO usage = usageRollupService.addDailyUsage(userId, increment);
+        return ResponseEntity.ok(usage);
+    }
+
+    /**
+     * Kullanıcının son aylardaki aylık kullanım toplamlarını getirir
+     */
+    @GetMapping("/{userId}/monthly")
+    public ResponseEntity<List<UsageMonthlyDTO>> getMonthlyUsage(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "12") int months) {
+        log.info("GET /usage/{}/monthly?months={} - Getting monthly usage", userId, months);
+        List<UsageMonthlyDTO> monthly = usageService.getMonthlyUsage(userId, months);
+        return ResponseEntity.ok(monthly);
+    }
+
+    /**
+     * Tarih aralığındaki toplam ve tepe kullanımları yerel zaman serisinden getirir
+     */
+    @GetMapping("/{userId}/series/stats")
+    public ResponseEntity<UsageRangeStatsDTO> getSeriesStats(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("GET /usage/{}/series/stats?from={}&to={} - Getting series stats", userId, from, to);
+        UsageRangeStatsDTO stats = usageTimeSeriesService.getRangeStats(userId, from, to);
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Aralıkta en çok veri kullanan kullanıcıları getirir
+     */
+    @GetMapping("/series/top")
+    public ResponseEntity<List<UsageRangeStatsDTO>> getTopDataUsers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.info("GET /usage/series/top?from={}&to={}&limit={} - Getting top data users", from, to, limit);
+        List<UsageRangeStatsDTO> top = usageTimeSeriesService.getTopDataUsers(from, to, limit);
+        return ResponseEntity.ok(top);
+    }
+
+    /**
+     * Zaman serilerini usage_daily üzerinden yeniden oluşturur
+     */
+    @PostMapping("/series/rebuild")
+    public ResponseEntity<Integer> rebuildSeries() {
+        log.info("POST /usage/series/rebuild - Rebuilding usage time series");
+        int users = usageTimeSeriesService.rebuild();
+        return ResponseEntity.ok(users);
+    }
+
+    /**
+     * Anlık kullanım olaylarını işler; sayaçlar hemen güncellenir, veritabanına toplu olarak sonradan yazılır
+     */
+    @PostMapping("/events")
+    public ResponseEntity<Integer> recordUsageEvents(@RequestBody List<@Valid UsageEventDTO> events) {
+        log.debug("POST /usage/events - Recording {} usage events", events.size());
+        int recorded = liveUsageService.recordEvents(events);
+        return ResponseEntity.ok(recorded);
+    }
+
+    /**
+     * Kullanıcının içinde bulunulan aydaki kullanımını bellekteki sayaçlardan getirir
+     */
+    @GetMapping("/{userId}/current")
+    public ResponseEntity<CurrentUsageDTO> getCurrentUsage(@PathVariable Long userId) {
+        log.debug("GET /usage/{}/current - Getting current period usage", userId);
+        CurrentUsageDTO usage = liveUsageService.getCurrentUsage(userId);
+        return ResponseEntity.ok(usage);
+    }
+
+    /**
+     * Anlık sayaç ve yazma kuyruğu metrikleri
+     */
+    @GetMapping("/live/stats")
+    public ResponseEntity<Map<String, Object>> getLiveUsageStats() {
+        return ResponseEntity.ok(liveUsageService.getStats());
+    }
+
+    /**
+     * Kullanıcının kota uyarılarını (%80, %100, aşım) Server-Sent Events ile yayınlar
+     */
+    @GetMapping(value = "/{userId}/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuotaAlerts(@PathVariable Long userId) {
+        log.info("GET /usage/{}/alerts/stream - Opening quota alert stream", userId);
+        return quotaAlertService.subscribe(userId);
+    }
+
+    /**
+     * Tüm kullanıcıların kota uyarıları
+     */
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAllQuotaAlerts() {
+        log.info("GET /usage/alerts/stream - Opening global quota alert stream");
+        return quotaAlertService.subscribeAll();
+    }
+
+    /**
+     * usage_daily bölüm bakımını hemen çalıştırır (normalde zamanlanmış görev yapar)
+     */
+    @PostMapping("/partitions/maintain")
+    public ResponseEntity<UsagePartitionReportDTO> maintainPartitions() {
+        log.info("POST /usage/partitions/maintain - Running usage_daily partition maintenance");
+        return ResponseEntity.ok(usagePartitionService.maintain());
+    }
+
+    /**
+     * Düz usage_daily tablosunu bölümlenmiş tabloya çevirir; tablo işlem boyunca kilitlidir
+     */
+    @PostMapping("/partitions/convert")
+    public ResponseEntity<UsagePartitionReportDTO> convertPartitions() {
+        log.info("POST /usage/partitions/convert - Converting usage_daily to a partitioned table");
+        return ResponseEntity.ok(usagePartitionService.convert());
+    }
 }
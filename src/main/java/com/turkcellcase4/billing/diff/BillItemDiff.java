@@ -0,0 +1,101 @@
+package com.turkcellcase4.billing.diff;
+
+import com.turkcellcase4.billing.model.BillItem;
+import com.turkcellcase4.common.enums.ItemCategory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * İki kalem listesinin (category, subtype) bazında farkı. Her iki taraf bu anahtara göre sıralanır, aynı anahtarlı
+ * kalemler tek satırda toplanır ve listeler tek geçişte birleştirilir (merge-join). Karşılaştırma tarafı birden çok
+ * faturanın kalemlerini içerebilir; bu durumda "eklenen" satırlar o faturaların hiçbirinde görülmemiş kalemlerdir.
+ */
+public final class BillItemDiff {
+
+    public enum Change {
+        ADDED, REMOVED, CHANGED, UNCHANGED
+    }
+
+    private static final Comparator<BillItem> KEY_ORDER = Comparator
+            .comparingInt((BillItem item) -> item.getCategory() != null ? item.getCategory().ordinal() : -1)
+            .thenComparing(BillItem::getSubtype, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private BillItemDiff() {
+    }
+
+    /**
+     * Satırlar (category, subtype) sırasında döner; değişmeyen satırlar da dahildir
+     */
+    public static List<Line> diff(List<BillItem> items, List<BillItem> baselineItems) {
+        List<Line> current = aggregate(items);
+        List<Line> baseline = aggregate(baselineItems);
+        List<Line> lines = new ArrayList<>(Math.max(current.size(), baseline.size()));
+        int i = 0;
+        int j = 0;
+        while (i < current.size() || j < baseline.size()) {
+            int order = i == current.size() ? 1
+                    : j == baseline.size() ? -1
+                    : compareKeys(current.get(i), baseline.get(j));
+            if (order < 0) {
+                lines.add(current.get(i++).against(BigDecimal.ZERO, 0, Change.ADDED));
+            } else if (order > 0) {
+                Line removed = baseline.get(j++);
+                lines.add(new Line(removed.category(), removed.subtype(), removed.description(),
+                        BigDecimal.ZERO, 0, removed.amount(), removed.quantity(), Change.REMOVED));
+            } else {
+                Line line = current.get(i++);
+                Line previous = baseline.get(j++);
+                boolean changed = line.amount().compareTo(previous.amount()) != 0 || line.quantity() != previous.quantity();
+                lines.add(line.against(previous.amount(), previous.quantity(), changed ? Change.CHANGED : Change.UNCHANGED));
+            }
+        }
+        return lines;
+    }
+
+    // Kalemleri anahtara göre sıralar ve aynı anahtarlı kalemlerin tutar ve miktarlarını toplar
+    private static List<Line> aggregate(List<BillItem> items) {
+        List<BillItem> sorted = new ArrayList<>(items);
+        sorted.sort(KEY_ORDER);
+        List<Line> lines = new ArrayList<>(sorted.size());
+        for (BillItem item : sorted) {
+            BigDecimal amount = item.getAmount() != null ? item.getAmount() : BigDecimal.ZERO;
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            Line last = lines.isEmpty() ? null : lines.get(lines.size() - 1);
+            if (last != null && last.category() == item.getCategory() && Objects.equals(last.subtype(), item.getSubtype())) {
+                lines.set(lines.size() - 1, new Line(last.category(), last.subtype(), last.description(),
+                        last.amount().add(amount), last.quantity() + quantity, null, 0, null));
+            } else {
+                lines.add(new Line(item.getCategory(), item.getSubtype(), item.getDescription(),
+                        amount, quantity, null, 0, null));
+            }
+        }
+        return lines;
+    }
+
+    private static int compareKeys(Line left, Line right) {
+        int leftOrdinal = left.category() != null ? left.category().ordinal() : -1;
+        int rightOrdinal = right.category() != null ? right.category().ordinal() : -1;
+        if (leftOrdinal != rightOrdinal) {
+            return Integer.compare(leftOrdinal, rightOrdinal);
+        }
+        return Objects.compare(left.subtype(), right.subtype(), Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    public record Line(ItemCategory category, String subtype, String description,
+                       BigDecimal amount, int quantity,
+                       BigDecimal baselineAmount, int baselineQuantity,
+                       Change change) {
+
+        public BigDecimal delta() {
+            return amount.subtract(baselineAmount);
+        }
+
+        private Line against(BigDecimal previousAmount, int previousQuantity, Change change) {
+            return new Line(category, subtype, description, amount, quantity, previousAmount, previousQuantity, change);
+        }
+    }
+}
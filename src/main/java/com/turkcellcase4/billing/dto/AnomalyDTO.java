@@ -22,4 +22,7 @@ public class AnomalyDTO {
     private String reason;
     private String suggestedAction;
     private String severity;
+    
+    // AI açıklaması
+    private String aiExplanation;
 }
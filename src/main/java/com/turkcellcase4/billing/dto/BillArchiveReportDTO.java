@@ -0,0 +1,28 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Eski faturaların soğuk arşive taşınmasının sonucu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillArchiveReportDTO {
+
+    // Bu dönemden (yyyy-MM) önceki faturalar taşınır
+    private String cutoffPeriod;
+    private List<String> archivedPeriods;
+    private long archivedBills;
+    // Önceki yarım kalmış çalıştırmada arşive yazılmış, bu çalıştırmada yalnızca silinen faturalar
+    private long alreadyArchivedBills;
+    private long deletedBills;
+    private int segmentsWritten;
+    private long durationMs;
+}
@@ -0,0 +1,22 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Toplu fatura gönderimi. Faturalar tek tek doğrulanır; geçersiz olanlar diğerlerini engellemez.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillBatchRequestDTO {
+
+    @NotEmpty(message = "En az bir fatura gönderilmelidir")
+    private List<CreateBillRequestDTO> bills;
+}
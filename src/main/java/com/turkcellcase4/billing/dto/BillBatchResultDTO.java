@@ -0,0 +1,35 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillBatchResultDTO {
+
+    private Integer received;
+    private Integer created;
+    private Integer failed;
+    // İstekteki sırayla; başarısız faturalar için null
+    private List<Long> billIds;
+    private List<BillFailure> failures;
+    private Long durationMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BillFailure {
+
+        // İstekteki sırası (0 tabanlı)
+        private Integer index;
+        private Long userId;
+        private String reason;
+    }
+}
@@ -0,0 +1,52 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillDiffDTO {
+
+    private Long billId;
+    private Long againstBillId;
+    private Long userId;
+    private String period;
+    private String againstPeriod;
+    private String currency;
+    private BigDecimal totalAmount;
+    private BigDecimal againstTotalAmount;
+    private BigDecimal totalDelta;
+    private Integer addedCount;
+    private Integer removedCount;
+    private Integer changedCount;
+    private Integer unchangedCount;
+    // Yalnızca eklenen, kaldırılan ve değişen satırlar; (category, subtype) sırasıyla
+    private List<BillDiffLine> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BillDiffLine {
+
+        private String category;
+        private String subtype;
+        private String description;
+        // ADDED, REMOVED veya CHANGED
+        private String change;
+        private BigDecimal amount;
+        private BigDecimal againstAmount;
+        private BigDecimal delta;
+        // Karşılaştırılan tutar sıfırsa null
+        private BigDecimal percentageChange;
+        private Integer quantity;
+        private Integer againstQuantity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Listeleme için fatura başlığı; kalemler ve kullanıcı yüklenmez.
+ * Alan sırası BillRepository'deki constructor sorgularıyla aynı olmalıdır.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillHeaderDTO {
+    private Long billId;
+    private Long userId;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private LocalDate issueDate;
+    private BigDecimal totalAmount;
+    private String currency;
+    private Integer periodKey;
+}
@@ -0,0 +1,20 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillPageDTO {
+    private List<BillHeaderDTO> bills;
+    // Sonraki sayfa için cursor parametresi; son sayfada null
+    private String nextCursor;
+    private Boolean hasMore;
+    private Integer size;
+}
@@ -0,0 +1,29 @@
+package com.turkcellcase4.billing.dto;
+
+import com.turkcellcase4.common.enums.BillRunStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillRunDTO {
+
+    private Long runId;
+    private String period;
+    private BillRunStatus status;
+    private Long lastUserId;
+    private Long processedUsers;
+    private Long billedUsers;
+    private Long skippedUsers;
+    private BigDecimal totalAmount;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String lastError;
+}
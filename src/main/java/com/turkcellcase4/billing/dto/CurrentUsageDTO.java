@@ -0,0 +1,25 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrentUsageDTO {
+
+    private Long userId;
+    private String period;
+    private Double totalDataMB;
+    private Double totalDataGB;
+    private Long totalVoiceMinutes;
+    private Long totalSMSCount;
+    private Double totalRoamingMB;
+    // Henüz veritabanına yazılmamış (kullanıcı, gün) kayıtları dahil
+    private LocalDateTime asOf;
+}
@@ -0,0 +1,31 @@
+package com.turkcellcase4.billing.dto;
+
+import com.turkcellcase4.common.enums.ItemCategory;
+import com.turkcellcase4.common.enums.QuotaAlertLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kota eşiği aşıldığında SSE ile gönderilen olay
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuotaAlertDTO {
+
+    private Long userId;
+    private Long planId;
+    private String period;
+    private ItemCategory category;
+    private QuotaAlertLevel level;
+    // DATA için MB, VOICE için dakika, SMS için adet
+    private Double used;
+    private Double quota;
+    private Double usagePercent;
+    private LocalDateTime firedAt;
+}
@@ -0,0 +1,37 @@
+package com.turkcellcase4.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Anlık kullanım olayı; tarih verilmezse bugün kabul edilir
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageEventDTO {
+
+    @NotNull(message = "Kullanıcı ID zorunludur")
+    private Long userId;
+
+    private LocalDate date;
+
+    @PositiveOrZero
+    private Double mbUsed;
+
+    @PositiveOrZero
+    private Integer minutesUsed;
+
+    @PositiveOrZero
+    private Integer smsUsed;
+
+    @PositiveOrZero
+    private Double roamingMb;
+}
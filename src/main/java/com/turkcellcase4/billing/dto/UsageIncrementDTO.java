@@ -0,0 +1,35 @@
+package com.turkcellcase4.billing.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Günlük kullanıma eklenecek artış; aynı gün için gelen değerler mevcut kayda toplanır
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageIncrementDTO {
+
+    @NotNull(message = "Tarih zorunludur")
+    private LocalDate date;
+
+    @PositiveOrZero
+    private Double mbUsed;
+
+    @PositiveOrZero
+    private Integer minutesUsed;
+
+    @PositiveOrZero
+    private Integer smsUsed;
+
+    @PositiveOrZero
+    private Double roamingMb;
+}
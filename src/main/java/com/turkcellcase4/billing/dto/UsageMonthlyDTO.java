@@ -0,0 +1,21 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageMonthlyDTO {
+
+    private Long userId;
+    private String period;
+    private Double totalDataGB;
+    private Integer totalVoiceMinutes;
+    private Integer totalSMSCount;
+    private Double totalRoamingGB;
+    private Integer activeDays;
+}
@@ -0,0 +1,29 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * usage_daily bölüm bakımının sonucu
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsagePartitionReportDTO {
+
+    // Düz tablo bu çalıştırmada (convert) bölümlenmiş tabloya çevrildiyse true
+    private boolean converted;
+    private long migratedRows;
+    private List<String> createdPartitions;
+    // Daha önce ayrılmış ve varsayılan bölüme satır düştüğü için yeniden bağlanan bölümler
+    private List<String> reattachedPartitions;
+    private List<String> detachedPartitions;
+    private int backfilledBills;
+    private int partitionCount;
+    private long durationMs;
+}
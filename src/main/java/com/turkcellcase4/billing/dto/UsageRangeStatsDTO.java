@@ -0,0 +1,31 @@
+package com.turkcellcase4.billing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageRangeStatsDTO {
+
+    private Long userId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer daysCount;
+
+    private Double totalDataGB;
+    private Integer totalVoiceMinutes;
+    private Integer totalSMSCount;
+    private Double totalRoamingGB;
+
+    private Double avgDailyDataGB;
+    private LocalDate peakDataDate;
+    private Double peakDataGB;
+    private LocalDate peakVoiceDate;
+    private Integer peakVoiceMinutes;
+}
@@ -0,0 +1,174 @@
+package com.turkcellcase4.billing.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcellcase4.common.enums.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * ResultSet satırlarını okundukça CSV ya da NDJSON olarak yazar; satırlar bellekte biriktirilmez.
+ * Kolon adları sorgudaki etiketlerden alınır.
+ */
+public abstract class ExportWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static ExportWriter of(ExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        return format == ExportFormat.NDJSON ? new NdjsonWriter(out, objectMapper) : new CsvWriter(out);
+    }
+
+    /**
+     * Başlığı ve tüm satırları yazar
+     *
+     * @return yazılan satır sayısı
+     */
+    public long write(ResultSet rs) throws SQLException {
+        try {
+            ResultSetMetaData meta = rs.getMetaData();
+            String[] columns = new String[meta.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = meta.getColumnLabel(i + 1);
+            }
+            start(columns);
+            long rows = 0;
+            while (rs.next()) {
+                row(rs, columns);
+                rows++;
+            }
+            finish();
+            return rows;
+        } catch (IOException e) {
+            // İstemci bağlantıyı kapattıysa sorgu da burada kesilir
+            throw new UncheckedIOException("Dışa aktarım yazılamadı", e);
+        }
+    }
+
+    protected abstract void start(String[] columns) throws IOException;
+
+    protected abstract void row(ResultSet rs, String[] columns) throws SQLException, IOException;
+
+    protected abstract void finish() throws IOException;
+
+    /**
+     * JDBC değerini dışa aktarım değerine çevirir: tarihler ISO metin, tutarlar ölçeği korunmuş sayı
+     */
+    static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value;
+    }
+
+    static final class CsvWriter extends ExportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        protected void start(String[] columns) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(columns[i]);
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        protected void row(ResultSet rs, String[] columns) throws SQLException, IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = value(rs, i + 1);
+                if (value instanceof BigDecimal decimal) {
+                    writer.write(decimal.toPlainString());
+                } else if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180: virgül, tırnak ya da satır sonu içeren alanlar tırnaklanır
+        private void writeField(String field) throws IOException {
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+                writer.write(field);
+                return;
+            }
+            writer.write('"');
+            writer.write(field.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    static final class NdjsonWriter extends ExportWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) {
+            try {
+                this.generator = objectMapper.getFactory().createGenerator(out);
+                // Her satır ayrı bir JSON değeri; kök değerler arasına boşluk yerine satır sonu yazılır
+                this.generator.setRootValueSeparator(null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        protected void start(String[] columns) {
+        }
+
+        @Override
+        protected void row(ResultSet rs, String[] columns) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = value(rs, i + 1);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
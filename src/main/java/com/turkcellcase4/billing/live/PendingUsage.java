@@ -0,0 +1,46 @@
+package com.turkcellcase4.billing.live;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Henüz veritabanına yazılmamış tek bir (kullanıcı, gün) artışı; eş zamanlı olaylar çekişmesiz toplanır.
+ * Veri miktarları binde bir MB cinsinden tutulur.
+ */
+public final class PendingUsage {
+
+    private final LongAdder dataMilliMb = new LongAdder();
+    private final LongAdder minutes = new LongAdder();
+    private final LongAdder sms = new LongAdder();
+    private final LongAdder roamingMilliMb = new LongAdder();
+
+    public void add(long dataMilliMb, long minutes, long sms, long roamingMilliMb) {
+        if (dataMilliMb != 0) {
+            this.dataMilliMb.add(dataMilliMb);
+        }
+        if (minutes != 0) {
+            this.minutes.add(minutes);
+        }
+        if (sms != 0) {
+            this.sms.add(sms);
+        }
+        if (roamingMilliMb != 0) {
+            this.roamingMilliMb.add(roamingMilliMb);
+        }
+    }
+
+    public long dataMilliMb() {
+        return dataMilliMb.sum();
+    }
+
+    public long minutes() {
+        return minutes.sum();
+    }
+
+    public long sms() {
+        return sms.sum();
+    }
+
+    public long roamingMilliMb() {
+        return roamingMilliMb.sum();
+    }
+}
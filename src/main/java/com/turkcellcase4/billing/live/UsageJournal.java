@@ -0,0 +1,163 @@
+package com.turkcellcase4.billing.live;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Henüz veritabanına yazılmamış kullanım olaylarının yerel günlüğü.
+ * Her flush'ta yeni bir segment açılır; segment adı (UUID) veritabanındaki flush işaretidir,
+ * böylece çökme sonrası aynı segment iki kez uygulanmaz.
+ * <p>
+ * Kayıt: userId(8) epochDay(4) dataMilliMb(8) minutes(4) sms(4) roamingMilliMb(8) crc32(4)
+ */
+public class UsageJournal {
+
+    public static final int RECORD_SIZE = 40;
+    private static final String PREFIX = "usage-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private Segment current;
+    private FileChannel channel;
+
+    public UsageJournal(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü dizini oluşturulamadı: " + directory, e);
+        }
+    }
+
+    /**
+     * Dizindeki mevcut segmentler (önceki çalışmadan kalanlar); open çağrılmadan önce okunmalıdır
+     */
+    public List<Segment> existingSegments() {
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(path -> {
+                        String name = path.getFileName().toString();
+                        segments.add(new Segment(name.substring(PREFIX.length(), name.length() - SUFFIX.length()), path));
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü listelenemedi: " + directory, e);
+        }
+        return segments;
+    }
+
+    public synchronized void open() {
+        String id = UUID.randomUUID().toString();
+        Path path = directory.resolve(PREFIX + id + SUFFIX);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü açılamadı: " + path, e);
+        }
+        current = new Segment(id, path);
+    }
+
+    /**
+     * Kayıtları tek yazma ile segmente ekler; sync ise diske zorlanır
+     */
+    public synchronized void append(ByteBuffer records, boolean sync) {
+        try {
+            while (records.hasRemaining()) {
+                channel.write(records);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğüne yazılamadı", e);
+        }
+    }
+
+    /**
+     * Açık segmenti kapatıp döner ve yenisini açar
+     */
+    public synchronized Segment rotate() {
+        Segment closed = current;
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü kapatılamadı", e);
+        }
+        open();
+        return closed;
+    }
+
+    public synchronized void close() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü kapatılamadı", e);
+        }
+    }
+
+    public static void putRecord(ByteBuffer buffer, long userId, int epochDay, long dataMilliMb, int minutes, int sms,
+                                 long roamingMilliMb) {
+        int start = buffer.position();
+        buffer.putLong(userId).putInt(epochDay).putLong(dataMilliMb).putInt(minutes).putInt(sms).putLong(roamingMilliMb);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Segmentteki geçerli kayıtları okur; yarım yazılmış ya da bozuk son kayıtlar atlanır
+     */
+    public static void readRecords(Segment segment, RecordConsumer consumer) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment.path()));
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int start = buffer.position();
+                CRC32 crc = new CRC32();
+                crc.update(buffer.duplicate().position(start).limit(start + RECORD_SIZE - 4));
+                long userId = buffer.getLong();
+                int epochDay = buffer.getInt();
+                long dataMilliMb = buffer.getLong();
+                int minutes = buffer.getInt();
+                int sms = buffer.getInt();
+                long roamingMilliMb = buffer.getLong();
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    break;
+                }
+                consumer.accept(userId, epochDay, dataMilliMb, minutes, sms, roamingMilliMb);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü okunamadı: " + segment.path(), e);
+        }
+    }
+
+    public static void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kullanım günlüğü silinemedi: " + segment.path(), e);
+        }
+    }
+
+    public record Segment(String id, Path path) {
+    }
+
+    @FunctionalInterface
+    public interface RecordConsumer {
+        void accept(long userId, int epochDay, long dataMilliMb, int minutes, int sms, long roamingMilliMb);
+    }
+}
@@ -0,0 +1,48 @@
+package com.turkcellcase4.billing.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gemini generateContent cevaplarından ve streamGenerateContent (alt=sse)
+ * olaylarından metin parçalarını JSON ağacı üzerinden çıkarır.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeminiResponseParser {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * İlk adayın tüm metin parçalarını birleştirir; metin yoksa null döner
+     */
+    public String extractText(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode parts = objectMapper.readTree(json)
+                    .path("candidates").path(0)
+                    .path("content").path("parts");
+            if (!parts.isArray()) {
+                return null;
+            }
+
+            StringBuilder text = new StringBuilder();
+            for (JsonNode part : parts) {
+                JsonNode value = part.get("text");
+                if (value != null && value.isTextual()) {
+                    text.append(value.asText());
+                }
+            }
+            return text.length() > 0 ? text.toString() : null;
+        } catch (Exception e) {
+            log.error("Gemini response parsing error: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.turkcellcase4.billing.llm;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Birden fazla prompt'u tek bir Gemini isteğinde paketler ve gelen cevabı
+ * [[n]] işaretlerine göre tekrar parçalara ayırır.
+ */
+public final class LLMBatchPrompt {
+
+    private static final Pattern MARKER = Pattern.compile("\\[\\[(\\d+)]]");
+
+    private LLMBatchPrompt() {
+    }
+
+    public static String pack(List<String> prompts) {
+        StringBuilder batch = new StringBuilder();
+        batch.append("Aşağıda numaralandırılmış ").append(prompts.size())
+                .append(" ayrı görev var. Her görevi diğerlerinden bağımsız olarak yanıtla.\n")
+                .append("Her cevabın başına yalnızca kendi numarasını [[1]], [[2]] biçiminde yaz; ")
+                .append("numara dışında başlık veya ayraç kullanma.\n\n");
+        for (int i = 0; i < prompts.size(); i++) {
+            batch.append("[[").append(i + 1).append("]]\n")
+                    .append(prompts.get(i).strip())
+                    .append("\n\n");
+        }
+        return batch.toString();
+    }
+
+    /**
+     * Toplu cevabı görev sırasına göre böler; cevabı bulunamayan görevler null kalır
+     */
+    public static String[] unpack(String response, int expectedCount) {
+        String[] answers = new String[expectedCount];
+        if (response == null) {
+            return answers;
+        }
+
+        Matcher matcher = MARKER.matcher(response);
+        int currentIndex = -1;
+        int contentStart = -1;
+        while (matcher.find()) {
+            assign(answers, currentIndex, response, contentStart, matcher.start());
+            currentIndex = Integer.parseInt(matcher.group(1)) - 1;
+            contentStart = matcher.end();
+        }
+        assign(answers, currentIndex, response, contentStart, response.length());
+        return answers;
+    }
+
+    private static void assign(String[] answers, int index, String response, int start, int end) {
+        if (index < 0 || index >= answers.length || answers[index] != null) {
+            return;
+        }
+        String answer = response.substring(start, end).strip();
+        if (!answer.isEmpty()) {
+            answers[index] = answer;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.turkcellcase4.billing.llm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gemini çağrıları için devre kesici ve uyarlanabilir eşzamanlılık limiti.
+ * Kayan penceredeki hata veya yavaş çağrı oranı eşiği aşınca devre açılır ve
+ * çağrılar ağa hiç çıkmadan fallback'e yönlenir. Eşzamanlılık limiti AIMD ile
+ * ayarlanır: başarılı ve hızlı çağrıda yavaşça artar, hata veya yavaşlıkta yarıya iner.
+ */
+@Component
+@Slf4j
+public class LLMCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final LatencyTracker tracker;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdMs;
+    private final double slowCallRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenProbes;
+    private final double minLimit;
+    private final double maxLimit;
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+    private double limit;
+    private int inFlight;
+
+    private long permitted;
+    private long rejectedOpen;
+    private long rejectedLimit;
+    private long openedCount;
+
+    public LLMCircuitBreaker(
+            @Value("${gemini.breaker.window-size:50}") int windowSize,
+            @Value("${gemini.breaker.min-calls:10}") int minCalls,
+            @Value("${gemini.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${gemini.breaker.slow-call-threshold-ms:8000}") long slowCallThresholdMs,
+            @Value("${gemini.breaker.slow-call-rate-threshold:0.5}") double slowCallRateThreshold,
+            @Value("${gemini.breaker.open-seconds:30}") long openSeconds,
+            @Value("${gemini.breaker.half-open-probes:3}") int halfOpenProbes,
+            @Value("${gemini.concurrency.initial-limit:8}") int initialLimit,
+            @Value("${gemini.concurrency.min-limit:1}") int minLimit,
+            @Value("${gemini.concurrency.max-limit:32}") int maxLimit) {
+        this.tracker = new LatencyTracker(windowSize);
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThresholdMs = slowCallThresholdMs;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = Duration.ofSeconds(openSeconds);
+        this.halfOpenProbes = halfOpenProbes;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Çağrıya izin verilirse true döner; bu durumda sonuç mutlaka
+     * onSuccess, onFailure veya onCancel ile bildirilmelidir
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN) {
+            if (now < openUntil) {
+                rejectedOpen++;
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN && halfOpenPermits <= 0) {
+            rejectedOpen++;
+            return false;
+        }
+        if (inFlight >= (int) limit) {
+            rejectedLimit++;
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits--;
+        }
+        inFlight++;
+        permitted++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        complete(latencyMs, false);
+    }
+
+    public synchronized void onFailure(long latencyMs) {
+        complete(latencyMs, true);
+    }
+
+    /**
+     * İstemci tarafından iptal edilen çağrı; pencereye yazılmadan yalnızca slot serbest bırakılır
+     */
+    public synchronized void onCancel() {
+        inFlight = Math.max(0, inFlight - 1);
+    }
+
+    public LatencyTracker getLatencyTracker() {
+        return tracker;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        LatencyTracker.Snapshot snapshot = tracker.snapshot(slowCallThresholdMs);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("concurrencyLimit", (int) limit);
+        stats.put("inFlight", inFlight);
+        stats.put("windowCalls", snapshot.count());
+        stats.put("errorRate", snapshot.errorRate());
+        stats.put("slowCallRate", snapshot.slowRate());
+        stats.put("p50Ms", snapshot.p50Ms());
+        stats.put("p95Ms", snapshot.p95Ms());
+        stats.put("p99Ms", snapshot.p99Ms());
+        stats.put("permitted", permitted);
+        stats.put("rejectedOpen", rejectedOpen);
+        stats.put("rejectedLimit", rejectedLimit);
+        stats.put("openedCount", openedCount);
+        return stats;
+    }
+
+    private void complete(long latencyMs, boolean failed) {
+        inFlight = Math.max(0, inFlight - 1);
+        tracker.record(latencyMs, failed);
+
+        boolean degraded = failed || latencyMs >= slowCallThresholdMs;
+        if (degraded) {
+            limit = Math.max(minLimit, limit / 2);
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (degraded) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSuccesses >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+
+        if (state == State.CLOSED && tracker.count() >= minCalls) {
+            LatencyTracker.Snapshot snapshot = tracker.snapshot(slowCallThresholdMs);
+            if (snapshot.errorRate() >= failureRateThreshold || snapshot.slowRate() >= slowCallRateThreshold) {
+                log.warn("Gemini devre kesici açılıyor - hata oranı: {}, yavaş çağrı oranı: {}",
+                        snapshot.errorRate(), snapshot.slowRate());
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    private void transitionTo(State target) {
+        log.info("Gemini devre kesici durumu: {} -> {}", state, target);
+        state = target;
+        switch (target) {
+            case OPEN -> {
+                openUntil = System.currentTimeMillis() + openDuration.toMillis();
+                openedCount++;
+            }
+            case HALF_OPEN -> {
+                halfOpenPermits = halfOpenProbes;
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                // Eski pencere açılmaya sebep olan hataları içerir, temiz başlanır
+                tracker.reset();
+            }
+        }
+    }
+}
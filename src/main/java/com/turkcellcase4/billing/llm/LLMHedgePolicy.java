@@ -0,0 +1,93 @@
+package com.turkcellcase4.billing.llm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gemini istekleri için hedging kararlarını verir. İlk istek gözlenen yüzdelik
+ * gecikme içinde cevap vermezse ikinci bir istek gönderilir; gönderilen ek
+ * istek sayısı toplam trafiğin belirli bir yüzdesiyle sınırlıdır.
+ */
+@Component
+public class LLMHedgePolicy {
+
+    private final LLMCircuitBreaker circuitBreaker;
+    private final boolean enabled;
+    private final double quantile;
+    private final double budgetRatio;
+    private final int minSamples;
+    private final long minDelayMs;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetRejected = new AtomicLong();
+
+    public LLMHedgePolicy(
+            LLMCircuitBreaker circuitBreaker,
+            @Value("${gemini.hedging.enabled:false}") boolean enabled,
+            @Value("${gemini.hedging.quantile:0.95}") double quantile,
+            @Value("${gemini.hedging.budget-percent:5}") double budgetPercent,
+            @Value("${gemini.hedging.min-samples:20}") int minSamples,
+            @Value("${gemini.hedging.min-delay-ms:200}") long minDelayMs) {
+        this.circuitBreaker = circuitBreaker;
+        this.enabled = enabled;
+        this.quantile = quantile;
+        this.budgetRatio = budgetPercent / 100.0;
+        this.minSamples = minSamples;
+        this.minDelayMs = minDelayMs;
+    }
+
+    /**
+     * Yeni bir istek için hedge bekleme süresini döner; hedge yapılmayacaksa -1.
+     * Her çağrı bütçe hesabı için bir istek olarak sayılır.
+     */
+    public long nextHedgeDelayMs() {
+        requests.incrementAndGet();
+        if (!enabled || circuitBreaker.getState() != LLMCircuitBreaker.State.CLOSED) {
+            return -1;
+        }
+        LatencyTracker tracker = circuitBreaker.getLatencyTracker();
+        if (tracker.count() < minSamples) {
+            return -1;
+        }
+        return Math.max(minDelayMs, tracker.percentile(quantile));
+    }
+
+    /**
+     * Bekleme süresi dolduğunda çağrılır; bütçe izin veriyorsa ek isteği sayar ve true döner
+     */
+    public boolean tryFireHedge() {
+        // Kontrol ve artırma tek adımda yapılır; eşzamanlı hedge'ler bütçeyi aşamaz
+        while (true) {
+            long fired = hedgesFired.get();
+            if (fired + 1 > requests.get() * budgetRatio) {
+                budgetRejected.incrementAndGet();
+                return false;
+            }
+            if (hedgesFired.compareAndSet(fired, fired + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onHedgeWin() {
+        hedgeWins.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("quantile", quantile);
+        stats.put("budgetPercent", budgetRatio * 100);
+        stats.put("requests", requests.get());
+        stats.put("hedgesFired", hedgesFired.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("budgetRejected", budgetRejected.get());
+        return stats;
+    }
+}
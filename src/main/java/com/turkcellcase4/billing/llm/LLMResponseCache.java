@@ -0,0 +1,331 @@
+package com.turkcellcase4.billing.llm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Gemini cevaplarını normalize edilmiş prompt özetine (SHA-256) göre saklar.
+ * Bellek katmanı LRU, disk katmanı ise opsiyoneldir ve gemini.cache.disk-max-entries ile sınırlıdır (en eski
+ * yazılan dosya silinir); aynı prompt için eşzamanlı gelen istekler tek bir upstream çağrısında birleştirilir
+ * (single-flight).
+ */
+@Component
+@Slf4j
+public class LLMResponseCache {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Path diskDirectory;
+    private final int diskMaxEntries;
+
+    private final Map<String, CacheEntry> memory;
+    // Diskteki anahtarlar yazılma sırasıyla; sınır aşılınca en eski dosya silinir
+    private final LinkedHashMap<String, Boolean> diskKeys = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    public LLMResponseCache(
+            @Value("${gemini.cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${gemini.cache.max-entries:1000}") int maxEntries,
+            @Value("${gemini.cache.disk-dir:}") String diskDir,
+            @Value("${gemini.cache.disk-max-entries:10000}") int diskMaxEntries) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.maxEntries = maxEntries;
+        this.diskMaxEntries = diskMaxEntries;
+        this.diskDirectory = diskDir == null || diskDir.isBlank() ? null : Paths.get(diskDir);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > LLMResponseCache.this.maxEntries;
+            }
+        };
+        if (diskDirectory != null) {
+            try {
+                Files.createDirectories(diskDirectory);
+                loadDiskKeys();
+            } catch (IOException e) {
+                log.warn("LLM disk cache dizini oluşturulamadı ({}): {}", diskDirectory, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Prompt için cache'teki cevabı döner; yoksa loader'ı tek sefer çalıştırır.
+     * Loader hata fırlatırsa (Error dahil) sonuç cache'lenmez ve hata tüm bekleyenlere iletilir.
+     */
+    public String getOrCompute(String prompt, Supplier<String> loader) {
+        return getOrCompute(prompt, loader, value -> true);
+    }
+
+    /**
+     * getOrCompute ile aynı; ancak yalnızca cacheable'ı sağlayan cevaplar saklanır ve cache'ten dönülür.
+     * Sağlamayan cevap bekleyenlere yine iletilir, sonraki çağrı upstream'e tekrar gider.
+     */
+    public String getOrCompute(String prompt, Supplier<String> loader, Predicate<String> cacheable) {
+        String key = fingerprint(prompt);
+
+        String cached = lookup(key);
+        if (cached != null && cacheable.test(cached)) {
+            return cached;
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return join(existing);
+        }
+
+        try {
+            // Kontrol ile kayıt arasında başka bir çağrı tamamlanmış olabilir
+            String raced = lookup(key);
+            if (raced != null && cacheable.test(raced)) {
+                future.complete(raced);
+                return raced;
+            }
+            misses.incrementAndGet();
+            String value = loader.get();
+            if (value != null && cacheable.test(value)) {
+                store(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Bekleyenler tamamlanmamış future'da sonsuza kadar kalmasın
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Prompt için geçerli bir cevap varsa döner, yoksa null
+     */
+    public String getIfPresent(String prompt) {
+        return lookup(fingerprint(prompt));
+    }
+
+    /**
+     * Başka bir yoldan (ör. toplu çağrı) üretilmiş cevabı prompt'a bağlayarak saklar
+     */
+    public void put(String prompt, String value) {
+        store(fingerprint(prompt), value);
+    }
+
+    public Map<String, Object> getStats() {
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        long totalLookups = hits.get() + diskHits.get() + misses.get() + coalesced.get();
+        double hitRatio = totalLookups == 0 ? 0.0
+                : (double) (hits.get() + diskHits.get() + coalesced.get()) / totalLookups;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("memoryHits", hits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("inFlight", inFlight.size());
+        stats.put("hitRatio", hitRatio);
+        stats.put("diskTierEnabled", diskDirectory != null);
+        synchronized (diskKeys) {
+            stats.put("diskEntries", diskKeys.size());
+        }
+        stats.put("diskMaxEntries", diskMaxEntries);
+        stats.put("diskEvictions", diskEvictions.get());
+        return stats;
+    }
+
+    /**
+     * Boşluk farklarını yok sayarak prompt'un SHA-256 özetini üretir
+     */
+    static String fingerprint(String prompt) {
+        String normalized = prompt == null ? "" : prompt.strip().replaceAll("\\s+", " ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
+    }
+
+    private String lookup(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            CacheEntry entry = memory.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                memory.remove(key);
+            }
+        }
+
+        CacheEntry fromDisk = readFromDisk(key, now);
+        if (fromDisk != null) {
+            diskHits.incrementAndGet();
+            synchronized (memory) {
+                memory.put(key, fromDisk);
+            }
+            return fromDisk.value;
+        }
+        return null;
+    }
+
+    private void store(String key, String value) {
+        if (value == null) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(value, System.currentTimeMillis() + ttl.toMillis());
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    private CacheEntry readFromDisk(String key, long now) {
+        if (diskDirectory == null) {
+            return null;
+        }
+        Path file = diskDirectory.resolve(key + ".txt");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            int newline = content.indexOf('\n');
+            long expiresAt = Long.parseLong(content.substring(0, newline));
+            if (expiresAt <= now) {
+                Files.deleteIfExists(file);
+                synchronized (diskKeys) {
+                    diskKeys.remove(key);
+                }
+                return null;
+            }
+            return new CacheEntry(content.substring(newline + 1), expiresAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("LLM disk cache okunamadı ({}): {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CacheEntry entry) {
+        if (diskDirectory == null) {
+            return;
+        }
+        Path file = diskDirectory.resolve(key + ".txt");
+        try {
+            // Yarım yazılmış dosya okunmasın diye önce geçici dosyaya yazılır
+            Path tmp = Files.createTempFile(diskDirectory, key, ".tmp");
+            Files.writeString(tmp, entry.expiresAt + "\n" + entry.value, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("LLM disk cache yazılamadı ({}): {}", file, e.getMessage());
+            return;
+        }
+        List<String> evicted = new ArrayList<>();
+        synchronized (diskKeys) {
+            diskKeys.remove(key);
+            diskKeys.put(key, Boolean.TRUE);
+            Iterator<String> eldest = diskKeys.keySet().iterator();
+            while (diskKeys.size() > diskMaxEntries && eldest.hasNext()) {
+                evicted.add(eldest.next());
+                eldest.remove();
+            }
+        }
+        for (String evictedKey : evicted) {
+            try {
+                Files.deleteIfExists(diskDirectory.resolve(evictedKey + ".txt"));
+                diskEvictions.incrementAndGet();
+            } catch (IOException e) {
+                log.warn("LLM disk cache dosyası silinemedi ({}): {}", evictedKey, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Açılışta diskteki kayıtları en eskiden yeniye sıralar ve sınırın üstündekileri siler;
+     * yarım kalmış geçici dosyalar da temizlenir
+     */
+    private void loadDiskKeys() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diskDirectory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(".txt")) {
+                    files.add(file);
+                }
+            }
+        }
+        Map<Path, FileTime> modified = new HashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(modified::get));
+        int excess = files.size() - diskMaxEntries;
+        for (Path file : files) {
+            if (excess-- > 0) {
+                Files.deleteIfExists(file);
+                diskEvictions.incrementAndGet();
+            } else {
+                String name = file.getFileName().toString();
+                diskKeys.put(name.substring(0, name.length() - ".txt".length()), Boolean.TRUE);
+            }
+        }
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record CacheEntry(String value, long expiresAt) {
+    }
+}
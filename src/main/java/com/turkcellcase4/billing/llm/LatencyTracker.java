@@ -0,0 +1,85 @@
+package com.turkcellcase4.billing.llm;
+
+import java.util.Arrays;
+
+/**
+ * Son N çağrının süresini ve sonucunu halka tamponda tutar; hata oranı,
+ * yavaş çağrı oranı ve yüzdelik gecikme değerleri bu pencere üzerinden hesaplanır.
+ */
+public class LatencyTracker {
+
+    private final long[] latencies;
+    private final boolean[] failures;
+    private int next;
+    private int count;
+
+    public LatencyTracker(int windowSize) {
+        this.latencies = new long[windowSize];
+        this.failures = new boolean[windowSize];
+    }
+
+    public synchronized void record(long latencyMs, boolean failed) {
+        latencies[next] = latencyMs;
+        failures[next] = failed;
+        next = (next + 1) % latencies.length;
+        if (count < latencies.length) {
+            count++;
+        }
+    }
+
+    public synchronized void reset() {
+        next = 0;
+        count = 0;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Pencere üzerinden anlık görüntü üretir; slowThresholdMs ve üstü yavaş sayılır
+     */
+    public synchronized Snapshot snapshot(long slowThresholdMs) {
+        if (count == 0) {
+            return new Snapshot(0, 0.0, 0.0, 0, 0, 0);
+        }
+        int failed = 0;
+        int slow = 0;
+        long[] sorted = Arrays.copyOf(latencies, count);
+        for (int i = 0; i < count; i++) {
+            if (failures[i]) {
+                failed++;
+            }
+            if (latencies[i] >= slowThresholdMs) {
+                slow++;
+            }
+        }
+        Arrays.sort(sorted);
+        return new Snapshot(count,
+                (double) failed / count,
+                (double) slow / count,
+                valueAt(sorted, 0.50),
+                valueAt(sorted, 0.95),
+                valueAt(sorted, 0.99));
+    }
+
+    /**
+     * Penceredeki gecikmelerin verilen yüzdeliğini döner; örnek yoksa -1
+     */
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return valueAt(sorted, quantile);
+    }
+
+    private static long valueAt(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    public record Snapshot(int count, double errorRate, double slowRate, long p50Ms, long p95Ms, long p99Ms) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.turkcellcase4.billing.llm;
+
+/**
+ * Basit token bucket: kapasite kadar ani istek, ardından saniyede sabit oranda yenilenen hak
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public synchronized boolean tryConsume() {
+        refill();
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    /**
+     * Kullanılmayan hakkı geri verir (ör. iş başka bir işçi tarafından alınmışsa)
+     */
+    public synchronized void refund() {
+        tokens = Math.min(capacity, tokens + 1.0);
+    }
+
+    public synchronized double availableTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
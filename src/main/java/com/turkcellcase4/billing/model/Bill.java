@@ -13,7 +13,9 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "bill_headers")
+// Kullanıcı başına dönemde tek fatura; unique kısıt dönem sorgularının indeksi olarak da kullanılır
+@Table(name = "bill_headers",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bill_headers_user_period", columnNames = {"user_id", "period_key"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,6 +37,10 @@ public class Bill extends BaseEntity {
     @Column(name = "period_end")
     private LocalDate periodEnd;
 
+    // yyyyMM; periodStart'tan türetilir, (user_id, period_key) indeksiyle dönem sorgularında kullanılır
+    @Column(name = "period_key")
+    private Integer periodKey;
+
     @Column(name = "issue_date")
     private LocalDate issueDate;
 
@@ -46,4 +52,18 @@ public class Bill extends BaseEntity {
 
     @OneToMany(mappedBy = "bill", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<BillItem> billItems;
+
+    // Soğuk arşivden okunmuş, detached fatura; kalemleri billItems'ta hazır gelir
+    @Transient
+    private boolean archived;
+
+    @PrePersist
+    @PreUpdate
+    protected void syncPeriodKey() {
+        periodKey = periodStart != null ? periodKeyOf(periodStart) : null;
+    }
+
+    public static int periodKeyOf(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
 }
@@ -0,0 +1,155 @@
+package com.turkcellcase4.billing.model;
+
+import com.turkcellcase4.common.BaseEntity;
+import com.turkcellcase4.common.enums.ItemCategory;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Faturanın kategori bazında kalem toplamları; her ItemCategory için sabit bir kolon, ayrıca plan ücreti ve aşım
+ * kırılımları. Fatura ile aynı transaction'da yazılır, analizler kalemleri yüklemeden buradan okur.
+ */
+@Entity
+@Table(name = "bill_category_totals",
+        indexes = @Index(name = "idx_bill_category_totals_user_period", columnList = "user_id, period_key"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class BillCategoryTotals extends BaseEntity {
+
+    public static final String PLAN_FEE_SUBTYPE = "plan_fee";
+    public static final String DATA_OVERAGE_SUBTYPE = "data_overage";
+    public static final String OVERAGE_SUFFIX = "_overage";
+
+    @Id
+    @Column(name = "bill_id")
+    private Long billId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "period_key")
+    private Integer periodKey;
+
+    @Column(name = "data_amount", nullable = false)
+    private BigDecimal dataAmount = BigDecimal.ZERO;
+
+    @Column(name = "voice_amount", nullable = false)
+    private BigDecimal voiceAmount = BigDecimal.ZERO;
+
+    @Column(name = "sms_amount", nullable = false)
+    private BigDecimal smsAmount = BigDecimal.ZERO;
+
+    @Column(name = "roaming_amount", nullable = false)
+    private BigDecimal roamingAmount = BigDecimal.ZERO;
+
+    @Column(name = "premium_sms_amount", nullable = false)
+    private BigDecimal premiumSmsAmount = BigDecimal.ZERO;
+
+    // Plan ücreti dahil tüm VAS kalemleri
+    @Column(name = "vas_amount", nullable = false)
+    private BigDecimal vasAmount = BigDecimal.ZERO;
+
+    @Column(name = "one_off_amount", nullable = false)
+    private BigDecimal oneOffAmount = BigDecimal.ZERO;
+
+    @Column(name = "discount_amount", nullable = false)
+    private BigDecimal discountAmount = BigDecimal.ZERO;
+
+    @Column(name = "tax_amount", nullable = false)
+    private BigDecimal taxAmount = BigDecimal.ZERO;
+
+    // VAS içindeki plan_fee kalemi
+    @Column(name = "plan_fee_amount", nullable = false)
+    private BigDecimal planFeeAmount = BigDecimal.ZERO;
+
+    // *_overage alt tipli tüm kalemler
+    @Column(name = "overage_amount", nullable = false)
+    private BigDecimal overageAmount = BigDecimal.ZERO;
+
+    @Column(name = "data_overage_amount", nullable = false)
+    private BigDecimal dataOverageAmount = BigDecimal.ZERO;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount = 0;
+
+    public static BillCategoryTotals empty(Long billId, Long userId, Integer periodKey) {
+        BillCategoryTotals totals = new BillCategoryTotals();
+        totals.setBillId(billId);
+        totals.setUserId(userId);
+        totals.setPeriodKey(periodKey);
+        return totals;
+    }
+
+    public static BillCategoryTotals of(Long billId, Long userId, Integer periodKey, Iterable<BillItem> items) {
+        BillCategoryTotals totals = empty(billId, userId, periodKey);
+        for (BillItem item : items) {
+            totals.add(item.getCategory(), item.getSubtype(), item.getAmount());
+        }
+        return totals;
+    }
+
+    public void add(ItemCategory category, String subtype, BigDecimal amount) {
+        BigDecimal value = amount != null ? amount : BigDecimal.ZERO;
+        itemCount++;
+        switch (category) {
+            case DATA -> dataAmount = dataAmount.add(value);
+            case VOICE -> voiceAmount = voiceAmount.add(value);
+            case SMS -> smsAmount = smsAmount.add(value);
+            case ROAMING -> roamingAmount = roamingAmount.add(value);
+            case PREMIUM_SMS -> premiumSmsAmount = premiumSmsAmount.add(value);
+            case VAS -> vasAmount = vasAmount.add(value);
+            case ONE_OFF -> oneOffAmount = oneOffAmount.add(value);
+            case DISCOUNT -> discountAmount = discountAmount.add(value);
+            case TAX -> taxAmount = taxAmount.add(value);
+        }
+        if (category == ItemCategory.VAS && PLAN_FEE_SUBTYPE.equals(subtype)) {
+            planFeeAmount = planFeeAmount.add(value);
+        }
+        if (subtype != null && subtype.endsWith(OVERAGE_SUFFIX)) {
+            overageAmount = overageAmount.add(value);
+            if (category == ItemCategory.DATA && DATA_OVERAGE_SUBTYPE.equals(subtype)) {
+                dataOverageAmount = dataOverageAmount.add(value);
+            }
+        }
+    }
+
+    public BigDecimal amountOf(ItemCategory category) {
+        return switch (category) {
+            case DATA -> dataAmount;
+            case VOICE -> voiceAmount;
+            case SMS -> smsAmount;
+            case ROAMING -> roamingAmount;
+            case PREMIUM_SMS -> premiumSmsAmount;
+            case VAS -> vasAmount;
+            case ONE_OFF -> oneOffAmount;
+            case DISCOUNT -> discountAmount;
+            case TAX -> taxAmount;
+        };
+    }
+
+    /**
+     * Plan ücreti hariç VAS hizmetleri
+     */
+    public BigDecimal vasServicesAmount() {
+        return vasAmount.subtract(planFeeAmount);
+    }
+
+    public BigDecimal usageAmount() {
+        return dataAmount.add(voiceAmount).add(smsAmount).add(roamingAmount);
+    }
+
+    public BigDecimal itemsTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (ItemCategory category : ItemCategory.values()) {
+            total = total.add(amountOf(category));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,65 @@
+package com.turkcellcase4.billing.model;
+
+import com.turkcellcase4.common.BaseEntity;
+import com.turkcellcase4.common.enums.BillRunStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bir dönemin toplu fatura koşusu. Kullanıcılar ID sırasıyla sayfalar halinde faturalanır;
+ * lastUserId o ana kadar kesintisiz tamamlanan sayfaların sonudur ve devam noktası olarak kullanılır.
+ */
+@Entity
+@Table(name = "bill_runs")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BillRun extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "run_id")
+    private Long runId;
+
+    // yyyyMM
+    @Column(name = "period_key", nullable = false, unique = true)
+    private Integer periodKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BillRunStatus status;
+
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId;
+
+    @Column(name = "processed_users", nullable = false)
+    private Long processedUsers;
+
+    @Column(name = "billed_users", nullable = false)
+    private Long billedUsers;
+
+    // Planı olmayan ya da planı bulunamayan kullanıcılar
+    @Column(name = "skipped_users", nullable = false)
+    private Long skippedUsers;
+
+    @Column(name = "total_amount", nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,56 @@
+package com.turkcellcase4.billing.model;
+
+import com.turkcellcase4.common.BaseEntity;
+import com.turkcellcase4.common.enums.SummaryJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fatura için arka planda üretilen AI özeti işi; üretilen özet de bu kayıtta saklanır
+ */
+@Entity
+@Table(name = "bill_summary_jobs",
+        indexes = @Index(name = "idx_bill_summary_jobs_queue", columnList = "status, priority, id"))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BillSummaryJob extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bill_id", nullable = false, unique = true)
+    private Long billId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SummaryJobStatus status;
+
+    // Büyük değer önce işlenir; fatura dönemi (yyyyMM) kullanılır
+    @Column(nullable = false)
+    private Integer priority;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
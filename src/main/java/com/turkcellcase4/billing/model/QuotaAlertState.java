@@ -0,0 +1,47 @@
+package com.turkcellcase4.billing.model;
+
+import com.turkcellcase4.common.BaseEntity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kullanıcının bir dönemde her metrikte ulaştığı en yüksek kota uyarısı seviyesi. Yeniden başlatma ya da
+ * izleyicinin önbellekten atılması sonrasında aynı eşiklerin tekrar gönderilmemesi için tutulur.
+ */
+@Entity
+@Table(name = "quota_alert_states",
+        uniqueConstraints = @UniqueConstraint(name = "uk_quota_alert_states_user_period", columnNames = {"user_id", "period_key"}))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuotaAlertState extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // yyyyMM
+    @Column(name = "period_key", nullable = false)
+    private Integer periodKey;
+
+    // Seviyeler bu planın kotalarına göredir; plan değişirse yok sayılır
+    @Column(name = "plan_id", nullable = false)
+    private Long planId;
+
+    // QuotaAlertLevel ordinal; -1 tetiklenmedi
+    @Column(name = "data_level", nullable = false)
+    private Integer dataLevel;
+
+    @Column(name = "voice_level", nullable = false)
+    private Integer voiceLevel;
+
+    @Column(name = "sms_level", nullable = false)
+    private Integer smsLevel;
+}
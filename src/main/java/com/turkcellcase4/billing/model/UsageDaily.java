@@ -12,7 +12,8 @@ import lombok.Builder;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "usage_daily")
+@Table(name = "usage_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_usage_daily_user_date", columnNames = {"user_id", "date"}))
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -0,0 +1,52 @@
+package com.turkcellcase4.billing.model;
+
+import com.turkcellcase4.common.BaseEntity;
+import com.turkcellcase4.user.model.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kullanıcı bazında aylık kullanım toplamları; usage_daily yazıldıkça artımlı güncellenir
+ */
+@Entity
+@Table(name = "usage_monthly",
+        uniqueConstraints = @UniqueConstraint(name = "uk_usage_monthly_user_period", columnNames = {"user_id", "period_key"}))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsageMonthly extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // yyyyMM (ör. 202507)
+    @Column(name = "period_key", nullable = false)
+    private Integer periodKey;
+
+    @Column(name = "total_mb", nullable = false)
+    private Double totalMb;
+
+    @Column(name = "total_minutes", nullable = false)
+    private Integer totalMinutes;
+
+    @Column(name = "total_sms", nullable = false)
+    private Integer totalSms;
+
+    @Column(name = "total_roaming_mb", nullable = false)
+    private Double totalRoamingMb;
+
+    // Ay içinde kullanım kaydı olan gün sayısı
+    @Column(name = "active_days", nullable = false)
+    private Integer activeDays;
+}
@@ -0,0 +1,248 @@
+package com.turkcellcase4.billing.period;
+
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.repository.BillRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kullanıcı başına dönem -> fatura ID indeksi. Kullanıcının dönemleri ilk istekte tek sorguyla okunur ve sıralı
+ * dizilerde tutulur; sonraki dönem çözümlemeleri ikili aramayla bellekte yapılır. Fatura yazan akışlar ilgili
+ * kullanıcıları commit sonrasında geçersiz kılar. LRU, bills.period-index.max-users ile sınırlıdır.
+ * Fatura ID'sinden dönem çözümlemesi için sorulan faturaların kullanıcıları da aynı sınırla LRU'da tutulur.
+ */
+@Component
+public class BillPeriodIndex {
+
+    private final BillRepository billRepository;
+    private final int maxUsers;
+
+    private final LinkedHashMap<Long, UserPeriods> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Fatura ID -> kullanıcı; kullanıcının güncel dönemlerinde fatura yoksa kayıt düşürülüp yeniden okunur
+    private final LinkedHashMap<Long, Long> billOwners = new LinkedHashMap<>(16, 0.75f, true);
+    // Yükleme sırasında gelen geçersiz kılmalar eski listenin cache'e yazılmasını engeller
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BillPeriodIndex(
+            BillRepository billRepository,
+            @Value("${bills.period-index.max-users:100000}") int maxUsers) {
+        this.billRepository = billRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    public Optional<Long> findBillId(long userId, BillingPeriod period) {
+        UserPeriods periods = periodsOf(userId);
+        int position = Arrays.binarySearch(periods.keys(), period.key());
+        return position >= 0 ? Optional.of(periods.billIds()[position]) : Optional.empty();
+    }
+
+    /**
+     * Dönemin faturası; indeks bir fatura gösterir ama satır artık yoksa (ör. arşivlenmiş) boş döner
+     */
+    public Optional<Bill> findBill(long userId, BillingPeriod period) {
+        return findBillId(userId, period).flatMap(billRepository::findById);
+    }
+
+    /**
+     * Faturanın kullanıcısı ve dönemi. Kullanıcı bilinmiyorsa yalnızca faturanın user_id'si okunur, dönem
+     * kullanıcının indeksinden bulunur; fatura sıcak tabloda yoksa (ör. arşivlenmiş) boş döner.
+     */
+    public Optional<BillLocation> locate(long billId) {
+        Long owner;
+        synchronized (billOwners) {
+            owner = billOwners.get(billId);
+        }
+        if (owner != null) {
+            Optional<BillLocation> location = locate(billId, owner);
+            if (location.isPresent()) {
+                return location;
+            }
+            synchronized (billOwners) {
+                billOwners.remove(billId);
+            }
+        }
+        long loadedAt = generation.get();
+        Optional<Long> userId = billRepository.findUserIdById(billId);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<BillLocation> location = locate(billId, userId.get());
+        if (location.isPresent() && generation.get() == loadedAt) {
+            synchronized (billOwners) {
+                billOwners.put(billId, userId.get());
+                if (billOwners.size() > maxUsers) {
+                    billOwners.remove(billOwners.keySet().iterator().next());
+                }
+            }
+        }
+        return location;
+    }
+
+    /**
+     * [from, to] aralığındaki faturaların ID'leri, eski dönemden yeniye
+     */
+    public List<Long> findBillIds(long userId, BillingPeriod from, BillingPeriod to) {
+        UserPeriods periods = periodsOf(userId);
+        int start = lowerBound(periods.keys(), from.key());
+        List<Long> billIds = new ArrayList<>();
+        for (int i = start; i < periods.keys().length && periods.keys()[i] <= to.key(); i++) {
+            billIds.add(periods.billIds()[i]);
+        }
+        return billIds;
+    }
+
+    /**
+     * Faturası olan dönemler, yeniden eskiye
+     */
+    public List<BillingPeriod> findPeriods(long userId) {
+        int[] keys = periodsOf(userId).keys();
+        List<BillingPeriod> periods = new ArrayList<>(keys.length);
+        for (int i = keys.length - 1; i >= 0; i--) {
+            periods.add(new BillingPeriod(keys[i]));
+        }
+        return periods;
+    }
+
+    /**
+     * Kullanıcıların indekslerini ve bu kullanıcılara çözülmüş fatura sahipliklerini düşürür; açık transaction
+     * varsa commit sonrasına bırakılır
+     */
+    public void invalidate(Collection<Long> userIds) {
+        Set<Long> users = new HashSet<>(userIds);
+        Runnable invalidate = () -> {
+            generation.incrementAndGet();
+            synchronized (entries) {
+                for (Long userId : users) {
+                    if (entries.remove(userId) != null) {
+                        invalidations.incrementAndGet();
+                    }
+                }
+            }
+            synchronized (billOwners) {
+                billOwners.values().removeIf(users::contains);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+        synchronized (billOwners) {
+            billOwners.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("users", entries.size());
+        }
+        stats.put("maxUsers", maxUsers);
+        stats.put("hits", hits.get());
+        stats.put("loads", loads.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private UserPeriods periodsOf(long userId) {
+        synchronized (entries) {
+            UserPeriods cached = entries.get(userId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        long loadedAt = generation.get();
+        UserPeriods loaded = load(userId);
+        loads.incrementAndGet();
+        synchronized (entries) {
+            if (generation.get() == loadedAt) {
+                entries.put(userId, loaded);
+                if (entries.size() > maxUsers) {
+                    entries.remove(entries.keySet().iterator().next());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Satırlar (period_key, bill_id) sırasında gelir; aynı dönemde birden çok fatura varsa en son kesilen tutulur
+    private UserPeriods load(long userId) {
+        List<Object[]> rows = billRepository.findPeriodIndex(userId);
+        int[] keys = new int[rows.size()];
+        long[] billIds = new long[rows.size()];
+        int size = 0;
+        for (Object[] row : rows) {
+            int key = ((Number) row[0]).intValue();
+            long billId = ((Number) row[1]).longValue();
+            if (size > 0 && keys[size - 1] == key) {
+                billIds[size - 1] = billId;
+            } else {
+                keys[size] = key;
+                billIds[size] = billId;
+                size++;
+            }
+        }
+        return new UserPeriods(Arrays.copyOf(keys, size), Arrays.copyOf(billIds, size));
+    }
+
+    private Optional<BillLocation> locate(long billId, long userId) {
+        UserPeriods periods = periodsOf(userId);
+        for (int i = 0; i < periods.billIds().length; i++) {
+            if (periods.billIds()[i] == billId) {
+                return Optional.of(new BillLocation(userId, new BillingPeriod(periods.keys()[i])));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static int lowerBound(int[] keys, int key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record UserPeriods(int[] keys, long[] billIds) {
+    }
+
+    public record BillLocation(long userId, BillingPeriod period) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.turkcellcase4.billing.period;
+
+import com.turkcellcase4.common.exception.ValidationException;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Fatura dönemi anahtarı: yyyyMM biçiminde tek bir int (ör. 202406). bill_headers.period_key ile aynı değerdir;
+ * "yyyy-MM" metni formatter kullanılmadan çözülür.
+ */
+public record BillingPeriod(int key) implements Comparable<BillingPeriod> {
+
+    public BillingPeriod {
+        int month = key % 100;
+        if (key < 0 || month < 1 || month > 12) {
+            throw new ValidationException("Geçersiz dönem anahtarı: " + key);
+        }
+    }
+
+    public static BillingPeriod of(int year, int month) {
+        return new BillingPeriod(year * 100 + month);
+    }
+
+    public static BillingPeriod of(LocalDate date) {
+        return of(date.getYear(), date.getMonthValue());
+    }
+
+    public static BillingPeriod of(YearMonth month) {
+        return of(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * "yyyy-MM" metnini çözer
+     */
+    public static BillingPeriod parse(String period) {
+        if (period == null || period.length() != 7 || period.charAt(4) != '-') {
+            throw invalid(period);
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            year = year * 10 + digit(period, i);
+        }
+        int month = digit(period, 5) * 10 + digit(period, 6);
+        if (month < 1 || month > 12) {
+            throw invalid(period);
+        }
+        return of(year, month);
+    }
+
+    public int year() {
+        return key / 100;
+    }
+
+    public int month() {
+        return key % 100;
+    }
+
+    public LocalDate start() {
+        return LocalDate.of(year(), month(), 1);
+    }
+
+    public LocalDate end() {
+        return toYearMonth().atEndOfMonth();
+    }
+
+    public YearMonth toYearMonth() {
+        return YearMonth.of(year(), month());
+    }
+
+    public BillingPeriod minusMonths(int months) {
+        int index = year() * 12 + month() - 1 - months;
+        return of(index / 12, index % 12 + 1);
+    }
+
+    @Override
+    public int compareTo(BillingPeriod other) {
+        return Integer.compare(key, other.key);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%04d-%02d", year(), month());
+    }
+
+    private static int digit(String period, int index) {
+        char c = period.charAt(index);
+        if (c < '0' || c > '9') {
+            throw invalid(period);
+        }
+        return c - '0';
+    }
+
+    private static ValidationException invalid(String period) {
+        return new ValidationException("Geçersiz dönem formatı (yyyy-MM bekleniyor): " + period);
+    }
+}
@@ -0,0 +1,80 @@
+package com.turkcellcase4.billing.rating;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Kuruş cinsinden long tutarlar için sabit noktalı aritmetik.
+ * Tüm bölmeler HALF_UP yuvarlanır; ara çarpım long'a sığdığı sürece nesne oluşturulmaz.
+ */
+public final class Money {
+
+    public static final long KURUS_PER_LIRA = 100;
+    public static final int BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * TL tutarını kuruşa çevirir (HALF_UP); null sıfır kabul edilir
+     */
+    public static long ofLira(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toLira(long kurus) {
+        return BigDecimal.valueOf(kurus, 2);
+    }
+
+    /**
+     * Oranı baz puana çevirir (0.18 → 1800)
+     */
+    public static int basisPointsOf(BigDecimal rate) {
+        if (rate == null) {
+            return 0;
+        }
+        return rate.movePointRight(4).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    /**
+     * Tutarın baz puan cinsinden oranı (HALF_UP)
+     */
+    public static long percentOf(long kurus, int basisPoints) {
+        return mulDiv(kurus, basisPoints, BASIS_POINTS);
+    }
+
+    /**
+     * a * b / divisor, HALF_UP yuvarlamalı. divisor pozitif olmalıdır.
+     * Ara çarpım long'u taşarsa BigDecimal ile hesaplanır.
+     */
+    public static long mulDiv(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divHalfUp(low, divisor);
+        }
+        return BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Başlanan birim sayısı: pozitif miktar için yukarı yuvarlanmış bölüm, aksi halde 0
+     */
+    public static long startedUnits(long amount, long unitSize) {
+        return amount <= 0 ? 0 : (amount + unitSize - 1) / unitSize;
+    }
+
+    static long divHalfUp(long numerator, long divisor) {
+        long quotient = numerator / divisor;
+        long remainder = numerator % divisor;
+        // |remainder| < divisor olduğundan karşılaştırma taşmadan yapılır
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += numerator < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,86 @@
+package com.turkcellcase4.billing.rating;
+
+/**
+ * {@link TariffEvaluator#rateAll} için sütun düzeninde kullanım vektörleri ve sonuçları.
+ * Satır başına nesne oluşturulmaz; girdiler milli-MB / dakika / SMS, çıktılar kuruş cinsindendir.
+ */
+public final class RatingBatch {
+
+    final long[] dataMilliMb;
+    final long[] minutes;
+    final long[] sms;
+    final long[] roamingMilliMb;
+    final long[] dataCharge;
+    final long[] voiceCharge;
+    final long[] smsCharge;
+    final long[] roamingCharge;
+    final long[] total;
+    private int size;
+
+    public RatingBatch(int capacity) {
+        dataMilliMb = new long[capacity];
+        minutes = new long[capacity];
+        sms = new long[capacity];
+        roamingMilliMb = new long[capacity];
+        dataCharge = new long[capacity];
+        voiceCharge = new long[capacity];
+        smsCharge = new long[capacity];
+        roamingCharge = new long[capacity];
+        total = new long[capacity];
+    }
+
+    /**
+     * @return eklenen satırın indeksi
+     */
+    public int add(long dataMilliMb, long minutes, long sms, long roamingMilliMb) {
+        int row = size++;
+        this.dataMilliMb[row] = dataMilliMb;
+        this.minutes[row] = minutes;
+        this.sms[row] = sms;
+        this.roamingMilliMb[row] = roamingMilliMb;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long dataMilliMb(int row) {
+        return dataMilliMb[row];
+    }
+
+    public long minutes(int row) {
+        return minutes[row];
+    }
+
+    public long sms(int row) {
+        return sms[row];
+    }
+
+    public long roamingMilliMb(int row) {
+        return roamingMilliMb[row];
+    }
+
+    public long dataCharge(int row) {
+        return dataCharge[row];
+    }
+
+    public long voiceCharge(int row) {
+        return voiceCharge[row];
+    }
+
+    public long smsCharge(int row) {
+        return smsCharge[row];
+    }
+
+    public long roamingCharge(int row) {
+        return roamingCharge[row];
+    }
+
+    /**
+     * Vergi öncesi toplam: sabit ücret + aşımlar + roaming
+     */
+    public long total(int row) {
+        return total[row];
+    }
+}
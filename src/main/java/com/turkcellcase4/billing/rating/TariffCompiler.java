@@ -0,0 +1,98 @@
+package com.turkcellcase4.billing.rating;
+
+import com.turkcellcase4.catalog.model.AddOnPack;
+import com.turkcellcase4.catalog.model.Plan;
+import com.turkcellcase4.common.enums.OverageMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plan ve ek paketleri kuruş tabanlı {@link TariffEvaluator}'a derler. Aşım biçimi planın overage_mode'udur;
+ * böylece fatura, simülasyon ve öneriler aynı planı aynı şekilde fiyatlar.
+ * Yalnızca plan içeren tarifeler plan ID'si ile önbelleğe alınır; katalog uygulama içinden güncellenmez.
+ */
+@Component
+public class TariffCompiler {
+
+    private final int taxBasisPoints;
+    private final BigDecimal taxRate;
+    private final long roamingRatePerMb;
+    private final OverageMode defaultMode;
+    private final TariffEvaluator payAsYouGo;
+    private final Map<Long, TariffEvaluator> planCache = new ConcurrentHashMap<>();
+
+    public TariffCompiler(
+            @Value("${rating.tax-rate:0.18}") BigDecimal taxRate,
+            @Value("${rating.roaming-rate-per-mb:0.10}") BigDecimal roamingRatePerMb,
+            @Value("${rating.payg.data-per-gb:0.50}") BigDecimal paygDataPerGb,
+            @Value("${rating.payg.voice-per-min:0.25}") BigDecimal paygVoicePerMin,
+            @Value("${rating.payg.sms-per-unit:0.10}") BigDecimal paygSmsPerUnit,
+            @Value("${rating.payg.roaming-per-mb:0.01}") BigDecimal paygRoamingPerMb,
+            @Value("${rating.overage-mode:PRORATED}") OverageMode defaultMode) {
+        this.taxRate = taxRate;
+        this.taxBasisPoints = Money.basisPointsOf(taxRate);
+        this.roamingRatePerMb = Money.ofLira(roamingRatePerMb);
+        this.defaultMode = defaultMode;
+        // Kotasız, sabit ücretsiz tarife: her birim aşım sayılır. Tahmin liste fiyatıyla kullanım oranında yapılır
+        this.payAsYouGo = new TariffEvaluator(0, 0, 0, 0, Money.ofLira(paygDataPerGb), Money.ofLira(paygVoicePerMin),
+                Money.ofLira(paygSmsPerUnit), Money.ofLira(paygRoamingPerMb), OverageMode.PRORATED);
+    }
+
+    public TariffEvaluator compile(Plan plan) {
+        if (plan.getPlanId() == null) {
+            return compile(plan, null);
+        }
+        return planCache.computeIfAbsent(plan.getPlanId(), key -> compile(plan, null));
+    }
+
+    /**
+     * Ek paketlerin kotaları plana eklenir, ücretleri sabit ücrete katılır
+     */
+    public TariffEvaluator compile(Plan plan, Collection<AddOnPack> addOns) {
+        long fixedFee = Money.ofLira(plan.getMonthlyPrice());
+        long dataQuota = plan.getQuotaGb() != null ? TariffEvaluator.milliMbOfGb(plan.getQuotaGb()) : TariffEvaluator.UNLIMITED;
+        long minutesQuota = plan.getQuotaMin() != null ? plan.getQuotaMin() : TariffEvaluator.UNLIMITED;
+        long smsQuota = plan.getQuotaSms() != null ? plan.getQuotaSms() : TariffEvaluator.UNLIMITED;
+        if (addOns != null) {
+            for (AddOnPack addOn : addOns) {
+                fixedFee += Money.ofLira(addOn.getPrice());
+                dataQuota = extend(dataQuota, addOn.getExtraGb() != null ? TariffEvaluator.milliMbOfGb(addOn.getExtraGb()) : 0);
+                minutesQuota = extend(minutesQuota, addOn.getExtraMin() != null ? addOn.getExtraMin() : 0);
+                smsQuota = extend(smsQuota, addOn.getExtraSms() != null ? addOn.getExtraSms() : 0);
+            }
+        }
+        return new TariffEvaluator(fixedFee, dataQuota, minutesQuota, smsQuota, Money.ofLira(plan.getOverageGb()),
+                Money.ofLira(plan.getOverageMin()), Money.ofLira(plan.getOverageSms()), roamingRatePerMb, modeOf(plan));
+    }
+
+    /**
+     * Planın aşım biçimi; tanımsızsa varsayılan
+     */
+    public OverageMode modeOf(Plan plan) {
+        return plan.getOverageMode() != null ? plan.getOverageMode() : defaultMode;
+    }
+
+    /**
+     * Plan bilinmediğinde tahmini maliyet için kullanılan liste fiyatları; aşım biçiminden bağımsız olarak PRORATED
+     */
+    public TariffEvaluator payAsYouGo() {
+        return payAsYouGo;
+    }
+
+    public long tax(long subtotalKurus) {
+        return Money.percentOf(subtotalKurus, taxBasisPoints);
+    }
+
+    public BigDecimal taxRate() {
+        return taxRate;
+    }
+
+    private static long extend(long quota, long extra) {
+        return quota == TariffEvaluator.UNLIMITED ? quota : quota + extra;
+    }
+}
@@ -0,0 +1,145 @@
+package com.turkcellcase4.billing.rating;
+
+import com.turkcellcase4.common.enums.OverageMode;
+
+/**
+ * Bir plan (ve varsa ek paketleri) için derlenmiş, değişmez tarife.
+ * Tutarlar kuruş, data miktarları milli-MB (MB * 1000) cinsindendir; hesaplamalar nesne oluşturmaz.
+ * Kotası tanımsız (null) kalemler için aşım ücreti çıkmaz.
+ */
+public final class TariffEvaluator {
+
+    public static final long MILLI_MB_PER_MB = 1_000;
+    public static final long MILLI_MB_PER_GB = 1_024 * MILLI_MB_PER_MB;
+    static final long UNLIMITED = -1;
+
+    private final long fixedFee;
+    private final long dataQuota;
+    private final long minutesQuota;
+    private final long smsQuota;
+    private final long dataRatePerGb;
+    private final long minuteRate;
+    private final long smsRate;
+    private final long roamingRatePerMb;
+    private final OverageMode mode;
+
+    TariffEvaluator(long fixedFee, long dataQuota, long minutesQuota, long smsQuota, long dataRatePerGb,
+                    long minuteRate, long smsRate, long roamingRatePerMb, OverageMode mode) {
+        this.fixedFee = fixedFee;
+        this.dataQuota = dataQuota;
+        this.minutesQuota = minutesQuota;
+        this.smsQuota = smsQuota;
+        this.dataRatePerGb = dataRatePerGb;
+        this.minuteRate = minuteRate;
+        this.smsRate = smsRate;
+        this.roamingRatePerMb = roamingRatePerMb;
+        this.mode = mode;
+    }
+
+    /**
+     * Plan ücreti ve ek paket ücretlerinin toplamı
+     */
+    public long fixedFee() {
+        return fixedFee;
+    }
+
+    public OverageMode mode() {
+        return mode;
+    }
+
+    public long dataRatePerGb() {
+        return dataRatePerGb;
+    }
+
+    public long minuteRate() {
+        return minuteRate;
+    }
+
+    public long smsRate() {
+        return smsRate;
+    }
+
+    public long roamingRatePerMb() {
+        return roamingRatePerMb;
+    }
+
+    /**
+     * Kotayı aşan data (milli-MB); sınırsızsa 0
+     */
+    public long dataExcess(long usedMilliMb) {
+        return excess(usedMilliMb, dataQuota);
+    }
+
+    public long minutesExcess(long usedMinutes) {
+        return excess(usedMinutes, minutesQuota);
+    }
+
+    public long smsExcess(long usedSms) {
+        return excess(usedSms, smsQuota);
+    }
+
+    public long dataCharge(long usedMilliMb) {
+        return charge(dataExcess(usedMilliMb), dataRatePerGb, MILLI_MB_PER_GB);
+    }
+
+    public long voiceCharge(long usedMinutes) {
+        return minutesExcess(usedMinutes) * minuteRate;
+    }
+
+    public long smsCharge(long usedSms) {
+        return smsExcess(usedSms) * smsRate;
+    }
+
+    public long roamingCharge(long roamingMilliMb) {
+        return charge(Math.max(0, roamingMilliMb), roamingRatePerMb, MILLI_MB_PER_MB);
+    }
+
+    /**
+     * Vergi öncesi toplam: sabit ücret + tüm aşımlar + roaming
+     */
+    public long rate(long dataMilliMb, long minutes, long sms, long roamingMilliMb) {
+        return fixedFee + dataCharge(dataMilliMb) + voiceCharge(minutes) + smsCharge(sms) + roamingCharge(roamingMilliMb);
+    }
+
+    /**
+     * Batch'in [from, to) satırlarını bu tarifeyle fiyatlar; kalem tutarları ve toplam batch'e yazılır
+     */
+    public void rateAll(RatingBatch batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long data = dataCharge(batch.dataMilliMb[i]);
+            long voice = voiceCharge(batch.minutes[i]);
+            long sms = smsCharge(batch.sms[i]);
+            long roaming = roamingCharge(batch.roamingMilliMb[i]);
+            batch.dataCharge[i] = data;
+            batch.voiceCharge[i] = voice;
+            batch.smsCharge[i] = sms;
+            batch.roamingCharge[i] = roaming;
+            batch.total[i] = fixedFee + data + voice + sms + roaming;
+        }
+    }
+
+    private long charge(long excess, long ratePerUnit, long unitSize) {
+        if (excess <= 0 || ratePerUnit == 0) {
+            return 0;
+        }
+        if (mode == OverageMode.PER_STARTED_UNIT) {
+            return Money.startedUnits(excess, unitSize) * ratePerUnit;
+        }
+        return Money.mulDiv(excess, ratePerUnit, unitSize);
+    }
+
+    private static long excess(long used, long quota) {
+        return quota == UNLIMITED || used <= quota ? 0 : used - quota;
+    }
+
+    /**
+     * MB cinsinden kullanımı milli-MB'a çevirir
+     */
+    public static long milliMbOfMb(double mb) {
+        return Math.round(mb * MILLI_MB_PER_MB);
+    }
+
+    public static long milliMbOfGb(double gb) {
+        return Math.round(gb * MILLI_MB_PER_GB);
+    }
+}
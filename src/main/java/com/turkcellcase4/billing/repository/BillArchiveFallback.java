@@ -0,0 +1,16 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.Bill;
+
+import java.util.Optional;
+
+/**
+ * Sıcak tabloda bulunamayan faturaların soğuk arşivden okunması. Arşivden dönen faturalar detached'dır,
+ * kalemleri doldurulmuş gelir ve {@link Bill#isArchived()} true'dur; kaydedilmemelidir.
+ */
+public interface BillArchiveFallback {
+
+    Optional<Bill> findByIdIncludingArchive(Long billId);
+
+    Optional<Bill> findByUserIdAndPeriodKeyIncludingArchive(Long userId, int periodKey);
+}
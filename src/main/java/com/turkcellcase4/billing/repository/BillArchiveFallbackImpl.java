@@ -0,0 +1,75 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.archive.ArchivedBill;
+import com.turkcellcase4.billing.archive.BillArchiveStore;
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillItem;
+import com.turkcellcase4.common.enums.ItemCategory;
+import com.turkcellcase4.user.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class BillArchiveFallbackImpl implements BillArchiveFallback {
+
+    private final BillArchiveStore billArchiveStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Bill> findByIdIncludingArchive(Long billId) {
+        Bill bill = entityManager.find(Bill.class, billId);
+        if (bill != null) {
+            return Optional.of(bill);
+        }
+        return billArchiveStore.findByBillId(billId).map(BillArchiveFallbackImpl::toBill);
+    }
+
+    @Override
+    public Optional<Bill> findByUserIdAndPeriodKeyIncludingArchive(Long userId, int periodKey) {
+        List<Bill> bills = entityManager.createQuery(
+                        "SELECT b FROM Bill b LEFT JOIN FETCH b.user WHERE b.user.userId = :userId AND b.periodKey = :periodKey",
+                        Bill.class)
+                .setParameter("userId", userId)
+                .setParameter("periodKey", periodKey)
+                .setMaxResults(1)
+                .getResultList();
+        if (!bills.isEmpty()) {
+            return Optional.of(bills.get(0));
+        }
+        return billArchiveStore.findByUserIdAndPeriodKey(userId, periodKey).map(BillArchiveFallbackImpl::toBill);
+    }
+
+    private static Bill toBill(ArchivedBill archived) {
+        User user = new User();
+        user.setUserId(archived.userId());
+        Bill bill = new Bill();
+        bill.setBillId(archived.billId());
+        bill.setUser(user);
+        bill.setPeriodStart(archived.periodStart());
+        bill.setPeriodEnd(archived.periodEnd());
+        bill.setPeriodKey(archived.periodKey());
+        bill.setIssueDate(archived.issueDate());
+        bill.setTotalAmount(archived.totalAmount());
+        bill.setCurrency(archived.currency());
+        bill.setArchived(true);
+        bill.setBillItems(archived.items().stream()
+                .map(item -> BillItem.builder()
+                        .itemId(item.itemId())
+                        .category(item.category() != null ? ItemCategory.valueOf(item.category()) : null)
+                        .subtype(item.subtype())
+                        .description(item.description())
+                        .amount(item.amount())
+                        .unitPrice(item.unitPrice())
+                        .quantity(item.quantity())
+                        .taxRate(item.taxRate())
+                        .build())
+                .toList());
+        return bill;
+    }
+}
@@ -0,0 +1,129 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.archive.ArchivedBill;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Soğuk katmana taşınacak faturaların okunması ve sıcak tablolardan silinmesi. Dönem, sunucu tarafı cursor ile
+ * (user_id, bill_id) sırasında okunur; bu sıra segment yazıcısının beklediği sıradır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BillArchiveJdbcRepository {
+
+    private static final int ARCHIVE_FETCH_SIZE = 2000;
+
+    private static final String FIND_PERIODS_BEFORE = """
+            SELECT DISTINCT period_key FROM bill_headers
+            WHERE period_key < ?
+            ORDER BY period_key
+            """;
+
+    private static final String STREAM_PERIOD = """
+            SELECT b.bill_id, b.user_id, b.period_start, b.period_end, b.issue_date, b.total_amount, b.currency,
+                   i.item_id, i.category, i.subtype, i.description, i.amount, i.unit_price, i.quantity, i.tax_rate
+            FROM bill_headers b
+            LEFT JOIN bill_items i ON i.bill_id = b.bill_id
+            WHERE b.period_key = ?
+            ORDER BY b.user_id, b.bill_id, i.item_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Integer> findPeriodKeysBefore(int cutoffPeriodKey) {
+        return jdbcTemplate.queryForList(FIND_PERIODS_BEFORE, Integer.class, cutoffPeriodKey);
+    }
+
+    /**
+     * Dönemin faturalarını kalemleriyle birlikte sırayla sink'e verir; okunan fatura sayısını döner
+     */
+    @Transactional(readOnly = true)
+    public long streamPeriod(int periodKey, Consumer<ArchivedBill> sink) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STREAM_PERIOD);
+            statement.setFetchSize(ARCHIVE_FETCH_SIZE);
+            statement.setInt(1, periodKey);
+            return statement;
+        }, rs -> {
+            long bills = 0;
+            ArchivedBill current = null;
+            while (rs.next()) {
+                long billId = rs.getLong("bill_id");
+                if (current == null || current.billId() != billId) {
+                    if (current != null) {
+                        sink.accept(current);
+                        bills++;
+                    }
+                    current = new ArchivedBill(billId, rs.getLong("user_id"), toLocalDate(rs.getDate("period_start")),
+                            toLocalDate(rs.getDate("period_end")), toLocalDate(rs.getDate("issue_date")),
+                            rs.getBigDecimal("total_amount"), rs.getString("currency"), new ArrayList<>());
+                }
+                long itemId = rs.getLong("item_id");
+                if (!rs.wasNull()) {
+                    current.items().add(readItem(rs, itemId));
+                }
+            }
+            if (current != null) {
+                sink.accept(current);
+                bills++;
+            }
+            return bills;
+        });
+    }
+
+    /**
+     * Faturaları, kalemlerini, kategori toplamlarını ve özet işlerini tek transaction'da siler; silinen başlık sayısını döner
+     */
+    @Transactional
+    public int deleteBills(long[] billIds) {
+        Long[] ids = Arrays.stream(billIds).boxed().toArray(Long[]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("DELETE FROM bill_summary_jobs WHERE bill_id = ANY(?)");
+            ps.setArray(1, bigintArray(ps, ids));
+            return ps;
+        });
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("DELETE FROM bill_category_totals WHERE bill_id = ANY(?)");
+            ps.setArray(1, bigintArray(ps, ids));
+            return ps;
+        });
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("DELETE FROM bill_items WHERE bill_id = ANY(?)");
+            ps.setArray(1, bigintArray(ps, ids));
+            return ps;
+        });
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("DELETE FROM bill_headers WHERE bill_id = ANY(?)");
+            ps.setArray(1, bigintArray(ps, ids));
+            return ps;
+        });
+    }
+
+    private static ArchivedBill.ArchivedItem readItem(ResultSet rs, long itemId) throws SQLException {
+        return new ArchivedBill.ArchivedItem(itemId, rs.getString("category"), rs.getString("subtype"),
+                rs.getString("description"), rs.getBigDecimal("amount"), rs.getBigDecimal("unit_price"),
+                rs.getObject("quantity", Integer.class), rs.getBigDecimal("tax_rate"));
+    }
+
+    private static Array bigintArray(PreparedStatement ps, Long[] ids) throws SQLException {
+        return ps.getConnection().createArrayOf("bigint", ids);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
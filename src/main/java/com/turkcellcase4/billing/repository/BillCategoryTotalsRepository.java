@@ -0,0 +1,49 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface BillCategoryTotalsRepository extends JpaRepository<BillCategoryTotals, Long> {
+
+	// Faturaların toplamlarını kalemlerden tek sorguda üretir; satır varsa üzerine yazılır. Toplamı olmayan faturalar
+	// için okumada, toplu yüklenen faturalar için de yükleme transaction'ında çağrılır
+	@Modifying
+	@Transactional
+	@Query(value = "INSERT INTO bill_category_totals (bill_id, user_id, period_key, data_amount, voice_amount, sms_amount, "
+			+ "roaming_amount, premium_sms_amount, vas_amount, one_off_amount, discount_amount, tax_amount, plan_fee_amount, "
+			+ "overage_amount, data_overage_amount, item_count, created_at, updated_at) "
+			+ "SELECT b.bill_id, b.user_id, b.period_key, "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'DATA'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'VOICE'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'SMS'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'ROAMING'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'PREMIUM_SMS'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'VAS'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'ONE_OFF'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'DISCOUNT'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'TAX'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'VAS' AND i.subtype = 'plan_fee'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE right(i.subtype, 8) = '_overage'), 0), "
+			+ "COALESCE(SUM(i.amount) FILTER (WHERE i.category = 'DATA' AND i.subtype = 'data_overage'), 0), "
+			+ "COUNT(i.item_id), now(), now() "
+			+ "FROM bill_headers b LEFT JOIN bill_items i ON i.bill_id = b.bill_id "
+			+ "WHERE b.bill_id IN (:billIds) "
+			+ "GROUP BY b.bill_id, b.user_id, b.period_key "
+			+ "ON CONFLICT (bill_id) DO UPDATE SET user_id = EXCLUDED.user_id, period_key = EXCLUDED.period_key, "
+			+ "data_amount = EXCLUDED.data_amount, voice_amount = EXCLUDED.voice_amount, sms_amount = EXCLUDED.sms_amount, "
+			+ "roaming_amount = EXCLUDED.roaming_amount, premium_sms_amount = EXCLUDED.premium_sms_amount, "
+			+ "vas_amount = EXCLUDED.vas_amount, one_off_amount = EXCLUDED.one_off_amount, "
+			+ "discount_amount = EXCLUDED.discount_amount, tax_amount = EXCLUDED.tax_amount, "
+			+ "plan_fee_amount = EXCLUDED.plan_fee_amount, overage_amount = EXCLUDED.overage_amount, "
+			+ "data_overage_amount = EXCLUDED.data_overage_amount, item_count = EXCLUDED.item_count, updated_at = now()",
+			nativeQuery = true)
+	int recompute(@Param("billIds") Collection<Long> billIds);
+}
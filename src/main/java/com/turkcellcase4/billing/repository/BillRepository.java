@@ -1,28 +1,57 @@
 package com.turkcellcase4.billing.repository;
 
+import com.turkcellcase4.billing.dto.BillHeaderDTO;
 import com.turkcellcase4.billing.model.Bill;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BillRepository extends JpaRepository<Bill, Long> {
+public interface BillRepository extends JpaRepository<Bill, Long>, BillArchiveFallback {
 	
 	List<Bill> findByUser_UserIdAndPeriodStartBetween(Long userId, LocalDate start, LocalDate end);
 	
 	@Query("SELECT b FROM Bill b LEFT JOIN FETCH b.user WHERE b.user.userId = :userId AND b.periodStart >= :startDate")
 	List<Bill> findRecentBillsByUserId(@Param("userId") Long userId, @Param("startDate") LocalDate startDate);
 	
-	@Query("SELECT b FROM Bill b LEFT JOIN FETCH b.user WHERE b.user.userId = :userId AND EXTRACT(YEAR FROM b.periodStart) = :year AND EXTRACT(MONTH FROM b.periodStart) = :month")
-	Optional<Bill> findByUserIdAndPeriod(@Param("userId") Long userId, @Param("year") int year, @Param("month") int month);
+	// period_key eşitliği (user_id, period_key) indeksini kullanır; EXTRACT ile indeks kullanılamıyordu
+	@Query("SELECT b FROM Bill b LEFT JOIN FETCH b.user WHERE b.user.userId = :userId AND b.periodKey = :periodKey")
+	Optional<Bill> findByUserIdAndPeriodKey(@Param("userId") Long userId, @Param("periodKey") int periodKey);
 	
-	@Query("SELECT b FROM Bill b LEFT JOIN FETCH b.user WHERE b.user.userId = :userId ORDER BY b.periodStart DESC")
-	List<Bill> findAllByUserIdOrderByPeriodStartDesc(@Param("userId") Long userId);
+	// Keyset sayfalama: (period_key, bill_id) azalan sırada, imleçten sonraki satırlar; yalnızca başlık kolonları okunur
+	@Query("SELECT new com.turkcellcase4.billing.dto.BillHeaderDTO(b.billId, b.user.userId, b.periodStart, b.periodEnd, "
+			+ "b.issueDate, b.totalAmount, b.currency, b.periodKey) FROM Bill b "
+			+ "WHERE b.user.userId = :userId AND b.periodKey BETWEEN :fromKey AND :toKey "
+			+ "AND (b.periodKey < :afterPeriodKey OR (b.periodKey = :afterPeriodKey AND b.billId < :afterBillId)) "
+			+ "ORDER BY b.periodKey DESC, b.billId DESC")
+	List<BillHeaderDTO> findHeaderPage(@Param("userId") Long userId, @Param("fromKey") int fromKey, @Param("toKey") int toKey,
+			@Param("afterPeriodKey") int afterPeriodKey, @Param("afterBillId") long afterBillId, Pageable pageable);
+	
+	@Query("SELECT b.issueDate FROM Bill b WHERE b.billId = :billId")
+	Optional<LocalDate> findIssueDateById(@Param("billId") Long billId);
+	
+	// Dönem indeksinde bulunmayan faturanın kullanıcısı; entity yüklenmez
+	@Query("SELECT b.user.userId FROM Bill b WHERE b.billId = :billId")
+	Optional<Long> findUserIdById(@Param("billId") Long billId);
+	
+	// Dönem indeksi için yalnızca (period_key, bill_id) çiftleri okunur
+	@Query("SELECT b.periodKey, b.billId FROM Bill b WHERE b.user.userId = :userId AND b.periodKey IS NOT NULL ORDER BY b.periodKey, b.billId")
+	List<Object[]> findPeriodIndex(@Param("userId") Long userId);
+	
+	// period_key kolonu eklenmeden önce oluşmuş satırlar için
+	@Modifying
+	@Transactional
+	@Query(value = "UPDATE bill_headers SET period_key = CAST(EXTRACT(YEAR FROM period_start) * 100 + EXTRACT(MONTH FROM period_start) AS INTEGER) "
+			+ "WHERE period_key IS NULL AND period_start IS NOT NULL", nativeQuery = true)
+	int backfillPeriodKeys();
 	
 	// N+1 sorgu problemlerini çözmek için batch query'ler
 	@Query("SELECT b FROM Bill b LEFT JOIN FETCH b.billItems WHERE b.billId IN :billIds")
@@ -0,0 +1,257 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fatura koşusu ve toplu fatura gönderiminin okuma ve yazma sorguları. Okumalar kullanıcı ID aralığıyla yapılır;
+ * usage_daily'de tarih aralığı yalnızca dönemin bölümünü taratır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BillRunJdbcRepository {
+
+    // Dönemde faturası olan kullanıcılar atlanır; kesilen koşu bu sayede aynı kullanıcıyı iki kez faturalamaz
+    private static final String FIND_UNBILLED_USERS = """
+            SELECT u.user_id, u.current_plan_id
+            FROM users u
+            WHERE u.user_id > ?
+              AND NOT EXISTS (SELECT 1 FROM bill_headers b WHERE b.user_id = u.user_id AND b.period_key = ?)
+            ORDER BY u.user_id
+            LIMIT ?
+            """;
+
+    private static final String SUM_USAGE = """
+            SELECT user_id,
+                   COALESCE(SUM(mb_used), 0) AS mb_used,
+                   COALESCE(SUM(minutes_used), 0) AS minutes_used,
+                   COALESCE(SUM(sms_used), 0) AS sms_used,
+                   COALESCE(SUM(roaming_mb), 0) AS roaming_mb
+            FROM usage_daily
+            WHERE date >= ? AND date < ? AND user_id BETWEEN ? AND ?
+            GROUP BY user_id
+            """;
+
+    // Kullanıcı bazında abonelik tablosu olmadığından önceki dönemin VAS kalemleri tekrarlayan ücret kabul edilir
+    private static final String FIND_RECURRING_VAS = """
+            SELECT b.user_id, i.subtype, i.description, i.unit_price
+            FROM bill_items i
+            JOIN bill_headers b ON b.bill_id = i.bill_id
+            WHERE b.period_key = ? AND b.user_id BETWEEN ? AND ?
+              AND i.category = 'VAS' AND i.subtype <> 'plan_fee'
+            ORDER BY b.user_id, i.item_id
+            """;
+
+    // Tek sorguda dizilerden yazılır; aynı (user_id, period_key) için fatura varsa satır atlanır ve
+    // yalnızca yazılan ID'ler döner. reWriteBatchedInserts açıkken batch satır sayıları bilinmediğinden RETURNING kullanılır
+    private static final String INSERT_BILLS = """
+            INSERT INTO bill_headers (bill_id, user_id, period_start, period_end, issue_date, total_amount, currency,
+                                      period_key, created_at, updated_at)
+            SELECT b.bill_id, b.user_id, b.period_start, b.period_end, b.issue_date, b.total_amount, b.currency,
+                   b.period_key, now(), now()
+            FROM unnest(?::bigint[], ?::bigint[], ?::date[], ?::date[], ?::date[], ?::numeric[], ?::varchar[], ?::integer[])
+                 AS b(bill_id, user_id, period_start, period_end, issue_date, total_amount, currency, period_key)
+            ON CONFLICT (user_id, period_key) DO NOTHING
+            RETURNING bill_id
+            """;
+
+    private static final String INSERT_ITEM = """
+            INSERT INTO bill_items (item_id, bill_id, category, subtype, description, amount, unit_price, quantity,
+                                    tax_rate, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    private static final String INSERT_CATEGORY_TOTALS = """
+            INSERT INTO bill_category_totals (bill_id, user_id, period_key, data_amount, voice_amount, sms_amount,
+                                              roaming_amount, premium_sms_amount, vas_amount, one_off_amount,
+                                              discount_amount, tax_amount, plan_fee_amount, overage_amount,
+                                              data_overage_amount, item_count, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now())
+            """;
+
+    // Öncelik BillSummaryJobServiceImpl ile aynı: fatura dönemi (yyyyMM)
+    private static final String INSERT_SUMMARY_JOB = """
+            INSERT INTO bill_summary_jobs (bill_id, status, priority, attempts, created_at, updated_at)
+            VALUES (?, 'PENDING', ?, 0, now(), now())
+            ON CONFLICT (bill_id) DO NOTHING
+            """;
+
+    private static final String ADD_PROGRESS = """
+            UPDATE bill_runs SET
+                processed_users = processed_users + ?,
+                billed_users = billed_users + ?,
+                skipped_users = skipped_users + ?,
+                total_amount = total_amount + ?,
+                updated_at = now()
+            WHERE run_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<UserPlan> findUnbilledUsers(int periodKey, long afterUserId, int limit) {
+        return jdbcTemplate.query(FIND_UNBILLED_USERS, (rs, rowNum) -> new UserPlan(
+                rs.getLong("user_id"), rs.getObject("current_plan_id", Long.class)), afterUserId, periodKey, limit);
+    }
+
+    /**
+     * Verilen ID'lerden users tablosunda olanları tek sorguda döner
+     */
+    public Set<Long> findExistingUserIds(Collection<Long> userIds) {
+        Long[] ids = userIds.toArray(new Long[0]);
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement("SELECT user_id FROM users WHERE user_id = ANY(?)");
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    public Map<Long, UsageTotals> sumUsage(LocalDate from, LocalDate toExclusive, long firstUserId, long lastUserId) {
+        Map<Long, UsageTotals> totals = new HashMap<>();
+        jdbcTemplate.query(SUM_USAGE, rs -> {
+            long userId = rs.getLong("user_id");
+            totals.put(userId, new UsageTotals(rs.getDouble("mb_used"), rs.getLong("minutes_used"),
+                    rs.getLong("sms_used"), rs.getDouble("roaming_mb")));
+        }, Date.valueOf(from), Date.valueOf(toExclusive), firstUserId, lastUserId);
+        return totals;
+    }
+
+    public Map<Long, List<RecurringCharge>> findRecurringVas(int periodKey, long firstUserId, long lastUserId) {
+        Map<Long, List<RecurringCharge>> charges = new HashMap<>();
+        jdbcTemplate.query(FIND_RECURRING_VAS, rs -> {
+            charges.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>())
+                    .add(new RecurringCharge(rs.getString("subtype"), rs.getString("description"), rs.getBigDecimal("unit_price")));
+        }, periodKey, firstUserId, lastUserId);
+        return charges;
+    }
+
+    /**
+     * Başlıkları yazar; dönemde faturası olan kullanıcıların satırları atlanır. Yazılan bill_id'leri döner.
+     */
+    public Set<Long> insertBills(List<BillRow> rows) {
+        if (rows.isEmpty()) {
+            return new HashSet<>();
+        }
+        int size = rows.size();
+        Long[] billIds = new Long[size];
+        Long[] userIds = new Long[size];
+        Date[] periodStarts = new Date[size];
+        Date[] periodEnds = new Date[size];
+        Date[] issueDates = new Date[size];
+        BigDecimal[] totalAmounts = new BigDecimal[size];
+        String[] currencies = new String[size];
+        Integer[] periodKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            BillRow row = rows.get(i);
+            billIds[i] = row.billId();
+            userIds[i] = row.userId();
+            periodStarts[i] = Date.valueOf(row.periodStart());
+            periodEnds[i] = Date.valueOf(row.periodEnd());
+            issueDates[i] = Date.valueOf(row.issueDate());
+            totalAmounts[i] = row.totalAmount();
+            currencies[i] = row.currency();
+            periodKeys[i] = row.periodKey();
+        }
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_BILLS);
+            ps.setArray(1, connection.createArrayOf("bigint", billIds));
+            ps.setArray(2, connection.createArrayOf("bigint", userIds));
+            ps.setArray(3, connection.createArrayOf("date", periodStarts));
+            ps.setArray(4, connection.createArrayOf("date", periodEnds));
+            ps.setArray(5, connection.createArrayOf("date", issueDates));
+            ps.setArray(6, connection.createArrayOf("numeric", totalAmounts));
+            ps.setArray(7, connection.createArrayOf("varchar", currencies));
+            ps.setArray(8, connection.createArrayOf("integer", periodKeys));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    public void insertItems(List<ItemRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_ITEM, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.itemId());
+            ps.setLong(2, row.billId());
+            ps.setString(3, row.category());
+            ps.setString(4, row.subtype());
+            ps.setString(5, row.description());
+            ps.setBigDecimal(6, row.amount());
+            if (row.unitPrice() != null) {
+                ps.setBigDecimal(7, row.unitPrice());
+            } else {
+                ps.setNull(7, Types.NUMERIC);
+            }
+            ps.setInt(8, row.quantity());
+            ps.setBigDecimal(9, row.taxRate());
+        });
+    }
+
+    public void insertCategoryTotals(List<BillCategoryTotals> rows) {
+        jdbcTemplate.batchUpdate(INSERT_CATEGORY_TOTALS, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getBillId());
+            ps.setLong(2, row.getUserId());
+            ps.setInt(3, row.getPeriodKey());
+            ps.setBigDecimal(4, row.getDataAmount());
+            ps.setBigDecimal(5, row.getVoiceAmount());
+            ps.setBigDecimal(6, row.getSmsAmount());
+            ps.setBigDecimal(7, row.getRoamingAmount());
+            ps.setBigDecimal(8, row.getPremiumSmsAmount());
+            ps.setBigDecimal(9, row.getVasAmount());
+            ps.setBigDecimal(10, row.getOneOffAmount());
+            ps.setBigDecimal(11, row.getDiscountAmount());
+            ps.setBigDecimal(12, row.getTaxAmount());
+            ps.setBigDecimal(13, row.getPlanFeeAmount());
+            ps.setBigDecimal(14, row.getOverageAmount());
+            ps.setBigDecimal(15, row.getDataOverageAmount());
+            ps.setInt(16, row.getItemCount());
+        });
+    }
+
+    /**
+     * Yazılan faturaların özet işlerini aynı transaction'da kuyruğa alır
+     */
+    public void insertSummaryJobs(List<BillRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SUMMARY_JOB, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.billId());
+            ps.setInt(2, row.periodKey());
+        });
+    }
+
+    public void addProgress(long runId, int processed, int billed, int skipped, BigDecimal amount) {
+        jdbcTemplate.update(ADD_PROGRESS, processed, billed, skipped, amount, runId);
+    }
+
+    public void updateCheckpoint(long runId, long lastUserId) {
+        jdbcTemplate.update("UPDATE bill_runs SET last_user_id = GREATEST(last_user_id, ?), updated_at = now() WHERE run_id = ?",
+                lastUserId, runId);
+    }
+
+    public record UserPlan(long userId, Long planId) {
+    }
+
+    public record UsageTotals(double mbUsed, long minutesUsed, long smsUsed, double roamingMb) {
+    }
+
+    public record RecurringCharge(String subtype, String description, BigDecimal unitPrice) {
+    }
+
+    public record BillRow(long billId, long userId, LocalDate periodStart, LocalDate periodEnd, LocalDate issueDate,
+                          BigDecimal totalAmount, String currency, int periodKey) {
+    }
+
+    public record ItemRow(long itemId, long billId, String category, String subtype, String description,
+                          BigDecimal amount, BigDecimal unitPrice, int quantity, BigDecimal taxRate) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.BillRun;
+import com.turkcellcase4.common.enums.BillRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BillRunRepository extends JpaRepository<BillRun, Long> {
+
+    Optional<BillRun> findByPeriodKey(Integer periodKey);
+
+    List<BillRun> findByStatus(BillRunStatus status);
+
+    List<BillRun> findAllByOrderByPeriodKeyDesc();
+}
@@ -0,0 +1,65 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.BillSummaryJob;
+import com.turkcellcase4.common.enums.SummaryJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BillSummaryJobRepository extends JpaRepository<BillSummaryJob, Long> {
+
+    Optional<BillSummaryJob> findByBillId(Long billId);
+
+    boolean existsByBillId(Long billId);
+
+    long countByStatus(SummaryJobStatus status);
+
+    /**
+     * Sırası gelmiş bekleyen işleri öncelik sırasıyla getirir
+     */
+    @Query("SELECT j FROM BillSummaryJob j WHERE j.status = :status " +
+           "AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now) " +
+           "ORDER BY j.priority DESC, j.id ASC")
+    List<BillSummaryJob> findReadyJobs(@Param("status") SummaryJobStatus status,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    @Query("SELECT MIN(j.createdAt) FROM BillSummaryJob j WHERE j.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") SummaryJobStatus status);
+
+    /**
+     * İşi yalnızca hâlâ bekliyorsa RUNNING'e çeker; 1 dönerse iş bu çağırana aittir
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BillSummaryJob j SET j.status = :running, j.attempts = j.attempts + 1, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = :pending")
+    int claim(@Param("id") Long id,
+              @Param("pending") SummaryJobStatus pending,
+              @Param("running") SummaryJobStatus running,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Uygulama kapanırken yarıda kalan işleri tekrar kuyruğa alır
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BillSummaryJob j SET j.status = :pending WHERE j.status = :running")
+    int resetStatus(@Param("running") SummaryJobStatus running, @Param("pending") SummaryJobStatus pending);
+
+    /**
+     * afterBillId'den sonraki, henüz özet işi oluşturulmamış faturaları bill_id sırasıyla döner (id, dönem başlangıcı)
+     */
+    @Query("SELECT b.billId, b.periodStart FROM Bill b WHERE b.billId > :afterBillId AND NOT EXISTS " +
+           "(SELECT 1 FROM BillSummaryJob j WHERE j.billId = b.billId) ORDER BY b.billId")
+    List<Object[]> findBillsWithoutJob(@Param("afterBillId") Long afterBillId, Pageable pageable);
+}
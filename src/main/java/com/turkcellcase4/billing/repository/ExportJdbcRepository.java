@@ -0,0 +1,73 @@
+package com.turkcellcase4.billing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Dışa aktarım sorguları. Satırlar sunucu tarafı cursor ile EXPORT_FETCH_SIZE'lık gruplar halinde okunur;
+ * PostgreSQL fetchSize'ı yalnızca açık bir transaction içinde uyguladığı için metotlar transactional'dır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExportJdbcRepository {
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String STREAM_BILLS = """
+            SELECT bill_id AS "billId", user_id AS "userId", period_start AS "periodStart", period_end AS "periodEnd",
+                   issue_date AS "issueDate", total_amount AS "totalAmount", currency
+            FROM bill_headers
+            WHERE user_id = ? AND period_key BETWEEN ? AND ?
+            ORDER BY period_key, bill_id
+            """;
+
+    private static final String STREAM_ITEMS = """
+            SELECT i.item_id AS "itemId", i.bill_id AS "billId", b.period_start AS "periodStart", i.category,
+                   i.subtype, i.description, i.amount, i.unit_price AS "unitPrice", i.quantity, i.tax_rate AS "taxRate"
+            FROM bill_items i
+            JOIN bill_headers b ON b.bill_id = i.bill_id
+            WHERE b.user_id = ? AND b.period_key BETWEEN ? AND ?
+            ORDER BY b.period_key, i.bill_id, i.item_id
+            """;
+
+    private static final String STREAM_USAGE = """
+            SELECT date, mb_used AS "mbUsed", minutes_used AS "minutesUsed", sms_used AS "smsUsed", roaming_mb AS "roamingMb"
+            FROM usage_daily
+            WHERE user_id = ? AND date BETWEEN ? AND ?
+            ORDER BY date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public <T> T streamBills(long userId, int fromKey, int toKey, ResultSetExtractor<T> extractor) {
+        return stream(STREAM_BILLS, extractor, userId, fromKey, toKey);
+    }
+
+    @Transactional(readOnly = true)
+    public <T> T streamItems(long userId, int fromKey, int toKey, ResultSetExtractor<T> extractor) {
+        return stream(STREAM_ITEMS, extractor, userId, fromKey, toKey);
+    }
+
+    @Transactional(readOnly = true)
+    public <T> T streamUsage(long userId, LocalDate from, LocalDate to, ResultSetExtractor<T> extractor) {
+        return stream(STREAM_USAGE, extractor, userId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private <T> T stream(String sql, ResultSetExtractor<T> extractor, Object... args) {
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, extractor);
+    }
+}
@@ -0,0 +1,33 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.QuotaAlertState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface QuotaAlertStateRepository extends JpaRepository<QuotaAlertState, Long> {
+
+	Optional<QuotaAlertState> findByUserIdAndPeriodKey(Long userId, Integer periodKey);
+
+	// Aynı planda seviyeler yalnızca yükselir (eşzamanlı yazmalarda eski değer yenisini ezmez); plan değiştiyse sıfırdan yazılır
+	@Modifying
+	@Transactional
+	@Query(value = "INSERT INTO quota_alert_states (user_id, period_key, plan_id, data_level, voice_level, sms_level, created_at, updated_at) "
+			+ "VALUES (:userId, :periodKey, :planId, :dataLevel, :voiceLevel, :smsLevel, now(), now()) "
+			+ "ON CONFLICT (user_id, period_key) DO UPDATE SET "
+			+ "data_level = CASE WHEN quota_alert_states.plan_id = EXCLUDED.plan_id "
+			+ "THEN GREATEST(quota_alert_states.data_level, EXCLUDED.data_level) ELSE EXCLUDED.data_level END, "
+			+ "voice_level = CASE WHEN quota_alert_states.plan_id = EXCLUDED.plan_id "
+			+ "THEN GREATEST(quota_alert_states.voice_level, EXCLUDED.voice_level) ELSE EXCLUDED.voice_level END, "
+			+ "sms_level = CASE WHEN quota_alert_states.plan_id = EXCLUDED.plan_id "
+			+ "THEN GREATEST(quota_alert_states.sms_level, EXCLUDED.sms_level) ELSE EXCLUDED.sms_level END, "
+			+ "plan_id = EXCLUDED.plan_id, updated_at = now()", nativeQuery = true)
+	int upsert(@Param("userId") Long userId, @Param("periodKey") Integer periodKey, @Param("planId") Long planId,
+			   @Param("dataLevel") Integer dataLevel, @Param("voiceLevel") Integer voiceLevel, @Param("smsLevel") Integer smsLevel);
+}
@@ -0,0 +1,19 @@
+package com.turkcellcase4.billing.repository;
+
+import com.turkcellcase4.billing.model.UsageMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UsageMonthlyRepository extends JpaRepository<UsageMonthly, Long> {
+
+    Optional<UsageMonthly> findByUser_UserIdAndPeriodKey(Long userId, Integer periodKey);
+
+    /**
+     * Kullanıcının iki dönem arasındaki (dahil) aylık toplamlarını dönem sırasıyla getirir
+     */
+    List<UsageMonthly> findByUser_UserIdAndPeriodKeyBetweenOrderByPeriodKeyAsc(Long userId, Integer fromPeriodKey, Integer toPeriodKey);
+}
@@ -0,0 +1,273 @@
+package com.turkcellcase4.billing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * usage_daily'nin aylık RANGE bölümleme (partition) DDL'leri.
+ * Bölümler usage_daily_pYYYYMM adını taşır; aralık dışı tarihler usage_daily_default'a düşer
+ * ve bakım sırasında kendi ayının bölümüne taşınır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsagePartitionJdbcRepository {
+
+    public static final String DEFAULT_PARTITION = "usage_daily_default";
+    private static final String LEGACY_TABLE = "usage_daily_legacy";
+    private static final String ID_SEQUENCE = "usage_daily_part_id_seq";
+    private static final String PARTITION_PREFIX = "usage_daily_p";
+
+    // Kolonlar UsageDaily entity'si ile aynı; birincil anahtar bölümleme kolonunu içermek zorunda
+    private static final String CREATE_PARTITIONED = """
+            CREATE TABLE usage_daily (
+                id BIGINT NOT NULL DEFAULT nextval('usage_daily_part_id_seq'),
+                user_id BIGINT NOT NULL,
+                date DATE NOT NULL,
+                mb_used FLOAT8,
+                minutes_used INTEGER,
+                sms_used INTEGER,
+                roaming_mb FLOAT8,
+                created_at TIMESTAMP(6) NOT NULL,
+                updated_at TIMESTAMP(6),
+                CONSTRAINT usage_daily_pkey PRIMARY KEY (id, date),
+                CONSTRAINT uk_usage_daily_user_date UNIQUE (user_id, date)
+            ) PARTITION BY RANGE (date)
+            """;
+
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('usage_daily')
+            ORDER BY c.relname
+            """;
+
+    private static final String IS_ATTACHED = """
+            SELECT EXISTS (
+                SELECT 1 FROM pg_inherits
+                WHERE inhrelid = to_regclass(?) AND inhparent = to_regclass('usage_daily')
+            )
+            """;
+
+    public static final String USER_DATE_CONSTRAINT = "uk_usage_daily_user_date";
+
+    // Aynı (kullanıcı, gün) satırları en küçük ID'li satırda toplanır, diğerleri silinir; değerler
+    // CDR artışlarıyla aynı şekilde toplanır
+    private static final String MERGE_DUPLICATE_DAYS = """
+            WITH merged AS (
+                SELECT user_id, date, MIN(id) AS keep_id,
+                       SUM(mb_used) AS mb_used, SUM(minutes_used) AS minutes_used,
+                       SUM(sms_used) AS sms_used, SUM(roaming_mb) AS roaming_mb
+                FROM usage_daily
+                GROUP BY user_id, date
+                HAVING COUNT(*) > 1
+            ), kept AS (
+                UPDATE usage_daily u SET
+                    mb_used = m.mb_used,
+                    minutes_used = m.minutes_used,
+                    sms_used = m.sms_used,
+                    roaming_mb = m.roaming_mb,
+                    updated_at = now()
+                FROM merged m
+                WHERE u.id = m.keep_id
+            )
+            DELETE FROM usage_daily u
+            USING merged m
+            WHERE u.user_id = m.user_id AND u.date = m.date AND u.id <> m.keep_id
+            """;
+
+    // Çevirme sırasında uzun süren işlemlerin arkasında kuyruğa girip tüm usage_daily erişimini bekletmemek için
+    private static final String CONVERT_LOCK_TIMEOUT = "10s";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean exists() {
+        return jdbcTemplate.queryForObject("SELECT to_regclass('usage_daily') IS NOT NULL", Boolean.class);
+    }
+
+    public boolean isPartitioned() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('usage_daily')", String.class);
+        return !kinds.isEmpty() && "p".equals(kinds.get(0));
+    }
+
+    public boolean hasUserDateConstraint() {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = to_regclass('usage_daily') AND conname = ?)",
+                Boolean.class, USER_DATE_CONSTRAINT);
+    }
+
+    /**
+     * Tekrarlanan (kullanıcı, gün) satırlarını birleştirir ve unique kısıtı ekler. Çağıran tek bir transaction
+     * açmalıdır; birleştirme ile kısıt arasında yeni tekrar yazılmaması için tablo yazmaya kapatılır.
+     *
+     * @return silinen tekrar satır sayısı
+     */
+    public int addUserDateConstraint() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + CONVERT_LOCK_TIMEOUT + "'");
+        jdbcTemplate.execute("LOCK TABLE usage_daily IN SHARE ROW EXCLUSIVE MODE");
+        int removed = jdbcTemplate.update(MERGE_DUPLICATE_DAYS);
+        jdbcTemplate.execute("ALTER TABLE usage_daily ADD CONSTRAINT " + USER_DATE_CONSTRAINT + " UNIQUE (user_id, date)");
+        return removed;
+    }
+
+    /**
+     * Düz usage_daily tablosunu bölümlenmiş tabloya çevirir. Çağıran tek bir transaction açmalıdır;
+     * tablo işlem boyunca kilitli kalır. Kilit CONVERT_LOCK_TIMEOUT içinde alınamazsa işlem hata ile biter.
+     *
+     * @return taşınan satır sayısı
+     */
+    public long convertToPartitioned(YearMonth lastMonth) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + CONVERT_LOCK_TIMEOUT + "'");
+        jdbcTemplate.execute("LOCK TABLE usage_daily IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE usage_daily RENAME TO " + LEGACY_TABLE);
+        // Birincil anahtar ve unique indeks adları şema genelinde tekil olduğu için eski tabloda yeniden adlandırılır
+        List<String> indexBacked = jdbcTemplate.queryForList("""
+                SELECT conname FROM pg_constraint
+                WHERE conrelid = to_regclass('usage_daily_legacy') AND contype IN ('p', 'u')
+                """, String.class);
+        for (String name : indexBacked) {
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY_TABLE + " RENAME CONSTRAINT " + quote(name)
+                    + " TO " + quote(truncate(name + "_legacy")));
+        }
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList("""
+                SELECT conname, pg_get_constraintdef(oid) AS definition FROM pg_constraint
+                WHERE conrelid = to_regclass('usage_daily_legacy') AND contype = 'f'
+                """);
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + LEGACY_TABLE, Long.class);
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + ID_SEQUENCE);
+        jdbcTemplate.execute(CREATE_PARTITIONED);
+        jdbcTemplate.execute("ALTER SEQUENCE " + ID_SEQUENCE + " OWNED BY usage_daily.id");
+        jdbcTemplate.queryForObject("SELECT setval('" + ID_SEQUENCE + "', ?, true)", Long.class, Math.max(1L, maxId));
+        for (Map<String, Object> foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE usage_daily ADD CONSTRAINT " + quote((String) foreignKey.get("conname"))
+                    + " " + foreignKey.get("definition"));
+        }
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF usage_daily DEFAULT");
+
+        Date minDate = jdbcTemplate.queryForObject("SELECT MIN(date) FROM " + LEGACY_TABLE, Date.class);
+        YearMonth month = minDate != null ? YearMonth.from(minDate.toLocalDate()) : lastMonth;
+        for (; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+
+        long moved = jdbcTemplate.update("""
+                INSERT INTO usage_daily (id, user_id, date, mb_used, minutes_used, sms_used, roaming_mb, created_at, updated_at)
+                SELECT id, user_id, date, mb_used, minutes_used, sms_used, roaming_mb, created_at, updated_at
+                FROM usage_daily_legacy
+                """);
+        jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+        return moved;
+    }
+
+    /**
+     * Varsayılan bölüme düşmüş satırların ayları
+     */
+    public List<YearMonth> defaultPartitionMonths() {
+        return jdbcTemplate.query("SELECT DISTINCT CAST(date_trunc('month', date) AS DATE) AS month FROM " + DEFAULT_PARTITION,
+                (rs, rowNum) -> YearMonth.from(rs.getDate("month").toLocalDate()));
+    }
+
+    public List<String> listPartitions() {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS, String.class);
+    }
+
+    /**
+     * Ayın bölümünün ana tabloya bağlı olmasını sağlar; bağlılık tablo adına göre değil pg_inherits'e göre
+     * kontrol edilir.
+     * <ul>
+     *   <li>Tablo yoksa ve varsayılan bölümde o aya satır yoksa doğrudan PARTITION OF ile oluşturulur</li>
+     *   <li>Aksi halde tablo (yoksa) oluşturulur, varsayılan bölümdeki o aya ait satırlar taşınır ve tablo bağlanır.
+     *   Daha önce ayrılmış bir bölüm de böylece yeniden bağlanır; ayrıldıktan sonra varsayılan bölüme düşen
+     *   artışlar aynı (kullanıcı, gün) satırına eklenir.</li>
+     * </ul>
+     */
+    public PartitionChange ensurePartition(YearMonth month) {
+        String name = partitionName(month);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ATTACHED, Boolean.class, name))) {
+            return PartitionChange.NONE;
+        }
+        boolean tableExists = Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name));
+        Date from = Date.valueOf(month.atDay(1));
+        Date to = Date.valueOf(month.plusMonths(1).atDay(1));
+        Boolean hasDefaultRows = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE date >= ? AND date < ?)",
+                Boolean.class, from, to);
+        if (!tableExists && !Boolean.TRUE.equals(hasDefaultRows)) {
+            createPartition(month);
+            return PartitionChange.CREATED;
+        }
+        if (!tableExists) {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE usage_daily INCLUDING DEFAULTS)");
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE date >= ? AND date < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        } else if (Boolean.TRUE.equals(hasDefaultRows)) {
+            // Ayrılmış bölüm unique indeksini korur; çakışan günlerde değerler toplanır
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE date >= ? AND date < ? RETURNING *) INSERT INTO " + name + " AS t SELECT * FROM moved"
+                    + " ON CONFLICT (user_id, date) DO UPDATE SET"
+                    + " mb_used = COALESCE(t.mb_used, 0) + COALESCE(EXCLUDED.mb_used, 0),"
+                    + " minutes_used = COALESCE(t.minutes_used, 0) + COALESCE(EXCLUDED.minutes_used, 0),"
+                    + " sms_used = COALESCE(t.sms_used, 0) + COALESCE(EXCLUDED.sms_used, 0),"
+                    + " roaming_mb = COALESCE(t.roaming_mb, 0) + COALESCE(EXCLUDED.roaming_mb, 0),"
+                    + " updated_at = EXCLUDED.updated_at", from, to);
+        }
+        jdbcTemplate.execute("ALTER TABLE usage_daily ATTACH PARTITION " + name + " " + bounds(month));
+        return tableExists ? PartitionChange.REATTACHED : PartitionChange.CREATED;
+    }
+
+    /**
+     * Bölümü ana tablodan ayırır; tablo silinmez, bağımsız tablo olarak kalır
+     */
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE usage_daily DETACH PARTITION " + quote(name));
+    }
+
+    public static String partitionName(YearMonth month) {
+        return String.format("%s%04d%02d", PARTITION_PREFIX, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * usage_daily_pYYYYMM adından ayı çözer; varsayılan bölüm ya da başka tablolar için null
+     */
+    public static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX) || partitionName.length() != PARTITION_PREFIX.length() + 6) {
+            return null;
+        }
+        try {
+            int key = Integer.parseInt(partitionName.substring(PARTITION_PREFIX.length()));
+            return YearMonth.of(key / 100, key % 100);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF usage_daily " + bounds(month));
+    }
+
+    private static String bounds(YearMonth month) {
+        return "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    // PostgreSQL tanımlayıcıları 63 byte ile sınırlı
+    private static String truncate(String identifier) {
+        return identifier.length() > 63 ? identifier.substring(0, 63) : identifier;
+    }
+
+    public enum PartitionChange {
+        NONE, CREATED, REATTACHED
+    }
+}
@@ -0,0 +1,250 @@
+package com.turkcellcase4.billing.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * usage_daily ve usage_monthly için artımlı upsert sorguları (PostgreSQL ON CONFLICT)
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsageRollupJdbcRepository {
+
+    private static final String UPSERT_DAILY = """
+            INSERT INTO usage_daily (user_id, date, mb_used, minutes_used, sms_used, roaming_mb, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (user_id, date) DO UPDATE SET
+                mb_used = COALESCE(usage_daily.mb_used, 0) + EXCLUDED.mb_used,
+                minutes_used = COALESCE(usage_daily.minutes_used, 0) + EXCLUDED.minutes_used,
+                sms_used = COALESCE(usage_daily.sms_used, 0) + EXCLUDED.sms_used,
+                roaming_mb = COALESCE(usage_daily.roaming_mb, 0) + EXCLUDED.roaming_mb,
+                updated_at = now()
+            RETURNING id, mb_used, minutes_used, sms_used, roaming_mb, (xmax = 0) AS inserted
+            """;
+
+    private static final String UPSERT_MONTHLY = """
+            INSERT INTO usage_monthly (user_id, period_key, total_mb, total_minutes, total_sms, total_roaming_mb,
+                                       active_days, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (user_id, period_key) DO UPDATE SET
+                total_mb = usage_monthly.total_mb + EXCLUDED.total_mb,
+                total_minutes = usage_monthly.total_minutes + EXCLUDED.total_minutes,
+                total_sms = usage_monthly.total_sms + EXCLUDED.total_sms,
+                total_roaming_mb = usage_monthly.total_roaming_mb + EXCLUDED.total_roaming_mb,
+                active_days = usage_monthly.active_days + EXCLUDED.active_days,
+                updated_at = now()
+            """;
+
+    private static final String REBUILD_MONTHLY = """
+            INSERT INTO usage_monthly (user_id, period_key, total_mb, total_minutes, total_sms, total_roaming_mb,
+                                       active_days, created_at, updated_at)
+            SELECT user_id,
+                   CAST(EXTRACT(YEAR FROM date) * 100 + EXTRACT(MONTH FROM date) AS INTEGER),
+                   COALESCE(SUM(mb_used), 0), COALESCE(SUM(minutes_used), 0), COALESCE(SUM(sms_used), 0),
+                   COALESCE(SUM(roaming_mb), 0), COUNT(*), now(), now()
+            FROM usage_daily
+            GROUP BY 1, 2
+            """;
+
+    private static final String REBUILD_MONTHLY_RANGE = """
+            INSERT INTO usage_monthly (user_id, period_key, total_mb, total_minutes, total_sms, total_roaming_mb,
+                                       active_days, created_at, updated_at)
+            SELECT user_id,
+                   CAST(EXTRACT(YEAR FROM date) * 100 + EXTRACT(MONTH FROM date) AS INTEGER),
+                   COALESCE(SUM(mb_used), 0), COALESCE(SUM(minutes_used), 0), COALESCE(SUM(sms_used), 0),
+                   COALESCE(SUM(roaming_mb), 0), COUNT(*), now(), now()
+            FROM usage_daily
+            WHERE date BETWEEN ? AND ?
+            GROUP BY 1, 2
+            """;
+
+    // Günlük ve aylık tablolar tek ifadede güncellenir; aktif gün sayısı yalnızca yeni oluşan günlük satırlar için artar
+    private static final String ADD_DAILY_BATCH = """
+            WITH input AS (
+                SELECT t.user_id, DATE '1970-01-01' + t.epoch_day AS date, t.mb, t.minutes, t.sms, t.roaming
+                FROM unnest(?::bigint[], ?::int[], ?::float8[], ?::int[], ?::int[], ?::float8[])
+                     AS t(user_id, epoch_day, mb, minutes, sms, roaming)
+            ),
+            daily AS (
+                INSERT INTO usage_daily (user_id, date, mb_used, minutes_used, sms_used, roaming_mb, created_at, updated_at)
+                SELECT user_id, date, mb, minutes, sms, roaming, now(), now() FROM input
+                ON CONFLICT (user_id, date) DO UPDATE SET
+                    mb_used = COALESCE(usage_daily.mb_used, 0) + EXCLUDED.mb_used,
+                    minutes_used = COALESCE(usage_daily.minutes_used, 0) + EXCLUDED.minutes_used,
+                    sms_used = COALESCE(usage_daily.sms_used, 0) + EXCLUDED.sms_used,
+                    roaming_mb = COALESCE(usage_daily.roaming_mb, 0) + EXCLUDED.roaming_mb,
+                    updated_at = now()
+                RETURNING user_id, date, mb_used, minutes_used, sms_used, roaming_mb, (xmax = 0) AS inserted
+            ),
+            monthly AS (
+                INSERT INTO usage_monthly (user_id, period_key, total_mb, total_minutes, total_sms, total_roaming_mb,
+                                           active_days, created_at, updated_at)
+                SELECT i.user_id,
+                       CAST(EXTRACT(YEAR FROM i.date) * 100 + EXTRACT(MONTH FROM i.date) AS INTEGER),
+                       SUM(i.mb), SUM(i.minutes), SUM(i.sms), SUM(i.roaming),
+                       COUNT(*) FILTER (WHERE d.inserted), now(), now()
+                FROM input i
+                JOIN daily d ON d.user_id = i.user_id AND d.date = i.date
+                GROUP BY 1, 2
+                ON CONFLICT (user_id, period_key) DO UPDATE SET
+                    total_mb = usage_monthly.total_mb + EXCLUDED.total_mb,
+                    total_minutes = usage_monthly.total_minutes + EXCLUDED.total_minutes,
+                    total_sms = usage_monthly.total_sms + EXCLUDED.total_sms,
+                    total_roaming_mb = usage_monthly.total_roaming_mb + EXCLUDED.total_roaming_mb,
+                    active_days = usage_monthly.active_days + EXCLUDED.active_days,
+                    updated_at = now()
+            )
+            SELECT user_id, date, mb_used, minutes_used, sms_used, roaming_mb FROM daily
+            """;
+
+    private static final String SCAN_DAILY = """
+            SELECT user_id, date, mb_used, minutes_used, sms_used, roaming_mb
+            FROM usage_daily
+            ORDER BY user_id, date
+            """;
+
+    private static final String SCAN_DAILY_USERS = """
+            SELECT user_id, date, mb_used, minutes_used, sms_used, roaming_mb
+            FROM usage_daily
+            WHERE user_id = ANY(?) AND date BETWEEN ? AND ?
+            ORDER BY user_id, date
+            """;
+
+    private static final int SCAN_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Günlük kaydı oluşturur ya da mevcut değerlere ekler; güncel satırı döner
+     */
+    public DailyRow addDaily(Long userId, LocalDate date, double mb, int minutes, int sms, double roamingMb) {
+        return jdbcTemplate.queryForObject(UPSERT_DAILY, (rs, rowNum) -> new DailyRow(
+                        rs.getLong("id"),
+                        rs.getDouble("mb_used"),
+                        rs.getInt("minutes_used"),
+                        rs.getInt("sms_used"),
+                        rs.getDouble("roaming_mb"),
+                        rs.getBoolean("inserted")),
+                userId, Date.valueOf(date), mb, minutes, sms, roamingMb);
+    }
+
+    public void addMonthly(Long userId, int periodKey, double mb, int minutes, int sms, double roamingMb, int newDays) {
+        jdbcTemplate.update(UPSERT_MONTHLY, userId, periodKey, mb, minutes, sms, roamingMb, newDays);
+    }
+
+    public long countMonthly() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM usage_monthly", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Aylık tabloyu usage_daily üzerinden baştan hesaplar
+     */
+    public int rebuildMonthly() {
+        jdbcTemplate.update("DELETE FROM usage_monthly");
+        return jdbcTemplate.update(REBUILD_MONTHLY);
+    }
+
+    /**
+     * Çok sayıda (kullanıcı, gün) artışını tek sorguda uygular; güncel günlük satırları döner.
+     * Aynı (kullanıcı, gün) listede iki kez bulunmamalıdır.
+     */
+    public List<DailyValues> addDailyBatch(List<DailyValues> increments) {
+        int n = increments.size();
+        Long[] userIds = new Long[n];
+        Integer[] epochDays = new Integer[n];
+        Double[] mb = new Double[n];
+        Integer[] minutes = new Integer[n];
+        Integer[] sms = new Integer[n];
+        Double[] roaming = new Double[n];
+        for (int i = 0; i < n; i++) {
+            DailyValues increment = increments.get(i);
+            userIds[i] = increment.userId();
+            epochDays[i] = (int) increment.date().toEpochDay();
+            mb[i] = increment.mbUsed();
+            minutes[i] = increment.minutesUsed();
+            sms[i] = increment.smsUsed();
+            roaming[i] = increment.roamingMb();
+        }
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(ADD_DAILY_BATCH);
+            statement.setArray(1, connection.createArrayOf("bigint", userIds));
+            statement.setArray(2, connection.createArrayOf("integer", epochDays));
+            statement.setArray(3, connection.createArrayOf("float8", mb));
+            statement.setArray(4, connection.createArrayOf("integer", minutes));
+            statement.setArray(5, connection.createArrayOf("integer", sms));
+            statement.setArray(6, connection.createArrayOf("float8", roaming));
+            return statement;
+        }, (rs, rowNum) -> toDailyValues(rs));
+    }
+
+    /**
+     * usage_daily'yi kullanıcı ve tarih sırasıyla cursor üzerinden okur; satırlar entity'ye çevrilmeden iletilir.
+     * PostgreSQL fetchSize'ı yalnızca açık bir transaction içinde uyguladığı için metot transactional'dır.
+     */
+    @Transactional(readOnly = true)
+    public void scanDaily(Consumer<DailyValues> consumer) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(SCAN_DAILY);
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(toDailyValues(rs));
+        });
+    }
+
+    /**
+     * Verilen kullanıcıların iki tarih arasındaki günlük satırlarını kullanıcı ve tarih sırasıyla okur
+     */
+    @Transactional(readOnly = true)
+    public void scanDaily(Collection<Long> userIds, LocalDate from, LocalDate to, Consumer<DailyValues> consumer) {
+        Long[] ids = userIds.toArray(new Long[0]);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(SCAN_DAILY_USERS);
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setDate(2, Date.valueOf(from));
+            statement.setDate(3, Date.valueOf(to));
+            return statement;
+        }, rs -> {
+            consumer.accept(toDailyValues(rs));
+        });
+    }
+
+    private static DailyValues toDailyValues(ResultSet rs) throws SQLException {
+        return new DailyValues(
+                rs.getLong("user_id"),
+                rs.getDate("date").toLocalDate(),
+                rs.getDouble("mb_used"),
+                rs.getInt("minutes_used"),
+                rs.getInt("sms_used"),
+                rs.getDouble("roaming_mb"));
+    }
+
+    /**
+     * Yalnızca iki tarih arasındaki ayları (tam ay olarak) yeniden hesaplar
+     */
+    public int rebuildMonthly(LocalDate from, LocalDate to) {
+        LocalDate monthStart = from.withDayOfMonth(1);
+        LocalDate monthEnd = to.withDayOfMonth(to.lengthOfMonth());
+        jdbcTemplate.update("DELETE FROM usage_monthly WHERE period_key BETWEEN ? AND ?",
+                monthStart.getYear() * 100 + monthStart.getMonthValue(), monthEnd.getYear() * 100 + monthEnd.getMonthValue());
+        return jdbcTemplate.update(REBUILD_MONTHLY_RANGE, Date.valueOf(monthStart), Date.valueOf(monthEnd));
+    }
+
+    public record DailyValues(long userId, LocalDate date, double mbUsed, int minutesUsed, int smsUsed, double roamingMb) {
+    }
+
+    public record DailyRow(Long id, double mbUsed, int minutesUsed, int smsUsed, double roamingMb, boolean inserted) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.BillArchiveReportDTO;
+
+import java.util.Map;
+
+public interface BillArchiveService {
+
+    /**
+     * Saklama süresini aşan dönemlerin faturalarını sıkıştırılmış segmentlere yazar ve sıcak tablolardan siler
+     */
+    BillArchiveReportDTO archive();
+
+    /**
+     * Arşivdeki segment, fatura ve byte sayıları
+     */
+    Map<String, Object> getStats();
+}
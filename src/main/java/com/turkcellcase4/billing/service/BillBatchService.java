@@ -0,0 +1,14 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.BillBatchResultDTO;
+import com.turkcellcase4.billing.dto.CreateBillRequestDTO;
+
+import java.util.List;
+
+public interface BillBatchService {
+
+    /**
+     * Faturaları parçalar halinde JDBC batch ile yazar; hatalı faturalar fatura bazında raporlanır
+     */
+    BillBatchResultDTO createBills(List<CreateBillRequestDTO> bills);
+}
@@ -0,0 +1,19 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface BillCategoryTotalsService {
+
+    /**
+     * Faturanın kategori toplamları; kaydı yoksa kalemlerden üretilir, fatura yoksa sıfır toplam döner
+     */
+    BillCategoryTotals getTotals(Long billId);
+
+    /**
+     * Birden çok faturanın kategori toplamları (billId -> toplamlar), tek sorguda
+     */
+    Map<Long, BillCategoryTotals> getTotals(Collection<Long> billIds);
+}
@@ -0,0 +1,16 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.BillDiffDTO;
+
+public interface BillDiffService {
+
+    /**
+     * Karşılaştırılacak faturayı belirler; againstBillId verilmezse aynı kullanıcının bir önceki dönem faturası
+     */
+    Long resolveAgainstBillId(Long billId, Long againstBillId);
+
+    /**
+     * İki faturanın kalem bazında farkı: eklenen, kaldırılan ve tutarı/miktarı değişen satırlar
+     */
+    BillDiffDTO diff(Long billId, Long againstBillId);
+}
@@ -0,0 +1,18 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.BillRunDTO;
+
+import java.util.List;
+
+public interface BillRunService {
+
+    /**
+     * Dönem (yyyy-MM) için fatura koşusunu arka planda başlatır; dönemin yarım kalmış koşusu varsa
+     * son kontrol noktasından devam eder
+     */
+    BillRunDTO startRun(String period);
+
+    BillRunDTO getRun(Long runId);
+
+    List<BillRunDTO> getRuns();
+}
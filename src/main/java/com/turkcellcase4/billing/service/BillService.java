@@ -1,5 +1,6 @@
 package com.turkcellcase4.billing.service;
 
+import com.turkcellcase4.billing.dto.BillPageDTO;
 import com.turkcellcase4.billing.dto.BillResponseDTO;
 import com.turkcellcase4.billing.dto.BillItemDTO;
 import com.turkcellcase4.billing.dto.BillSummaryDTO;
@@ -18,6 +19,11 @@ public interface BillService {
     
     List<String> getAvailablePeriods(Long userId);
     
+    /**
+     * Faturaları dönem sırasıyla (yeniden eskiye) keyset sayfalama ile listeler; cursor önceki sayfanın nextCursor değeridir
+     */
+    BillPageDTO getBillPage(Long userId, String cursor, Integer size, String fromPeriod, String toPeriod);
+    
     List<BillItemDTO> getBillItemsByBillId(Long billId);
     
     BillSummaryDTO getBillSummary(Long billId);
@@ -0,0 +1,23 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.model.Bill;
+
+import java.util.Map;
+
+public interface BillSummaryJobService {
+
+    /**
+     * Fatura için AI özet işini kuyruğa ekler; iş zaten varsa bir şey yapmaz
+     */
+    void enqueue(Bill bill);
+
+    /**
+     * Sırası gelen işleri rate limit dahilinde işler
+     */
+    void processReadyJobs();
+
+    /**
+     * Kuyruk durumunu ve işleme metriklerini döner
+     */
+    Map<String, Object> getQueueStats();
+}
@@ -5,7 +5,10 @@ import com.turkcellcase4.billing.dto.ExplainResponseDTO;
 import com.turkcellcase4.billing.dto.BillSummaryDTO;
 import com.turkcellcase4.billing.dto.CategoryBreakdownDTO;
 
+import reactor.core.publisher.Flux;
+
 import java.util.List;
+import java.util.Optional;
 
 public interface ExplainService {
     
@@ -16,4 +19,11 @@ public interface ExplainService {
     List<CategoryBreakdownDTO> getCategoryBreakdowns(Long billId);
     
     CategoryBreakdownDTO getCategoryBreakdown(Long billId, String category);
+    
+    /**
+     * Fatura için AI özetini üretir (arka plan işleri için); AI cevap veremezse boş döner
+     */
+    Optional<String> generateAiSummary(Long billId);
+    
+    Flux<String> streamNaturalLanguageSummary(Long billId, List<CategoryBreakdownDTO> breakdown);
 }
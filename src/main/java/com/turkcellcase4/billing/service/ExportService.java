@@ -0,0 +1,23 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.common.enums.ExportFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * Tam geçmiş dışa aktarımı. Parametreler çağrı anında doğrulanır; dönen gövde yanıta yazılırken
+ * satırlar veritabanından okunur, böylece bellek kullanımı sonuç boyutundan bağımsızdır.
+ */
+public interface ExportService {
+
+    /**
+     * @param fromPeriod opsiyonel, yyyy-MM
+     * @param toPeriod   opsiyonel, yyyy-MM
+     */
+    StreamingResponseBody exportBills(Long userId, String fromPeriod, String toPeriod, ExportFormat format);
+
+    StreamingResponseBody exportBillItems(Long userId, String fromPeriod, String toPeriod, ExportFormat format);
+
+    StreamingResponseBody exportUsage(Long userId, LocalDate from, LocalDate to, ExportFormat format);
+}
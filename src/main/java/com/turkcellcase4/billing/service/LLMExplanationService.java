@@ -1,6 +1,11 @@
 package com.turkcellcase4.billing.service;
 
 import com.turkcellcase4.billing.dto.AnomalyDTO;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface LLMExplanationService {
     
@@ -9,6 +14,11 @@ public interface LLMExplanationService {
      */
     String generateAnomalyExplanation(AnomalyDTO anomaly, String userContext);
     
+    /**
+     * Birden fazla anomali için açıklamaları toplu AI çağrısıyla, girdi sırasına göre üretir
+     */
+    List<String> generateAnomalyExplanations(List<AnomalyDTO> anomalies, String userContext);
+    
     /**
      * Kohort kıyası için AI destekli analiz üretir
      */
@@ -28,4 +38,19 @@ public interface LLMExplanationService {
      * Genel fatura analizi için AI destekli özet üretir
      */
     String generateBillAnalysisSummary(Long billId, String period, Double totalAmount, String mainCategories);
+    
+    /**
+     * Genel fatura özetini yalnızca AI ile üretir; AI cevap veremezse fallback yerine boş döner
+     */
+    Optional<String> tryGenerateBillAnalysisSummary(Long billId, String period, Double totalAmount, String mainCategories);
+    
+    /**
+     * Genel fatura özetini parça parça (stream) üretir; AI çağrısı başarısız olursa fallback özeti yayar
+     */
+    Flux<String> streamBillAnalysisSummary(Long billId, String period, Double totalAmount, String mainCategories);
+    
+    /**
+     * Gemini istemcisinin devre kesici, gecikme ve cache durumunu döner
+     */
+    Map<String, Object> getClientHealth();
 }
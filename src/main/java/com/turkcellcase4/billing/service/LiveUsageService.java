@@ -0,0 +1,34 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.CurrentUsageDTO;
+import com.turkcellcase4.billing.dto.UsageEventDTO;
+
+import java.util.List;
+import java.util.Map;
+
+public interface LiveUsageService {
+
+    /**
+     * Kullanım olaylarını bellekteki sayaçlara işler; veritabanına toplu olarak sonradan yazılır
+     */
+    int recordEvents(List<UsageEventDTO> events);
+
+    /**
+     * Kullanıcının içinde bulunulan aydaki kullanımını bellekten döner
+     */
+    CurrentUsageDTO getCurrentUsage(Long userId);
+
+    /**
+     * Bekleyen artışları veritabanına yazar
+     */
+    void flush();
+
+    /**
+     * Kullanıcının sayaçlarını düşürür; usage_daily başka yoldan değiştiğinde çağrılır
+     */
+    void invalidate(Long userId);
+
+    void invalidateAll();
+
+    Map<String, Object> getStats();
+}
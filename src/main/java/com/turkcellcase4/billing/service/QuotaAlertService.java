@@ -0,0 +1,26 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.alert.QuotaTracker;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+public interface QuotaAlertService {
+
+    /**
+     * Kullanıcının planına göre kota izleyicisini döner ve yüklenen toplamları değerlendirir.
+     * Plan veya kota yoksa null döner.
+     */
+    QuotaTracker attach(Long userId, Long planId, int periodKey, long dataMilliMb, long minutes, long sms);
+
+    /**
+     * Güncel ay içi toplamları eşiklerle karşılaştırır; yeni geçilen eşikler yayınlanır
+     */
+    void onUsage(Long userId, QuotaTracker tracker, long dataMilliMb, long minutes, long sms);
+
+    SseEmitter subscribe(Long userId);
+
+    SseEmitter subscribeAll();
+
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,18 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.UsagePartitionReportDTO;
+
+public interface UsagePartitionService {
+
+    /**
+     * Gelecek aylar için bölüm açar, varsayılan bölüme düşen satırları taşır (ayrılmış bölümü yeniden bağlar)
+     * ve saklama süresini aşan bölümleri ayırır. Tablo bölümlenmemişse bölüm adımları atlanır.
+     */
+    UsagePartitionReportDTO maintain();
+
+    /**
+     * Düz usage_daily tablosunu bölümlenmiş tabloya çevirir ve ardından bakımı çalıştırır.
+     * Tablo kopyalama boyunca ACCESS EXCLUSIVE kilitli kalır; bakım penceresinde çağrılmalıdır.
+     */
+    UsagePartitionReportDTO convert();
+}
@@ -0,0 +1,37 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.UsageDTO;
+import com.turkcellcase4.billing.dto.UsageIncrementDTO;
+import com.turkcellcase4.billing.dto.UsageMonthlyDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface UsageRollupService {
+
+    /**
+     * Günlük kullanıma artış ekler ve aynı işlemde aylık toplamı günceller
+     */
+    UsageDTO addDailyUsage(Long userId, UsageIncrementDTO increment);
+
+    /**
+     * Verilen tarihin ayına ait aylık toplamı döner
+     */
+    Optional<UsageMonthlyDTO> getMonthlyUsage(Long userId, LocalDate dayInMonth);
+
+    /**
+     * İki tarih arasındaki ayların toplamlarını dönem sırasıyla döner
+     */
+    List<UsageMonthlyDTO> getMonthlyUsageRange(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Aylık tabloyu usage_daily üzerinden yeniden oluşturur
+     */
+    int rebuildMonthlyRollup();
+
+    /**
+     * Yalnızca verilen tarihlerin kapsadığı ayları usage_daily üzerinden yeniden hesaplar
+     */
+    int rebuildMonthlyRollup(LocalDate from, LocalDate to);
+}
@@ -1,6 +1,7 @@
 package com.turkcellcase4.billing.service;
 
 import com.turkcellcase4.billing.dto.UsageDTO;
+import com.turkcellcase4.billing.dto.UsageMonthlyDTO;
 import com.turkcellcase4.billing.dto.UsageSummaryDTO;
 
 import java.time.LocalDate;
@@ -52,4 +53,9 @@ public interface UsageService {
      * Kullanıcının roaming kullanımını analiz eder ve tasarruf önerileri sunar
      */
     String getRoamingUsageAnalysis(Long userId, String period);
+    
+    /**
+     * Kullanıcının son aylardaki aylık kullanım toplamlarını getirir (usage_monthly)
+     */
+    List<UsageMonthlyDTO> getMonthlyUsage(Long userId, int months);
 }
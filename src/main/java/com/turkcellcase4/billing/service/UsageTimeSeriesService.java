@@ -0,0 +1,42 @@
+package com.turkcellcase4.billing.service;
+
+import com.turkcellcase4.billing.dto.UsageRangeStatsDTO;
+import com.turkcellcase4.billing.repository.UsageRollupJdbcRepository.DailyValues;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface UsageTimeSeriesService {
+
+    /**
+     * Kullanıcının tarih aralığındaki toplam ve tepe değerlerini yerel zaman serisinden hesaplar
+     */
+    UsageRangeStatsDTO getRangeStats(Long userId, LocalDate from, LocalDate to);
+
+    /**
+     * Aralıkta en çok veri kullanan kullanıcıları tüm serileri tarayarak bulur
+     */
+    List<UsageRangeStatsDTO> getTopDataUsers(LocalDate from, LocalDate to, int limit);
+
+    /**
+     * Günün güncel (mutlak) değerlerini seriye yazar; transaction varsa commit sonrasına ertelenir
+     */
+    void recordDailyUsage(Long userId, LocalDate date, double mbUsed, int minutesUsed, int smsUsed, double roamingMb);
+
+    /**
+     * Çok sayıda günü kullanıcı başına tek yazmayla seriye kaydeder; transaction varsa commit sonrasına ertelenir
+     */
+    void recordDailyUsage(List<DailyValues> rows);
+
+    /**
+     * Tüm serileri usage_daily üzerinden yeniden oluşturur, yazılan kullanıcı sayısını döner
+     */
+    int rebuild();
+
+    /**
+     * Yalnızca verilen kullanıcıların [from, to] aralığındaki günlerini usage_daily'den seriye yeniden yazar;
+     * toplu yüklemelerden sonra tüm serileri yeniden oluşturmak yerine kullanılır
+     */
+    void refresh(Collection<Long> userIds, LocalDate from, LocalDate to);
+}
@@ -1,11 +1,14 @@
 package com.turkcellcase4.billing.service.impl;
 
+import com.turkcellcase4.billing.diff.BillItemDiff;
 import com.turkcellcase4.billing.dto.*;
 import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
 import com.turkcellcase4.billing.model.BillItem;
 import com.turkcellcase4.billing.repository.BillRepository;
 import com.turkcellcase4.billing.repository.BillItemRepository;
 import com.turkcellcase4.billing.service.AnomalyService;
+import com.turkcellcase4.billing.service.BillCategoryTotalsService;
 import com.turkcellcase4.common.enums.AnomalyType;
 import com.turkcellcase4.common.enums.ItemCategory;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +22,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 import com.turkcellcase4.common.exception.BusinessLogicException;
+import com.turkcellcase4.billing.period.BillingPeriod;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +32,8 @@ public class AnomalyServiceImpl implements AnomalyService {
 
     private final BillRepository billRepository;
     private final BillItemRepository billItemRepository;
+    private final BillCategoryTotalsService billCategoryTotalsService;
+    private final BillPeriodIndex billPeriodIndex;
 
     @Override
     public AnomalyResponseDTO detectAnomalies(AnomalyRequestDTO request) {
@@ -36,14 +43,10 @@ public class AnomalyServiceImpl implements AnomalyService {
             List<AnomalyDTO> anomalies = new ArrayList<>();
             
             // Parse period
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            LocalDate periodDate = LocalDate.parse(request.getPeriod() + "-01", formatter);
+            BillingPeriod period = BillingPeriod.parse(request.getPeriod());
+            LocalDate periodDate = period.start();
             
-            // Get current month bill
-            int year = periodDate.getYear();
-            int month = periodDate.getMonthValue();
-            
-            Optional<Bill> currentBill = billRepository.findByUserIdAndPeriod(request.getUserId(), year, month);
+            Optional<Bill> currentBill = billPeriodIndex.findBill(request.getUserId(), period);
             if (currentBill.isEmpty()) {
                 return AnomalyResponseDTO.builder().anomalies(anomalies).build();
             }
@@ -182,35 +185,20 @@ public class AnomalyServiceImpl implements AnomalyService {
         
         if (previousBills.isEmpty()) return anomalies;
         
-        // Batch query ile tüm bill item'ları tek seferde al
-        List<Long> allBillIds = new ArrayList<>();
-        allBillIds.add(currentBill.getBillId());
-        allBillIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
-        
-        List<BillItem> allItems = billItemRepository.findByBillIdsIn(allBillIds);
-        
-        // Current bill items grouped by category
-        Map<ItemCategory, List<BillItem>> currentItemsByCategory = allItems.stream()
-                .filter(item -> item.getBill().getBillId().equals(currentBill.getBillId()))
-                .collect(Collectors.groupingBy(BillItem::getCategory));
-        
-        // Previous bills items grouped by category
-        Map<ItemCategory, List<BillItem>> previousItemsByCategory = allItems.stream()
-                .filter(item -> !item.getBill().getBillId().equals(currentBill.getBillId()))
-                .collect(Collectors.groupingBy(BillItem::getCategory));
+        // Kategori toplamları tek sorguda okunur; kalemler yüklenmez
+        Map<Long, BillCategoryTotals> totalsByBill = loadTotals(currentBill, previousBills);
+        BillCategoryTotals currentTotals = totalsByBill.get(currentBill.getBillId());
+        List<BillCategoryTotals> previousTotals = previousTotals(currentBill, totalsByBill);
         
         // Compare each category
-        for (Map.Entry<ItemCategory, List<BillItem>> entry : currentItemsByCategory.entrySet()) {
-            ItemCategory category = entry.getKey();
-            List<BillItem> currentItems = entry.getValue();
-            
-            BigDecimal currentTotal = currentItems.stream()
-                    .map(BillItem::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        for (ItemCategory category : ItemCategory.values()) {
+            BigDecimal currentTotal = currentTotals.amountOf(category);
+            if (currentTotal.signum() == 0) {
+                continue;
+            }
             
-            List<BillItem> previousItems = previousItemsByCategory.getOrDefault(category, new ArrayList<>());
-            BigDecimal previousTotal = previousItems.stream()
-                    .map(BillItem::getAmount)
+            BigDecimal previousTotal = previousTotals.stream()
+                    .map(totals -> totals.amountOf(category))
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
             
             if (previousTotal.compareTo(BigDecimal.ZERO) > 0) {
@@ -243,36 +231,17 @@ public class AnomalyServiceImpl implements AnomalyService {
         
         if (previousBills.isEmpty()) return anomalies;
         
-        // Batch query ile tüm bill item'ları tek seferde al
-        List<Long> allBillIds = new ArrayList<>();
-        allBillIds.add(currentBill.getBillId());
-        allBillIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
-        
-        List<BillItem> allItems = billItemRepository.findByBillIdsIn(allBillIds);
-        
-        // Get all item subtypes from previous bills
-        Set<String> previousSubtypes = allItems.stream()
-                .filter(item -> !item.getBill().getBillId().equals(currentBill.getBillId()))
-                .map(BillItem::getSubtype)
-                .collect(Collectors.toSet());
-        
-        // Check for new subtypes in current bill
-        List<BillItem> currentItems = allItems.stream()
-                .filter(item -> item.getBill().getBillId().equals(currentBill.getBillId()))
-                .collect(Collectors.toList());
-        
-        for (BillItem item : currentItems) {
-            if (!previousSubtypes.contains(item.getSubtype())) {
-                anomalies.add(AnomalyDTO.builder()
-                        .category(item.getCategory().name())
-                        .subtype(item.getSubtype())
-                        .delta(item.getAmount())
-                        .percentageChange(BigDecimal.valueOf(100))
-                        .reason("Bu kalem ilk kez görüldü")
-                        .suggestedAction("Kalemin neden eklendiğini kontrol edin")
-                        .type(AnomalyType.NEW_ITEM)
-                        .build());
-            }
+        // Önceki faturaların hiçbirinde görülmemiş (category, subtype) satırları
+        for (BillItemDiff.Line line : addedLines(currentBill, previousBills)) {
+            anomalies.add(AnomalyDTO.builder()
+                    .category(line.category().name())
+                    .subtype(line.subtype())
+                    .delta(line.amount())
+                    .percentageChange(BigDecimal.valueOf(100))
+                    .reason("Bu kalem ilk kez görüldü")
+                    .suggestedAction("Kalemin neden eklendiğini kontrol edin")
+                    .type(AnomalyType.NEW_ITEM)
+                    .build());
         }
         
         return anomalies;
@@ -283,30 +252,16 @@ public class AnomalyServiceImpl implements AnomalyService {
         
         if (previousBills.isEmpty()) return anomalies;
         
-        // Batch query ile tüm bill item'ları tek seferde al
-        List<Long> allBillIds = new ArrayList<>();
-        allBillIds.add(currentBill.getBillId());
-        allBillIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
-        
-        List<BillItem> allItems = billItemRepository.findByBillIdsIn(allBillIds);
+        Map<Long, BillCategoryTotals> totalsByBill = loadTotals(currentBill, previousBills);
+        BigDecimal totalRoaming = totalsByBill.get(currentBill.getBillId()).getRoamingAmount();
         
         // Check if roaming was activated
-        List<BillItem> currentRoamingItems = allItems.stream()
-                .filter(item -> item.getBill().getBillId().equals(currentBill.getBillId()))
-                .filter(item -> item.getCategory() == ItemCategory.ROAMING)
-                .collect(Collectors.toList());
-        
-        if (!currentRoamingItems.isEmpty()) {
+        if (totalRoaming.signum() != 0) {
             // Check if there was roaming in previous months
-            boolean hadRoamingBefore = allItems.stream()
-                    .filter(item -> !item.getBill().getBillId().equals(currentBill.getBillId()))
-                    .anyMatch(item -> item.getCategory() == ItemCategory.ROAMING);
+            boolean hadRoamingBefore = previousTotals(currentBill, totalsByBill).stream()
+                    .anyMatch(totals -> totals.getRoamingAmount().signum() != 0);
             
             if (!hadRoamingBefore) {
-                BigDecimal totalRoaming = currentRoamingItems.stream()
-                        .map(BillItem::getAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
                 anomalies.add(AnomalyDTO.builder()
                         .category(ItemCategory.ROAMING.name())
                         .subtype("roaming_activation")
@@ -327,35 +282,22 @@ public class AnomalyServiceImpl implements AnomalyService {
         
         if (previousBills.isEmpty()) return anomalies;
         
-        // Batch query ile tüm bill item'ları tek seferde al
-        List<Long> allBillIds = new ArrayList<>();
-        allBillIds.add(currentBill.getBillId());
-        allBillIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
-        
-        List<BillItem> allItems = billItemRepository.findByBillIdsIn(allBillIds);
+        Map<Long, BillCategoryTotals> totalsByBill = loadTotals(currentBill, previousBills);
         
         // Calculate average Premium SMS amount from previous months
-        List<BigDecimal> previousPremiumSMSAmounts = allItems.stream()
-                .filter(item -> !item.getBill().getBillId().equals(currentBill.getBillId()))
-                .filter(item -> item.getCategory() == ItemCategory.PREMIUM_SMS)
-                .collect(Collectors.groupingBy(item -> item.getBill().getBillId()))
-                .values()
-                .stream()
-                .map(items -> items.stream()
-                        .map(BillItem::getAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+        List<BigDecimal> previousPremiumSMSAmounts = previousTotals(currentBill, totalsByBill).stream()
+                .map(BillCategoryTotals::getPremiumSmsAmount)
+                .filter(amount -> amount.signum() != 0)
                 .collect(Collectors.toList());
         
+        if (previousPremiumSMSAmounts.isEmpty()) return anomalies;
+        
         BigDecimal averagePremiumSMS = previousPremiumSMSAmounts.stream()
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .divide(BigDecimal.valueOf(previousPremiumSMSAmounts.size()), 2, RoundingMode.HALF_UP);
         
         // Get current Premium SMS amount
-        BigDecimal currentPremiumSMS = allItems.stream()
-                .filter(item -> item.getBill().getBillId().equals(currentBill.getBillId()))
-                .filter(item -> item.getCategory() == ItemCategory.PREMIUM_SMS)
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal currentPremiumSMS = totalsByBill.get(currentBill.getBillId()).getPremiumSmsAmount();
         
         // Check for significant increase (more than 80% increase)
         if (averagePremiumSMS.compareTo(BigDecimal.ZERO) > 0 && currentPremiumSMS.compareTo(BigDecimal.ZERO) > 0) {
@@ -379,40 +321,33 @@ public class AnomalyServiceImpl implements AnomalyService {
         return anomalies;
     }
 
+    private Map<Long, BillCategoryTotals> loadTotals(Bill currentBill, List<Bill> previousBills) {
+        List<Long> billIds = new ArrayList<>();
+        billIds.add(currentBill.getBillId());
+        billIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
+        return billCategoryTotalsService.getTotals(billIds);
+    }
+
+    private List<BillCategoryTotals> previousTotals(Bill currentBill, Map<Long, BillCategoryTotals> totalsByBill) {
+        return totalsByBill.values().stream()
+                .filter(totals -> !totals.getBillId().equals(currentBill.getBillId()))
+                .collect(Collectors.toList());
+    }
+
     private List<AnomalyDTO> detectVASAnomalies(Bill currentBill, List<Bill> previousBills) {
         List<AnomalyDTO> anomalies = new ArrayList<>();
         
         if (previousBills.isEmpty()) return anomalies;
         
-        // Batch query ile tüm bill item'ları tek seferde al
-        List<Long> allBillIds = new ArrayList<>();
-        allBillIds.add(currentBill.getBillId());
-        allBillIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
-        
-        List<BillItem> allItems = billItemRepository.findByBillIdsIn(allBillIds);
-        
-        // Get current VAS items (excluding plan fee)
-        List<BillItem> currentVASItems = allItems.stream()
-                .filter(item -> item.getBill().getBillId().equals(currentBill.getBillId()))
-                .filter(item -> item.getCategory() == ItemCategory.VAS && !"plan_fee".equals(item.getSubtype()))
-                .collect(Collectors.toList());
-        
-        // Get previous VAS items
-        Set<String> previousVASSubtypes = allItems.stream()
-                .filter(item -> !item.getBill().getBillId().equals(currentBill.getBillId()))
-                .filter(item -> item.getCategory() == ItemCategory.VAS && !"plan_fee".equals(item.getSubtype()))
-                .map(BillItem::getSubtype)
-                .collect(Collectors.toSet());
-        
-        // Check for new VAS services
-        for (BillItem item : currentVASItems) {
-            if (!previousVASSubtypes.contains(item.getSubtype())) {
+        // Check for new VAS services (excluding plan fee)
+        for (BillItemDiff.Line line : addedLines(currentBill, previousBills)) {
+            if (line.category() == ItemCategory.VAS && !BillCategoryTotals.PLAN_FEE_SUBTYPE.equals(line.subtype())) {
                 anomalies.add(AnomalyDTO.builder()
                         .category(ItemCategory.VAS.name())
-                        .subtype(item.getSubtype())
-                        .delta(item.getAmount())
+                        .subtype(line.subtype())
+                        .delta(line.amount())
                         .percentageChange(BigDecimal.valueOf(100))
-                        .reason("Yeni VAS servisi aktif edildi: " + item.getDescription())
+                        .reason("Yeni VAS servisi aktif edildi: " + line.description())
                         .suggestedAction("Bu servisi gerçekten kullanıyor musunuz? Kontrol edin")
                         .type(AnomalyType.NEW_ITEM)
                         .build());
@@ -463,23 +398,27 @@ public class AnomalyServiceImpl implements AnomalyService {
         return anomalies;
     }
 
-    private Bill getCurrentBill(Long userId, String period) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        LocalDate periodStart = LocalDate.parse(period + "-01", formatter);
-        LocalDate periodEnd = periodStart.plusMonths(1).minusDays(1);
-        
-        return billRepository.findByUser_UserIdAndPeriodStartBetween(userId, periodStart, periodEnd)
-                .stream()
-                .findFirst()
-                .orElse(null);
-    }
-
-    private List<Bill> getPreviousBills(Long userId, String period, int months) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        LocalDate periodStart = LocalDate.parse(period + "-01", formatter);
-        LocalDate startDate = periodStart.minusMonths(months);
+    /**
+     * Mevcut faturanın önceki faturalara göre eklenen satırları; tüm kalemler tek sorguda okunur
+     */
+    private List<BillItemDiff.Line> addedLines(Bill currentBill, List<Bill> previousBills) {
+        List<Long> allBillIds = new ArrayList<>();
+        allBillIds.add(currentBill.getBillId());
+        allBillIds.addAll(previousBills.stream().map(Bill::getBillId).collect(Collectors.toList()));
         
-        return billRepository.findByUser_UserIdAndPeriodStartBetween(userId, startDate, periodStart);
+        List<BillItem> currentItems = new ArrayList<>();
+        List<BillItem> previousItems = new ArrayList<>();
+        for (BillItem item : billItemRepository.findByBillIdsIn(allBillIds)) {
+            if (item.getBill().getBillId().equals(currentBill.getBillId())) {
+                currentItems.add(item);
+            } else {
+                previousItems.add(item);
+            }
+        }
+        
+        return BillItemDiff.diff(currentItems, previousItems).stream()
+                .filter(line -> line.change() == BillItemDiff.Change.ADDED)
+                .collect(Collectors.toList());
     }
 
     private List<Bill> getLastMonthsBills(Long userId, int months) {
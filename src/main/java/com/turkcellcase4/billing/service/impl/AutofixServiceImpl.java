@@ -2,15 +2,19 @@ package com.turkcellcase4.billing.service.impl;
 
 import com.turkcellcase4.billing.dto.AutofixRecommendationDTO;
 import com.turkcellcase4.billing.model.Bill;
-import com.turkcellcase4.billing.model.BillItem;
-import com.turkcellcase4.billing.repository.BillRepository;
-import com.turkcellcase4.billing.repository.BillItemRepository;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+import com.turkcellcase4.billing.rating.Money;
+import com.turkcellcase4.billing.rating.TariffCompiler;
+import com.turkcellcase4.billing.rating.TariffEvaluator;
 import com.turkcellcase4.billing.service.AutofixService;
+import com.turkcellcase4.billing.service.BillCategoryTotalsService;
+import com.turkcellcase4.billing.service.UsageRollupService;
 import com.turkcellcase4.catalog.model.Plan;
 import com.turkcellcase4.catalog.model.AddOnPack;
 import com.turkcellcase4.catalog.repository.PlanRepository;
 import com.turkcellcase4.catalog.repository.AddOnPackRepository;
-import com.turkcellcase4.common.enums.ItemCategory;
+import com.turkcellcase4.billing.period.BillingPeriod;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,7 +22,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -29,10 +32,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AutofixServiceImpl implements AutofixService {
 
-    private final BillRepository billRepository;
-    private final BillItemRepository billItemRepository;
+    private final BillPeriodIndex billPeriodIndex;
+    private final BillCategoryTotalsService billCategoryTotalsService;
     private final PlanRepository planRepository;
     private final AddOnPackRepository addOnPackRepository;
+    private final UsageRollupService usageRollupService;
+    private final TariffCompiler tariffCompiler;
 
     @Override
     public AutofixRecommendationDTO generateBestAutofix(Long userId, String period) {
@@ -40,13 +45,9 @@ public class AutofixServiceImpl implements AutofixService {
         
         try {
             // Parse period
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
-            int year = periodDate.getYear();
-            int month = periodDate.getMonthValue();
-            
+            BillingPeriod billingPeriod = BillingPeriod.parse(period);
             // Get current bill
-            Bill currentBill = billRepository.findByUserIdAndPeriod(userId, year, month)
+            Bill currentBill = billPeriodIndex.findBill(userId, billingPeriod)
                     .orElseThrow(() -> new RuntimeException("Bill not found"));
             
             // Get all available plans and add-ons
@@ -91,13 +92,9 @@ public class AutofixServiceImpl implements AutofixService {
         
         try {
             // Parse period
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
-            int year = periodDate.getYear();
-            int month = periodDate.getMonthValue();
-            
+            BillingPeriod billingPeriod = BillingPeriod.parse(period);
             // Get current bill
-            Bill currentBill = billRepository.findByUserIdAndPeriod(userId, year, month)
+            Bill currentBill = billPeriodIndex.findBill(userId, billingPeriod)
                     .orElseThrow(() -> new RuntimeException("Bill not found"));
             
             // Get all available plans and add-ons
@@ -169,21 +166,50 @@ public class AutofixServiceImpl implements AutofixService {
         }
     }
     
+    /**
+     * Dönem kullanımı: {data milli-MB, dakika, SMS}; kayıt yoksa sıfır
+     */
+    private long[] periodUsage(Long userId, String period) {
+        LocalDate periodStart = BillingPeriod.parse(period).start();
+        return usageRollupService.getMonthlyUsage(userId, periodStart)
+                .map(usage -> new long[]{
+                        usage.getTotalDataGB() != null ? TariffEvaluator.milliMbOfGb(usage.getTotalDataGB()) : 0,
+                        usage.getTotalVoiceMinutes() != null ? usage.getTotalVoiceMinutes() : 0,
+                        usage.getTotalSMSCount() != null ? usage.getTotalSMSCount() : 0})
+                .orElseGet(() -> new long[3]);
+    }
+
     private List<AutofixRecommendationDTO> generateAutofixScenarios(Long userId, String period, Bill currentBill, 
                                                                    List<Plan> availablePlans, List<AddOnPack> availableAddOns) {
         List<AutofixRecommendationDTO> scenarios = new ArrayList<>();
         
         try {
             BigDecimal currentCost = currentBill.getTotalAmount();
-            List<BillItem> items = billItemRepository.findByBill_BillId(currentBill.getBillId());
+            // Senaryolar kalemleri değil, faturayla birlikte yazılan kategori toplamlarını kullanır
+            BillCategoryTotals totals = billCategoryTotalsService.getTotals(currentBill.getBillId());
             
             // Scenario 1: Plan Change
             if (availablePlans.size() > 1) {
-                Plan cheapestPlan = availablePlans.stream()
-                        .min(Comparator.comparing(Plan::getMonthlyPrice))
-                        .orElse(availablePlans.get(0));
+                // Her plan dönemin gerçek kullanımıyla fiyatlanır; plan dışı kalemler (VAS, roaming vb.) aynen kalır
+                long[] usage = periodUsage(userId, period);
+                // Plana bağlı kalemler (plan ücreti, aşımlar, vergi) çıkarılır
+                long otherCharges = Money.ofLira(totals.itemsTotal()
+                        .subtract(totals.getTaxAmount())
+                        .subtract(totals.getPlanFeeAmount())
+                        .subtract(totals.getOverageAmount()));
+                Plan cheapestPlan = null;
+                long cheapestCost = Long.MAX_VALUE;
+                for (Plan plan : availablePlans) {
+                    long subtotal = tariffCompiler.compile(plan)
+                            .rate(usage[0], usage[1], usage[2], 0) + otherCharges;
+                    long cost = subtotal + tariffCompiler.tax(subtotal);
+                    if (cost < cheapestCost) {
+                        cheapestCost = cost;
+                        cheapestPlan = plan;
+                    }
+                }
                 
-                BigDecimal newCost = cheapestPlan.getMonthlyPrice();
+                BigDecimal newCost = Money.toLira(cheapestCost);
                 BigDecimal savings = currentCost.subtract(newCost);
                 
                 if (savings.compareTo(BigDecimal.ZERO) > 0) {
@@ -206,10 +232,7 @@ public class AutofixServiceImpl implements AutofixService {
             }
             
             // Scenario 2: VAS Cancellation
-            BigDecimal vasTotal = items.stream()
-                    .filter(item -> ItemCategory.VAS.equals(item.getCategory()) && !"plan_fee".equals(item.getSubtype()))
-                    .map(BillItem::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal vasTotal = totals.vasServicesAmount();
             
             if (vasTotal.compareTo(BigDecimal.ZERO) > 0) {
                 BigDecimal newCost = currentCost.subtract(vasTotal);
@@ -231,10 +254,7 @@ public class AutofixServiceImpl implements AutofixService {
             }
             
             // Scenario 3: Premium SMS Block
-            BigDecimal premiumSMSTotal = items.stream()
-                    .filter(item -> ItemCategory.PREMIUM_SMS.equals(item.getCategory()))
-                    .map(BillItem::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal premiumSMSTotal = totals.getPremiumSmsAmount();
             
             if (premiumSMSTotal.compareTo(BigDecimal.ZERO) > 0) {
                 BigDecimal newCost = currentCost.subtract(premiumSMSTotal);
@@ -263,10 +283,7 @@ public class AutofixServiceImpl implements AutofixService {
                         .orElse(availableAddOns.get(0));
                 
                 BigDecimal addonCost = dataAddon.getPrice();
-                BigDecimal dataOverageTotal = items.stream()
-                        .filter(item -> ItemCategory.DATA.equals(item.getCategory()) && "data_overage".equals(item.getSubtype()))
-                        .map(BillItem::getAmount)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                BigDecimal dataOverageTotal = totals.getDataOverageAmount();
                 
                 if (dataOverageTotal.compareTo(addonCost) > 0) {
                     BigDecimal savings = dataOverageTotal.subtract(addonCost);
@@ -0,0 +1,208 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.archive.ArchiveSegmentWriter;
+import com.turkcellcase4.billing.archive.BillArchiveStore;
+import com.turkcellcase4.billing.dto.BillArchiveReportDTO;
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import com.turkcellcase4.billing.repository.BillArchiveJdbcRepository;
+import com.turkcellcase4.billing.service.BillArchiveService;
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eski faturaların soğuk katmana taşınması. Dönem önce segmentlere yazılır ve diske zorlanır, satırlar sıcak
+ * tablolardan ancak segment yayınlandıktan sonra silinir. Silme öncesi kesilen bir çalıştırma tekrarlandığında
+ * arşivde zaten bulunan faturalar yeniden yazılmaz, yalnızca silinir.
+ */
+@Service
+@Slf4j
+public class BillArchiveServiceImpl implements BillArchiveService {
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final BillArchiveJdbcRepository billArchiveJdbcRepository;
+    private final BillArchiveStore billArchiveStore;
+    private final BillPeriodIndex billPeriodIndex;
+    private final int retentionMonths;
+    private final int segmentMaxBills;
+
+    public BillArchiveServiceImpl(
+            BillArchiveJdbcRepository billArchiveJdbcRepository,
+            BillArchiveStore billArchiveStore,
+            BillPeriodIndex billPeriodIndex,
+            @Value("${bills.archive.retention-months:24}") int retentionMonths,
+            @Value("${bills.archive.segment-max-bills:200000}") int segmentMaxBills) {
+        this.billArchiveJdbcRepository = billArchiveJdbcRepository;
+        this.billArchiveStore = billArchiveStore;
+        this.billPeriodIndex = billPeriodIndex;
+        this.retentionMonths = retentionMonths;
+        this.segmentMaxBills = Math.max(1, segmentMaxBills);
+    }
+
+    @Scheduled(cron = "${bills.archive.cron:0 30 4 * * *}")
+    public void scheduledArchive() {
+        if (billArchiveStore.isEnabled() && retentionMonths > 0) {
+            archive();
+        }
+    }
+
+    @Override
+    public synchronized BillArchiveReportDTO archive() {
+        if (!billArchiveStore.isEnabled()) {
+            throw new BusinessLogicException("Fatura arşivi kapalı (bills.archive.dir tanımlı değil)");
+        }
+        if (retentionMonths <= 0) {
+            throw new BusinessLogicException("bills.archive.retention-months pozitif olmalı");
+        }
+        long start = System.currentTimeMillis();
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<String> periods = new ArrayList<>();
+        long archived = 0;
+        long alreadyArchived = 0;
+        long deleted = 0;
+        int segments = 0;
+
+        for (int periodKey : billArchiveJdbcRepository.findPeriodKeysBefore(Bill.periodKeyOf(cutoff.atDay(1)))) {
+            PeriodArchive result = archivePeriod(periodKey);
+            deleted += deleteChunked(result.billIds());
+            // Silinen dönemler sıcak indekste kalmamalı; dönem kullanıcıları tutulmadığı için indeks tümden düşürülür
+            billPeriodIndex.invalidateAll();
+            archived += result.written();
+            alreadyArchived += result.billIds().length - result.written();
+            segments += result.segments();
+            periods.add(YearMonth.of(periodKey / 100, periodKey % 100).toString());
+            log.info("Dönem {} arşivlendi: {} fatura yazıldı, {} segment", periodKey, result.written(), result.segments());
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        if (!periods.isEmpty()) {
+            log.info("Fatura arşivleme tamamlandı: {} dönem, {} fatura, {} silindi ({} ms)",
+                    periods.size(), archived, deleted, durationMs);
+        }
+        return BillArchiveReportDTO.builder()
+                .cutoffPeriod(cutoff.toString())
+                .archivedPeriods(periods)
+                .archivedBills(archived)
+                .alreadyArchivedBills(alreadyArchived)
+                .deletedBills(deleted)
+                .segmentsWritten(segments)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        return billArchiveStore.getStats();
+    }
+
+    // Dönemi segmentlere yazar; okunan tüm fatura ID'lerini (zaten arşivde olanlar dahil) döner
+    private PeriodArchive archivePeriod(int periodKey) {
+        PeriodWriter writer = new PeriodWriter(periodKey);
+        try {
+            billArchiveJdbcRepository.streamPeriod(periodKey, bill -> {
+                writer.billIds.add(bill.billId());
+                if (billArchiveStore.contains(bill.billId())) {
+                    return;
+                }
+                try {
+                    writer.current().append(bill);
+                    writer.written++;
+                    if (writer.current.count() >= segmentMaxBills) {
+                        writer.publish();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.publish();
+        } catch (IOException | UncheckedIOException e) {
+            writer.abort();
+            throw new BusinessLogicException("Dönem " + periodKey + " arşive yazılamadı: " + e.getMessage());
+        }
+        return new PeriodArchive(writer.billIds.toArray(), writer.written, writer.segments);
+    }
+
+    private long deleteChunked(long[] billIds) {
+        long deleted = 0;
+        for (int from = 0; from < billIds.length; from += DELETE_CHUNK_SIZE) {
+            long[] chunk = Arrays.copyOfRange(billIds, from, Math.min(billIds.length, from + DELETE_CHUNK_SIZE));
+            deleted += billArchiveJdbcRepository.deleteBills(chunk);
+        }
+        return deleted;
+    }
+
+    private record PeriodArchive(long[] billIds, long written, int segments) {
+    }
+
+    // Dönem için açık segment yazıcısı; segment dolunca yayınlanır ve yenisi açılır
+    private final class PeriodWriter {
+
+        private final int periodKey;
+        private final LongList billIds = new LongList();
+        private ArchiveSegmentWriter current;
+        private long written;
+        private int segments;
+
+        private PeriodWriter(int periodKey) {
+            this.periodKey = periodKey;
+        }
+
+        private ArchiveSegmentWriter current() throws IOException {
+            if (current == null) {
+                current = billArchiveStore.newWriter(periodKey);
+            }
+            return current;
+        }
+
+        private void publish() throws IOException {
+            if (current == null) {
+                return;
+            }
+            try (ArchiveSegmentWriter writer = current) {
+                current = null;
+                billArchiveStore.publish(writer.finish());
+                segments++;
+            }
+        }
+
+        private void abort() {
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    log.warn("Yarım segment silinemedi: {}", e.getMessage());
+                }
+                current = null;
+            }
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
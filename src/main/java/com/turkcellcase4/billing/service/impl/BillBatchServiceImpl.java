@@ -0,0 +1,247 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.dto.BillBatchResultDTO;
+import com.turkcellcase4.billing.dto.BillBatchResultDTO.BillFailure;
+import com.turkcellcase4.billing.dto.CreateBillRequestDTO;
+import com.turkcellcase4.billing.dto.CreateBillRequestDTO.CreateBillItemRequestDTO;
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.BillRow;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.ItemRow;
+import com.turkcellcase4.billing.service.BillBatchService;
+import com.turkcellcase4.common.enums.ItemCategory;
+import com.turkcellcase4.common.exception.ValidationException;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Dış faturalama sistemlerinden gelen toplu faturalar. Kullanıcılar tek sorguda doğrulanır, ID'ler parça başına
+ * tek sorguda sequence'lardan ayrılır ve başlık/kalemler parça başına bir transaction'da JDBC batch ile yazılır.
+ * Yazılamayan parça fatura fatura tekrar denenir; böylece yalnızca hatalı faturalar reddedilir.
+ * Kullanıcı başına dönemde tek fatura yazılır; çakışanlar (user_id, period_key) kısıtıyla atlanıp reddedilir.
+ */
+@Service
+@Slf4j
+public class BillBatchServiceImpl implements BillBatchService {
+
+    private final BillRunJdbcRepository billRunJdbcRepository;
+    private final IngestionJdbcRepository ingestionJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BillPeriodIndex billPeriodIndex;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxBills;
+
+    public BillBatchServiceImpl(
+            BillRunJdbcRepository billRunJdbcRepository,
+            IngestionJdbcRepository ingestionJdbcRepository,
+            TransactionTemplate transactionTemplate,
+            BillPeriodIndex billPeriodIndex,
+            Validator validator,
+            @Value("${bills.batch.chunk-size:500}") int chunkSize,
+            @Value("${bills.batch.max-size:20000}") int maxBills) {
+        this.billRunJdbcRepository = billRunJdbcRepository;
+        this.ingestionJdbcRepository = ingestionJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.billPeriodIndex = billPeriodIndex;
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxBills = maxBills;
+    }
+
+    @Override
+    public BillBatchResultDTO createBills(List<CreateBillRequestDTO> bills) {
+        if (bills == null || bills.isEmpty()) {
+            throw new ValidationException("En az bir fatura gönderilmelidir");
+        }
+        if (bills.size() > maxBills) {
+            throw new ValidationException("Tek istekte en fazla " + maxBills + " fatura gönderilebilir");
+        }
+        long started = System.currentTimeMillis();
+        Long[] billIds = new Long[bills.size()];
+        List<BillFailure> failures = new ArrayList<>();
+
+        List<PreparedBill> prepared = new ArrayList<>(bills.size());
+        for (int i = 0; i < bills.size(); i++) {
+            CreateBillRequestDTO bill = bills.get(i);
+            try {
+                prepared.add(prepare(i, bill));
+            } catch (ValidationException e) {
+                failures.add(failure(i, bill != null ? bill.getUserId() : null, e.getMessage()));
+            }
+        }
+
+        List<PreparedBill> accepted = prepared;
+        if (!prepared.isEmpty()) {
+            Set<Long> existingUsers = billRunJdbcRepository.findExistingUserIds(prepared.stream()
+                    .map(bill -> bill.request().getUserId())
+                    .collect(Collectors.toSet()));
+            accepted = new ArrayList<>(prepared.size());
+            for (PreparedBill bill : prepared) {
+                if (existingUsers.contains(bill.request().getUserId())) {
+                    accepted.add(bill);
+                } else {
+                    failures.add(failure(bill.index(), bill.request().getUserId(),
+                            "Kullanıcı bulunamadı: " + bill.request().getUserId()));
+                }
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<PreparedBill> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            List<PreparedBill> duplicates;
+            try {
+                duplicates = writeChunk(chunk, billIds);
+            } catch (RuntimeException e) {
+                log.warn("Bill batch chunk of {} failed, retrying bills one by one: {}", chunk.size(), rootMessage(e));
+                duplicates = new ArrayList<>();
+                for (PreparedBill bill : chunk) {
+                    try {
+                        duplicates.addAll(writeChunk(List.of(bill), billIds));
+                    } catch (RuntimeException single) {
+                        failures.add(failure(bill.index(), bill.request().getUserId(), rootMessage(single)));
+                    }
+                }
+            }
+            for (PreparedBill bill : duplicates) {
+                failures.add(failure(bill.index(), bill.request().getUserId(),
+                        "Kullanıcının bu dönem için faturası zaten var: " + bill.request().getUserId()));
+            }
+        }
+
+        failures.sort(Comparator.comparing(BillFailure::getIndex));
+        int created = bills.size() - failures.size();
+        long duration = System.currentTimeMillis() - started;
+        log.info("Bill batch finished: {} received, {} created, {} failed in {} ms",
+                bills.size(), created, failures.size(), duration);
+        return BillBatchResultDTO.builder()
+                .received(bills.size())
+                .created(created)
+                .failed(failures.size())
+                .billIds(Arrays.asList(billIds))
+                .failures(failures)
+                .durationMs(duration)
+                .build();
+    }
+
+    /**
+     * Parçanın ID'lerini ayırır; başlık, kalem ve özet işlerini tek transaction'da yazar.
+     * Dönemde faturası olan (ya da istekte daha önce gelen) kullanıcıların faturaları yazılmaz ve döner;
+     * billIds yalnızca commit sonrasında doldurulur
+     */
+    private List<PreparedBill> writeChunk(List<PreparedBill> chunk, Long[] billIds) {
+        Long[] ids = transactionTemplate.execute(status -> {
+            long[] headerIds = ingestionJdbcRepository.allocateIds("bill_headers", "bill_id", chunk.size());
+            List<BillRow> billRows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                CreateBillRequestDTO request = chunk.get(i).request();
+                billRows.add(new BillRow(headerIds[i], request.getUserId(), request.getPeriodStart(), request.getPeriodEnd(),
+                        request.getIssueDate(), request.getTotalAmount(), request.getCurrency(),
+                        Bill.periodKeyOf(request.getPeriodStart())));
+            }
+            Set<Long> inserted = billRunJdbcRepository.insertBills(billRows);
+
+            int itemCount = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                if (inserted.contains(headerIds[i])) {
+                    itemCount += chunk.get(i).request().getBillItems().size();
+                }
+            }
+            long[] itemIds = ingestionJdbcRepository.allocateIds("bill_items", "item_id", itemCount);
+            Long[] written = new Long[chunk.size()];
+            List<BillRow> writtenRows = new ArrayList<>(inserted.size());
+            List<ItemRow> itemRows = new ArrayList<>(itemCount);
+            List<BillCategoryTotals> totalsRows = new ArrayList<>(inserted.size());
+            int nextItem = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                BillRow row = billRows.get(i);
+                if (!inserted.contains(row.billId())) {
+                    continue;
+                }
+                written[i] = row.billId();
+                writtenRows.add(row);
+                BillCategoryTotals totals = BillCategoryTotals.empty(row.billId(), row.userId(), row.periodKey());
+                List<CreateBillItemRequestDTO> items = chunk.get(i).request().getBillItems();
+                for (int j = 0; j < items.size(); j++) {
+                    CreateBillItemRequestDTO item = items.get(j);
+                    ItemCategory category = chunk.get(i).categories().get(j);
+                    itemRows.add(new ItemRow(itemIds[nextItem++], row.billId(), category.name(),
+                            item.getSubtype(), item.getDescription(), item.getAmount(), item.getUnitPrice(),
+                            item.getQuantity(), item.getTaxRate() != null ? item.getTaxRate() : BigDecimal.ZERO));
+                    totals.add(category, item.getSubtype(), item.getAmount());
+                }
+                totalsRows.add(totals);
+            }
+            billRunJdbcRepository.insertItems(itemRows);
+            billRunJdbcRepository.insertCategoryTotals(totalsRows);
+            billRunJdbcRepository.insertSummaryJobs(writtenRows);
+            billPeriodIndex.invalidate(writtenRows.stream().map(BillRow::userId).distinct().toList());
+            return written;
+        });
+        List<PreparedBill> duplicates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (ids[i] != null) {
+                billIds[chunk.get(i).index()] = ids[i];
+            } else {
+                duplicates.add(chunk.get(i));
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Bean validation kurallarını ve kategori adlarını tek fatura için kontrol eder
+     */
+    private PreparedBill prepare(int index, CreateBillRequestDTO bill) {
+        if (bill == null) {
+            throw new ValidationException("Fatura boş olamaz");
+        }
+        Set<ConstraintViolation<CreateBillRequestDTO>> violations = validator.validate(bill);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (bill.getPeriodEnd().isBefore(bill.getPeriodStart())) {
+            throw new ValidationException("Dönem bitişi başlangıçtan önce olamaz");
+        }
+        List<ItemCategory> categories = new ArrayList<>(bill.getBillItems().size());
+        for (CreateBillItemRequestDTO item : bill.getBillItems()) {
+            try {
+                categories.add(ItemCategory.valueOf(item.getCategory().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Geçersiz kategori: " + item.getCategory());
+            }
+        }
+        return new PreparedBill(index, bill, categories);
+    }
+
+    private static BillFailure failure(int index, Long userId, String reason) {
+        return BillFailure.builder().index(index).userId(userId).reason(reason).build();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = NestedExceptionUtils.getMostSpecificCause(e);
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private record PreparedBill(int index, CreateBillRequestDTO request, List<ItemCategory> categories) {
+    }
+}
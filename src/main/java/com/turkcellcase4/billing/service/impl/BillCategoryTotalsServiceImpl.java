@@ -0,0 +1,45 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+import com.turkcellcase4.billing.repository.BillCategoryTotalsRepository;
+import com.turkcellcase4.billing.service.BillCategoryTotalsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillCategoryTotalsServiceImpl implements BillCategoryTotalsService {
+
+    private final BillCategoryTotalsRepository billCategoryTotalsRepository;
+
+    @Override
+    public BillCategoryTotals getTotals(Long billId) {
+        return getTotals(List.of(billId)).get(billId);
+    }
+
+    @Override
+    public Map<Long, BillCategoryTotals> getTotals(Collection<Long> billIds) {
+        Map<Long, BillCategoryTotals> totals = new HashMap<>();
+        if (billIds.isEmpty()) {
+            return totals;
+        }
+        billCategoryTotalsRepository.findAllById(billIds).forEach(row -> totals.put(row.getBillId(), row));
+        List<Long> missing = billIds.stream().distinct().filter(id -> !totals.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            int created = billCategoryTotalsRepository.recompute(missing);
+            log.debug("Backfilled category totals for {} of {} bills", created, missing.size());
+            billCategoryTotalsRepository.findAllById(missing).forEach(row -> totals.put(row.getBillId(), row));
+        }
+        for (Long billId : billIds) {
+            totals.computeIfAbsent(billId, id -> BillCategoryTotals.empty(id, null, null));
+        }
+        return totals;
+    }
+}
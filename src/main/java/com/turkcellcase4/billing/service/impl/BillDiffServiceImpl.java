@@ -0,0 +1,128 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.diff.BillItemDiff;
+import com.turkcellcase4.billing.diff.BillItemDiff.Change;
+import com.turkcellcase4.billing.dto.BillDiffDTO;
+import com.turkcellcase4.billing.dto.BillDiffDTO.BillDiffLine;
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillItem;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import com.turkcellcase4.billing.period.BillPeriodIndex.BillLocation;
+import com.turkcellcase4.billing.period.BillingPeriod;
+import com.turkcellcase4.billing.repository.BillItemRepository;
+import com.turkcellcase4.billing.repository.BillRepository;
+import com.turkcellcase4.billing.service.BillDiffService;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.common.exception.ValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillDiffServiceImpl implements BillDiffService {
+
+    private final BillRepository billRepository;
+    private final BillItemRepository billItemRepository;
+    private final BillPeriodIndex billPeriodIndex;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long resolveAgainstBillId(Long billId, Long againstBillId) {
+        if (againstBillId != null) {
+            if (againstBillId.equals(billId)) {
+                throw new ValidationException("Fatura kendisiyle karşılaştırılamaz: " + billId);
+            }
+            return againstBillId;
+        }
+        // Fatura dönem indeksinden çözülür; cache kontrolünden önce fatura yüklenmez. Yalnızca arşivdeki faturalar okunur
+        BillLocation location = billPeriodIndex.locate(billId).orElseGet(() -> {
+            Bill bill = findBill(billId);
+            return new BillLocation(bill.getUser().getUserId(), BillingPeriod.of(bill.getPeriodStart()));
+        });
+        long userId = location.userId();
+        BillingPeriod previous = location.period().minusMonths(1);
+        // Dönem indeksinde yoksa arşive bakılır
+        return billPeriodIndex.findBillId(userId, previous)
+                .or(() -> billRepository.findByUserIdAndPeriodKeyIncludingArchive(userId, previous.key()).map(Bill::getBillId))
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Karşılaştırılacak fatura bulunamadı: kullanıcı " + userId + " ve dönem " + previous));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BillDiffDTO diff(Long billId, Long againstBillId) {
+        log.info("Computing diff for bill {} against bill {}", billId, againstBillId);
+        Long resolvedAgainst = resolveAgainstBillId(billId, againstBillId);
+        Bill bill = findBill(billId);
+        Bill against = findBill(resolvedAgainst);
+        if (!bill.getUser().getUserId().equals(against.getUser().getUserId())) {
+            throw new ValidationException("Yalnızca aynı kullanıcının faturaları karşılaştırılabilir");
+        }
+
+        List<BillItemDiff.Line> diffLines = BillItemDiff.diff(itemsOf(bill), itemsOf(against));
+        Map<Change, Integer> counts = new EnumMap<>(Change.class);
+        List<BillDiffLine> lines = new ArrayList<>();
+        for (BillItemDiff.Line line : diffLines) {
+            counts.merge(line.change(), 1, Integer::sum);
+            if (line.change() != Change.UNCHANGED) {
+                lines.add(toLineDTO(line));
+            }
+        }
+
+        BigDecimal totalAmount = bill.getTotalAmount() != null ? bill.getTotalAmount() : BigDecimal.ZERO;
+        BigDecimal againstTotalAmount = against.getTotalAmount() != null ? against.getTotalAmount() : BigDecimal.ZERO;
+        return BillDiffDTO.builder()
+                .billId(bill.getBillId())
+                .againstBillId(against.getBillId())
+                .userId(bill.getUser().getUserId())
+                .period(BillingPeriod.of(bill.getPeriodStart()).toString())
+                .againstPeriod(BillingPeriod.of(against.getPeriodStart()).toString())
+                .currency(bill.getCurrency())
+                .totalAmount(totalAmount)
+                .againstTotalAmount(againstTotalAmount)
+                .totalDelta(totalAmount.subtract(againstTotalAmount))
+                .addedCount(counts.getOrDefault(Change.ADDED, 0))
+                .removedCount(counts.getOrDefault(Change.REMOVED, 0))
+                .changedCount(counts.getOrDefault(Change.CHANGED, 0))
+                .unchangedCount(counts.getOrDefault(Change.UNCHANGED, 0))
+                .lines(lines)
+                .build();
+    }
+
+    private Bill findBill(Long billId) {
+        return billRepository.findByIdIncludingArchive(billId)
+                .orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: " + billId));
+    }
+
+    private List<BillItem> itemsOf(Bill bill) {
+        return bill.isArchived() ? bill.getBillItems() : billItemRepository.findByBill_BillId(bill.getBillId());
+    }
+
+    private static BillDiffLine toLineDTO(BillItemDiff.Line line) {
+        BigDecimal percentageChange = line.baselineAmount().signum() != 0
+                ? line.delta().multiply(BigDecimal.valueOf(100)).divide(line.baselineAmount().abs(), 2, RoundingMode.HALF_UP)
+                : null;
+        return BillDiffLine.builder()
+                .category(line.category() != null ? line.category().name() : null)
+                .subtype(line.subtype())
+                .description(line.description())
+                .change(line.change().name())
+                .amount(line.amount())
+                .againstAmount(line.baselineAmount())
+                .delta(line.delta())
+                .percentageChange(percentageChange)
+                .quantity(line.quantity())
+                .againstQuantity(line.baselineQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,394 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.billrun.BillRater;
+import com.turkcellcase4.billing.billrun.BillRater.RatedBill;
+import com.turkcellcase4.billing.billrun.BillRater.RatedItem;
+import com.turkcellcase4.billing.dto.BillRunDTO;
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
+import com.turkcellcase4.billing.model.BillRun;
+import com.turkcellcase4.billing.rating.RatingBatch;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.BillRow;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.ItemRow;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.RecurringCharge;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.UsageTotals;
+import com.turkcellcase4.billing.repository.BillRunJdbcRepository.UserPlan;
+import com.turkcellcase4.billing.repository.BillRunRepository;
+import com.turkcellcase4.billing.service.BillRunService;
+import com.turkcellcase4.catalog.model.Plan;
+import com.turkcellcase4.catalog.repository.PlanRepository;
+import com.turkcellcase4.common.enums.BillRunStatus;
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.common.exception.ValidationException;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dönem sonu toplu faturalama. Kullanıcılar ID sırasıyla sayfalara bölünür, sayfalar paralel olarak
+ * derecelendirilir ve her sayfa tek transaction'da JDBC batch ile yazılır.
+ * <p>
+ * Devam etme iki katmanlıdır: faturası olan kullanıcılar sorguda atlandığından aynı kullanıcı iki kez
+ * faturalanmaz; sırayla tamamlanan sayfaların sonu da lastUserId olarak saklanır ve tarama oradan başlar.
+ */
+@Service
+@Slf4j
+public class BillRunServiceImpl implements BillRunService {
+
+    private static final String CURRENCY = "TRY";
+
+    private final BillRunRepository billRunRepository;
+    private final BillRunJdbcRepository billRunJdbcRepository;
+    private final IngestionJdbcRepository ingestionJdbcRepository;
+    private final PlanRepository planRepository;
+    private final BillRater billRater;
+    private final BillPeriodIndex billPeriodIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final int pageSize;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bill-run");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public BillRunServiceImpl(
+            BillRunRepository billRunRepository,
+            BillRunJdbcRepository billRunJdbcRepository,
+            IngestionJdbcRepository ingestionJdbcRepository,
+            PlanRepository planRepository,
+            BillRater billRater,
+            BillPeriodIndex billPeriodIndex,
+            TransactionTemplate transactionTemplate,
+            @Value("${billrun.parallelism:4}") int parallelism,
+            @Value("${billrun.page-size:1000}") int pageSize) {
+        this.billRunRepository = billRunRepository;
+        this.billRunJdbcRepository = billRunJdbcRepository;
+        this.ingestionJdbcRepository = ingestionJdbcRepository;
+        this.planRepository = planRepository;
+        this.billRater = billRater;
+        this.billPeriodIndex = billPeriodIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    @Override
+    public BillRunDTO startRun(String period) {
+        YearMonth month = parsePeriod(period);
+        if (!month.isBefore(YearMonth.now())) {
+            throw new ValidationException("Dönem henüz kapanmadı: " + period);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessLogicException("Devam eden bir fatura koşusu var");
+        }
+        try {
+            BillRun run = prepare(month);
+            log.info("Bill run {} started for period {} from user {}", run.getRunId(), period, run.getLastUserId());
+            coordinator.execute(() -> execute(run.getRunId(), month));
+            return toDTO(run);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public BillRunDTO getRun(Long runId) {
+        return billRunRepository.findById(runId)
+                .map(BillRunServiceImpl::toDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Fatura koşusu bulunamadı: " + runId));
+    }
+
+    @Override
+    public List<BillRunDTO> getRuns() {
+        return billRunRepository.findAllByOrderByPeriodKeyDesc().stream()
+                .map(BillRunServiceImpl::toDTO)
+                .toList();
+    }
+
+    /**
+     * Uygulama kapanırken yarıda kalan koşu RUNNING durumunda kalır ve açılışta kaldığı yerden sürdürülür
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        List<BillRun> interrupted = billRunRepository.findByStatus(BillRunStatus.RUNNING);
+        for (int i = 0; i < interrupted.size(); i++) {
+            BillRun run = interrupted.get(i);
+            if (i == 0 && running.compareAndSet(false, true)) {
+                YearMonth month = YearMonth.of(run.getPeriodKey() / 100, run.getPeriodKey() % 100);
+                log.info("Yarıda kalan fatura koşusu {} ({}) kullanıcı {} sonrasından sürdürülüyor",
+                        run.getRunId(), run.getPeriodKey(), run.getLastUserId());
+                coordinator.execute(() -> execute(run.getRunId(), month));
+            } else {
+                run.setStatus(BillRunStatus.FAILED);
+                run.setLastError("Aynı anda birden fazla koşu yarıda kaldı; yeniden başlatılmalı");
+                billRunRepository.save(run);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private BillRun prepare(YearMonth month) {
+        int periodKey = Bill.periodKeyOf(month.atDay(1));
+        BillRun run = billRunRepository.findByPeriodKey(periodKey).orElseGet(() -> BillRun.builder()
+                .periodKey(periodKey)
+                .lastUserId(0L)
+                .processedUsers(0L)
+                .billedUsers(0L)
+                .skippedUsers(0L)
+                .totalAmount(BigDecimal.ZERO)
+                .build());
+        if (run.getStatus() == BillRunStatus.COMPLETED) {
+            // Sonradan eklenen kullanıcılar için baştan taranır; faturalanmış olanlar sorguda atlanır
+            run.setLastUserId(0L);
+        }
+        run.setStatus(BillRunStatus.RUNNING);
+        run.setStartedAt(LocalDateTime.now());
+        run.setFinishedAt(null);
+        run.setLastError(null);
+        return billRunRepository.save(run);
+    }
+
+    private void execute(Long runId, YearMonth month) {
+        int periodKey = Bill.periodKeyOf(month.atDay(1));
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        AtomicReference<String> firstError = new AtomicReference<>();
+        boolean interrupted = false;
+        try {
+            Map<Long, Plan> plans = planRepository.findAll().stream()
+                    .collect(Collectors.toMap(Plan::getPlanId, Function.identity()));
+            BillRun run = billRunRepository.findById(runId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Fatura koşusu bulunamadı: " + runId));
+            Checkpoint checkpoint = new Checkpoint(runId);
+            // Okuma yazmalardan hızlı olduğundan bellekte bekleyen sayfa sayısı sınırlanır
+            Semaphore slots = new Semaphore(parallelism * 2);
+
+            long cursor = run.getLastUserId();
+            long sequence = 0;
+            while (firstError.get() == null) {
+                List<UserPlan> page = billRunJdbcRepository.findUnbilledUsers(periodKey, cursor, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).userId();
+                long pageSequence = sequence++;
+                long pageEnd = cursor;
+                slots.acquire();
+                workers.execute(() -> {
+                    try {
+                        processPage(runId, month, page, plans);
+                        checkpoint.complete(pageSequence, pageEnd);
+                    } catch (RuntimeException e) {
+                        log.error("Fatura koşusu {} sayfası ({} - {}) başarısız: {}",
+                                runId, page.get(0).userId(), pageEnd, e.getMessage());
+                        firstError.compareAndSet(null, e.getMessage());
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interrupted = true;
+        } catch (RuntimeException e) {
+            log.error("Fatura koşusu {} başarısız: {}", runId, e.getMessage(), e);
+            firstError.compareAndSet(null, e.getMessage());
+        } finally {
+            workers.shutdownNow();
+            if (!interrupted) {
+                finish(runId, firstError.get());
+            }
+            running.set(false);
+        }
+    }
+
+    /**
+     * Sayfanın kullanımını ve tekrarlayan ücretlerini tek sorguda okur, faturaları hesaplar
+     * ve başlık, kalem, özet işi ve ilerleme bilgisini tek transaction'da yazar
+     */
+    private void processPage(Long runId, YearMonth month, List<UserPlan> page, Map<Long, Plan> plans) {
+        long firstUserId = page.get(0).userId();
+        long lastUserId = page.get(page.size() - 1).userId();
+        LocalDate periodStart = month.atDay(1);
+        LocalDate periodEnd = month.atEndOfMonth();
+        int periodKey = Bill.periodKeyOf(periodStart);
+
+        Map<Long, UsageTotals> usage = billRunJdbcRepository.sumUsage(periodStart, periodEnd.plusDays(1), firstUserId, lastUserId);
+        Map<Long, List<RecurringCharge>> recurring = billRunJdbcRepository.findRecurringVas(
+                Bill.periodKeyOf(month.minusMonths(1).atDay(1)), firstUserId, lastUserId);
+
+        // Planı olan kullanıcılar plana göre sıralanır; her planın kullanımı tek batch çağrısıyla fiyatlanır
+        List<UserPlan> billable = new ArrayList<>(page.size());
+        for (UserPlan user : page) {
+            if (user.planId() != null && plans.containsKey(user.planId())) {
+                billable.add(user);
+            }
+        }
+        billable.sort(Comparator.comparing(UserPlan::planId));
+        List<Plan> billablePlans = new ArrayList<>(billable.size());
+        List<UsageTotals> billableUsage = new ArrayList<>(billable.size());
+        for (UserPlan user : billable) {
+            billablePlans.add(plans.get(user.planId()));
+            billableUsage.add(usage.get(user.userId()));
+        }
+        RatingBatch batch = billRater.rateUsage(billablePlans, billableUsage);
+
+        Map<Long, RatedBill> rated = new HashMap<>();
+        List<Long> billedUsers = new ArrayList<>(billable.size());
+        for (int row = 0; row < billable.size(); row++) {
+            long userId = billable.get(row).userId();
+            rated.put(userId, billRater.rate(billablePlans.get(row), batch, row, recurring.get(userId)));
+            billedUsers.add(userId);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            BigDecimal total = BigDecimal.ZERO;
+            int billed = 0;
+            if (!billedUsers.isEmpty()) {
+                long[] billIds = ingestionJdbcRepository.allocateIds("bill_headers", "bill_id", billedUsers.size());
+                List<BillRow> billRows = new ArrayList<>(billedUsers.size());
+                for (int i = 0; i < billedUsers.size(); i++) {
+                    Long userId = billedUsers.get(i);
+                    billRows.add(new BillRow(billIds[i], userId, periodStart, periodEnd, periodEnd.plusDays(1),
+                            rated.get(userId).totalAmount(), CURRENCY, periodKey));
+                }
+                // Sayfa okunduktan sonra POST /bills ile kesilmiş faturalar unique kısıtla atlanır
+                Set<Long> inserted = billRunJdbcRepository.insertBills(billRows);
+                if (inserted.size() < billRows.size()) {
+                    log.info("Fatura koşusu {}: {} kullanıcı bu arada başka yoldan faturalandı, atlandı",
+                            runId, billRows.size() - inserted.size());
+                    billRows.removeIf(row -> !inserted.contains(row.billId()));
+                }
+
+                long[] itemIds = ingestionJdbcRepository.allocateIds("bill_items", "item_id", countItems(billRows, rated));
+                List<ItemRow> itemRows = new ArrayList<>(itemIds.length);
+                List<BillCategoryTotals> totalsRows = new ArrayList<>(billRows.size());
+                List<Long> insertedUsers = new ArrayList<>(billRows.size());
+                int nextItem = 0;
+                for (BillRow row : billRows) {
+                    RatedBill bill = rated.get(row.userId());
+                    BillCategoryTotals totals = BillCategoryTotals.empty(row.billId(), row.userId(), periodKey);
+                    for (RatedItem item : bill.items()) {
+                        itemRows.add(new ItemRow(itemIds[nextItem++], row.billId(), item.category().name(), item.subtype(),
+                                item.description(), item.amount(), item.unitPrice(), item.quantity(), item.taxRate()));
+                        totals.add(item.category(), item.subtype(), item.amount());
+                    }
+                    totalsRows.add(totals);
+                    insertedUsers.add(row.userId());
+                    total = total.add(bill.totalAmount());
+                }
+                billRunJdbcRepository.insertItems(itemRows);
+                billRunJdbcRepository.insertCategoryTotals(totalsRows);
+                billRunJdbcRepository.insertSummaryJobs(billRows);
+                billPeriodIndex.invalidate(insertedUsers);
+                billed = billRows.size();
+            }
+            billRunJdbcRepository.addProgress(runId, page.size(), billed, page.size() - billed, total);
+        });
+    }
+
+    private static int countItems(List<BillRow> rows, Map<Long, RatedBill> rated) {
+        int count = 0;
+        for (BillRow row : rows) {
+            count += rated.get(row.userId()).items().size();
+        }
+        return count;
+    }
+
+    private void finish(Long runId, String error) {
+        billRunRepository.findById(runId).ifPresent(run -> {
+            run.setStatus(error == null ? BillRunStatus.COMPLETED : BillRunStatus.FAILED);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            billRunRepository.save(run);
+            log.info("Bill run {} finished with status {}: {} billed, {} skipped, total {}",
+                    runId, run.getStatus(), run.getBilledUsers(), run.getSkippedUsers(), run.getTotalAmount());
+        });
+    }
+
+    private static YearMonth parsePeriod(String period) {
+        try {
+            return YearMonth.parse(period);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new ValidationException("Geçersiz dönem formatı (yyyy-MM bekleniyor): " + period);
+        }
+    }
+
+    private static BillRunDTO toDTO(BillRun run) {
+        return BillRunDTO.builder()
+                .runId(run.getRunId())
+                .period(String.format("%04d-%02d", run.getPeriodKey() / 100, run.getPeriodKey() % 100))
+                .status(run.getStatus())
+                .lastUserId(run.getLastUserId())
+                .processedUsers(run.getProcessedUsers())
+                .billedUsers(run.getBilledUsers())
+                .skippedUsers(run.getSkippedUsers())
+                .totalAmount(run.getTotalAmount())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .lastError(run.getLastError())
+                .build();
+    }
+
+    /**
+     * Sayfalar sıra dışı tamamlanabildiği için yalnızca kesintisiz tamamlanan önek kontrol noktası olarak yazılır
+     */
+    private final class Checkpoint {
+
+        private final Long runId;
+        private final Map<Long, Long> completed = new HashMap<>();
+        private long next;
+
+        Checkpoint(Long runId) {
+            this.runId = runId;
+        }
+
+        synchronized void complete(long sequence, long lastUserId) {
+            completed.put(sequence, lastUserId);
+            Long watermark = null;
+            while (completed.containsKey(next)) {
+                watermark = completed.remove(next++);
+            }
+            if (watermark != null) {
+                billRunJdbcRepository.updateCheckpoint(runId, watermark);
+            }
+        }
+    }
+}
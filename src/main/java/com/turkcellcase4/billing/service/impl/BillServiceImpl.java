@@ -1,27 +1,37 @@
 package com.turkcellcase4.billing.service.impl;
 
+import com.turkcellcase4.billing.archive.BillArchiveStore;
+import com.turkcellcase4.billing.dto.BillHeaderDTO;
+import com.turkcellcase4.billing.dto.BillPageDTO;
 import com.turkcellcase4.billing.dto.BillResponseDTO;
 import com.turkcellcase4.billing.dto.BillItemDTO;
 import com.turkcellcase4.billing.dto.BillSummaryDTO;
 import com.turkcellcase4.billing.dto.CreateBillRequestDTO;
 import com.turkcellcase4.billing.mapper.BillMapper;
 import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
 import com.turkcellcase4.billing.model.BillItem;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import com.turkcellcase4.billing.period.BillingPeriod;
 import com.turkcellcase4.billing.repository.BillRepository;
+import com.turkcellcase4.billing.repository.BillCategoryTotalsRepository;
 import com.turkcellcase4.billing.repository.BillItemRepository;
 import com.turkcellcase4.billing.service.BillService;
+import com.turkcellcase4.billing.service.BillSummaryJobService;
 import com.turkcellcase4.common.enums.ItemCategory;
 import com.turkcellcase4.common.exception.ResourceNotFoundException;
 import com.turkcellcase4.common.exception.BusinessLogicException;
+import com.turkcellcase4.common.exception.ValidationException;
 import com.turkcellcase4.user.repository.UserRepository;
 import com.turkcellcase4.user.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,15 +40,22 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BillServiceImpl implements BillService {
 
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	private static final int MAX_PAGE_SIZE = 200;
+
 	private final BillRepository billRepository;
 	private final BillItemRepository billItemRepository;
+	private final BillCategoryTotalsRepository billCategoryTotalsRepository;
 	private final BillMapper billMapper;
 	private final UserRepository userRepository;
+	private final BillSummaryJobService billSummaryJobService;
+	private final BillArchiveStore billArchiveStore;
+	private final BillPeriodIndex billPeriodIndex;
 
 	@Override
 	public BillResponseDTO getBillById(Long billId) {
 		log.info("Getting bill by ID: {}", billId);
-		Bill bill = billRepository.findById(billId)
+		Bill bill = billRepository.findByIdIncludingArchive(billId)
 				.orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: " + billId));
 		return billMapper.toBillResponseDTO(bill);
 	}
@@ -48,18 +65,16 @@ public class BillServiceImpl implements BillService {
 		log.info("Getting bill for user {} and period: {}", userId, period);
 		
 		try {
-			DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-			LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
-			
-			int year = periodDate.getYear();
-			int month = periodDate.getMonthValue();
+			BillingPeriod billingPeriod = BillingPeriod.parse(period);
 			
-			Bill bill = billRepository.findByUserIdAndPeriod(userId, year, month)
+			// Dönem indeksinde yoksa arşive bakılır
+			Bill bill = billPeriodIndex.findBill(userId, billingPeriod)
+					.or(() -> billRepository.findByUserIdAndPeriodKeyIncludingArchive(userId, billingPeriod.key()))
 					.orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: kullanıcı " + userId + " ve dönem " + period));
 			
 			return billMapper.toBillResponseDTO(bill);
 		} catch (Exception e) {
-			if (e instanceof ResourceNotFoundException) {
+			if (e instanceof ResourceNotFoundException || e instanceof ValidationException) {
 				throw e;
 			}
 			throw new BusinessLogicException("Fatura getirme hatası: " + e.getMessage());
@@ -82,21 +97,66 @@ public class BillServiceImpl implements BillService {
 	public List<String> getAvailablePeriods(Long userId) {
 		log.info("Getting available periods for user: {}", userId);
 		try {
-			List<Bill> bills = billRepository.findAllByUserIdOrderByPeriodStartDesc(userId);
-			return bills.stream()
-					.map(bill -> bill.getPeriodStart().format(DateTimeFormatter.ofPattern("yyyy-MM")))
-					.distinct()
+			// Dönemler kullanıcının dönem indeksinden okunur. Arşivdeki dönemler listelenmez: sayfalama, dışa aktarım
+			// ve analizler yalnızca sıcak tabloları okur; arşivdeki fatura ID ya da dönemle doğrudan getirilebilir
+			return billPeriodIndex.findPeriods(userId).stream()
+					.map(BillingPeriod::toString)
 					.toList();
 		} catch (Exception e) {
 			throw new BusinessLogicException("Dönem listesi getirme hatası: " + e.getMessage());
 		}
 	}
 
+	@Override
+	public BillPageDTO getBillPage(Long userId, String cursor, Integer size, String fromPeriod, String toPeriod) {
+		log.info("Getting bill page for user: {} after cursor: {}", userId, cursor);
+		int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+		if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+			throw new ValidationException("Sayfa boyutu 1 ile " + MAX_PAGE_SIZE + " arasında olmalıdır");
+		}
+		int fromKey = fromPeriod != null ? parsePeriodKey(fromPeriod) : 0;
+		int toKey = toPeriod != null ? parsePeriodKey(toPeriod) : Integer.MAX_VALUE;
+		int afterPeriodKey = Integer.MAX_VALUE;
+		long afterBillId = Long.MAX_VALUE;
+		if (cursor != null && !cursor.isBlank()) {
+			String[] parts = cursor.split(":");
+			try {
+				if (parts.length != 2) {
+					throw new NumberFormatException(cursor);
+				}
+				afterPeriodKey = Integer.parseInt(parts[0]);
+				afterBillId = Long.parseLong(parts[1]);
+			} catch (NumberFormatException e) {
+				throw new ValidationException("Geçersiz cursor: " + cursor);
+			}
+		}
+		
+		// Bir fazla satır okunur; sonraki sayfanın varlığı sayım sorgusu olmadan anlaşılır
+		List<BillHeaderDTO> rows = billRepository.findHeaderPage(userId, fromKey, toKey, afterPeriodKey, afterBillId,
+				PageRequest.of(0, pageSize + 1));
+		boolean hasMore = rows.size() > pageSize;
+		List<BillHeaderDTO> bills = hasMore ? rows.subList(0, pageSize) : rows;
+		BillHeaderDTO last = bills.isEmpty() ? null : bills.get(bills.size() - 1);
+		return BillPageDTO.builder()
+				.bills(bills)
+				.nextCursor(hasMore ? last.getPeriodKey() + ":" + last.getBillId() : null)
+				.hasMore(hasMore)
+				.size(bills.size())
+				.build();
+	}
+
+	private static int parsePeriodKey(String period) {
+		return BillingPeriod.parse(period).key();
+	}
+
 	@Override
 	public List<BillItemDTO> getBillItemsByBillId(Long billId) {
 		log.info("Getting bill items for bill: {}", billId);
 		try {
 			List<BillItem> items = billItemRepository.findByBill_BillId(billId);
+			if (items.isEmpty() && billArchiveStore.contains(billId)) {
+				items = billRepository.findByIdIncludingArchive(billId).map(Bill::getBillItems).orElse(items);
+			}
 			return billMapper.toBillItemDTOList(items);
 		} catch (Exception e) {
 			throw new BusinessLogicException("Fatura kalemleri getirme hatası: " + e.getMessage());
@@ -107,10 +167,10 @@ public class BillServiceImpl implements BillService {
 	public BillSummaryDTO getBillSummary(Long billId) {
 		log.info("Getting bill summary for bill: {}", billId);
 		try {
-			Bill bill = billRepository.findById(billId)
+			Bill bill = billRepository.findByIdIncludingArchive(billId)
 					.orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: " + billId));
 			
-			List<BillItem> items = billItemRepository.findByBill_BillId(billId);
+			List<BillItem> items = bill.isArchived() ? bill.getBillItems() : billItemRepository.findByBill_BillId(billId);
 			
 			BigDecimal totalAmount = bill.getTotalAmount();
 			BigDecimal taxes = items.stream()
@@ -160,9 +220,16 @@ public class BillServiceImpl implements BillService {
 	}
 
 	@Override
+	@Transactional
 	public BillResponseDTO createBill(CreateBillRequestDTO request) {
 		log.info("Creating bill for user: {} and period: {} to {}", request.getUserId(), request.getPeriodStart(), request.getPeriodEnd());
 		
+		// Eşzamanlı istekler (user_id, period_key) unique kısıtına takılır
+		if (request.getPeriodStart() != null && billRepository.findByUserIdAndPeriodKey(request.getUserId(),
+				Bill.periodKeyOf(request.getPeriodStart())).isPresent()) {
+			throw new BusinessLogicException("Kullanıcının bu dönem için faturası zaten var: " + request.getUserId());
+		}
+		
 		try {
 			// Kullanıcı entity'sini al
 			User user = userRepository.findById(request.getUserId())
@@ -200,6 +267,12 @@ public class BillServiceImpl implements BillService {
 			
 			billItemRepository.saveAll(billItems);
 			savedBill.setBillItems(billItems);
+			billCategoryTotalsRepository.save(BillCategoryTotals.of(savedBill.getBillId(), user.getUserId(),
+					savedBill.getPeriodKey(), billItems));
+			billPeriodIndex.invalidate(List.of(user.getUserId()));
+			
+			// AI özeti arka planda üretilir; /explain isteği LLM'i beklemez
+			billSummaryJobService.enqueue(savedBill);
 			
 			return billMapper.toBillResponseDTO(savedBill);
 		} catch (Exception e) {
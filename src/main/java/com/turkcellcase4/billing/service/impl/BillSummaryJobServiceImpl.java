@@ -0,0 +1,255 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.llm.TokenBucket;
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillSummaryJob;
+import com.turkcellcase4.billing.repository.BillSummaryJobRepository;
+import com.turkcellcase4.billing.service.BillSummaryJobService;
+import com.turkcellcase4.billing.service.ExplainService;
+import com.turkcellcase4.common.enums.SummaryJobStatus;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class BillSummaryJobServiceImpl implements BillSummaryJobService {
+
+    private final BillSummaryJobRepository billSummaryJobRepository;
+    private final ExplainService explainService;
+    private final TokenBucket tokenBucket;
+    private final boolean enabled;
+    private final boolean backfillOnStartup;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final int ratePerMinute;
+    private final long pollIntervalMs;
+    private final int backfillPageSize;
+
+    // Gemini çağrıları saniyeler sürebilir; ortak @Scheduled iş parçacığını tutmamak için işçi ayrı çalışır
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "summary-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong totalGenerationMs = new AtomicLong();
+
+    public BillSummaryJobServiceImpl(
+            BillSummaryJobRepository billSummaryJobRepository,
+            ExplainService explainService,
+            @Value("${summary.jobs.enabled:true}") boolean enabled,
+            @Value("${summary.jobs.backfill-on-startup:true}") boolean backfillOnStartup,
+            @Value("${summary.jobs.batch-size:20}") int batchSize,
+            @Value("${summary.jobs.max-attempts:5}") int maxAttempts,
+            @Value("${summary.jobs.retry-backoff-seconds:60}") long retryBackoffSeconds,
+            @Value("${summary.jobs.rate-per-minute:30}") int ratePerMinute,
+            @Value("${summary.jobs.burst:5}") int burst,
+            @Value("${summary.jobs.poll-interval-ms:5000}") long pollIntervalMs,
+            @Value("${summary.jobs.backfill-page-size:1000}") int backfillPageSize) {
+        this.billSummaryJobRepository = billSummaryJobRepository;
+        this.explainService = explainService;
+        this.enabled = enabled;
+        this.backfillOnStartup = backfillOnStartup;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Duration.ofSeconds(retryBackoffSeconds);
+        this.ratePerMinute = ratePerMinute;
+        this.tokenBucket = new TokenBucket(burst, ratePerMinute / 60.0);
+        this.pollIntervalMs = Math.max(100, pollIntervalMs);
+        this.backfillPageSize = Math.max(1, backfillPageSize);
+    }
+
+    @Override
+    public void enqueue(Bill bill) {
+        if (billSummaryJobRepository.existsByBillId(bill.getBillId())) {
+            return;
+        }
+        billSummaryJobRepository.save(newJob(bill.getBillId(), bill.getPeriodStart()));
+        log.debug("Summary job enqueued for bill: {}", bill.getBillId());
+    }
+
+    /**
+     * Yarıda kalan işleri kuyruğa geri alır, işçiyi başlatır ve işi olmayan mevcut faturalar için
+     * işçi üzerinde sayfa sayfa iş açar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverQueue() {
+        if (!enabled) {
+            return;
+        }
+        int reset = billSummaryJobRepository.resetStatus(SummaryJobStatus.RUNNING, SummaryJobStatus.PENDING);
+        if (reset > 0) {
+            log.info("{} yarım kalmış özet işi tekrar kuyruğa alındı", reset);
+        }
+        if (backfillOnStartup) {
+            worker.execute(this::backfill);
+        }
+        worker.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    @Override
+    public void processReadyJobs() {
+        if (!enabled) {
+            return;
+        }
+        List<BillSummaryJob> jobs = billSummaryJobRepository.findReadyJobs(
+                SummaryJobStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+
+        for (BillSummaryJob job : jobs) {
+            if (!tokenBucket.tryConsume()) {
+                // Kota doldu; kalan işler bir sonraki turda öncelik sırasıyla alınır
+                rateLimited.incrementAndGet();
+                break;
+            }
+            if (billSummaryJobRepository.claim(job.getId(), SummaryJobStatus.PENDING,
+                    SummaryJobStatus.RUNNING, LocalDateTime.now()) == 0) {
+                tokenBucket.refund();
+                continue;
+            }
+            job.setAttempts(job.getAttempts() + 1);
+            run(job);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getQueueStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (SummaryJobStatus status : SummaryJobStatus.values()) {
+            stats.put(status.name().toLowerCase(), billSummaryJobRepository.countByStatus(status));
+        }
+        LocalDateTime oldestPending = billSummaryJobRepository.findOldestCreatedAt(SummaryJobStatus.PENDING);
+        stats.put("oldestPendingAgeSeconds", oldestPending == null ? 0
+                : Duration.between(oldestPending, LocalDateTime.now()).getSeconds());
+        stats.put("completedSinceStart", completed.get());
+        stats.put("retriedSinceStart", retried.get());
+        stats.put("failedSinceStart", failed.get());
+        stats.put("rateLimitedPolls", rateLimited.get());
+        stats.put("avgGenerationMs", completed.get() == 0 ? 0 : totalGenerationMs.get() / completed.get());
+        stats.put("ratePerMinute", ratePerMinute);
+        stats.put("availableTokens", tokenBucket.availableTokens());
+        return stats;
+    }
+
+    // Fırlatılan hata zamanlanmış görevi durdurmasın diye yakalanır
+    private void pollSafely() {
+        try {
+            processReadyJobs();
+        } catch (Exception e) {
+            log.error("Özet kuyruğu işlenirken hata: {}", e.getMessage());
+        }
+    }
+
+    // İşi olmayan faturaları bill_id sırasıyla sayfalar; tüm birikim belleğe alınmaz
+    private void backfill() {
+        long created = 0;
+        long afterBillId = 0;
+        try {
+            while (true) {
+                List<Object[]> rows = billSummaryJobRepository.findBillsWithoutJob(afterBillId,
+                        PageRequest.of(0, backfillPageSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                billSummaryJobRepository.saveAll(rows.stream()
+                        .map(row -> newJob((Long) row[0], (LocalDate) row[1]))
+                        .toList());
+                created += rows.size();
+                afterBillId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } catch (Exception e) {
+            log.error("Özet işi backfill'i yarıda kaldı (bill {} sonrası): {}", afterBillId, e.getMessage());
+        }
+        if (created > 0) {
+            log.info("{} fatura için özet işi oluşturuldu", created);
+        }
+    }
+
+    private void run(BillSummaryJob job) {
+        long startedAt = System.currentTimeMillis();
+        try {
+            Optional<String> summary = explainService.generateAiSummary(job.getBillId());
+            if (summary.isPresent()) {
+                job.setStatus(SummaryJobStatus.DONE);
+                job.setSummary(summary.get());
+                job.setLastError(null);
+                job.setCompletedAt(LocalDateTime.now());
+                billSummaryJobRepository.save(job);
+                completed.incrementAndGet();
+                totalGenerationMs.addAndGet(System.currentTimeMillis() - startedAt);
+                return;
+            }
+            retryOrFail(job, "AI servisi özet üretemedi");
+        } catch (ResourceNotFoundException e) {
+            markFailed(job, e.getMessage());
+        } catch (Exception e) {
+            log.error("Özet işi çalıştırılırken hata - bill: {}: {}", job.getBillId(), e.getMessage());
+            retryOrFail(job, e.getMessage());
+        }
+    }
+
+    private void retryOrFail(BillSummaryJob job, String error) {
+        if (job.getAttempts() >= maxAttempts) {
+            markFailed(job, error);
+            return;
+        }
+        // Sağlayıcı sorunlarında kuyruğu zorlamamak için üstel bekleme
+        long backoffSeconds = retryBackoff.getSeconds() << Math.min(job.getAttempts() - 1, 10);
+        job.setStatus(SummaryJobStatus.PENDING);
+        job.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+        job.setLastError(truncate(error));
+        billSummaryJobRepository.save(job);
+        retried.incrementAndGet();
+    }
+
+    private void markFailed(BillSummaryJob job, String error) {
+        job.setStatus(SummaryJobStatus.FAILED);
+        job.setLastError(truncate(error));
+        billSummaryJobRepository.save(job);
+        failed.incrementAndGet();
+        log.warn("Özet işi başarısız - bill: {}, deneme: {}", job.getBillId(), job.getAttempts());
+    }
+
+    private static BillSummaryJob newJob(Long billId, LocalDate periodStart) {
+        return BillSummaryJob.builder()
+                .billId(billId)
+                .status(SummaryJobStatus.PENDING)
+                .priority(periodStart == null ? 0 : periodStart.getYear() * 100 + periodStart.getMonthValue())
+                .attempts(0)
+                .build();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
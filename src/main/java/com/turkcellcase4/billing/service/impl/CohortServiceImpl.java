@@ -7,6 +7,8 @@ import com.turkcellcase4.billing.service.CohortService;
 import com.turkcellcase4.user.model.User;
 import com.turkcellcase4.user.repository.UserRepository;
 import com.turkcellcase4.common.enums.UserType;
+import com.turkcellcase4.billing.period.BillingPeriod;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,7 +16,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +26,7 @@ public class CohortServiceImpl implements CohortService {
 
     private final BillRepository billRepository;
     private final UserRepository userRepository;
+    private final BillPeriodIndex billPeriodIndex;
 
     @Override
     public CohortAnalysisDTO analyzeUserCohort(Long userId, String period) {
@@ -36,8 +38,7 @@ public class CohortServiceImpl implements CohortService {
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
             // Parse period
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
+            LocalDate periodDate = BillingPeriod.parse(period).start();
             
             // Get user's bills for last 6 months
             LocalDate startDate = periodDate.minusMonths(6);
@@ -80,8 +81,7 @@ public class CohortServiceImpl implements CohortService {
         
         try {
             // Parse period
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
+            LocalDate periodDate = BillingPeriod.parse(period).start();
             LocalDate startDate = periodDate.minusMonths(6);
             
             // Get all users of same type
@@ -120,12 +120,9 @@ public class CohortServiceImpl implements CohortService {
         
         try {
             // Get user's current bill
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
-            int year = periodDate.getYear();
-            int month = periodDate.getMonthValue();
-            
-            Bill currentBill = billRepository.findByUserIdAndPeriod(userId, year, month).orElse(null);
+            BillingPeriod billingPeriod = BillingPeriod.parse(period);
+            LocalDate periodDate = billingPeriod.start();
+            Bill currentBill = billPeriodIndex.findBill(userId, billingPeriod).orElse(null);
             if (currentBill == null) {
                 return "NORMAL";
             }
@@ -171,8 +168,7 @@ public class CohortServiceImpl implements CohortService {
                     .orElseThrow(() -> new RuntimeException("User not found"));
             
             // Parse period
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-            LocalDate periodDate = LocalDate.parse(period + "-01", formatter);
+            LocalDate periodDate = BillingPeriod.parse(period).start();
             LocalDate startDate = periodDate.minusMonths(3);
             
             // Get user's average
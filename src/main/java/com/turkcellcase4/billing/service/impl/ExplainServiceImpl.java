@@ -2,9 +2,12 @@ package com.turkcellcase4.billing.service.impl;
 
 import com.turkcellcase4.billing.dto.*;
 import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
 import com.turkcellcase4.billing.model.BillItem;
 import com.turkcellcase4.billing.repository.BillRepository;
 import com.turkcellcase4.billing.repository.BillItemRepository;
+import com.turkcellcase4.billing.repository.BillSummaryJobRepository;
+import com.turkcellcase4.billing.service.BillCategoryTotalsService;
 import com.turkcellcase4.billing.service.ExplainService;
 import com.turkcellcase4.billing.service.UsageService;
 import com.turkcellcase4.billing.service.LLMExplanationService;
@@ -13,14 +16,17 @@ import com.turkcellcase4.catalog.model.VAS;
 import com.turkcellcase4.catalog.repository.PremiumSMSRepository;
 import com.turkcellcase4.catalog.repository.VASRepository;
 import com.turkcellcase4.common.enums.ItemCategory;
+import com.turkcellcase4.common.enums.SummaryJobStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -39,6 +45,8 @@ public class ExplainServiceImpl implements ExplainService {
     private final VASRepository vasRepository;
     private final UsageService usageService;
     private final LLMExplanationService llmExplanationService;
+    private final BillSummaryJobRepository billSummaryJobRepository;
+    private final BillCategoryTotalsService billCategoryTotalsService;
 
     @Override
     public ExplainResponseDTO explainBill(ExplainRequestDTO request) {
@@ -70,35 +78,15 @@ public class ExplainServiceImpl implements ExplainService {
                 .orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: " + billId));
         
         try {
-            List<BillItem> items = billItemRepository.findByBill_BillId(billId);
-            
-            BigDecimal totalAmount = bill.getTotalAmount();
-            BigDecimal taxes = items.stream()
-                    .filter(item -> ItemCategory.TAX.equals(item.getCategory()))
-                    .map(BillItem::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            BigDecimal usageBasedCharges = items.stream()
-                    .filter(item -> ItemCategory.DATA.equals(item.getCategory()) || 
-                                   ItemCategory.VOICE.equals(item.getCategory()) || 
-                                   ItemCategory.SMS.equals(item.getCategory()) ||
-                                   ItemCategory.ROAMING.equals(item.getCategory()))
-                    .map(BillItem::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            BigDecimal oneTimeCharges = items.stream()
-                    .filter(item -> ItemCategory.ONE_OFF.equals(item.getCategory()))
-                    .map(BillItem::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            String savingsHint = calculateSavingsHint(items);
+            // Kalemler yüklenmez; kategori toplamları fatura ile birlikte yazılmış olarak okunur
+            BillCategoryTotals totals = billCategoryTotalsService.getTotals(billId);
             
             return BillSummaryDTO.builder()
-                    .totalAmount(totalAmount)
-                    .taxes(taxes)
-                    .usageBasedCharges(usageBasedCharges)
-                    .oneTimeCharges(oneTimeCharges)
-                    .savingsHint(savingsHint)
+                    .totalAmount(bill.getTotalAmount())
+                    .taxes(totals.getTaxAmount())
+                    .usageBasedCharges(totals.usageAmount())
+                    .oneTimeCharges(totals.getOneOffAmount())
+                    .savingsHint(calculateSavingsHint(totals))
                     .build();
         } catch (Exception e) {
             throw new BusinessLogicException("Fatura özeti oluşturma hatası: " + e.getMessage());
@@ -465,16 +453,60 @@ public class ExplainServiceImpl implements ExplainService {
         return String.format("Tek seferlik: %s - %.2f TL", item.getDescription(), item.getAmount());
     }
 
+    @Override
+    public Flux<String> streamNaturalLanguageSummary(Long billId, List<CategoryBreakdownDTO> breakdown) {
+        log.info("Streaming natural language summary for bill: {}", billId);
+        
+        Bill bill = billRepository.findById(billId)
+                .orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: " + billId));
+        
+        Optional<String> pregenerated = findPregeneratedSummary(billId);
+        if (pregenerated.isPresent()) {
+            return Flux.just(pregenerated.get());
+        }
+        
+        return llmExplanationService.streamBillAnalysisSummary(
+                bill.getBillId(),
+                bill.getPeriodStart().format(DateTimeFormatter.ofPattern("yyyy-MM")),
+                bill.getTotalAmount().doubleValue(),
+                joinMainCategories(breakdown)
+        );
+    }
+    
+    @Override
+    public Optional<String> generateAiSummary(Long billId) {
+        Bill bill = billRepository.findById(billId)
+                .orElseThrow(() -> new ResourceNotFoundException("Fatura bulunamadı: " + billId));
+        
+        return llmExplanationService.tryGenerateBillAnalysisSummary(
+                bill.getBillId(),
+                bill.getPeriodStart().format(DateTimeFormatter.ofPattern("yyyy-MM")),
+                bill.getTotalAmount().doubleValue(),
+                joinMainCategories(billCategoryTotalsService.getTotals(billId))
+        );
+    }
+    
+    /**
+     * Fatura kesiminde arka planda üretilmiş AI özeti varsa döner
+     */
+    private Optional<String> findPregeneratedSummary(Long billId) {
+        return billSummaryJobRepository.findByBillId(billId)
+                .filter(job -> job.getStatus() == SummaryJobStatus.DONE)
+                .map(job -> job.getSummary());
+    }
+    
     private String generateNaturalLanguageSummary(Bill bill, List<CategoryBreakdownDTO> breakdown) {
+        Optional<String> pregenerated = findPregeneratedSummary(bill.getBillId());
+        if (pregenerated.isPresent()) {
+            return pregenerated.get();
+        }
+        
         try {
             // LLM servisini kullanarak AI destekli özet üret
             String period = bill.getPeriodStart().format(DateTimeFormatter.ofPattern("yyyy-MM"));
             
             // Ana kategorileri string olarak birleştir
-            String mainCategories = breakdown.stream()
-                    .filter(cat -> cat.getTotal().compareTo(BigDecimal.ZERO) > 0)
-                    .map(cat -> cat.getCategory().name().toLowerCase())
-                    .collect(Collectors.joining(", "));
+            String mainCategories = joinMainCategories(breakdown);
             
             // LLM servisini çağır
             String aiSummary = llmExplanationService.generateBillAnalysisSummary(
@@ -492,6 +524,20 @@ public class ExplainServiceImpl implements ExplainService {
             return generateFallbackSummary(bill, breakdown);
         }
     }
+    
+    private String joinMainCategories(List<CategoryBreakdownDTO> breakdown) {
+        return breakdown.stream()
+                .filter(cat -> cat.getTotal().compareTo(BigDecimal.ZERO) > 0)
+                .map(cat -> cat.getCategory().name().toLowerCase())
+                .collect(Collectors.joining(", "));
+    }
+
+    private String joinMainCategories(BillCategoryTotals totals) {
+        return Arrays.stream(ItemCategory.values())
+                .filter(category -> totals.amountOf(category).compareTo(BigDecimal.ZERO) > 0)
+                .map(category -> category.name().toLowerCase())
+                .collect(Collectors.joining(", "));
+    }
 
     private String generateFallbackSummary(Bill bill, List<CategoryBreakdownDTO> breakdown) {
         StringBuilder summary = new StringBuilder();
@@ -555,7 +601,7 @@ public class ExplainServiceImpl implements ExplainService {
         }
         
         // Savings hint
-        String savingsHint = calculateSavingsHint(billItemRepository.findByBill_BillId(bill.getBillId()));
+        String savingsHint = calculateSavingsHint(billCategoryTotalsService.getTotals(bill.getBillId()));
         if (!savingsHint.equals("Faturanızda tasarruf fırsatı bulunmuyor")) {
             summary.append("Tasarruf fırsatı: ").append(savingsHint);
         }
@@ -563,34 +609,25 @@ public class ExplainServiceImpl implements ExplainService {
         return summary.toString();
     }
 
-    private String calculateSavingsHint(List<BillItem> items) {
+    private String calculateSavingsHint(BillCategoryTotals totals) {
         BigDecimal totalSavings = BigDecimal.ZERO;
         
         // Premium SMS savings
-        BigDecimal premiumSMSTotal = items.stream()
-                .filter(item -> ItemCategory.PREMIUM_SMS.equals(item.getCategory()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal premiumSMSTotal = totals.getPremiumSmsAmount();
         
         if (premiumSMSTotal.compareTo(BigDecimal.ZERO) > 0) {
             totalSavings = totalSavings.add(premiumSMSTotal);
         }
         
         // VAS savings (excluding plan fee)
-        BigDecimal vasTotal = items.stream()
-                .filter(item -> ItemCategory.VAS.equals(item.getCategory()) && !"plan_fee".equals(item.getSubtype()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal vasTotal = totals.vasServicesAmount();
         
         if (vasTotal.compareTo(BigDecimal.ZERO) > 0) {
             totalSavings = totalSavings.add(vasTotal);
         }
         
         // Data overage savings (if significant)
-        BigDecimal dataOverageTotal = items.stream()
-                .filter(item -> ItemCategory.DATA.equals(item.getCategory()) && "data_overage".equals(item.getSubtype()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal dataOverageTotal = totals.getDataOverageAmount();
         
         if (dataOverageTotal.compareTo(new BigDecimal("50")) > 0) {
             totalSavings = totalSavings.add(dataOverageTotal.multiply(new BigDecimal("0.3"))); // Assume 30% savings potential
@@ -0,0 +1,88 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcellcase4.billing.export.ExportWriter;
+import com.turkcellcase4.billing.period.BillingPeriod;
+import com.turkcellcase4.billing.repository.ExportJdbcRepository;
+import com.turkcellcase4.billing.service.ExportService;
+import com.turkcellcase4.common.enums.ExportFormat;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.common.exception.ValidationException;
+import com.turkcellcase4.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    // Tarih verilmezse tüm geçmiş aktarılır
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+
+    private final ExportJdbcRepository exportJdbcRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public StreamingResponseBody exportBills(Long userId, String fromPeriod, String toPeriod, ExportFormat format) {
+        int[] range = periodRange(userId, fromPeriod, toPeriod);
+        return stream("bills", userId, format,
+                extractor -> exportJdbcRepository.streamBills(userId, range[0], range[1], extractor));
+    }
+
+    @Override
+    public StreamingResponseBody exportBillItems(Long userId, String fromPeriod, String toPeriod, ExportFormat format) {
+        int[] range = periodRange(userId, fromPeriod, toPeriod);
+        return stream("bill items", userId, format,
+                extractor -> exportJdbcRepository.streamItems(userId, range[0], range[1], extractor));
+    }
+
+    @Override
+    public StreamingResponseBody exportUsage(Long userId, LocalDate from, LocalDate to, ExportFormat format) {
+        requireUser(userId);
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (end.isBefore(start)) {
+            throw new ValidationException("Bitiş tarihi başlangıçtan önce olamaz");
+        }
+        return stream("daily usage", userId, format,
+                extractor -> exportJdbcRepository.streamUsage(userId, start, end, extractor));
+    }
+
+    private StreamingResponseBody stream(String dataset, Long userId, ExportFormat format,
+                                         Function<ResultSetExtractor<Long>, Long> query) {
+        return out -> {
+            long started = System.currentTimeMillis();
+            Long rows = query.apply(rs -> ExportWriter.of(format, out, objectMapper).write(rs));
+            log.info("Exported {} {} rows for user {} as {} in {} ms",
+                    rows, dataset, userId, format, System.currentTimeMillis() - started);
+        };
+    }
+
+    private int[] periodRange(Long userId, String fromPeriod, String toPeriod) {
+        requireUser(userId);
+        int fromKey = fromPeriod != null ? parsePeriodKey(fromPeriod) : 0;
+        int toKey = toPeriod != null ? parsePeriodKey(toPeriod) : Integer.MAX_VALUE;
+        if (toKey < fromKey) {
+            throw new ValidationException("Bitiş dönemi başlangıçtan önce olamaz");
+        }
+        return new int[]{fromKey, toKey};
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Kullanıcı bulunamadı: " + userId);
+        }
+    }
+
+    private static int parsePeriodKey(String period) {
+        return BillingPeriod.parse(period).key();
+    }
+}
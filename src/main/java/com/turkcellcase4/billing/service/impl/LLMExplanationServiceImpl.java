@@ -1,16 +1,35 @@
 package com.turkcellcase4.billing.service.impl;
 
 import com.turkcellcase4.billing.dto.AnomalyDTO;
+import com.turkcellcase4.billing.llm.GeminiResponseParser;
+import com.turkcellcase4.billing.llm.LLMBatchPrompt;
+import com.turkcellcase4.billing.llm.LLMCircuitBreaker;
+import com.turkcellcase4.billing.llm.LLMHedgePolicy;
+import com.turkcellcase4.billing.llm.LLMResponseCache;
 import com.turkcellcase4.billing.service.LLMExplanationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -18,12 +37,25 @@ import java.util.Map;
 public class LLMExplanationServiceImpl implements LLMExplanationService {
 
     private final WebClient webClient;
+    private final LLMResponseCache llmResponseCache;
+    private final GeminiResponseParser geminiResponseParser;
+    private final LLMCircuitBreaker llmCircuitBreaker;
+    private final LLMHedgePolicy llmHedgePolicy;
     
     @Value("${gemini.api.key}")
     private String geminiApiKey;
     
     @Value("${gemini.api.url}")
     private String geminiApiUrl;
+    
+    @Value("${gemini.api.stream-url:}")
+    private String geminiStreamUrl;
+    
+    @Value("${gemini.api.timeout-ms:10000}")
+    private long geminiTimeoutMs;
+    
+    @Value("${gemini.batch.max-size:10}")
+    private int batchMaxSize;
 
     @Override
     public String generateAnomalyExplanation(AnomalyDTO anomaly, String userContext) {
@@ -36,6 +68,36 @@ public class LLMExplanationServiceImpl implements LLMExplanationService {
         }
     }
 
+    @Override
+    public List<String> generateAnomalyExplanations(List<AnomalyDTO> anomalies, String userContext) {
+        List<String> prompts = anomalies.stream()
+                .map(anomaly -> buildAnomalyPrompt(anomaly, userContext))
+                .toList();
+        String[] explanations = new String[prompts.size()];
+        
+        // Daha önce üretilmiş açıklamalar tekrar Gemini'ye gönderilmez
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < prompts.size(); i++) {
+            explanations[i] = llmResponseCache.getIfPresent(prompts.get(i));
+            if (explanations[i] == null) {
+                pending.add(i);
+            }
+        }
+        
+        for (int from = 0; from < pending.size(); from += batchMaxSize) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + batchMaxSize, pending.size()));
+            String[] answers = callGeminiBatch(chunk.stream().map(prompts::get).toList());
+            for (int j = 0; j < chunk.size(); j++) {
+                int index = chunk.get(j);
+                explanations[index] = answers[j] != null
+                        ? answers[j]
+                        : generateFallbackAnomalyExplanation(anomalies.get(index));
+            }
+        }
+        
+        return List.of(explanations);
+    }
+
     @Override
     public String generateCohortAnalysis(Long userId, String period, Double userAverage, Double cohortAverage) {
         try {
@@ -80,31 +142,225 @@ public class LLMExplanationServiceImpl implements LLMExplanationService {
         }
     }
 
+    @Override
+    public Optional<String> tryGenerateBillAnalysisSummary(Long billId, String period, Double totalAmount, String mainCategories) {
+        try {
+            String prompt = buildBillSummaryPrompt(billId, period, totalAmount, mainCategories);
+            return Optional.of(callGeminiAPI(prompt));
+        } catch (Exception e) {
+            log.warn("Fatura özeti AI ile üretilemedi - bill: {}: {}", billId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Flux<String> streamBillAnalysisSummary(Long billId, String period, Double totalAmount, String mainCategories) {
+        String prompt = buildBillSummaryPrompt(billId, period, totalAmount, mainCategories);
+        
+        String cached = llmResponseCache.getIfPresent(prompt);
+        if (cached != null) {
+            return Flux.just(cached);
+        }
+        
+        return Flux.defer(() -> {
+            if (!llmCircuitBreaker.tryAcquire()) {
+                log.warn("Gemini devre kesici çağrıya izin vermedi, fallback özet gönderiliyor");
+                return Flux.just(generateFallbackBillSummary(totalAmount, mainCategories));
+            }
+            long startedAt = System.nanoTime();
+            StringBuilder fullText = new StringBuilder();
+            return streamGeminiAPI(prompt)
+                    .doFinally(signal -> {
+                        long elapsedMs = elapsedMillis(startedAt);
+                        if (signal == SignalType.ON_COMPLETE) {
+                            llmCircuitBreaker.onSuccess(elapsedMs);
+                        } else if (signal == SignalType.ON_ERROR) {
+                            llmCircuitBreaker.onFailure(elapsedMs);
+                        } else {
+                            llmCircuitBreaker.onCancel();
+                        }
+                    })
+                    .doOnNext(fullText::append)
+                    .doOnComplete(() -> {
+                        if (fullText.length() > 0) {
+                            llmResponseCache.put(prompt, fullText.toString());
+                        }
+                    })
+                    .onErrorResume(e -> {
+                        log.error("Fatura özeti stream edilirken hata: {}", e.getMessage());
+                        // Kullanıcı parça almaya başladıysa yarım metnin arkasına fallback eklenmez
+                        return fullText.length() > 0
+                                ? Flux.empty()
+                                : Flux.just(generateFallbackBillSummary(totalAmount, mainCategories));
+                    })
+                    .switchIfEmpty(Flux.defer(() -> fullText.length() > 0
+                            ? Flux.empty()
+                            : Flux.just(generateFallbackBillSummary(totalAmount, mainCategories))));
+        });
+    }
+
+    @Override
+    public Map<String, Object> getClientHealth() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("circuitBreaker", llmCircuitBreaker.getStats());
+        health.put("hedging", llmHedgePolicy.getStats());
+        health.put("cache", llmResponseCache.getStats());
+        return health;
+    }
+
     private String callGeminiAPI(String prompt) {
+        // Prompt'lar girdilere göre deterministik; aynı prompt tekrar Gemini'ye gitmez
+        return llmResponseCache.getOrCompute(prompt, () -> invokeGemini(prompt));
+    }
+
+    /**
+     * Prompt'ları tek istekte gönderir ve cevapları sırasıyla döner; alınamayanlar null kalır
+     */
+    private String[] callGeminiBatch(List<String> prompts) {
+        if (prompts.size() == 1) {
+            try {
+                return new String[]{callGeminiAPI(prompts.get(0))};
+            } catch (Exception e) {
+                log.error("Tekil AI çağrısında hata: {}", e.getMessage());
+                return new String[1];
+            }
+        }
+        
+        try {
+            // Toplu cevap yalnızca tüm parçaları ayrıştırılabiliyorsa cache'lenir; aksi halde tekrar deneme
+            // aynı bozuk parçaları cache'ten almaz
+            String packed = LLMBatchPrompt.pack(prompts);
+            String response = llmResponseCache.getOrCompute(packed, () -> invokeGemini(packed),
+                    value -> Arrays.stream(LLMBatchPrompt.unpack(value, prompts.size())).allMatch(Objects::nonNull));
+            String[] answers = LLMBatchPrompt.unpack(response, prompts.size());
+            for (int i = 0; i < answers.length; i++) {
+                if (answers[i] != null) {
+                    llmResponseCache.put(prompts.get(i), answers[i]);
+                }
+            }
+            return answers;
+        } catch (Exception e) {
+            log.error("Toplu AI çağrısında hata ({} prompt): {}", prompts.size(), e.getMessage());
+            return new String[prompts.size()];
+        }
+    }
+
+    private String invokeGemini(String prompt) {
+        // Sağlayıcı bozulmuşsa ağa çıkmadan hemen fallback'e düşülür
+        if (!llmCircuitBreaker.tryAcquire()) {
+            throw new IllegalStateException("AI servisi geçici olarak devre dışı (devre kesici açık)");
+        }
+        
+        long startedAt = System.nanoTime();
         try {
-            Map<String, Object> requestBody = new HashMap<>();
-            Map<String, Object> content = new HashMap<>();
-            Map<String, Object> part = new HashMap<>();
-            
-            part.put("text", prompt);
-            content.put("parts", new Object[]{part});
-            requestBody.put("contents", new Object[]{content});
-            
             // Gemini API çağrısı
-            String response = webClient.post()
-                    .uri(geminiApiUrl + "?key=" + geminiApiKey)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
+            String response = withHedge(() -> requestGenerateContent(prompt))
+                    .timeout(Duration.ofMillis(geminiTimeoutMs))
                     .block();
             
-            return parseGeminiResponse(response);
+            String text = geminiResponseParser.extractText(response);
+            if (text == null) {
+                // Parse edilemeyen cevap cache'e girmesin, fallback devreye girsin
+                throw new IllegalStateException("Gemini cevabı parse edilemedi");
+            }
+            llmCircuitBreaker.onSuccess(elapsedMillis(startedAt));
+            return text;
         } catch (Exception e) {
+            llmCircuitBreaker.onFailure(elapsedMillis(startedAt));
             log.error("Gemini API çağrısında hata: {}", e.getMessage());
             throw new RuntimeException("AI servisi şu anda kullanılamıyor", e);
         }
     }
 
+    private Mono<String> requestGenerateContent(String prompt) {
+        return webClient.post()
+                .uri(geminiApiUrl + "?key=" + geminiApiKey)
+                .bodyValue(buildRequestBody(prompt))
+                .retrieve()
+                .bodyToMono(String.class);
+    }
+
+    /**
+     * İlk istek gözlenen yüzdelik gecikmede cevap vermezse aynı isteği tekrar gönderir;
+     * önce gelen cevap kazanır, diğer istek iptal edilir. İlk istek hata ile biterse (ör. 429/503)
+     * hedge zamanlayıcısı iptal edilir; kısıtlayan bir sağlayıcıya bütçesiz tekrar deneme yapılmaz.
+     */
+    private Mono<String> withHedge(Supplier<Mono<String>> request) {
+        long hedgeDelayMs = llmHedgePolicy.nextHedgeDelayMs();
+        if (hedgeDelayMs < 0) {
+            return request.get();
+        }
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+        Mono<String> primary = request.get().doOnError(e -> primaryFailed.tryEmitEmpty());
+        Mono<String> hedge = Mono.delay(Duration.ofMillis(hedgeDelayMs))
+                .takeUntilOther(primaryFailed.asMono())
+                .flatMap(tick -> fireHedge(request));
+        return Mono.firstWithValue(primary, hedge);
+    }
+
+    /**
+     * Hedge isteği de devre kesicinin eşzamanlılık limitinden izin alır ve sonucunu bildirir
+     */
+    private Mono<String> fireHedge(Supplier<Mono<String>> request) {
+        if (!llmCircuitBreaker.tryAcquire()) {
+            return Mono.empty();
+        }
+        if (!llmHedgePolicy.tryFireHedge()) {
+            llmCircuitBreaker.onCancel();
+            return Mono.empty();
+        }
+        long startedAt = System.nanoTime();
+        return request.get()
+                .doOnNext(response -> llmHedgePolicy.onHedgeWin())
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE) {
+                        llmCircuitBreaker.onSuccess(elapsedMillis(startedAt));
+                    } else if (signal == SignalType.ON_ERROR) {
+                        llmCircuitBreaker.onFailure(elapsedMillis(startedAt));
+                    } else {
+                        llmCircuitBreaker.onCancel();
+                    }
+                });
+    }
+
+    private static long elapsedMillis(long startedAtNanos) {
+        return (System.nanoTime() - startedAtNanos) / 1_000_000;
+    }
+
+    /**
+     * streamGenerateContent uç noktasına SSE ile bağlanır ve gelen metin parçalarını yayar
+     */
+    private Flux<String> streamGeminiAPI(String prompt) {
+        return webClient.post()
+                .uri(resolveStreamUrl() + "?alt=sse&key=" + geminiApiKey)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(buildRequestBody(prompt))
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {})
+                // Parçalar arası bekleme süresi de aynı zaman aşımına tabidir
+                .timeout(Duration.ofMillis(geminiTimeoutMs))
+                .mapNotNull(ServerSentEvent::data)
+                .mapNotNull(geminiResponseParser::extractText);
+    }
+
+    private String resolveStreamUrl() {
+        if (geminiStreamUrl != null && !geminiStreamUrl.isBlank()) {
+            return geminiStreamUrl;
+        }
+        return geminiApiUrl.replace(":generateContent", ":streamGenerateContent");
+    }
+
+    private Map<String, Object> buildRequestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        Map<String, Object> content = new HashMap<>();
+        Map<String, Object> part = new HashMap<>();
+        
+        part.put("text", prompt);
+        content.put("parts", new Object[]{part});
+        requestBody.put("contents", new Object[]{content});
+        return requestBody;
+    }
+
     private String buildAnomalyPrompt(AnomalyDTO anomaly, String userContext) {
         return String.format("""
             Sen bir Turkcell fatura analisti. Aşağıdaki anomali için 2-3 cümlelik Türkçe açıklama üret:
@@ -191,34 +447,6 @@ public class LLMExplanationServiceImpl implements LLMExplanationService {
         );
     }
 
-    private String parseGeminiResponse(String response) {
-        try {
-            // Gemini API response'unu parse et
-            if (response != null && response.contains("text")) {
-                // JSON response'dan text'i çıkar - daha güvenli parsing
-                int textStart = response.indexOf("\"text\":\"");
-                if (textStart != -1) {
-                    textStart += 9; // "text":" uzunluğu
-                    int textEnd = response.indexOf("\"", textStart);
-                    if (textEnd != -1) {
-                        return response.substring(textStart, textEnd);
-                    }
-                }
-                
-                // Fallback parsing
-                int start = response.indexOf("text") + 7;
-                int end = response.indexOf("}", start);
-                if (start > 6 && end > start) {
-                    return response.substring(start, end);
-                }
-            }
-            return "AI açıklaması üretilemedi.";
-        } catch (Exception e) {
-            log.error("Gemini response parsing error: {}", e.getMessage());
-            return "AI açıklaması parse edilemedi.";
-        }
-    }
-
     // Fallback metodları - API çalışmazsa basit açıklamalar üret
     private String generateFallbackAnomalyExplanation(AnomalyDTO anomaly) {
         return String.format("Bu %s anomali, %s kategorisinde %.2f TL artış ile tespit edildi. %s", 
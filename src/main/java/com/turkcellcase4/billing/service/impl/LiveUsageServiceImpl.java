@@ -0,0 +1,542 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.alert.QuotaTracker;
+import com.turkcellcase4.billing.dto.CurrentUsageDTO;
+import com.turkcellcase4.billing.dto.UsageEventDTO;
+import com.turkcellcase4.billing.live.PendingUsage;
+import com.turkcellcase4.billing.live.UsageJournal;
+import com.turkcellcase4.billing.repository.UsageMonthlyRepository;
+import com.turkcellcase4.billing.repository.UsageRollupJdbcRepository;
+import com.turkcellcase4.billing.repository.UsageRollupJdbcRepository.DailyValues;
+import com.turkcellcase4.billing.service.LiveUsageService;
+import com.turkcellcase4.billing.service.QuotaAlertService;
+import com.turkcellcase4.billing.service.UsageTimeSeriesService;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.common.exception.ValidationException;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository;
+import com.turkcellcase4.user.model.User;
+import com.turkcellcase4.user.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * İçinde bulunulan ayın kullanımını kullanıcı başına bellekte tutar; olaylar önce yerel günlüğe,
+ * sonra bekleyen (kullanıcı, gün) artışlarına yazılır ve periyodik olarak usage_daily'ye toplu aktarılır.
+ * <p>
+ * Sayaç ilk kez yüklenirken değer = usage_monthly + henüz yazılmamış artışlar. Bu toplamın tutarlı olması için
+ * olay işleme ile bekleyen tablonun değiştirilmesi swapLock, veritabanı yazımı ile sayaç yüklemesi commitLock
+ * ile ayrılır.
+ */
+@Service
+@Slf4j
+public class LiveUsageServiceImpl implements LiveUsageService {
+
+    private final UsageRollupJdbcRepository usageRollupJdbcRepository;
+    private final UsageMonthlyRepository usageMonthlyRepository;
+    private final UserRepository userRepository;
+    private final IngestionJdbcRepository ingestionJdbcRepository;
+    private final UsageTimeSeriesService usageTimeSeriesService;
+    private final QuotaAlertService quotaAlertService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean journalSync;
+    private final int flushBatchSize;
+    private final int maxTrackedUsers;
+
+    private final UsageJournal journal;
+    private final List<UsageJournal.Segment> recoverySegments;
+
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private final ConcurrentHashMap<Long, UserCounters> counters = new ConcurrentHashMap<>();
+    // Kullanıcı başına süren sayaç yüklemesi; aynı kullanıcı için eşzamanlı istekler tek yüklemeyi bekler
+    private final ConcurrentHashMap<Long, CompletableFuture<UserCounters>> loading = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Long, ConcurrentHashMap<Integer, PendingUsage>> pending = new ConcurrentHashMap<>();
+    // Tabloyla yer değiştirmiş ama henüz commit olmamış (ya da yazımı başarısız olmuş) partiler
+    private final Deque<PendingBatch> unflushed = new ConcurrentLinkedDeque<>();
+
+    private final LongAdder eventsRecorded = new LongAdder();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong lastFlushMs = new AtomicLong();
+    private final AtomicLong evictedCounters = new AtomicLong();
+
+    public LiveUsageServiceImpl(
+            UsageRollupJdbcRepository usageRollupJdbcRepository,
+            UsageMonthlyRepository usageMonthlyRepository,
+            UserRepository userRepository,
+            IngestionJdbcRepository ingestionJdbcRepository,
+            UsageTimeSeriesService usageTimeSeriesService,
+            QuotaAlertService quotaAlertService,
+            TransactionTemplate transactionTemplate,
+            @Value("${usage.live.journal-dir:}") String journalDir,
+            @Value("${usage.live.journal-sync:false}") boolean journalSync,
+            @Value("${usage.live.flush-batch-size:5000}") int flushBatchSize,
+            @Value("${usage.live.max-tracked-users:100000}") int maxTrackedUsers) {
+        this.usageRollupJdbcRepository = usageRollupJdbcRepository;
+        this.usageMonthlyRepository = usageMonthlyRepository;
+        this.userRepository = userRepository;
+        this.ingestionJdbcRepository = ingestionJdbcRepository;
+        this.usageTimeSeriesService = usageTimeSeriesService;
+        this.quotaAlertService = quotaAlertService;
+        this.transactionTemplate = transactionTemplate;
+        this.journalSync = journalSync;
+        this.flushBatchSize = flushBatchSize;
+        this.maxTrackedUsers = maxTrackedUsers;
+        if (journalDir == null || journalDir.isBlank()) {
+            this.journal = null;
+            this.recoverySegments = List.of();
+        } else {
+            this.journal = new UsageJournal(Paths.get(journalDir));
+            // Önceki çalışmadan kalan segmentler yeni segment açılmadan önce alınır
+            this.recoverySegments = journal.existingSegments();
+            journal.open();
+        }
+    }
+
+    @Override
+    public int recordEvents(List<UsageEventDTO> events) {
+        LocalDate today = LocalDate.now();
+        int currentPeriod = UsageRollupServiceImpl.periodKey(today);
+        int n = events.size();
+        long[] data = new long[n];
+        long[] roaming = new long[n];
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            UsageEventDTO event = events.get(i);
+            if (event.getUserId() == null) {
+                throw new ValidationException("Kullanıcı ID zorunludur");
+            }
+            LocalDate date = event.getDate() != null ? event.getDate() : today;
+            if (date.isAfter(today) || date.getYear() < 2000) {
+                throw new ValidationException("Geçersiz olay tarihi: " + date);
+            }
+            data[i] = toMilli(event.getMbUsed());
+            roaming[i] = toMilli(event.getRoamingMb());
+            if (data[i] < 0 || roaming[i] < 0 || valueOrZero(event.getMinutesUsed()) < 0 || valueOrZero(event.getSmsUsed()) < 0) {
+                throw new ValidationException("Kullanım değerleri negatif olamaz");
+            }
+            days[i] = (int) date.toEpochDay();
+        }
+
+        swapLock.readLock().lock();
+        try {
+            // Sayaçlar önce çözülür; olmayan kullanıcı varsa hiçbir olay işlenmez
+            UserCounters[] resolved = new UserCounters[n];
+            for (int i = 0; i < n; i++) {
+                resolved[i] = countersFor(events.get(i).getUserId(), currentPeriod);
+            }
+
+            if (journal != null) {
+                ByteBuffer records = ByteBuffer.allocate(n * UsageJournal.RECORD_SIZE);
+                for (int i = 0; i < n; i++) {
+                    UsageEventDTO event = events.get(i);
+                    UsageJournal.putRecord(records, event.getUserId(), days[i], data[i],
+                            valueOrZero(event.getMinutesUsed()), valueOrZero(event.getSmsUsed()), roaming[i]);
+                }
+                records.flip();
+                journal.append(records, journalSync);
+            }
+
+            ConcurrentHashMap<Long, ConcurrentHashMap<Integer, PendingUsage>> target = pending;
+            for (int i = 0; i < n; i++) {
+                UsageEventDTO event = events.get(i);
+                int minutes = valueOrZero(event.getMinutesUsed());
+                int sms = valueOrZero(event.getSmsUsed());
+                target.computeIfAbsent(event.getUserId(), id -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(days[i], day -> new PendingUsage())
+                        .add(data[i], minutes, sms, roaming[i]);
+                if (periodOf(days[i]) == resolved[i].periodKey) {
+                    UserCounters current = resolved[i];
+                    current.add(data[i], minutes, sms, roaming[i]);
+                    if (current.quota != null) {
+                        quotaAlertService.onUsage(event.getUserId(), current.quota,
+                                current.dataMilliMb.sum(), current.minutes.sum(), current.sms.sum());
+                    }
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        eventsRecorded.add(n);
+        return n;
+    }
+
+    @Override
+    public CurrentUsageDTO getCurrentUsage(Long userId) {
+        int currentPeriod = UsageRollupServiceImpl.periodKey(LocalDate.now());
+        UserCounters current;
+        swapLock.readLock().lock();
+        try {
+            current = countersFor(userId, currentPeriod);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        double dataMb = current.dataMilliMb.sum() / 1000.0;
+        return CurrentUsageDTO.builder()
+                .userId(userId)
+                .period(String.format("%04d-%02d", currentPeriod / 100, currentPeriod % 100))
+                .totalDataMB(dataMb)
+                .totalDataGB(dataMb / 1024.0)
+                .totalVoiceMinutes(current.minutes.sum())
+                .totalSMSCount(current.sms.sum())
+                .totalRoamingMB(current.roamingMilliMb.sum() / 1000.0)
+                .asOf(LocalDateTime.now())
+                .build();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${usage.live.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        evictIdleCounters();
+        // Önce önceki başarısız partiler sırayla denenir
+        for (PendingBatch batch : new ArrayList<>(unflushed)) {
+            if (!writeBatch(batch)) {
+                return;
+            }
+        }
+
+        PendingBatch batch;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            UsageJournal.Segment segment = journal != null ? journal.rotate() : null;
+            String id = segment != null ? segment.id() : UUID.randomUUID().toString();
+            batch = new PendingBatch(id, segment, pending);
+            pending = new ConcurrentHashMap<>();
+            unflushed.addLast(batch);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        writeBatch(batch);
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        runAfterCommit(() -> {
+            swapLock.writeLock().lock();
+            try {
+                counters.remove(userId);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void invalidateAll() {
+        runAfterCommit(() -> {
+            swapLock.writeLock().lock();
+            try {
+                counters.clear();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedUsers", counters.size());
+        stats.put("maxTrackedUsers", maxTrackedUsers);
+        stats.put("evictedCounters", evictedCounters.get());
+        stats.put("pendingUsers", pending.size());
+        stats.put("unflushedBatches", unflushed.size());
+        stats.put("eventsRecorded", eventsRecorded.sum());
+        stats.put("flushedRows", flushedRows.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("lastFlushMs", lastFlushMs.get());
+        stats.put("journalEnabled", journal != null);
+        stats.putAll(quotaAlertService.getStats());
+        return stats;
+    }
+
+    /**
+     * Önceki çalışmadan kalan günlük segmentleri veritabanına uygulanır; daha önce uygulanmış segmentler
+     * flush işaretiyle atlanır
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recoverJournal() {
+        if (recoverySegments.isEmpty()) {
+            return;
+        }
+        for (UsageJournal.Segment segment : recoverySegments) {
+            ConcurrentHashMap<Long, ConcurrentHashMap<Integer, PendingUsage>> users = new ConcurrentHashMap<>();
+            UsageJournal.readRecords(segment, (userId, epochDay, dataMilliMb, minutes, sms, roamingMilliMb) ->
+                    users.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(epochDay, day -> new PendingUsage())
+                            .add(dataMilliMb, minutes, sms, roamingMilliMb));
+            PendingBatch batch = new PendingBatch(segment.id(), segment, users);
+            unflushed.addLast(batch);
+            if (!writeBatch(batch)) {
+                log.warn("Kullanım günlüğü segmenti kurtarılamadı, sonraki flush'ta tekrar denenecek: {}", segment.path());
+            }
+        }
+        log.info("Kullanım günlüğünden {} segment kurtarıldı", recoverySegments.size());
+        // Kurtarma öncesinde yüklenmiş sayaçlar kurtarılan veriyi içermez
+        invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Partiyi tek transaction'da yazar; başarılıysa partiyi bekleyenlerden çıkarır ve segmentini siler.
+     * commitLock yazma sırasında sayaç yüklemesini bekletir, böylece bir parti hem veritabanında hem
+     * bekleyenlerde sayılmaz.
+     */
+    private boolean writeBatch(PendingBatch batch) {
+        long start = System.currentTimeMillis();
+        List<DailyValues> rows = toRows(batch);
+        commitLock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!ingestionJdbcRepository.claimChunk(IngestionTarget.USAGE_EVENTS, batch.id(), "usage-journal", 0, rows.size())) {
+                    log.info("Kullanım partisi {} zaten yazılmış, atlanıyor", batch.id());
+                    return;
+                }
+                List<DailyValues> updated = new ArrayList<>(rows.size());
+                for (int from = 0; from < rows.size(); from += flushBatchSize) {
+                    updated.addAll(usageRollupJdbcRepository.addDailyBatch(
+                            rows.subList(from, Math.min(rows.size(), from + flushBatchSize))));
+                }
+                // Seriye kullanıcı başına tek yazma; commit sonrasına ertelenir
+                usageTimeSeriesService.recordDailyUsage(updated);
+            });
+            unflushed.remove(batch);
+        } catch (DataAccessException e) {
+            flushFailures.incrementAndGet();
+            log.warn("Kullanım partisi {} yazılamadı ({} satır): {}", batch.id(), rows.size(), e.getMessage());
+            return false;
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+
+        if (batch.segment() != null) {
+            UsageJournal.delete(batch.segment());
+        }
+        flushedRows.addAndGet(rows.size());
+        lastFlushMs.set(System.currentTimeMillis() - start);
+        log.debug("Flushed {} usage rows in {} ms", rows.size(), lastFlushMs.get());
+        return true;
+    }
+
+    private UserCounters countersFor(Long userId, int period) {
+        UserCounters existing = counters.get(userId);
+        while (existing == null || existing.periodKey != period) {
+            existing = loadOnce(userId, period);
+        }
+        existing.lastAccessNanos = System.nanoTime();
+        return existing;
+    }
+
+    /**
+     * Sayacı map kilidi dışında yükler; veritabanı okumaları sırasında aynı bin'deki diğer kullanıcılar beklemez.
+     * Aynı kullanıcı için tek yükleme çalışır (quota attach sırası korunur), diğer istekler sonucunu bekler.
+     * Sonuç putIfAbsent / replace ile yerleştirilir; yarış kaybedilirse map'teki sayaç döner.
+     */
+    private UserCounters loadOnce(Long userId, int period) {
+        CompletableFuture<UserCounters> future = new CompletableFuture<>();
+        CompletableFuture<UserCounters> running = loading.putIfAbsent(userId, future);
+        if (running != null) {
+            return joinLoad(running);
+        }
+        try {
+            UserCounters current = counters.get(userId);
+            UserCounters result = current;
+            if (current == null || current.periodKey != period) {
+                UserCounters loaded = loadCounters(userId, period);
+                boolean installed = current == null
+                        ? counters.putIfAbsent(userId, loaded) == null
+                        : counters.replace(userId, current, loaded);
+                result = installed ? loaded : counters.get(userId);
+            }
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(userId, future);
+        }
+    }
+
+    private static UserCounters joinLoad(CompletableFuture<UserCounters> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sayaç sayısı sınırı aştıysa en uzun süredir kullanılmayanlar atılır (sınırın %90'ına inilir).
+     * Atılan sayaç ilk erişimde aylık toplam ve bekleyen artışlardan yeniden kurulur. Olay işleme ile
+     * yarışmaması için swapLock yazma kilidi altında yapılır.
+     */
+    private void evictIdleCounters() {
+        if (counters.size() <= maxTrackedUsers) {
+            return;
+        }
+        swapLock.writeLock().lock();
+        try {
+            int excess = counters.size() - maxTrackedUsers * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<Long, UserCounters>> entries = new ArrayList<>(counters.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessNanos));
+            for (int i = 0; i < excess; i++) {
+                counters.remove(entries.get(i).getKey());
+            }
+            evictedCounters.addAndGet(excess);
+            log.debug("Evicted {} idle usage counters", excess);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sayacı aylık toplam ve henüz yazılmamış artışlardan kurar; çağıran swapLock okuma kilidini tutar
+     */
+    private UserCounters loadCounters(Long userId, int period) {
+        commitLock.readLock().lock();
+        try {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı: " + userId));
+            UserCounters loaded = new UserCounters(period);
+            usageMonthlyRepository.findByUser_UserIdAndPeriodKey(userId, period).ifPresent(monthly -> loaded.add(
+                    Math.round(monthly.getTotalMb() * 1000), monthly.getTotalMinutes(),
+                    monthly.getTotalSms(), Math.round(monthly.getTotalRoamingMb() * 1000)));
+            addPending(loaded, pending.get(userId));
+            for (PendingBatch batch : unflushed) {
+                addPending(loaded, batch.users().get(userId));
+            }
+            loaded.quota = quotaAlertService.attach(userId, user.getCurrentPlanId(), period,
+                    loaded.dataMilliMb.sum(), loaded.minutes.sum(), loaded.sms.sum());
+            return loaded;
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    private static void addPending(UserCounters counters, Map<Integer, PendingUsage> days) {
+        if (days == null) {
+            return;
+        }
+        days.forEach((epochDay, usage) -> {
+            if (periodOf(epochDay) == counters.periodKey) {
+                counters.add(usage.dataMilliMb(), usage.minutes(), usage.sms(), usage.roamingMilliMb());
+            }
+        });
+    }
+
+    private static List<DailyValues> toRows(PendingBatch batch) {
+        List<DailyValues> rows = new ArrayList<>();
+        batch.users().forEach((userId, days) -> days.forEach((epochDay, usage) -> rows.add(new DailyValues(
+                userId, LocalDate.ofEpochDay(epochDay),
+                usage.dataMilliMb() / 1000.0, (int) usage.minutes(), (int) usage.sms(), usage.roamingMilliMb() / 1000.0))));
+        return rows;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static int periodOf(int epochDay) {
+        return UsageRollupServiceImpl.periodKey(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static long toMilli(Double mb) {
+        return mb != null ? Math.round(mb * 1000) : 0L;
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private record PendingBatch(String id, UsageJournal.Segment segment,
+                                Map<Long, ConcurrentHashMap<Integer, PendingUsage>> users) {
+    }
+
+    /**
+     * Kullanıcının ay içi toplamları
+     */
+    private static final class UserCounters {
+
+        private final int periodKey;
+        private final LongAdder dataMilliMb = new LongAdder();
+        private final LongAdder minutes = new LongAdder();
+        private final LongAdder sms = new LongAdder();
+        private final LongAdder roamingMilliMb = new LongAdder();
+        // Sayaç map'e konmadan önce atanır; plan yoksa null
+        private QuotaTracker quota;
+        // Sınır aşıldığında en eski erişilenler atılır
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        UserCounters(int periodKey) {
+            this.periodKey = periodKey;
+        }
+
+        void add(long data, long minutes, long sms, long roaming) {
+            dataMilliMb.add(data);
+            this.minutes.add(minutes);
+            this.sms.add(sms);
+            roamingMilliMb.add(roaming);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.alert.QuotaAlertBroadcaster;
+import com.turkcellcase4.billing.alert.QuotaTracker;
+import com.turkcellcase4.billing.dto.QuotaAlertDTO;
+import com.turkcellcase4.billing.repository.QuotaAlertStateRepository;
+import com.turkcellcase4.billing.service.QuotaAlertService;
+import com.turkcellcase4.catalog.model.Plan;
+import com.turkcellcase4.catalog.repository.PlanRepository;
+import com.turkcellcase4.common.enums.ItemCategory;
+import com.turkcellcase4.common.enums.QuotaAlertLevel;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ay içi kullanımı plan kotalarına göre değerlendirir.
+ * İzleyiciler sayaçlardan ayrı ve sınırlı bir LRU önbellekte tutulur; ulaşılan seviyeler quota_alert_states
+ * tablosuna da yazıldığından izleyici atıldığında ya da uygulama yeniden başladığında aynı plan ve dönem için
+ * daha önce tetiklenmiş eşikler tekrar gönderilmez.
+ */
+@Service
+@Slf4j
+public class QuotaAlertServiceImpl implements QuotaAlertService {
+
+    private static final ItemCategory[] CATEGORIES = {ItemCategory.DATA, ItemCategory.VOICE, ItemCategory.SMS};
+
+    private final UserRepository userRepository;
+    private final PlanRepository planRepository;
+    private final QuotaAlertStateRepository quotaAlertStateRepository;
+    private final QuotaAlertBroadcaster quotaAlertBroadcaster;
+    private final long planTtlMillis;
+
+    // Erişim sıralı LRU; yalnızca synchronized blok içinde kullanılır
+    private final Map<Long, QuotaTracker> trackers;
+    private final Map<Long, CachedPlan> plans;
+    private final LongAdder alertsFired = new LongAdder();
+    private final LongAdder stateWriteFailures = new LongAdder();
+
+    public QuotaAlertServiceImpl(
+            UserRepository userRepository,
+            PlanRepository planRepository,
+            QuotaAlertStateRepository quotaAlertStateRepository,
+            QuotaAlertBroadcaster quotaAlertBroadcaster,
+            @Value("${usage.alerts.max-trackers:100000}") int maxTrackers,
+            @Value("${usage.alerts.max-plans:1000}") int maxPlans,
+            @Value("${usage.alerts.plan-ttl-seconds:300}") long planTtlSeconds) {
+        this.userRepository = userRepository;
+        this.planRepository = planRepository;
+        this.quotaAlertStateRepository = quotaAlertStateRepository;
+        this.quotaAlertBroadcaster = quotaAlertBroadcaster;
+        this.planTtlMillis = planTtlSeconds * 1000;
+        this.trackers = lru(maxTrackers);
+        this.plans = lru(maxPlans);
+    }
+
+    @Override
+    public QuotaTracker attach(Long userId, Long planId, int periodKey, long dataMilliMb, long minutes, long sms) {
+        if (planId == null) {
+            synchronized (trackers) {
+                trackers.remove(userId);
+            }
+            return null;
+        }
+        QuotaTracker tracker;
+        synchronized (trackers) {
+            tracker = trackers.get(userId);
+        }
+        if (tracker == null || !planId.equals(tracker.getPlanId()) || tracker.getPeriodKey() != periodKey) {
+            // Plan ve kalıcı durum kilit dışında okunur; aynı kullanıcı için attach sayaç yüklemesiyle sıralanır
+            tracker = newTracker(userId, planId, periodKey);
+            synchronized (trackers) {
+                if (tracker == null) {
+                    trackers.remove(userId);
+                } else {
+                    trackers.put(userId, tracker);
+                }
+            }
+            if (tracker == null) {
+                return null;
+            }
+        }
+        onUsage(userId, tracker, dataMilliMb, minutes, sms);
+        return tracker;
+    }
+
+    @Override
+    public void onUsage(Long userId, QuotaTracker tracker, long dataMilliMb, long minutes, long sms) {
+        fire(userId, tracker, QuotaTracker.DATA, dataMilliMb);
+        fire(userId, tracker, QuotaTracker.VOICE, minutes);
+        fire(userId, tracker, QuotaTracker.SMS, sms);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Kullanıcı bulunamadı: " + userId);
+        }
+        log.debug("Opening quota alert stream for user {}", userId);
+        return quotaAlertBroadcaster.subscribe(userId);
+    }
+
+    @Override
+    public SseEmitter subscribeAll() {
+        log.debug("Opening global quota alert stream");
+        return quotaAlertBroadcaster.subscribeAll();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (trackers) {
+            stats.put("quotaTrackers", trackers.size());
+        }
+        synchronized (plans) {
+            stats.put("cachedPlans", plans.size());
+        }
+        stats.put("quotaAlertsFired", alertsFired.sum());
+        stats.put("quotaStateWriteFailures", stateWriteFailures.sum());
+        stats.put("alertConnections", quotaAlertBroadcaster.getConnectionCount());
+        stats.put("alertsDelivered", quotaAlertBroadcaster.getDeliveredCount());
+        stats.put("alertsDropped", quotaAlertBroadcaster.getDroppedCount());
+        return stats;
+    }
+
+    private void fire(Long userId, QuotaTracker tracker, int metric, long total) {
+        QuotaAlertLevel level = tracker.evaluate(metric, total);
+        if (level == null) {
+            return;
+        }
+        alertsFired.increment();
+        double used = metric == QuotaTracker.DATA ? total / 1000.0 : total;
+        double quota = metric == QuotaTracker.DATA ? tracker.limit(metric) / 1000.0 : tracker.limit(metric);
+        int period = tracker.getPeriodKey();
+        quotaAlertBroadcaster.publish(QuotaAlertDTO.builder()
+                .userId(userId)
+                .planId(tracker.getPlanId())
+                .period(String.format("%04d-%02d", period / 100, period % 100))
+                .category(CATEGORIES[metric])
+                .level(level)
+                .used(used)
+                .quota(quota)
+                .usagePercent(Math.round(used / quota * 10000) / 100.0)
+                .firedAt(LocalDateTime.now())
+                .build());
+        saveState(userId, tracker);
+    }
+
+    /**
+     * fire olay kaydı sırasında (swapLock okuma kilidi altında) çağrıldığından yazım gönderim havuzuna bırakılır;
+     * yavaş veritabanı olay kaydını ve flush'ı bekletmez. Seviyeler tetikleme anında alınır; aynı plan için upsert GREATEST ile
+     * birleştirdiği için yazımların sırası önemli değildir. Hata uyarının gönderimini etkilemez.
+     */
+    private void saveState(Long userId, QuotaTracker tracker) {
+        int periodKey = tracker.getPeriodKey();
+        Long planId = tracker.getPlanId();
+        int dataLevel = tracker.levelOrdinal(QuotaTracker.DATA);
+        int voiceLevel = tracker.levelOrdinal(QuotaTracker.VOICE);
+        int smsLevel = tracker.levelOrdinal(QuotaTracker.SMS);
+        boolean submitted = quotaAlertBroadcaster.execute(() -> {
+            try {
+                quotaAlertStateRepository.upsert(userId, periodKey, planId, dataLevel, voiceLevel, smsLevel);
+            } catch (DataAccessException e) {
+                stateWriteFailures.increment();
+                log.warn("Kota uyarı durumu yazılamadı (user {}): {}", userId, e.getMessage());
+            }
+        });
+        if (!submitted) {
+            stateWriteFailures.increment();
+        }
+    }
+
+    private QuotaTracker newTracker(Long userId, Long planId, int periodKey) {
+        Plan plan = findPlan(planId);
+        if (plan == null) {
+            log.warn("Kota izleme için plan bulunamadı: {}", planId);
+            return null;
+        }
+        // GB -> MB dönüşümü CurrentUsageDTO ile aynı (1 GB = 1024 MB)
+        long dataLimit = plan.getQuotaGb() != null ? Math.round(plan.getQuotaGb() * 1024 * 1000) : 0L;
+        long minutesLimit = plan.getQuotaMin() != null ? plan.getQuotaMin() : 0L;
+        long smsLimit = plan.getQuotaSms() != null ? plan.getQuotaSms() : 0L;
+        QuotaTracker tracker = new QuotaTracker(planId, periodKey, dataLimit, minutesLimit, smsLimit);
+        quotaAlertStateRepository.findByUserIdAndPeriodKey(userId, periodKey)
+                .filter(state -> planId.equals(state.getPlanId()))
+                .ifPresent(state -> {
+                    tracker.restore(QuotaTracker.DATA, state.getDataLevel());
+                    tracker.restore(QuotaTracker.VOICE, state.getVoiceLevel());
+                    tracker.restore(QuotaTracker.SMS, state.getSmsLevel());
+                });
+        return tracker;
+    }
+
+    /**
+     * Plan kotası değişikliklerinin izleyicilere yansıması için plan-ttl-seconds süreyle önbelleklenir
+     */
+    private Plan findPlan(Long planId) {
+        long now = System.currentTimeMillis();
+        synchronized (plans) {
+            CachedPlan cached = plans.get(planId);
+            if (cached != null && now - cached.loadedAt() < planTtlMillis) {
+                return cached.plan();
+            }
+        }
+        Plan plan = planRepository.findById(planId).orElse(null);
+        synchronized (plans) {
+            plans.put(planId, new CachedPlan(plan, now));
+        }
+        return plan;
+    }
+
+    private static <K, V> Map<K, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record CachedPlan(Plan plan, long loadedAt) {
+    }
+}
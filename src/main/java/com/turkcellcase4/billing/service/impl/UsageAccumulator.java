@@ -0,0 +1,150 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.model.UsageDaily;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Günlük kullanım satırlarını tek geçişte işler: toplamlar, zirve günler ve
+ * ilk yarı / son yarı trendi için gereken ön-toplamlar primitive dizilerde tutulur.
+ */
+final class UsageAccumulator {
+
+    private double totalDataMB;
+    private long totalVoiceMinutes;
+    private long totalSMSCount;
+    private double totalRoamingMB;
+
+    private double peakDataValue = Double.NEGATIVE_INFINITY;
+    private int peakVoiceValue = Integer.MIN_VALUE;
+    private int peakSMSValue = Integer.MIN_VALUE;
+    private LocalDate peakDataDate;
+    private LocalDate peakVoiceDate;
+    private LocalDate peakSMSDate;
+
+    // prefix[k]: null olmayan ilk k değerin toplamı
+    private final double[] dataPrefix;
+    private final double[] voicePrefix;
+    private final double[] smsPrefix;
+    private int dataCount;
+    private int voiceCount;
+    private int smsCount;
+
+    private final int rowCount;
+
+    private UsageAccumulator(int size) {
+        this.rowCount = size;
+        this.dataPrefix = new double[size + 1];
+        this.voicePrefix = new double[size + 1];
+        this.smsPrefix = new double[size + 1];
+    }
+
+    static UsageAccumulator of(List<UsageDaily> usageData) {
+        UsageAccumulator acc = new UsageAccumulator(usageData.size());
+        for (UsageDaily row : usageData) {
+            acc.add(row);
+        }
+        return acc;
+    }
+
+    private void add(UsageDaily row) {
+        Double mb = row.getMbUsed();
+        Integer minutes = row.getMinutesUsed();
+        Integer sms = row.getSmsUsed();
+        Double roaming = row.getRoamingMb();
+
+        double mbValue = mb != null ? mb : 0.0;
+        int minutesValue = minutes != null ? minutes : 0;
+        int smsValue = sms != null ? sms : 0;
+
+        totalDataMB += mbValue;
+        totalVoiceMinutes += minutesValue;
+        totalSMSCount += smsValue;
+        totalRoamingMB += roaming != null ? roaming : 0.0;
+
+        // Eşitlikte ilk gün korunur (Stream.max ile aynı davranış)
+        if (mbValue > peakDataValue) {
+            peakDataValue = mbValue;
+            peakDataDate = row.getDate();
+        }
+        if (minutesValue > peakVoiceValue) {
+            peakVoiceValue = minutesValue;
+            peakVoiceDate = row.getDate();
+        }
+        if (smsValue > peakSMSValue) {
+            peakSMSValue = smsValue;
+            peakSMSDate = row.getDate();
+        }
+
+        if (mb != null) {
+            dataPrefix[dataCount + 1] = dataPrefix[dataCount] + mb;
+            dataCount++;
+        }
+        if (minutes != null) {
+            voicePrefix[voiceCount + 1] = voicePrefix[voiceCount] + minutes;
+            voiceCount++;
+        }
+        if (sms != null) {
+            smsPrefix[smsCount + 1] = smsPrefix[smsCount] + sms;
+            smsCount++;
+        }
+    }
+
+    double totalDataMB() {
+        return totalDataMB;
+    }
+
+    int totalVoiceMinutes() {
+        return (int) totalVoiceMinutes;
+    }
+
+    int totalSMSCount() {
+        return (int) totalSMSCount;
+    }
+
+    double totalRoamingMB() {
+        return totalRoamingMB;
+    }
+
+    LocalDate peakDataDate() {
+        return peakDataDate;
+    }
+
+    LocalDate peakVoiceDate() {
+        return peakVoiceDate;
+    }
+
+    LocalDate peakSMSDate() {
+        return peakSMSDate;
+    }
+
+    String dataTrend() {
+        return trend(dataPrefix, dataCount);
+    }
+
+    String voiceTrend() {
+        return trend(voicePrefix, voiceCount);
+    }
+
+    String smsTrend() {
+        return trend(smsPrefix, smsCount);
+    }
+
+    /**
+     * Basit trend analizi: null olmayan değerlerin ilk yarı ve son yarı ortalamaları karşılaştırılır
+     */
+    private String trend(double[] prefix, int count) {
+        if (rowCount < 2 || count < 2) return "STABLE";
+
+        int midPoint = count / 2;
+        double firstHalfAvg = prefix[midPoint] / midPoint;
+        double secondHalfAvg = (prefix[count] - prefix[midPoint]) / (count - midPoint);
+
+        double change = ((secondHalfAvg - firstHalfAvg) / firstHalfAvg) * 100;
+
+        if (change > 10) return "INCREASING";
+        if (change < -10) return "DECREASING";
+        return "STABLE";
+    }
+}
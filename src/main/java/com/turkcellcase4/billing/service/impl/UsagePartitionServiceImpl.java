@@ -0,0 +1,163 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.dto.UsagePartitionReportDTO;
+import com.turkcellcase4.billing.repository.BillRepository;
+import com.turkcellcase4.billing.repository.UsagePartitionJdbcRepository;
+import com.turkcellcase4.billing.repository.UsagePartitionJdbcRepository.PartitionChange;
+import com.turkcellcase4.billing.service.UsagePartitionService;
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * usage_daily bölümlerinin bakımı. Her ay için ayrı bölüm tutulduğundan tarih aralığı sorguları yalnızca
+ * ilgili ayların bölümlerini tarar; geçmiş büyüdükçe sorgu süresi sabit kalır.
+ * Her DDL adımı kendi transaction'ında çalışır, bir adımın hatası öncekileri geri almaz.
+ * Düz tablonun bölümlenmiş tabloya çevrilmesi tabloyu kopyalama boyunca kilitlediği için otomatik yapılmaz;
+ * bakım penceresinde convert() ile (POST /usage/partitions/convert) açıkça çalıştırılır.
+ */
+@Service
+@Slf4j
+public class UsagePartitionServiceImpl implements UsagePartitionService {
+
+    private final UsagePartitionJdbcRepository usagePartitionJdbcRepository;
+    private final BillRepository billRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public UsagePartitionServiceImpl(
+            UsagePartitionJdbcRepository usagePartitionJdbcRepository,
+            BillRepository billRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${usage.partitions.enabled:true}") boolean enabled,
+            @Value("${usage.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${usage.partitions.retention-months:0}") int retentionMonths) {
+        this.usagePartitionJdbcRepository = usagePartitionJdbcRepository;
+        this.billRepository = billRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * usage_daily upsert'leri ON CONFLICT (user_id, date) kullanır ve unique indeks olmadan hata verir.
+     * ddl-auto tekrarlanan satırlar yüzünden kısıtı ekleyemediyse (yalnızca uyarı loglar) tekrarlar birleştirilip
+     * kısıt burada eklenir. BillRepository'ye bağımlılık sayesinde şema güncellemesinden sonra, istek kabul
+     * edilmeden önce çalışır.
+     */
+    @PostConstruct
+    public void ensureUserDateConstraint() {
+        if (!usagePartitionJdbcRepository.exists() || usagePartitionJdbcRepository.hasUserDateConstraint()) {
+            return;
+        }
+        log.warn("usage_daily (user_id, date) unique kısıtı yok; tekrarlanan günler birleştirilip kısıt ekleniyor");
+        Integer removed = transactionTemplate.execute(status -> usagePartitionJdbcRepository.addUserDateConstraint());
+        log.info("usage_daily unique kısıtı eklendi, {} tekrar satır birleştirildi", removed);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (enabled) {
+            maintain();
+        }
+    }
+
+    @Scheduled(cron = "${usage.partitions.maintenance-cron:0 15 3 * * *}")
+    public void scheduledMaintenance() {
+        if (enabled) {
+            maintain();
+        }
+    }
+
+    @Override
+    public synchronized UsagePartitionReportDTO maintain() {
+        return maintain(System.currentTimeMillis(), UsagePartitionReportDTO.builder());
+    }
+
+    @Override
+    public synchronized UsagePartitionReportDTO convert() {
+        long start = System.currentTimeMillis();
+        if (!usagePartitionJdbcRepository.exists()) {
+            throw new BusinessLogicException("usage_daily tablosu bulunamadı");
+        }
+        if (usagePartitionJdbcRepository.isPartitioned()) {
+            throw new BusinessLogicException("usage_daily zaten bölümlenmiş");
+        }
+        YearMonth lastMonth = YearMonth.now().plusMonths(Math.max(0, monthsAhead));
+        log.info("usage_daily bölümlenmiş tabloya çevriliyor");
+        Long migrated = transactionTemplate.execute(status -> usagePartitionJdbcRepository.convertToPartitioned(lastMonth));
+        log.info("usage_daily bölümlendi, {} satır taşındı", migrated);
+        return maintain(start, UsagePartitionReportDTO.builder()
+                .converted(true)
+                .migratedRows(migrated != null ? migrated : 0));
+    }
+
+    private UsagePartitionReportDTO maintain(long start, UsagePartitionReportDTO.UsagePartitionReportDTOBuilder report) {
+        List<String> created = new ArrayList<>();
+        List<String> reattached = new ArrayList<>();
+        List<String> detached = new ArrayList<>();
+        report.createdPartitions(created).reattachedPartitions(reattached).detachedPartitions(detached);
+
+        if (!usagePartitionJdbcRepository.exists()) {
+            log.warn("usage_daily tablosu bulunamadı, bölüm bakımı atlanıyor");
+            return report.build();
+        }
+        if (!usagePartitionJdbcRepository.isPartitioned()) {
+            log.warn("usage_daily bölümlenmemiş; bölüm bakımı atlanıyor (POST /usage/partitions/convert ile çevrilebilir)");
+            return report.backfilledBills(billRepository.backfillPeriodKeys())
+                    .durationMs(System.currentTimeMillis() - start)
+                    .build();
+        }
+
+        YearMonth current = YearMonth.now();
+        YearMonth lastMonth = current.plusMonths(Math.max(0, monthsAhead));
+        List<YearMonth> months = new ArrayList<>(usagePartitionJdbcRepository.defaultPartitionMonths());
+        for (YearMonth month = current; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        for (YearMonth month : months) {
+            PartitionChange change = transactionTemplate.execute(status -> usagePartitionJdbcRepository.ensurePartition(month));
+            if (change == PartitionChange.CREATED) {
+                created.add(UsagePartitionJdbcRepository.partitionName(month));
+            } else if (change == PartitionChange.REATTACHED) {
+                reattached.add(UsagePartitionJdbcRepository.partitionName(month));
+            }
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth cutoff = current.minusMonths(retentionMonths);
+            for (String partition : usagePartitionJdbcRepository.listPartitions()) {
+                YearMonth month = UsagePartitionJdbcRepository.monthOf(partition);
+                if (month != null && month.isBefore(cutoff)) {
+                    transactionTemplate.executeWithoutResult(status -> usagePartitionJdbcRepository.detachPartition(partition));
+                    detached.add(partition);
+                }
+            }
+        }
+
+        int backfilled = billRepository.backfillPeriodKeys();
+        long durationMs = System.currentTimeMillis() - start;
+        if (!created.isEmpty() || !reattached.isEmpty() || !detached.isEmpty() || backfilled > 0) {
+            log.info("Bölüm bakımı tamamlandı: {} oluşturuldu, {} yeniden bağlandı, {} ayrıldı, {} fatura dönemi dolduruldu ({} ms)",
+                    created.size(), reattached.size(), detached.size(), backfilled, durationMs);
+        }
+        return report
+                .backfilledBills(backfilled)
+                .partitionCount(usagePartitionJdbcRepository.listPartitions().size())
+                .durationMs(durationMs)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.dto.UsageDTO;
+import com.turkcellcase4.billing.dto.UsageIncrementDTO;
+import com.turkcellcase4.billing.dto.UsageMonthlyDTO;
+import com.turkcellcase4.billing.model.UsageMonthly;
+import com.turkcellcase4.billing.repository.UsageMonthlyRepository;
+import com.turkcellcase4.billing.repository.UsageRollupJdbcRepository;
+import com.turkcellcase4.billing.service.LiveUsageService;
+import com.turkcellcase4.billing.service.UsageRollupService;
+import com.turkcellcase4.billing.service.UsageTimeSeriesService;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UsageRollupServiceImpl implements UsageRollupService {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final UsageRollupJdbcRepository usageRollupJdbcRepository;
+    private final UsageMonthlyRepository usageMonthlyRepository;
+    private final UserRepository userRepository;
+    private final UsageTimeSeriesService usageTimeSeriesService;
+    private final LiveUsageService liveUsageService;
+
+    @Override
+    @Transactional
+    public UsageDTO addDailyUsage(Long userId, UsageIncrementDTO increment) {
+        log.info("Adding daily usage for user: {} on {}", userId, increment.getDate());
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Kullanıcı bulunamadı: " + userId);
+        }
+
+        double mb = valueOrZero(increment.getMbUsed());
+        int minutes = valueOrZero(increment.getMinutesUsed());
+        int sms = valueOrZero(increment.getSmsUsed());
+        double roamingMb = valueOrZero(increment.getRoamingMb());
+
+        UsageRollupJdbcRepository.DailyRow row = usageRollupJdbcRepository.addDaily(
+                userId, increment.getDate(), mb, minutes, sms, roamingMb);
+        // Aylık satır aynı transaction'da aynı artışla güncellenir; yeni gün ise aktif gün sayısı artar
+        usageRollupJdbcRepository.addMonthly(userId, periodKey(increment.getDate()),
+                mb, minutes, sms, roamingMb, row.inserted() ? 1 : 0);
+        // Seriye artış değil satırın güncel değeri yazılır; tekrar uygulanması sonucu değiştirmez
+        usageTimeSeriesService.recordDailyUsage(userId, increment.getDate(),
+                row.mbUsed(), row.minutesUsed(), row.smsUsed(), row.roamingMb());
+        // Bellekteki ay içi sayaç commit sonrasında veritabanından yeniden yüklenir
+        liveUsageService.invalidate(userId);
+
+        return UsageDTO.builder()
+                .id(row.id())
+                .userId(userId)
+                .date(increment.getDate())
+                .mbUsed(row.mbUsed())
+                .minutesUsed(row.minutesUsed())
+                .smsUsed(row.smsUsed())
+                .roamingMb(row.roamingMb())
+                .gbUsed(row.mbUsed() / 1024.0)
+                .formattedDate(increment.getDate().format(DAY_FORMATTER))
+                .build();
+    }
+
+    @Override
+    public Optional<UsageMonthlyDTO> getMonthlyUsage(Long userId, LocalDate dayInMonth) {
+        return usageMonthlyRepository.findByUser_UserIdAndPeriodKey(userId, periodKey(dayInMonth))
+                .map(monthly -> toDTO(userId, monthly));
+    }
+
+    @Override
+    public List<UsageMonthlyDTO> getMonthlyUsageRange(Long userId, LocalDate from, LocalDate to) {
+        return usageMonthlyRepository
+                .findByUser_UserIdAndPeriodKeyBetweenOrderByPeriodKeyAsc(userId, periodKey(from), periodKey(to))
+                .stream()
+                .map(monthly -> toDTO(userId, monthly))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int rebuildMonthlyRollup() {
+        int rows = usageRollupJdbcRepository.rebuildMonthly();
+        log.info("usage_monthly yeniden oluşturuldu: {} satır", rows);
+        return rows;
+    }
+
+    @Override
+    @Transactional
+    public int rebuildMonthlyRollup(LocalDate from, LocalDate to) {
+        int rows = usageRollupJdbcRepository.rebuildMonthly(from, to);
+        log.info("usage_monthly {} - {} arası yeniden oluşturuldu: {} satır", from, to, rows);
+        return rows;
+    }
+
+    /**
+     * İlk açılışta aylık tablo boşsa mevcut günlük veriden doldurulur
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeRollup() {
+        if (usageRollupJdbcRepository.countMonthly() == 0) {
+            rebuildMonthlyRollup();
+        }
+    }
+
+    static int periodKey(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    private UsageMonthlyDTO toDTO(Long userId, UsageMonthly monthly) {
+        int key = monthly.getPeriodKey();
+        return UsageMonthlyDTO.builder()
+                .userId(userId)
+                .period(String.format("%04d-%02d", key / 100, key % 100))
+                .totalDataGB(monthly.getTotalMb() / 1024.0)
+                .totalVoiceMinutes(monthly.getTotalMinutes())
+                .totalSMSCount(monthly.getTotalSms())
+                .totalRoamingGB(monthly.getTotalRoamingMb() / 1024.0)
+                .activeDays(monthly.getActiveDays())
+                .build();
+    }
+
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private static int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -1,9 +1,14 @@
 package com.turkcellcase4.billing.service.impl;
 
 import com.turkcellcase4.billing.dto.UsageDTO;
+import com.turkcellcase4.billing.dto.UsageMonthlyDTO;
 import com.turkcellcase4.billing.dto.UsageSummaryDTO;
 import com.turkcellcase4.billing.model.UsageDaily;
+import com.turkcellcase4.billing.rating.Money;
+import com.turkcellcase4.billing.rating.TariffCompiler;
+import com.turkcellcase4.billing.rating.TariffEvaluator;
 import com.turkcellcase4.billing.repository.UsageDailyRepository;
+import com.turkcellcase4.billing.service.UsageRollupService;
 import com.turkcellcase4.billing.service.UsageService;
 import com.turkcellcase4.common.exception.BusinessLogicException;
 import com.turkcellcase4.common.exception.ResourceNotFoundException;
@@ -12,11 +17,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,7 +30,13 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UsageServiceImpl implements UsageService {
 
+    private static final DateTimeFormatter PERIOD_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
     private final UsageDailyRepository usageDailyRepository;
+    private final UsageRollupService usageRollupService;
+    private final TariffCompiler tariffCompiler;
 
     @Override
     public List<UsageDTO> getDailyUsage(Long userId, String period) {
@@ -98,7 +110,7 @@ public class UsageServiceImpl implements UsageService {
     public String getDataUsageAnalysis(Long userId, String period) {
         log.info("Getting data usage analysis for user: {} and period: {}", userId, period);
         
-        UsageSummaryDTO summary = getUsageSummary(userId, period);
+        UsageSummaryDTO summary = getPeriodTotals(userId, period);
         
         if (summary.getTotalDataGB() == null || summary.getTotalDataGB() == 0) {
             return "Bu dönemde data kullanımı bulunmuyor.";
@@ -122,7 +134,7 @@ public class UsageServiceImpl implements UsageService {
     public String getVoiceUsageAnalysis(Long userId, String period) {
         log.info("Getting voice usage analysis for user: {} and period: {}", userId, period);
         
-        UsageSummaryDTO summary = getUsageSummary(userId, period);
+        UsageSummaryDTO summary = getPeriodTotals(userId, period);
         
         if (summary.getTotalVoiceMinutes() == null || summary.getTotalVoiceMinutes() == 0) {
             return "Bu dönemde ses kullanımı bulunmuyor.";
@@ -146,7 +158,7 @@ public class UsageServiceImpl implements UsageService {
     public String getSMSUsageAnalysis(Long userId, String period) {
         log.info("Getting SMS usage analysis for user: {} and period: {}", userId, period);
         
-        UsageSummaryDTO summary = getUsageSummary(userId, period);
+        UsageSummaryDTO summary = getPeriodTotals(userId, period);
         
         if (summary.getTotalSMSCount() == null || summary.getTotalSMSCount() == 0) {
             return "Bu dönemde SMS kullanımı bulunmuyor.";
@@ -170,7 +182,7 @@ public class UsageServiceImpl implements UsageService {
     public String getRoamingUsageAnalysis(Long userId, String period) {
         log.info("Getting roaming usage analysis for user: {} and period: {}", userId, period);
         
-        UsageSummaryDTO summary = getUsageSummary(userId, period);
+        UsageSummaryDTO summary = getPeriodTotals(userId, period);
         
         if (summary.getTotalRoamingGB() == null || summary.getTotalRoamingGB() == 0) {
             return "Bu dönemde roaming kullanımı bulunmuyor.";
@@ -190,51 +202,77 @@ public class UsageServiceImpl implements UsageService {
         return analysis.toString();
     }
 
-    private UsageSummaryDTO buildUsageSummary(Long userId, LocalDate startDate, LocalDate endDate, List<UsageDaily> usageData) {
-        // Toplam kullanım hesaplamaları
-        Double totalDataMB = usageData.stream()
-                .mapToDouble(ud -> ud.getMbUsed() != null ? ud.getMbUsed() : 0.0)
-                .sum();
+    @Override
+    public List<UsageMonthlyDTO> getMonthlyUsage(Long userId, int months) {
+        log.info("Getting monthly usage for user: {} for last {} months", userId, months);
         
-        Integer totalVoiceMinutes = usageData.stream()
-                .mapToInt(ud -> ud.getMinutesUsed() != null ? ud.getMinutesUsed() : 0)
-                .sum();
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusMonths(Math.max(0, months - 1));
+        return usageRollupService.getMonthlyUsageRange(userId, startDate, endDate);
+    }
+
+    /**
+     * Analiz metinleri yalnızca toplam ve ortalamaya ihtiyaç duyar; günlük satırlar yerine aylık toplam okunur
+     */
+    private UsageSummaryDTO getPeriodTotals(Long userId, String period) {
+        LocalDate startDate = parsePeriodToStartDate(period);
+        Optional<UsageMonthlyDTO> monthly = usageRollupService.getMonthlyUsage(userId, startDate);
+        if (monthly.isEmpty()) {
+            return getUsageSummary(userId, period);
+        }
         
-        Integer totalSMSCount = usageData.stream()
-                .mapToInt(ud -> ud.getSmsUsed() != null ? ud.getSmsUsed() : 0)
-                .sum();
+        UsageMonthlyDTO totals = monthly.get();
+        int daysCount = startDate.lengthOfMonth();
+        double totalDataMB = totals.getTotalDataGB() * 1024.0;
+        double totalRoamingMB = totals.getTotalRoamingGB() * 1024.0;
         
-        Double totalRoamingMB = usageData.stream()
-                .mapToDouble(ud -> ud.getRoamingMb() != null ? ud.getRoamingMb() : 0.0)
-                .sum();
+        return UsageSummaryDTO.builder()
+                .userId(userId)
+                .period(period)
+                .startDate(startDate)
+                .endDate(startDate.plusMonths(1).minusDays(1))
+                .totalDataGB(totals.getTotalDataGB())
+                .totalVoiceMinutes(totals.getTotalVoiceMinutes())
+                .totalSMSCount(totals.getTotalSMSCount())
+                .totalRoamingGB(totals.getTotalRoamingGB())
+                .averageDailyDataGB(totals.getTotalDataGB() / daysCount)
+                .averageDailyVoiceMinutes(totals.getTotalVoiceMinutes() / daysCount)
+                .averageDailySMSCount(totals.getTotalSMSCount() / daysCount)
+                .averageDailyRoamingGB(totals.getTotalRoamingGB() / daysCount)
+                .dataSavingsHint(generateDataSavingsHint(totalDataMB))
+                .voiceSavingsHint(generateVoiceSavingsHint(totals.getTotalVoiceMinutes()))
+                .smsSavingsHint(generateSMSSavingsHint(totals.getTotalSMSCount()))
+                .estimatedDataCost(calculateEstimatedDataCost(totalDataMB))
+                .estimatedVoiceCost(calculateEstimatedVoiceCost(totals.getTotalVoiceMinutes()))
+                .estimatedSMSCost(calculateEstimatedSMSCost(totals.getTotalSMSCount()))
+                .estimatedRoamingCost(calculateEstimatedRoamingCost(totalRoamingMB))
+                .build();
+    }
+
+    private UsageSummaryDTO buildUsageSummary(Long userId, LocalDate startDate, LocalDate endDate, List<UsageDaily> usageData) {
+        // Toplamlar, zirve günler ve trendler tek geçişte hesaplanır
+        UsageAccumulator usage = UsageAccumulator.of(usageData);
+        Double totalDataMB = usage.totalDataMB();
+        Integer totalVoiceMinutes = usage.totalVoiceMinutes();
+        Integer totalSMSCount = usage.totalSMSCount();
+        Double totalRoamingMB = usage.totalRoamingMB();
         
         // Ortalama günlük kullanım
-        long daysCount = startDate.until(endDate.plusDays(1)).getDays();
+        long daysCount = ChronoUnit.DAYS.between(startDate, endDate) + 1;
         Double averageDailyDataGB = totalDataMB / 1024.0 / daysCount;
         Integer averageDailyVoiceMinutes = totalVoiceMinutes / (int) daysCount;
         Integer averageDailySMSCount = totalSMSCount / (int) daysCount;
         Double averageDailyRoamingGB = totalRoamingMB / 1024.0 / daysCount;
         
         // En yüksek kullanım günleri
-        LocalDate peakDataDate = usageData.stream()
-                .max(Comparator.comparing(ud -> ud.getMbUsed() != null ? ud.getMbUsed() : 0.0))
-                .map(UsageDaily::getDate)
-                .orElse(null);
-        
-        LocalDate peakVoiceDate = usageData.stream()
-                .max(Comparator.comparing(ud -> ud.getMinutesUsed() != null ? ud.getMinutesUsed() : 0))
-                .map(UsageDaily::getDate)
-                .orElse(null);
-        
-        LocalDate peakSMSDate = usageData.stream()
-                .max(Comparator.comparing(ud -> ud.getSmsUsed() != null ? ud.getSmsUsed() : 0))
-                .map(UsageDaily::getDate)
-                .orElse(null);
+        LocalDate peakDataDate = usage.peakDataDate();
+        LocalDate peakVoiceDate = usage.peakVoiceDate();
+        LocalDate peakSMSDate = usage.peakSMSDate();
         
         // Kullanım trendi analizi
-        String dataTrend = analyzeTrend(usageData, UsageDaily::getMbUsed);
-        String voiceTrend = analyzeTrend(usageData, UsageDaily::getMinutesUsed);
-        String smsTrend = analyzeTrend(usageData, UsageDaily::getSmsUsed);
+        String dataTrend = usage.dataTrend();
+        String voiceTrend = usage.voiceTrend();
+        String smsTrend = usage.smsTrend();
         
         // Tasarruf önerileri
         String dataSavingsHint = generateDataSavingsHint(totalDataMB);
@@ -242,9 +280,10 @@ public class UsageServiceImpl implements UsageService {
         String smsSavingsHint = generateSMSSavingsHint(totalSMSCount);
         
         // Günlük detaylar
-        List<UsageDTO> dailyUsage = usageData.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<UsageDTO> dailyUsage = new ArrayList<>(usageData.size());
+        for (UsageDaily usageDaily : usageData) {
+            dailyUsage.add(convertToDTO(usageDaily));
+        }
         
         // Fatura etkisi (basit hesaplama)
         BigDecimal estimatedDataCost = calculateEstimatedDataCost(totalDataMB);
@@ -254,7 +293,7 @@ public class UsageServiceImpl implements UsageService {
         
         return UsageSummaryDTO.builder()
                 .userId(userId)
-                .period(startDate.format(DateTimeFormatter.ofPattern("yyyy-MM")))
+                .period(startDate.format(PERIOD_FORMATTER))
                 .startDate(startDate)
                 .endDate(endDate)
                 .totalDataGB(totalDataMB / 1024.0)
@@ -292,7 +331,7 @@ public class UsageServiceImpl implements UsageService {
                 .smsUsed(usageDaily.getSmsUsed())
                 .roamingMb(usageDaily.getRoamingMb())
                 .gbUsed(usageDaily.getMbUsed() != null ? usageDaily.getMbUsed() / 1024.0 : 0.0)
-                .formattedDate(usageDaily.getDate().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")))
+                .formattedDate(usageDaily.getDate().format(DAY_FORMATTER))
                 .build();
     }
 
@@ -300,42 +339,12 @@ public class UsageServiceImpl implements UsageService {
         try {
             // Period formatı "yyyy-MM" şeklinde geliyor, "-01" ekleyerek tam tarih yapıyoruz
             String fullDate = period + "-01";
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            return LocalDate.parse(fullDate, formatter);
+            return LocalDate.parse(fullDate, DATE_FORMATTER);
         } catch (Exception e) {
             throw new BusinessLogicException("Geçersiz period formatı: " + period + ". Beklenen format: yyyy-MM");
         }
     }
 
-    private <T extends Number> String analyzeTrend(List<UsageDaily> usageData, java.util.function.Function<UsageDaily, T> extractor) {
-        if (usageData.size() < 2) return "STABLE";
-        
-        List<T> values = usageData.stream()
-                .map(extractor)
-                .filter(v -> v != null)
-                .collect(Collectors.toList());
-        
-        if (values.size() < 2) return "STABLE";
-        
-        // Basit trend analizi: ilk yarı vs son yarı
-        int midPoint = values.size() / 2;
-        double firstHalfAvg = values.subList(0, midPoint).stream()
-                .mapToDouble(Number::doubleValue)
-                .average()
-                .orElse(0.0);
-        
-        double secondHalfAvg = values.subList(midPoint, values.size()).stream()
-                .mapToDouble(Number::doubleValue)
-                .average()
-                .orElse(0.0);
-        
-        double change = ((secondHalfAvg - firstHalfAvg) / firstHalfAvg) * 100;
-        
-        if (change > 10) return "INCREASING";
-        if (change < -10) return "DECREASING";
-        return "STABLE";
-    }
-
     private String generateDataSavingsHint(Double totalDataMB) {
         if (totalDataMB == null || totalDataMB < 1024) return null;
         
@@ -364,32 +373,24 @@ public class UsageServiceImpl implements UsageService {
         return null;
     }
 
+    // Tahmini maliyetler liste fiyatlı (kotasız) tarife ile kuruş cinsinden hesaplanır
     private BigDecimal calculateEstimatedDataCost(Double totalDataMB) {
         if (totalDataMB == null || totalDataMB <= 0) return BigDecimal.ZERO;
-        
-        // Basit hesaplama: 1GB = 0.50 TL (örnek)
-        double totalGB = totalDataMB / 1024.0;
-        return BigDecimal.valueOf(totalGB * 0.50).setScale(2, RoundingMode.HALF_UP);
+        return Money.toLira(tariffCompiler.payAsYouGo().dataCharge(TariffEvaluator.milliMbOfMb(totalDataMB)));
     }
 
     private BigDecimal calculateEstimatedVoiceCost(Integer totalVoiceMinutes) {
         if (totalVoiceMinutes == null || totalVoiceMinutes <= 0) return BigDecimal.ZERO;
-        
-        // Basit hesaplama: 1 dakika = 0.25 TL (örnek)
-        return BigDecimal.valueOf(totalVoiceMinutes * 0.25).setScale(2, RoundingMode.HALF_UP);
+        return Money.toLira(tariffCompiler.payAsYouGo().voiceCharge(totalVoiceMinutes));
     }
 
     private BigDecimal calculateEstimatedSMSCost(Integer totalSMSCount) {
         if (totalSMSCount == null || totalSMSCount <= 0) return BigDecimal.ZERO;
-        
-        // Basit hesaplama: 1 SMS = 0.10 TL (örnek)
-        return BigDecimal.valueOf(totalSMSCount * 0.10).setScale(2, RoundingMode.HALF_UP);
+        return Money.toLira(tariffCompiler.payAsYouGo().smsCharge(totalSMSCount));
     }
 
     private BigDecimal calculateEstimatedRoamingCost(Double totalRoamingMB) {
         if (totalRoamingMB == null || totalRoamingMB <= 0) return BigDecimal.ZERO;
-        
-        // Basit hesaplama: 1MB = 0.01 TL (örnek)
-        return BigDecimal.valueOf(totalRoamingMB * 0.01).setScale(2, RoundingMode.HALF_UP);
+        return Money.toLira(tariffCompiler.payAsYouGo().roamingCharge(TariffEvaluator.milliMbOfMb(totalRoamingMB)));
     }
 }
@@ -0,0 +1,297 @@
+package com.turkcellcase4.billing.service.impl;
+
+import com.turkcellcase4.billing.dto.UsageRangeStatsDTO;
+import com.turkcellcase4.billing.repository.UsageRollupJdbcRepository;
+import com.turkcellcase4.billing.repository.UsageRollupJdbcRepository.DailyValues;
+import com.turkcellcase4.billing.service.UsageTimeSeriesService;
+import com.turkcellcase4.billing.timeseries.UsageSeries;
+import com.turkcellcase4.billing.timeseries.UsageTimeSeriesStore;
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UsageTimeSeriesServiceImpl implements UsageTimeSeriesService {
+
+    // user_id = ANY(?) dizisinin boyutu
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    private final UsageTimeSeriesStore usageTimeSeriesStore;
+    private final UsageRollupJdbcRepository usageRollupJdbcRepository;
+
+    @Override
+    public UsageRangeStatsDTO getRangeStats(Long userId, LocalDate from, LocalDate to) {
+        requireEnabled();
+        validateRange(from, to);
+        RangeStats stats = scanUser(userId, (int) from.toEpochDay(), (int) to.toEpochDay());
+        return toDTO(userId, from, to, stats);
+    }
+
+    @Override
+    public List<UsageRangeStatsDTO> getTopDataUsers(LocalDate from, LocalDate to, int limit) {
+        requireEnabled();
+        validateRange(from, to);
+        if (limit <= 0) {
+            throw new BusinessLogicException("Limit pozitif olmalıdır");
+        }
+
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        // En büyük N değer için küçük-başlı yığın; tarama boyunca yalnızca N kullanıcı tutulur
+        PriorityQueue<RangeStats> top = new PriorityQueue<>(Comparator.comparingDouble(RangeStats::totalMb));
+        for (Long userId : usageTimeSeriesStore.listUserIds()) {
+            RangeStats stats = scanUser(userId, fromDay, toDay);
+            if (stats.days == 0) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(stats);
+            } else if (stats.totalMb > top.peek().totalMb) {
+                top.poll();
+                top.add(stats);
+            }
+        }
+
+        List<RangeStats> ordered = new ArrayList<>(top);
+        ordered.sort(Comparator.comparingDouble(RangeStats::totalMb).reversed());
+        return ordered.stream()
+                .map(stats -> toDTO(stats.userId, from, to, stats))
+                .toList();
+    }
+
+    @Override
+    public void recordDailyUsage(Long userId, LocalDate date, double mbUsed, int minutesUsed, int smsUsed, double roamingMb) {
+        if (!usageTimeSeriesStore.isEnabled()) {
+            return;
+        }
+        runAfterCommit(() -> {
+            try {
+                usageTimeSeriesStore.upsertDay(userId, (int) date.toEpochDay(), mbUsed, minutesUsed, smsUsed, roamingMb);
+            } catch (RuntimeException e) {
+                // Seri yeniden oluşturulabilir bir kopya; yazma hatası asıl işlemi bozmamalı
+                log.warn("Zaman serisi güncellenemedi (user {}, {}): {}", userId, date, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void recordDailyUsage(List<DailyValues> rows) {
+        if (!usageTimeSeriesStore.isEnabled() || rows.isEmpty()) {
+            return;
+        }
+        // Kullanıcı başına gün sırasına dizilir; aynı gün tekrar ederse son değer geçerlidir
+        Map<Long, TreeMap<Integer, DailyValues>> byUser = new HashMap<>();
+        for (DailyValues row : rows) {
+            byUser.computeIfAbsent(row.userId(), id -> new TreeMap<>()).put((int) row.date().toEpochDay(), row);
+        }
+        runAfterCommit(() -> byUser.forEach((userId, days) -> {
+            UsageSeries.Builder builder = new UsageSeries.Builder();
+            days.forEach((epochDay, row) ->
+                    builder.add(epochDay, row.mbUsed(), row.minutesUsed(), row.smsUsed(), row.roamingMb()));
+            try {
+                usageTimeSeriesStore.upsertDays(userId, builder.build());
+            } catch (RuntimeException e) {
+                log.warn("Zaman serisi güncellenemedi (user {}, {} gün): {}", userId, days.size(), e.getMessage());
+            }
+        }));
+    }
+
+    @Override
+    public int rebuild() {
+        requireEnabled();
+        long start = System.currentTimeMillis();
+        // Taramadan sonra gelen günlük kayıtları yeniden yazmada korunur
+        long startSequence = usageTimeSeriesStore.currentSequence();
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        Set<Long> rebuiltUsers = new HashSet<>();
+        long[] currentUser = {-1L};
+
+        usageRollupJdbcRepository.scanDaily(row -> {
+            if (row.userId() != currentUser[0]) {
+                if (!builder.isEmpty()) {
+                    usageTimeSeriesStore.replace(currentUser[0], builder.build(), startSequence);
+                    rebuiltUsers.add(currentUser[0]);
+                }
+                builder.reset();
+                currentUser[0] = row.userId();
+            }
+            builder.add((int) row.date().toEpochDay(), row.mbUsed(), row.minutesUsed(), row.smsUsed(), row.roamingMb());
+        });
+        if (!builder.isEmpty()) {
+            usageTimeSeriesStore.replace(currentUser[0], builder.build(), startSequence);
+            rebuiltUsers.add(currentUser[0]);
+        }
+
+        // usage_daily'de artık verisi olmayan kullanıcıların dosyaları silinir
+        int removed = 0;
+        for (Long userId : usageTimeSeriesStore.listUserIds()) {
+            if (!rebuiltUsers.contains(userId)) {
+                usageTimeSeriesStore.replace(userId, UsageSeries.empty(), startSequence);
+                removed++;
+            }
+        }
+
+        log.info("Kullanım zaman serileri yeniden oluşturuldu: {} kullanıcı, {} silinen, {} ms",
+                rebuiltUsers.size(), removed, System.currentTimeMillis() - start);
+        return rebuiltUsers.size();
+    }
+
+    @Override
+    public void refresh(Collection<Long> userIds, LocalDate from, LocalDate to) {
+        if (!usageTimeSeriesStore.isEnabled() || userIds.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Long> ids = new ArrayList<>(userIds);
+        // Günler mutlak değerleriyle günlüğe eklenir; dosyanın geri kalanı yeniden yazılmaz
+        for (int i = 0; i < ids.size(); i += REFRESH_BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(i + REFRESH_BATCH_SIZE, ids.size()));
+            UsageSeries.Builder builder = new UsageSeries.Builder();
+            long[] currentUser = {-1L};
+            usageRollupJdbcRepository.scanDaily(batch, from, to, row -> {
+                if (row.userId() != currentUser[0]) {
+                    if (!builder.isEmpty()) {
+                        usageTimeSeriesStore.upsertDays(currentUser[0], builder.build());
+                    }
+                    builder.reset();
+                    currentUser[0] = row.userId();
+                }
+                builder.add((int) row.date().toEpochDay(), row.mbUsed(), row.minutesUsed(), row.smsUsed(), row.roamingMb());
+            });
+            if (!builder.isEmpty()) {
+                usageTimeSeriesStore.upsertDays(currentUser[0], builder.build());
+            }
+        }
+        log.info("Kullanım zaman serileri güncellendi: {} kullanıcı, {} - {}, {} ms",
+                ids.size(), from, to, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Depo etkin ve boşsa ilk açılışta usage_daily'den doldurulur
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeStore() {
+        if (usageTimeSeriesStore.isEnabled() && usageTimeSeriesStore.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    private RangeStats scanUser(Long userId, int fromDay, int toDay) {
+        RangeStats stats = new RangeStats(userId);
+        UsageSeries series = usageTimeSeriesStore.readRange(userId, fromDay, toDay);
+        for (int i = 0; i < series.size(); i++) {
+            stats.add(series, i);
+        }
+        return stats;
+    }
+
+    private UsageRangeStatsDTO toDTO(Long userId, LocalDate from, LocalDate to, RangeStats stats) {
+        int daysCount = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        boolean hasData = stats.days > 0;
+        return UsageRangeStatsDTO.builder()
+                .userId(userId)
+                .startDate(from)
+                .endDate(to)
+                .daysCount(daysCount)
+                .totalDataGB(stats.totalMb / 1024.0)
+                .totalVoiceMinutes((int) stats.totalMinutes)
+                .totalSMSCount((int) stats.totalSms)
+                .totalRoamingGB(stats.totalRoamingMb / 1024.0)
+                .avgDailyDataGB(stats.totalMb / 1024.0 / daysCount)
+                .peakDataDate(hasData ? LocalDate.ofEpochDay(stats.peakDataDay) : null)
+                .peakDataGB(hasData ? stats.peakMb / 1024.0 : null)
+                .peakVoiceDate(hasData ? LocalDate.ofEpochDay(stats.peakVoiceDay) : null)
+                .peakVoiceMinutes(hasData ? stats.peakMinutes : null)
+                .build();
+    }
+
+    /**
+     * Rollback olan artışlar seriye yansımasın diye yazma commit sonrasına bırakılır
+     */
+    private static void runAfterCommit(Runnable write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    private void requireEnabled() {
+        if (!usageTimeSeriesStore.isEnabled()) {
+            throw new BusinessLogicException("Zaman serisi deposu etkin değil (usage.timeseries.dir)");
+        }
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BusinessLogicException("Başlangıç tarihi bitiş tarihinden sonra olamaz");
+        }
+    }
+
+    /**
+     * Tek geçişte toplanan aralık toplamları; tepe değerlerde ilk en büyük gün tutulur
+     */
+    private static final class RangeStats {
+
+        private final long userId;
+        private int days;
+        private double totalMb;
+        private long totalMinutes;
+        private long totalSms;
+        private double totalRoamingMb;
+        private double peakMb;
+        private int peakMinutes;
+        private long peakDataDay;
+        private long peakVoiceDay;
+
+        RangeStats(long userId) {
+            this.userId = userId;
+        }
+
+        void add(UsageSeries series, int index) {
+            days++;
+            double mb = series.mbUsed(index);
+            int minutes = series.minutesUsed(index);
+            totalMb += mb;
+            totalMinutes += minutes;
+            totalSms += series.smsUsed(index);
+            totalRoamingMb += series.roamingMb(index);
+            if (days == 1 || mb > peakMb) {
+                peakMb = mb;
+                peakDataDay = series.epochDay(index);
+            }
+            if (days == 1 || minutes > peakMinutes) {
+                peakMinutes = minutes;
+                peakVoiceDay = series.epochDay(index);
+            }
+        }
+
+        double totalMb() {
+            return totalMb;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.turkcellcase4.billing.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Bir kullanıcının günlük kullanım geçmişi; tarih sırasına göre primitive kolonlar.
+ * Tarihler epoch günü olarak tutulur, null değerler 0 kabul edilir.
+ */
+public final class UsageSeries {
+
+    private final int size;
+    private final int[] epochDays;
+    private final double[] mbUsed;
+    private final int[] minutesUsed;
+    private final int[] smsUsed;
+    private final double[] roamingMb;
+
+    public UsageSeries(int size, int[] epochDays, double[] mbUsed, int[] minutesUsed, int[] smsUsed, double[] roamingMb) {
+        this.size = size;
+        this.epochDays = epochDays;
+        this.mbUsed = mbUsed;
+        this.minutesUsed = minutesUsed;
+        this.smsUsed = smsUsed;
+        this.roamingMb = roamingMb;
+    }
+
+    public static UsageSeries empty() {
+        return new UsageSeries(0, new int[0], new double[0], new int[0], new int[0], new double[0]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public double mbUsed(int index) {
+        return mbUsed[index];
+    }
+
+    public int minutesUsed(int index) {
+        return minutesUsed[index];
+    }
+
+    public int smsUsed(int index) {
+        return smsUsed[index];
+    }
+
+    public double roamingMb(int index) {
+        return roamingMb[index];
+    }
+
+    /**
+     * epochDay'e eşit ya da büyük ilk satırın indeksi
+     */
+    public int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * İki sıralı seriyi birleştirir; aynı günde patch değerleri geçerlidir
+     */
+    public UsageSeries merge(UsageSeries patch) {
+        if (patch.size == 0) {
+            return this;
+        }
+        if (size == 0) {
+            return patch;
+        }
+        Builder builder = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < patch.size) {
+            if (j == patch.size || (i < size && epochDays[i] < patch.epochDays[j])) {
+                builder.add(epochDays[i], mbUsed[i], minutesUsed[i], smsUsed[i], roamingMb[i]);
+                i++;
+            } else {
+                if (i < size && epochDays[i] == patch.epochDays[j]) {
+                    i++;
+                }
+                builder.add(patch.epochDays[j], patch.mbUsed[j], patch.minutesUsed[j], patch.smsUsed[j], patch.roamingMb[j]);
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tarih sırasıyla gelen satırlardan seri kurmak için büyüyen tampon
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] epochDays = new int[64];
+        private double[] mbUsed = new double[64];
+        private int[] minutesUsed = new int[64];
+        private int[] smsUsed = new int[64];
+        private double[] roamingMb = new double[64];
+
+        public void add(int epochDay, double mb, int minutes, int sms, double roaming) {
+            if (size == epochDays.length) {
+                int capacity = size * 2;
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                mbUsed = Arrays.copyOf(mbUsed, capacity);
+                minutesUsed = Arrays.copyOf(minutesUsed, capacity);
+                smsUsed = Arrays.copyOf(smsUsed, capacity);
+                roamingMb = Arrays.copyOf(roamingMb, capacity);
+            }
+            epochDays[size] = epochDay;
+            mbUsed[size] = mb;
+            minutesUsed[size] = minutes;
+            smsUsed[size] = sms;
+            roamingMb[size] = roaming;
+            size++;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public UsageSeries build() {
+            // Tampon reset sonrası yeniden kullanıldığı için kolonlar kopyalanır
+            return new UsageSeries(size,
+                    Arrays.copyOf(epochDays, size),
+                    Arrays.copyOf(mbUsed, size),
+                    Arrays.copyOf(minutesUsed, size),
+                    Arrays.copyOf(smsUsed, size),
+                    Arrays.copyOf(roamingMb, size));
+        }
+
+        public void reset() {
+            size = 0;
+        }
+    }
+}
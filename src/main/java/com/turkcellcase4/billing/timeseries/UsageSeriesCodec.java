@@ -0,0 +1,226 @@
+package com.turkcellcase4.billing.timeseries;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * UsageSeries için kolon bazlı sıkıştırma.
+ * <ul>
+ *   <li>Tarihler: delta-of-delta, zigzag varint</li>
+ *   <li>double kolonlar: önceki değerle XOR, baştaki ve sondaki sıfır byte'lar atılır</li>
+ *   <li>int kolonlar: önceki değerden fark, zigzag varint</li>
+ * </ul>
+ * Başlıkta her kolonun ofseti tutulur; okuma sırasında yalnızca gereken kolon ve satır sayısı kadar çözülür.
+ */
+public final class UsageSeriesCodec {
+
+    static final int MAGIC = 0x55545331; // "UTS1"
+    private static final int COLUMN_COUNT = 5;
+    private static final int HEADER_SIZE = 4 + 4 + 4 * COLUMN_COUNT;
+
+    private UsageSeriesCodec() {
+    }
+
+    public static byte[] encode(UsageSeries series) {
+        int n = series.size();
+        ByteSink days = new ByteSink(n * 2 + 8);
+        ByteSink mb = new ByteSink(n * 4 + 8);
+        ByteSink minutes = new ByteSink(n * 2 + 8);
+        ByteSink sms = new ByteSink(n * 2 + 8);
+        ByteSink roaming = new ByteSink(n * 2 + 8);
+
+        int previousDay = 0;
+        int previousDelta = 0;
+        long previousMb = 0;
+        long previousRoaming = 0;
+        int previousMinutes = 0;
+        int previousSms = 0;
+        for (int i = 0; i < n; i++) {
+            int day = series.epochDay(i);
+            int delta = day - previousDay;
+            days.writeZigZag(i == 0 ? day : delta - previousDelta);
+            previousDelta = i == 0 ? 0 : delta;
+            previousDay = day;
+
+            previousMb = mb.writeXor(Double.doubleToRawLongBits(series.mbUsed(i)), previousMb);
+            previousRoaming = roaming.writeXor(Double.doubleToRawLongBits(series.roamingMb(i)), previousRoaming);
+
+            minutes.writeZigZag(series.minutesUsed(i) - previousMinutes);
+            previousMinutes = series.minutesUsed(i);
+            sms.writeZigZag(series.smsUsed(i) - previousSms);
+            previousSms = series.smsUsed(i);
+        }
+
+        ByteSink[] columns = {days, mb, minutes, sms, roaming};
+        int total = HEADER_SIZE;
+        for (ByteSink column : columns) {
+            total += column.size;
+        }
+        ByteBuffer out = ByteBuffer.allocate(total);
+        out.putInt(MAGIC).putInt(n);
+        int offset = HEADER_SIZE;
+        for (ByteSink column : columns) {
+            out.putInt(offset);
+            offset += column.size;
+        }
+        for (ByteSink column : columns) {
+            out.put(column.bytes, 0, column.size);
+        }
+        return out.array();
+    }
+
+    public static UsageSeries decode(ByteBuffer buffer) {
+        return decodeRange(buffer, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Yalnızca [fromEpochDay, toEpochDay] aralığındaki satırları çözer.
+     * Tarih kolonu baştan okunur; diğer kolonlar aralığın sonuna kadar çözülüp durur.
+     */
+    public static UsageSeries decodeRange(ByteBuffer buffer, int fromEpochDay, int toEpochDay) {
+        ByteBuffer in = buffer.duplicate();
+        if (in.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Geçersiz zaman serisi dosyası");
+        }
+        int n = in.getInt(4);
+        int[] offsets = new int[COLUMN_COUNT];
+        for (int c = 0; c < COLUMN_COUNT; c++) {
+            offsets[c] = in.getInt(8 + 4 * c);
+        }
+
+        int[] allDays = new int[n];
+        in.position(offsets[0]);
+        int day = 0;
+        int delta = 0;
+        int from = -1;
+        int to = n;
+        for (int i = 0; i < n; i++) {
+            int value = readZigZag(in);
+            if (i == 0) {
+                day = value;
+            } else {
+                delta = i == 1 ? value : delta + value;
+                day += delta;
+            }
+            allDays[i] = day;
+            if (from < 0 && day >= fromEpochDay) {
+                from = i;
+            }
+            if (day > toEpochDay) {
+                to = i;
+                break;
+            }
+        }
+        if (from < 0 || from >= to) {
+            return UsageSeries.empty();
+        }
+
+        int count = to - from;
+        double[] mb = decodeDoubles(in, offsets[1], from, to);
+        int[] minutes = decodeInts(in, offsets[2], from, to);
+        int[] sms = decodeInts(in, offsets[3], from, to);
+        double[] roaming = decodeDoubles(in, offsets[4], from, to);
+        return new UsageSeries(count, Arrays.copyOfRange(allDays, from, to), mb, minutes, sms, roaming);
+    }
+
+    private static double[] decodeDoubles(ByteBuffer in, int offset, int from, int to) {
+        double[] values = new double[to - from];
+        in.position(offset);
+        long previous = 0;
+        for (int i = 0; i < to; i++) {
+            previous = readXor(in, previous);
+            if (i >= from) {
+                values[i - from] = Double.longBitsToDouble(previous);
+            }
+        }
+        return values;
+    }
+
+    private static int[] decodeInts(ByteBuffer in, int offset, int from, int to) {
+        int[] values = new int[to - from];
+        in.position(offset);
+        int previous = 0;
+        for (int i = 0; i < to; i++) {
+            previous += readZigZag(in);
+            if (i >= from) {
+                values[i - from] = previous;
+            }
+        }
+        return values;
+    }
+
+    private static int readZigZag(ByteBuffer in) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (result >>> 1) ^ -(result & 1);
+    }
+
+    private static long readXor(ByteBuffer in, long previous) {
+        int header = in.get() & 0xFF;
+        if (header == 0) {
+            return previous;
+        }
+        int leadingBytes = (header - 1) >>> 3;
+        int trailingBytes = (header - 1) & 7;
+        int length = 8 - leadingBytes - trailingBytes;
+        long xor = 0;
+        for (int i = 0; i < length; i++) {
+            xor = (xor << 8) | (in.get() & 0xFF);
+        }
+        return previous ^ (xor << (trailingBytes * 8));
+    }
+
+    /**
+     * Büyüyen byte tamponu
+     */
+    private static final class ByteSink {
+
+        private byte[] bytes;
+        private int size;
+
+        ByteSink(int capacity) {
+            this.bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeZigZag(int value) {
+            int zigzag = (value << 1) ^ (value >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                write((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            write(zigzag);
+        }
+
+        /**
+         * Değeri öncekiyle XOR'lar; değişmeyen değer tek byte (0) yer kaplar. Yazılan değeri döner.
+         */
+        long writeXor(long bits, long previous) {
+            long xor = bits ^ previous;
+            if (xor == 0) {
+                write(0);
+                return bits;
+            }
+            int leadingBytes = Long.numberOfLeadingZeros(xor) >>> 3;
+            int trailingBytes = Long.numberOfTrailingZeros(xor) >>> 3;
+            write(((leadingBytes << 3) | trailingBytes) + 1);
+            long payload = xor >>> (trailingBytes * 8);
+            for (int i = 8 - leadingBytes - trailingBytes - 1; i >= 0; i--) {
+                write((int) (payload >>> (i * 8)));
+            }
+            return bits;
+        }
+
+        private void write(int b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) b;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.turkcellcase4.billing.timeseries;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Kullanıcı başına sıkıştırılmış günlük kullanım serilerini tutar.
+ * <ul>
+ *   <li>Ana dosya (.uts): sıkıştırılmış seri; geçici dosya + atomik taşıma ile yazılır,
+ *   okumalar memory-mapped yapılır</li>
+ *   <li>Günlük dosyası (.utl): tek gün güncellemelerinin sabit boyutlu kayıtları; yazma yalnızca sona ekler</li>
+ * </ul>
+ * Okumalar ana seriyi günlükteki kayıtlarla birleştirir. Günlük compact-after kayda ulaşınca ana dosyaya
+ * katlanır; böylece tek günlük yazma tüm geçmişi yeniden yazmaz.
+ */
+@Component
+@Slf4j
+public class UsageTimeSeriesStore {
+
+    private static final String EXTENSION = ".uts";
+    private static final String LOG_EXTENSION = ".utl";
+    private static final int LOCK_STRIPES = 64;
+    // sequence(8) + gün(4) + mb(8) + dakika(4) + sms(4) + roaming(8)
+    static final int LOG_RECORD_SIZE = 36;
+
+    private final Path directory;
+    private final int compactAfter;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Yeniden başlatmalar arasında da artan kalsın diye zamandan başlatılır
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    public UsageTimeSeriesStore(@Value("${usage.timeseries.dir:}") String dir,
+                                @Value("${usage.timeseries.compact-after:256}") int compactAfter) {
+        this.directory = dir == null || dir.isBlank() ? null : Paths.get(dir);
+        this.compactAfter = Math.max(1, compactAfter);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Zaman serisi dizini oluşturulamadı: " + directory, e);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public boolean isEmpty() {
+        if (directory == null) {
+            return true;
+        }
+        try (Stream<Path> shards = Files.list(directory)) {
+            return shards.findAny().isEmpty();
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Şu ana kadar verilen son günlük sıra numarası; replace ile birlikte kullanılır
+     */
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    public UsageSeries read(Long userId) {
+        return readRange(userId, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * [fromEpochDay, toEpochDay] aralığını ana dosya ve günlükten birleştirerek okur
+     */
+    public UsageSeries readRange(Long userId, int fromEpochDay, int toEpochDay) {
+        // Günlük önce okunur: araya bir sıkıştırma girerse kayıtlar yeni ana dosyada da bulunur
+        UsageSeries patch = readLog(userId, Long.MIN_VALUE, fromEpochDay, toEpochDay);
+        ByteBuffer buffer = map(fileFor(userId));
+        UsageSeries base = buffer == null ? UsageSeries.empty() : UsageSeriesCodec.decodeRange(buffer, fromEpochDay, toEpochDay);
+        return base.merge(patch);
+    }
+
+    /**
+     * Tek bir günün mutlak değerlerini günlüğe ekler
+     */
+    public void upsertDay(Long userId, int epochDay, double mb, int minutes, int sms, double roaming) {
+        upsertDays(userId, new UsageSeries(1, new int[]{epochDay}, new double[]{mb},
+                new int[]{minutes}, new int[]{sms}, new double[]{roaming}));
+    }
+
+    /**
+     * Birden çok günü tek yazmayla günlüğe ekler; günlük eşiği aşarsa ana dosyaya katlanır
+     */
+    public void upsertDays(Long userId, UsageSeries days) {
+        if (days.size() == 0) {
+            return;
+        }
+        Path logFile = logFileFor(userId);
+        synchronized (lockFor(userId)) {
+            try {
+                Files.createDirectories(logFile.getParent());
+                ByteBuffer records = ByteBuffer.allocate(days.size() * LOG_RECORD_SIZE);
+                for (int i = 0; i < days.size(); i++) {
+                    records.putLong(sequence.incrementAndGet())
+                            .putInt(days.epochDay(i))
+                            .putDouble(days.mbUsed(i))
+                            .putInt(days.minutesUsed(i))
+                            .putInt(days.smsUsed(i))
+                            .putDouble(days.roamingMb(i));
+                }
+                records.flip();
+                long recordCount;
+                try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    // Yarım kalmış son kayıt (ör. çökme) atılır ki sonraki kayıtlar hizalı kalsın
+                    long position = channel.size() - channel.size() % LOG_RECORD_SIZE;
+                    channel.truncate(position);
+                    channel.position(position);
+                    while (records.hasRemaining()) {
+                        channel.write(records);
+                    }
+                    recordCount = channel.size() / LOG_RECORD_SIZE;
+                }
+                if (recordCount >= compactAfter) {
+                    compact(userId, Long.MIN_VALUE, UsageSeries.empty(), false);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Zaman serisi günlüğü yazılamadı: " + logFile, e);
+            }
+        }
+    }
+
+    /**
+     * Kullanıcının serisini verilen seriyle değiştirir. Sıra numarası keepAfterSequence'tan büyük günlük
+     * kayıtları (taramadan sonra gelen güncellemeler) korunur; sonuç boşsa dosyalar silinir.
+     */
+    public void replace(Long userId, UsageSeries series, long keepAfterSequence) {
+        synchronized (lockFor(userId)) {
+            try {
+                compact(userId, keepAfterSequence, series, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Zaman serisi yazılamadı: " + fileFor(userId), e);
+            }
+        }
+    }
+
+    /**
+     * Serisi bulunan tüm kullanıcıların ID'leri
+     */
+    public List<Long> listUserIds() {
+        Set<Long> userIds = new LinkedHashSet<>();
+        if (directory == null) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.map(path -> path.getFileName().toString())
+                    .forEach(name -> {
+                        if (name.endsWith(EXTENSION)) {
+                            userIds.add(Long.parseLong(name.substring(0, name.length() - EXTENSION.length())));
+                        } else if (name.endsWith(LOG_EXTENSION)) {
+                            userIds.add(Long.parseLong(name.substring(0, name.length() - LOG_EXTENSION.length())));
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Zaman serisi dizini listelenemedi: {}", e.getMessage());
+        }
+        return new ArrayList<>(userIds);
+    }
+
+    /**
+     * Günlüğü ana dosyaya katlar. replaceBase ise ana dosya yerine verilen seri temel alınır.
+     * Çağıran kullanıcının kilidini tutmalıdır.
+     */
+    private void compact(Long userId, long keepAfterSequence, UsageSeries series, boolean replaceBase) throws IOException {
+        Path file = fileFor(userId);
+        Path logFile = logFileFor(userId);
+        UsageSeries base = replaceBase ? series : readBase(file);
+        UsageSeries merged = base.merge(readLog(userId, keepAfterSequence, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        if (merged.size() == 0) {
+            Files.deleteIfExists(file);
+        } else {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), userId + "-", ".tmp");
+            Files.write(tmp, UsageSeriesCodec.encode(merged));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        // Ana dosya yayınlandıktan sonra silinir; arada okuyan günlüğü iki kez uygular, sonuç değişmez
+        Files.deleteIfExists(logFile);
+    }
+
+    private UsageSeries readBase(Path file) {
+        ByteBuffer buffer = map(file);
+        return buffer == null ? UsageSeries.empty() : UsageSeriesCodec.decode(buffer);
+    }
+
+    /**
+     * Günlükteki aralık içi kayıtları gün sırasına dizer; aynı gün için en son kayıt geçerlidir
+     */
+    private UsageSeries readLog(Long userId, long afterSequence, int fromEpochDay, int toEpochDay) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(logFileFor(userId));
+        } catch (NoSuchFileException e) {
+            return UsageSeries.empty();
+        } catch (IOException e) {
+            log.warn("Zaman serisi günlüğü okunamadı (user {}): {}", userId, e.getMessage());
+            return UsageSeries.empty();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        Map<Integer, Integer> latest = new TreeMap<>();
+        int records = bytes.length / LOG_RECORD_SIZE;
+        for (int i = 0; i < records; i++) {
+            int offset = i * LOG_RECORD_SIZE;
+            int day = in.getInt(offset + 8);
+            if (in.getLong(offset) > afterSequence && day >= fromEpochDay && day <= toEpochDay) {
+                latest.put(day, offset);
+            }
+        }
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        for (Map.Entry<Integer, Integer> entry : latest.entrySet()) {
+            int offset = entry.getValue();
+            builder.add(entry.getKey(), in.getDouble(offset + 12), in.getInt(offset + 20),
+                    in.getInt(offset + 24), in.getDouble(offset + 28));
+        }
+        return builder.build();
+    }
+
+    private ByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return buffer;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Zaman serisi dosyası okunamadı ({}): {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path fileFor(Long userId) {
+        return shardFor(userId).resolve(userId + EXTENSION);
+    }
+
+    private Path logFileFor(Long userId) {
+        return shardFor(userId).resolve(userId + LOG_EXTENSION);
+    }
+
+    private Path shardFor(Long userId) {
+        if (directory == null) {
+            throw new IllegalStateException("Zaman serisi deposu yapılandırılmamış (usage.timeseries.dir)");
+        }
+        // Tek dizinde milyonlarca dosya birikmesin diye 256 alt dizine dağıtılır
+        return directory.resolve(String.format("%02x", userId & 0xFF));
+    }
+
+    private Object lockFor(Long userId) {
+        return locks[(int) Math.floorMod(userId, (long) LOCK_STRIPES)];
+    }
+}
@@ -1,5 +1,6 @@
 package com.turkcellcase4.catalog.dto;
 
+import com.turkcellcase4.common.enums.OverageMode;
 import com.turkcellcase4.common.enums.PlanType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,4 +24,5 @@ public class PlanDTO {
     private BigDecimal overageGb;
     private BigDecimal overageMin;
     private BigDecimal overageSms;
+    private OverageMode overageMode;
 }
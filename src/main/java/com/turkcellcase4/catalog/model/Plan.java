@@ -1,6 +1,7 @@
 package com.turkcellcase4.catalog.model;
 
 import com.turkcellcase4.common.BaseEntity;
+import com.turkcellcase4.common.enums.OverageMode;
 import com.turkcellcase4.common.enums.PlanType;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -52,4 +53,9 @@ public class Plan extends BaseEntity {
     
     @Column(name = "overage_sms")
     private BigDecimal overageSms;
+    
+    // Fatura, simülasyon ve öneriler aynı biçimi kullanır; boşsa rating.overage-mode geçerlidir
+    @Enumerated(EnumType.STRING)
+    @Column(name = "overage_mode")
+    private OverageMode overageMode;
 }
@@ -0,0 +1,5 @@
+package com.turkcellcase4.common.enums;
+
+public enum IngestionTarget {
+    USERS, BILLS, USAGE_DAILY, CDR, USAGE_EVENTS
+}
@@ -0,0 +1,8 @@
+package com.turkcellcase4.common.enums;
+
+/**
+ * Aşım ücretlendirme biçimi: kesirli kullanım oranında (PRORATED) ya da başlanan her birim için (PER_STARTED_UNIT)
+ */
+public enum OverageMode {
+    PRORATED, PER_STARTED_UNIT
+}
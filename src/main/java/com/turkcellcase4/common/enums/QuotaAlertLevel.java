@@ -0,0 +1,5 @@
+package com.turkcellcase4.common.enums;
+
+public enum QuotaAlertLevel {
+    THRESHOLD_80, THRESHOLD_100, OVERAGE
+}
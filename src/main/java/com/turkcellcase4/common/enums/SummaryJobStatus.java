@@ -0,0 +1,5 @@
+package com.turkcellcase4.common.enums;
+
+public enum SummaryJobStatus {
+    PENDING, RUNNING, DONE, FAILED
+}
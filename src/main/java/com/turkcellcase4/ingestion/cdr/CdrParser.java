@@ -0,0 +1,191 @@
+package com.turkcellcase4.ingestion.cdr;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ham CDR satırlarını doğrudan byte tamponundan okuyup UsageAggregateMap'e toplar; satır başına nesne üretmez.
+ * <p>
+ * Satır formatı: {@code user_id,epoch_saniye,tip,miktar}
+ * <ul>
+ *   <li>tip: DATA / VOICE / SMS / ROAMING (ilk harf yeterli, büyük-küçük harf duyarsız)</li>
+ *   <li>miktar: DATA ve ROAMING için MB (en fazla 3 ondalık), VOICE için saniye, SMS için adet</li>
+ * </ul>
+ * Veri miktarları binde bir MB, ses saniye cinsinden toplanır. Thread-safe değildir.
+ */
+public final class CdrParser {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int MAX_DIGITS = 18;
+
+    private final long offsetSeconds;
+
+    private ByteBuffer buffer;
+    private int pos;
+    private int limit;
+    private long events;
+    private long rejected;
+
+    /**
+     * @param offsetSeconds olay zamanının güne çevrilmesinde kullanılan UTC farkı
+     */
+    public CdrParser(long offsetSeconds) {
+        this.offsetSeconds = offsetSeconds;
+    }
+
+    /**
+     * Tamponun position-limit aralığını ayrıştırır; aralık satır sınırında başlayıp bitmelidir.
+     *
+     * @param skipHeader dosyanın ilk parçasında sayısal olmayan ilk satır başlık kabul edilip atlanır
+     */
+    public void parse(ByteBuffer segment, UsageAggregateMap map, boolean skipHeader) {
+        this.buffer = segment;
+        this.pos = segment.position();
+        this.limit = segment.limit();
+        if (skipHeader && pos < limit && !isDigit(buffer.get(pos))) {
+            skipLine();
+        }
+
+        while (pos < limit) {
+            byte first = buffer.get(pos);
+            if (first == '\n' || first == '\r') {
+                pos++;
+                continue;
+            }
+            long userId = readUnsigned();
+            long timestamp = userId < 0 ? -1 : readUnsigned();
+            int metric = timestamp < 0 ? -1 : readMetric();
+            long amount = metric < 0 ? -1 : readAmount(metric == UsageAggregateMap.DATA || metric == UsageAggregateMap.ROAMING);
+            if (amount < 0) {
+                rejected++;
+                skipLine();
+                continue;
+            }
+
+            int epochDay = (int) Math.floorDiv(timestamp + offsetSeconds, SECONDS_PER_DAY);
+            if (!UsageAggregateMap.isValidKey(userId, epochDay)) {
+                rejected++;
+                continue;
+            }
+            map.add(UsageAggregateMap.key(userId, epochDay), metric, amount);
+            events++;
+        }
+    }
+
+    public long events() {
+        return events;
+    }
+
+    public long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Virgüle kadar pozitif tam sayı okur, virgülü tüketir; hatalıysa -1
+     */
+    private long readUnsigned() {
+        long value = 0;
+        int digits = 0;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == ',') {
+                pos++;
+                return digits == 0 ? -1 : value;
+            }
+            if (!isDigit(b) || ++digits > MAX_DIGITS) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+            pos++;
+        }
+        return -1;
+    }
+
+    private int readMetric() {
+        if (pos >= limit) {
+            return -1;
+        }
+        int metric = switch (buffer.get(pos) | 0x20) {
+            case 'd' -> UsageAggregateMap.DATA;
+            case 'v' -> UsageAggregateMap.VOICE;
+            case 's' -> UsageAggregateMap.SMS;
+            case 'r' -> UsageAggregateMap.ROAMING;
+            default -> -1;
+        };
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == ',') {
+                pos++;
+                return metric;
+            }
+            if (b == '\n') {
+                return -1;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /**
+     * Satır sonuna kadar miktarı okur ve satır sonunu tüketir.
+     * scaled ise 3 ondalığa kadar binde bir birimle, değilse ondalık kısım atılarak döner; hatalıysa -1.
+     */
+    private long readAmount(boolean scaled) {
+        long whole = 0;
+        long fraction = 0;
+        int wholeDigits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == '\n' || b == '\r') {
+                break;
+            }
+            pos++;
+            if (b == '.' && !inFraction) {
+                inFraction = true;
+            } else if (!isDigit(b)) {
+                return -1;
+            } else if (inFraction) {
+                if (++fractionDigits <= 3) {
+                    fraction = fraction * 10 + (b - '0');
+                }
+            } else {
+                if (++wholeDigits > MAX_DIGITS - 3) {
+                    return -1;
+                }
+                whole = whole * 10 + (b - '0');
+            }
+        }
+        if (wholeDigits == 0 && fractionDigits == 0) {
+            return -1;
+        }
+        consumeLineEnd();
+        if (!scaled) {
+            return whole;
+        }
+        for (int i = Math.min(fractionDigits, 3); i < 3; i++) {
+            fraction *= 10;
+        }
+        return whole * 1000 + fraction;
+    }
+
+    private void consumeLineEnd() {
+        if (pos < limit && buffer.get(pos) == '\r') {
+            pos++;
+        }
+        if (pos < limit && buffer.get(pos) == '\n') {
+            pos++;
+        }
+    }
+
+    private void skipLine() {
+        while (pos < limit && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        pos++;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,141 @@
+package com.turkcellcase4.ingestion.cdr;
+
+import java.util.Arrays;
+
+/**
+ * (kullanıcı, gün) anahtarlı, açık adreslemeli primitive toplam tablosu.
+ * Kutu nesnesi üretmez; her anahtar için dört long sayaç yan yana tutulur. Thread-safe değildir,
+ * her parser thread'i kendi tablosunu kullanır.
+ */
+public final class UsageAggregateMap {
+
+    public static final int DATA = 0;
+    public static final int VOICE = 1;
+    public static final int SMS = 2;
+    public static final int ROAMING = 3;
+    static final int METRICS = 4;
+
+    // epochDay 17 bit'e sığar (yıl 2328'e kadar); kalan bitler kullanıcı ID'si
+    private static final int DAY_BITS = 17;
+    private static final long DAY_MASK = (1L << DAY_BITS) - 1;
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+
+    public UsageAggregateMap(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public static long key(long userId, int epochDay) {
+        return (userId << DAY_BITS) | epochDay;
+    }
+
+    public static long userId(long key) {
+        return key >>> DAY_BITS;
+    }
+
+    public static int epochDay(long key) {
+        return (int) (key & DAY_MASK);
+    }
+
+    public static boolean isValidKey(long userId, int epochDay) {
+        return userId >= 0 && userId < (1L << (63 - DAY_BITS)) && epochDay >= 0 && epochDay <= DAY_MASK;
+    }
+
+    public void add(long key, int metric, long amount) {
+        int slot = slotFor(key);
+        values[slot * METRICS + metric] += amount;
+    }
+
+    /**
+     * Başka bir tablodaki tek girdiyi bu tabloya ekler
+     */
+    public void merge(long key, long data, long voice, long sms, long roaming) {
+        int base = slotFor(key) * METRICS;
+        values[base + DATA] += data;
+        values[base + VOICE] += voice;
+        values[base + SMS] += sms;
+        values[base + ROAMING] += roaming;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Slot doluysa anahtarını, boşsa -1 döner; forEach yerine indeksle dolaşmak için
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public long valueAt(int slot, int metric) {
+        return values[slot * METRICS + metric];
+    }
+
+    private int slotFor(long key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                return slot;
+            }
+            if (existing == EMPTY) {
+                if (size + 1 > keys.length >>> 1) {
+                    grow();
+                    return slotFor(key);
+                }
+                keys[slot] = key;
+                size++;
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = insertSlot(oldKeys[i]);
+                System.arraycopy(oldValues, i * METRICS, values, slot * METRICS, METRICS);
+            }
+        }
+    }
+
+    private int insertSlot(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new long[capacity * METRICS];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * Ardışık kullanıcı/gün anahtarları aynı bölgeye yığılmasın diye karıştırılır
+     */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,84 @@
+package com.turkcellcase4.ingestion.controller;
+
+import com.turkcellcase4.common.enums.IngestionFormat;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import com.turkcellcase4.common.exception.ValidationException;
+import com.turkcellcase4.ingestion.dto.CdrIngestionReportDTO;
+import com.turkcellcase4.ingestion.dto.IngestionReportDTO;
+import com.turkcellcase4.ingestion.service.CdrIngestionService;
+import com.turkcellcase4.ingestion.service.IngestionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/ingestion")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class IngestionController {
+
+    private final IngestionService ingestionService;
+    private final CdrIngestionService cdrIngestionService;
+
+    /**
+     * Yüklenen CSV/NDJSON dosyasını toplu olarak içeri alır; format verilmezse dosya uzantısından belirlenir
+     */
+    @PostMapping(value = "/{target}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<IngestionReportDTO> ingestUpload(
+            @PathVariable IngestionTarget target,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) IngestionFormat format) {
+        log.info("POST /ingestion/{} - Ingesting upload: {} ({} bytes)", target, file.getOriginalFilename(), file.getSize());
+        IngestionFormat resolved = format != null ? format : detectFormat(file.getOriginalFilename());
+        try (InputStream input = file.getInputStream()) {
+            IngestionReportDTO report = ingestionService.ingest(target, resolved, file.getOriginalFilename(), input);
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Yüklenen dosya okunamadı", e);
+        }
+    }
+
+    /**
+     * Sunucudaki ingestion.import-dir altında bulunan dosyayı içeri alır (büyük gece yüklemeleri için)
+     */
+    @PostMapping("/{target}/import")
+    public ResponseEntity<IngestionReportDTO> ingestServerFile(
+            @PathVariable IngestionTarget target,
+            @RequestParam String path,
+            @RequestParam(required = false) IngestionFormat format) {
+        log.info("POST /ingestion/{}/import - Ingesting server file: {}", target, path);
+        IngestionFormat resolved = format != null ? format : detectFormat(path);
+        IngestionReportDTO report = ingestionService.ingestFile(target, resolved, path);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Sunucudaki ham CDR dosyasını (user_id,epoch_saniye,tip,miktar) günlük toplamlara çevirip usage_daily'ye ekler
+     */
+    @PostMapping("/cdr/import")
+    public ResponseEntity<CdrIngestionReportDTO> ingestCdrFile(@RequestParam String path) {
+        log.info("POST /ingestion/cdr/import - Ingesting CDR file: {}", path);
+        CdrIngestionReportDTO report = cdrIngestionService.ingestFile(path);
+        return ResponseEntity.ok(report);
+    }
+
+    private static IngestionFormat detectFormat(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return IngestionFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return IngestionFormat.NDJSON;
+        }
+        throw new ValidationException("Dosya formatı belirlenemedi, format parametresi verin (CSV/NDJSON)");
+    }
+}
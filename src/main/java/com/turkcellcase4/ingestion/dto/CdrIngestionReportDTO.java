@@ -0,0 +1,39 @@
+package com.turkcellcase4.ingestion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CdrIngestionReportDTO {
+
+    private String fileName;
+    // Dosya içeriğinin SHA-256 özeti
+    private String fileHash;
+    private Long bytes;
+
+    private Long events;
+    private Long rejectedEvents;
+    // Üretilen (kullanıcı, gün) toplam sayısı
+    private Long aggregates;
+
+    private Integer shards;
+    private Integer loadedShards;
+    private Integer skippedShards;
+    private Integer failedShards;
+
+    private Long parseMs;
+    private Long mergeMs;
+    private Long loadMs;
+    private Long elapsedMs;
+    private Double eventsPerSecond;
+    private Double megabytesPerSecond;
+
+    private List<String> errors;
+}
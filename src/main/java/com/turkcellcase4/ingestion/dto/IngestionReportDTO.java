@@ -0,0 +1,40 @@
+package com.turkcellcase4.ingestion.dto;
+
+import com.turkcellcase4.common.enums.IngestionFormat;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionReportDTO {
+
+    private IngestionTarget target;
+    private IngestionFormat format;
+    private String fileName;
+    // Dosya içeriğinin SHA-256 özeti
+    private String fileHash;
+
+    private Long totalRows;
+    private Long loadedRows;
+    private Long rejectedRows;
+    private Long skippedRows;
+
+    private Integer chunkCount;
+    private Integer loadedChunks;
+    private Integer skippedChunks;
+    private Integer failedChunks;
+
+    private Long elapsedMs;
+    private Double rowsPerSecond;
+    private Double megabytesPerSecond;
+
+    // İlk hatalar; tamamı loglanır
+    private List<String> errors;
+}
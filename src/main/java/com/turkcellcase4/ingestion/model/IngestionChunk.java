@@ -0,0 +1,45 @@
+package com.turkcellcase4.ingestion.model;
+
+import com.turkcellcase4.common.BaseEntity;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Yüklenmiş bir veri parçasının kaydı; aynı içerik tekrar gönderildiğinde parça atlanır
+ */
+@Entity
+@Table(name = "ingestion_chunks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ingestion_chunks_hash", columnNames = {"target", "chunk_hash"}))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngestionChunk extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IngestionTarget target;
+
+    // Parça satırlarının SHA-256 özeti (hex)
+    @Column(name = "chunk_hash", nullable = false, length = 64)
+    private String chunkHash;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+}
@@ -0,0 +1,78 @@
+package com.turkcellcase4.ingestion.parser;
+
+import com.turkcellcase4.common.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Başlık satırına göre kolonları eşleyen CSV ayrıştırıcı.
+ * Çift tırnaklı alanlar ve tırnak kaçışı ("") desteklenir; satır içi yeni satır desteklenmez.
+ */
+public class CsvRecordParser implements RecordParser {
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    public CsvRecordParser(String headerLine) {
+        List<String> header = split(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    @Override
+    public IngestionRecord parse(String line) {
+        List<String> values = split(line);
+        if (values.size() > columns.size()) {
+            throw new ValidationException("Kolon sayısı başlıktan fazla: " + values.size());
+        }
+        return names -> {
+            for (String name : names) {
+                Integer index = columns.get(name);
+                if (index != null && index < values.size()) {
+                    String value = values.get(index).trim();
+                    if (!value.isEmpty()) {
+                        return value;
+                    }
+                }
+            }
+            return null;
+        };
+    }
+
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Kapanmamış tırnak");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,12 @@
+package com.turkcellcase4.ingestion.parser;
+
+/**
+ * Ayrıştırılmış tek bir kaynak satırı; alanlar isimle okunur
+ */
+public interface IngestionRecord {
+
+    /**
+     * Verilen isimlerden ilk dolu olanın değerini döner (eş anlamlı kolonlar için), yoksa null
+     */
+    String get(String... names);
+}
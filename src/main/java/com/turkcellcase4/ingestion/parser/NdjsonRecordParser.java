@@ -0,0 +1,43 @@
+package com.turkcellcase4.ingestion.parser;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcellcase4.common.exception.ValidationException;
+
+/**
+ * Her satırı tek bir JSON nesnesi olan (NDJSON) kaynaklar için ayrıştırıcı
+ */
+public class NdjsonRecordParser implements RecordParser {
+
+    private final ObjectMapper objectMapper;
+
+    public NdjsonRecordParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public IngestionRecord parse(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Geçersiz JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new ValidationException("Satır bir JSON nesnesi değil");
+        }
+        return names -> {
+            for (String name : names) {
+                JsonNode value = node.get(name);
+                if (value != null && !value.isNull()) {
+                    String text = value.asText().trim();
+                    if (!text.isEmpty()) {
+                        return text;
+                    }
+                }
+            }
+            return null;
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package com.turkcellcase4.ingestion.parser;
+
+/**
+ * Tek satırı IngestionRecord'a çevirir; örnekler thread-safe olmalıdır
+ */
+public interface RecordParser {
+
+    IngestionRecord parse(String line);
+}
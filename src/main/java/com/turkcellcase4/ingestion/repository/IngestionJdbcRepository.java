@@ -0,0 +1,206 @@
+package com.turkcellcase4.ingestion.repository;
+
+import com.turkcellcase4.billing.model.Bill;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Toplu yükleme sorguları. ID'ler sequence'tan blok halinde önceden alındığı için
+ * IDENTITY kolonlarına da JDBC batch ile yazılabilir.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IngestionJdbcRepository {
+
+    private static final String CLAIM_CHUNK = """
+            INSERT INTO ingestion_chunks (target, chunk_hash, file_name, chunk_index, row_count, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (target, chunk_hash) DO NOTHING
+            """;
+
+    private static final String ALLOCATE_IDS = "SELECT nextval(pg_get_serial_sequence(?, ?)) FROM generate_series(1, ?)";
+
+    private static final String UPSERT_USER = """
+            INSERT INTO users (user_id, name, current_plan_id, type, msisdn, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (user_id) DO UPDATE SET
+                name = EXCLUDED.name,
+                current_plan_id = EXCLUDED.current_plan_id,
+                type = EXCLUDED.type,
+                msisdn = EXCLUDED.msisdn,
+                updated_at = now()
+            """;
+
+    // Kesilmiş fatura güncellenmez: bill_id ya da (user_id, period_key) çakışan satır atlanır, yalnızca yazılan
+    // ID'ler döner. reWriteBatchedInserts açıkken batch satır sayıları bilinmediğinden diziler ve RETURNING kullanılır
+    private static final String INSERT_BILLS = """
+            INSERT INTO bill_headers (bill_id, user_id, period_start, period_end, issue_date, total_amount, currency,
+                                      period_key, created_at, updated_at)
+            SELECT b.bill_id, b.user_id, b.period_start, b.period_end, b.issue_date, b.total_amount, b.currency,
+                   b.period_key, now(), now()
+            FROM unnest(?::bigint[], ?::bigint[], ?::date[], ?::date[], ?::date[], ?::numeric[], ?::varchar[], ?::integer[])
+                 AS b(bill_id, user_id, period_start, period_end, issue_date, total_amount, currency, period_key)
+            ON CONFLICT DO NOTHING
+            RETURNING bill_id
+            """;
+
+    // Öncelik BillSummaryJobServiceImpl ile aynı: fatura dönemi (yyyyMM)
+    private static final String INSERT_SUMMARY_JOB = """
+            INSERT INTO bill_summary_jobs (bill_id, status, priority, attempts, created_at, updated_at)
+            VALUES (?, 'PENDING', ?, 0, now(), now())
+            ON CONFLICT (bill_id) DO NOTHING
+            """;
+
+    // Toplu yüklemede dosyadaki değer günün değeridir; mevcut değere eklenmez
+    private static final String UPSERT_USAGE = """
+            INSERT INTO usage_daily (user_id, date, mb_used, minutes_used, sms_used, roaming_mb, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (user_id, date) DO UPDATE SET
+                mb_used = EXCLUDED.mb_used,
+                minutes_used = EXCLUDED.minutes_used,
+                sms_used = EXCLUDED.sms_used,
+                roaming_mb = EXCLUDED.roaming_mb,
+                updated_at = now()
+            """;
+
+    // CDR toplamları olay artışıdır; mevcut günlük değere eklenir
+    private static final String ADD_USAGE = """
+            INSERT INTO usage_daily (user_id, date, mb_used, minutes_used, sms_used, roaming_mb, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, now(), now())
+            ON CONFLICT (user_id, date) DO UPDATE SET
+                mb_used = COALESCE(usage_daily.mb_used, 0) + EXCLUDED.mb_used,
+                minutes_used = COALESCE(usage_daily.minutes_used, 0) + EXCLUDED.minutes_used,
+                sms_used = COALESCE(usage_daily.sms_used, 0) + EXCLUDED.sms_used,
+                roaming_mb = COALESCE(usage_daily.roaming_mb, 0) + EXCLUDED.roaming_mb,
+                updated_at = now()
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Parçayı işlenmiş olarak işaretler; daha önce işlenmişse false döner.
+     * Veriyle aynı transaction'da çağrılır, böylece işaret yalnızca veri commit olursa kalır.
+     */
+    public boolean claimChunk(IngestionTarget target, String chunkHash, String fileName, int chunkIndex, int rowCount) {
+        return jdbcTemplate.update(CLAIM_CHUNK, target.name(), chunkHash, fileName, chunkIndex, rowCount) == 1;
+    }
+
+    /**
+     * Tablonun sequence'ından tek sorguda count adet ID ayırır
+     */
+    public long[] allocateIds(String table, String column, int count) {
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS, Long.class, table, column, count);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Dosyadan gelen açık ID'ler sonrasında sequence'ı en büyük ID'nin ötesine taşır.
+     * table ve column yalnızca koddaki sabitlerden gelir.
+     */
+    public void advanceSequence(String table, String column) {
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, ?), GREATEST((SELECT MAX(" + column
+                + ") FROM " + table + "), nextval(pg_get_serial_sequence(?, ?))))", Long.class, table, column, table, column);
+    }
+
+    public void upsertUsers(List<UserRow> rows) {
+        jdbcTemplate.batchUpdate(UPSERT_USER, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.userId());
+            ps.setString(2, row.name());
+            if (row.currentPlanId() != null) {
+                ps.setLong(3, row.currentPlanId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, row.type());
+            ps.setString(5, row.msisdn());
+        });
+    }
+
+    /**
+     * Faturaları tek sorguda yazar ve yazılan bill_id'leri döner; çakışan satırlar dönmez
+     */
+    public Set<Long> insertBills(List<BillRow> rows) {
+        int size = rows.size();
+        Long[] billIds = new Long[size];
+        Long[] userIds = new Long[size];
+        Date[] periodStarts = new Date[size];
+        Date[] periodEnds = new Date[size];
+        Date[] issueDates = new Date[size];
+        BigDecimal[] totalAmounts = new BigDecimal[size];
+        String[] currencies = new String[size];
+        Integer[] periodKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            BillRow row = rows.get(i);
+            billIds[i] = row.billId();
+            userIds[i] = row.userId();
+            periodStarts[i] = Date.valueOf(row.periodStart());
+            periodEnds[i] = Date.valueOf(row.periodEnd());
+            issueDates[i] = row.issueDate() != null ? Date.valueOf(row.issueDate()) : null;
+            totalAmounts[i] = row.totalAmount();
+            currencies[i] = row.currency();
+            periodKeys[i] = Bill.periodKeyOf(row.periodStart());
+        }
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_BILLS);
+            ps.setArray(1, connection.createArrayOf("bigint", billIds));
+            ps.setArray(2, connection.createArrayOf("bigint", userIds));
+            ps.setArray(3, connection.createArrayOf("date", periodStarts));
+            ps.setArray(4, connection.createArrayOf("date", periodEnds));
+            ps.setArray(5, connection.createArrayOf("date", issueDates));
+            ps.setArray(6, connection.createArrayOf("numeric", totalAmounts));
+            ps.setArray(7, connection.createArrayOf("varchar", currencies));
+            ps.setArray(8, connection.createArrayOf("integer", periodKeys));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    /**
+     * Yüklenen faturaların özet işlerini aynı transaction'da kuyruğa alır
+     */
+    public void insertSummaryJobs(List<BillRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SUMMARY_JOB, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.billId());
+            ps.setInt(2, Bill.periodKeyOf(row.periodStart()));
+        });
+    }
+
+    public void upsertUsage(List<UsageRow> rows) {
+        batchUsage(UPSERT_USAGE, rows);
+    }
+
+    public void addUsage(List<UsageRow> rows) {
+        batchUsage(ADD_USAGE, rows);
+    }
+
+    private void batchUsage(String sql, List<UsageRow> rows) {
+        jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.userId());
+            ps.setDate(2, Date.valueOf(row.date()));
+            ps.setDouble(3, row.mbUsed());
+            ps.setInt(4, row.minutesUsed());
+            ps.setInt(5, row.smsUsed());
+            ps.setDouble(6, row.roamingMb());
+        });
+    }
+
+    public record UserRow(Long userId, String name, Long currentPlanId, String type, String msisdn) {
+    }
+
+    public record BillRow(Long billId, long userId, LocalDate periodStart, LocalDate periodEnd, LocalDate issueDate,
+                          BigDecimal totalAmount, String currency) {
+    }
+
+    public record UsageRow(long userId, LocalDate date, double mbUsed, int minutesUsed, int smsUsed, double roamingMb) {
+    }
+}
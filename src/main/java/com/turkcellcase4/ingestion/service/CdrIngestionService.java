@@ -0,0 +1,12 @@
+package com.turkcellcase4.ingestion.service;
+
+import com.turkcellcase4.ingestion.dto.CdrIngestionReportDTO;
+
+public interface CdrIngestionService {
+
+    /**
+     * ingestion.import-dir altındaki ham CDR dosyasını (kullanıcı, gün) bazında toplayıp usage_daily'ye ekler.
+     * Aynı dosya tekrar gönderildiğinde yüklenmiş shard'lar atlanır.
+     */
+    CdrIngestionReportDTO ingestFile(String relativePath);
+}
@@ -0,0 +1,21 @@
+package com.turkcellcase4.ingestion.service;
+
+import com.turkcellcase4.common.enums.IngestionFormat;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import com.turkcellcase4.ingestion.dto.IngestionReportDTO;
+
+import java.io.InputStream;
+
+public interface IngestionService {
+
+    /**
+     * CSV ya da NDJSON kaynağı parçalara bölüp paralel ayrıştırır ve toplu yükler.
+     * Daha önce yüklenmiş parçalar atlanır; aynı dosya tekrar gönderilebilir.
+     */
+    IngestionReportDTO ingest(IngestionTarget target, IngestionFormat format, String fileName, InputStream input);
+
+    /**
+     * ingestion.import-dir altındaki bir dosyayı yükler
+     */
+    IngestionReportDTO ingestFile(IngestionTarget target, IngestionFormat format, String relativePath);
+}
@@ -0,0 +1,367 @@
+package com.turkcellcase4.ingestion.service.impl;
+
+import com.turkcellcase4.billing.service.LiveUsageService;
+import com.turkcellcase4.billing.service.UsageRollupService;
+import com.turkcellcase4.billing.service.UsageTimeSeriesService;
+import com.turkcellcase4.billing.timeseries.UsageTimeSeriesStore;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import com.turkcellcase4.ingestion.cdr.CdrParser;
+import com.turkcellcase4.ingestion.cdr.UsageAggregateMap;
+import com.turkcellcase4.ingestion.dto.CdrIngestionReportDTO;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository.UsageRow;
+import com.turkcellcase4.ingestion.service.CdrIngestionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class CdrIngestionServiceImpl implements CdrIngestionService {
+
+    // Thread'ler arasında iş dengelemesi için dosya bu boyuttan küçük satır hizalı parçalara bölünür
+    private static final long MAX_SEGMENT_BYTES = 64L << 20;
+    private static final long HASH_WINDOW_BYTES = 64L << 20;
+    private static final int SCAN_BUFFER_BYTES = 4096;
+
+    private final IngestionJdbcRepository ingestionJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportDirectory importDirectory;
+    private final UsageRollupService usageRollupService;
+    private final LiveUsageService liveUsageService;
+    private final UsageTimeSeriesService usageTimeSeriesService;
+    private final UsageTimeSeriesStore usageTimeSeriesStore;
+    private final int parallelism;
+    private final int shards;
+    private final int batchSize;
+    private final ZoneId zone;
+
+    public CdrIngestionServiceImpl(
+            IngestionJdbcRepository ingestionJdbcRepository,
+            TransactionTemplate transactionTemplate,
+            ImportDirectory importDirectory,
+            UsageRollupService usageRollupService,
+            LiveUsageService liveUsageService,
+            UsageTimeSeriesService usageTimeSeriesService,
+            UsageTimeSeriesStore usageTimeSeriesStore,
+            @Value("${ingestion.parallelism:4}") int parallelism,
+            @Value("${ingestion.cdr.shards:16}") int shards,
+            @Value("${ingestion.cdr.batch-size:5000}") int batchSize,
+            @Value("${ingestion.cdr.time-zone:Europe/Istanbul}") String timeZone) {
+        this.ingestionJdbcRepository = ingestionJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.importDirectory = importDirectory;
+        this.usageRollupService = usageRollupService;
+        this.liveUsageService = liveUsageService;
+        this.usageTimeSeriesService = usageTimeSeriesService;
+        this.usageTimeSeriesStore = usageTimeSeriesStore;
+        this.parallelism = parallelism;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.zone = ZoneId.of(timeZone);
+    }
+
+    @Override
+    public CdrIngestionReportDTO ingestFile(String relativePath) {
+        Path file = importDirectory.resolve(relativePath);
+        String fileName = file.getFileName().toString();
+        log.info("CDR ingestion started: {}", fileName);
+        long start = System.nanoTime();
+
+        // Saat dilimi kuralı sabit kabul edilir (Türkiye 2016'dan beri yaz saati uygulamıyor)
+        long offsetSeconds = zone.getRules().getOffset(Instant.now()).getTotalSeconds();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism + 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> segments = split(channel, size);
+            // Özet tek çekirdekte ayrıştırmayla eş zamanlı hesaplanır
+            Future<String> fileHash = executor.submit(() -> sha256(channel, size));
+
+            // 1) Her thread sıradaki parçayı alıp kendi tablosuna toplar
+            AtomicInteger nextSegment = new AtomicInteger();
+            List<Future<ParseResult>> parsers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                parsers.add(executor.submit(() -> parseSegments(channel, segments, nextSegment, offsetSeconds)));
+            }
+            List<ParseResult> parsed = getAll(parsers);
+            long parseEnd = System.nanoTime();
+
+            // 2) Thread tabloları kullanıcı ID'sine göre shard'lara birleştirilir; her shard bağımsız birleşir
+            List<UsageAggregateMap> workerMaps = parsed.stream().map(ParseResult::map).toList();
+            List<Future<UsageAggregateMap>> merges = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                int current = shard;
+                merges.add(executor.submit(() -> mergeShard(current, workerMaps)));
+            }
+            List<UsageAggregateMap> shardMaps = getAll(merges);
+            long mergeEnd = System.nanoTime();
+
+            // 3) Her shard kendi transaction'ında ve işaretiyle yüklenir
+            String hash = fileHash.get();
+            List<Future<ShardResult>> loads = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                int current = shard;
+                loads.add(executor.submit(() -> loadShard(hash, fileName, current, shardMaps.get(current))));
+            }
+            List<ShardResult> loaded = getAll(loads);
+            long loadEnd = System.nanoTime();
+
+            afterLoad(loaded);
+            return report(fileName, hash, size, parsed, loaded, start, parseEnd, mergeEnd, loadEnd);
+        } catch (IOException e) {
+            throw new UncheckedIOException("CDR dosyası okunamadı: " + relativePath, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessLogicException("CDR yüklemesi kesildi: " + fileName);
+        } catch (ExecutionException e) {
+            throw new BusinessLogicException("CDR yüklemesi başarısız: " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ParseResult parseSegments(FileChannel channel, List<long[]> segments, AtomicInteger nextSegment,
+                                      long offsetSeconds) throws IOException {
+        UsageAggregateMap map = new UsageAggregateMap(1 << 16);
+        CdrParser parser = new CdrParser(offsetSeconds);
+        int index;
+        while ((index = nextSegment.getAndIncrement()) < segments.size()) {
+            long[] segment = segments.get(index);
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, segment[0], segment[1] - segment[0]);
+            parser.parse(buffer, map, segment[0] == 0);
+        }
+        return new ParseResult(map, parser.events(), parser.rejected());
+    }
+
+    private UsageAggregateMap mergeShard(int shard, List<UsageAggregateMap> workerMaps) {
+        int expected = workerMaps.stream().mapToInt(UsageAggregateMap::size).sum() / shards;
+        UsageAggregateMap merged = new UsageAggregateMap(expected);
+        for (UsageAggregateMap map : workerMaps) {
+            for (int slot = 0; slot < map.capacity(); slot++) {
+                long key = map.keyAt(slot);
+                if (key < 0 || shardOf(UsageAggregateMap.userId(key)) != shard) {
+                    continue;
+                }
+                merged.merge(key,
+                        map.valueAt(slot, UsageAggregateMap.DATA),
+                        map.valueAt(slot, UsageAggregateMap.VOICE),
+                        map.valueAt(slot, UsageAggregateMap.SMS),
+                        map.valueAt(slot, UsageAggregateMap.ROAMING));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Shard işareti veriyle aynı transaction'da yazılır; tekrar gönderilen dosyada yüklenmiş shard'lar atlanır.
+     * İşaret shard sayısını da içerdiğinden ingestion.cdr.shards yarım kalmış bir dosyanın tekrarında değiştirilmemelidir.
+     */
+    private ShardResult loadShard(String fileHash, String fileName, int shard, UsageAggregateMap map) {
+        if (map.size() == 0) {
+            return new ShardResult(0, false, false, Integer.MAX_VALUE, Integer.MIN_VALUE, Set.of(), null);
+        }
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        List<UsageRow> rows = new ArrayList<>(map.size());
+        Set<Long> userIds = new HashSet<>();
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            long key = map.keyAt(slot);
+            if (key < 0) {
+                continue;
+            }
+            int epochDay = UsageAggregateMap.epochDay(key);
+            minDay = Math.min(minDay, epochDay);
+            maxDay = Math.max(maxDay, epochDay);
+            userIds.add(UsageAggregateMap.userId(key));
+            long voiceSeconds = map.valueAt(slot, UsageAggregateMap.VOICE);
+            rows.add(new UsageRow(UsageAggregateMap.userId(key), LocalDate.ofEpochDay(epochDay),
+                    map.valueAt(slot, UsageAggregateMap.DATA) / 1000.0,
+                    (int) ((voiceSeconds + 59) / 60),
+                    (int) map.valueAt(slot, UsageAggregateMap.SMS),
+                    map.valueAt(slot, UsageAggregateMap.ROAMING) / 1000.0));
+        }
+
+        String marker = sha256(fileHash + ":" + shard + "/" + shards);
+        try {
+            Boolean loaded = transactionTemplate.execute(status -> {
+                if (!ingestionJdbcRepository.claimChunk(IngestionTarget.CDR, marker, fileName, shard, rows.size())) {
+                    return false;
+                }
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    ingestionJdbcRepository.addUsage(rows.subList(from, Math.min(rows.size(), from + batchSize)));
+                }
+                return true;
+            });
+            if (Boolean.FALSE.equals(loaded)) {
+                log.debug("CDR shard {} of {} already ingested, skipping", shard, fileName);
+                return new ShardResult(0, true, false, minDay, maxDay, Set.of(), null);
+            }
+            return new ShardResult(rows.size(), false, false, minDay, maxDay, userIds, null);
+        } catch (DataAccessException e) {
+            // Olmayan kullanıcıya ait tek bir toplam tüm shard'ı geri alır
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("CDR shard {} of {} failed: {}", shard, fileName, message);
+            return new ShardResult(0, false, true, minDay, maxDay, Set.of(), "Shard " + shard + " yüklenemedi: " + message);
+        }
+    }
+
+    private void afterLoad(List<ShardResult> loaded) {
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        Set<Long> userIds = new HashSet<>();
+        for (ShardResult result : loaded) {
+            if (result.rows() > 0) {
+                minDay = Math.min(minDay, result.minDay());
+                maxDay = Math.max(maxDay, result.maxDay());
+                userIds.addAll(result.userIds());
+            }
+        }
+        if (minDay > maxDay) {
+            return;
+        }
+        // Yalnızca dosyanın kapsadığı aylar ve kullanıcılar yeniden hesaplanır
+        LocalDate from = LocalDate.ofEpochDay(minDay);
+        LocalDate to = LocalDate.ofEpochDay(maxDay);
+        usageRollupService.rebuildMonthlyRollup(from, to);
+        userIds.forEach(liveUsageService::invalidate);
+        if (usageTimeSeriesStore.isEnabled()) {
+            usageTimeSeriesService.refresh(userIds, from, to);
+        }
+    }
+
+    private CdrIngestionReportDTO report(String fileName, String fileHash, long bytes, List<ParseResult> parsed,
+                                         List<ShardResult> loaded, long start, long parseEnd, long mergeEnd, long loadEnd) {
+        long events = parsed.stream().mapToLong(ParseResult::events).sum();
+        long rejected = parsed.stream().mapToLong(ParseResult::rejected).sum();
+        List<String> errors = loaded.stream().map(ShardResult::error).filter(error -> error != null).toList();
+        long parseNanos = Math.max(parseEnd - start, 1);
+        long elapsedNanos = loadEnd - start;
+
+        log.info("CDR ingestion finished: {} {} events ({} rejected) in {} ms, parse {} events/s",
+                fileName, events, rejected, elapsedNanos / 1_000_000, Math.round(events * 1e9 / parseNanos));
+        return CdrIngestionReportDTO.builder()
+                .fileName(fileName)
+                .fileHash(fileHash)
+                .bytes(bytes)
+                .events(events)
+                .rejectedEvents(rejected)
+                .aggregates(loaded.stream().mapToLong(ShardResult::rows).sum())
+                .shards(shards)
+                .loadedShards((int) loaded.stream().filter(result -> result.rows() > 0).count())
+                .skippedShards((int) loaded.stream().filter(ShardResult::skipped).count())
+                .failedShards((int) loaded.stream().filter(ShardResult::failed).count())
+                .parseMs(parseNanos / 1_000_000)
+                .mergeMs((mergeEnd - parseEnd) / 1_000_000)
+                .loadMs((loadEnd - mergeEnd) / 1_000_000)
+                .elapsedMs(elapsedNanos / 1_000_000)
+                .eventsPerSecond(events * 1e9 / parseNanos)
+                .megabytesPerSecond(bytes / 1024.0 / 1024.0 * 1e9 / parseNanos)
+                .errors(errors)
+                .build();
+    }
+
+    private int shardOf(long userId) {
+        return (int) Math.floorMod(userId, (long) shards);
+    }
+
+    /**
+     * Dosyayı satır başlarına hizalı [başlangıç, bitiş) parçalarına böler
+     */
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        int count = (int) Math.max(parallelism * 4L, (size + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+        if (size < MAX_SEGMENT_BYTES / 16) {
+            count = 1;
+        }
+        List<long[]> segments = new ArrayList<>(count);
+        long segmentStart = 0;
+        for (int i = 1; i <= count && segmentStart < size; i++) {
+            long segmentEnd = i == count ? size : nextLineStart(channel, size * i / count, size);
+            if (segmentEnd > segmentStart) {
+                segments.add(new long[]{segmentStart, segmentEnd});
+                segmentStart = segmentEnd;
+            }
+        }
+        return segments;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long offset = Math.max(0, position - 1);
+        while (offset < size) {
+            window.clear();
+            int read = channel.read(window, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static String sha256(FileChannel channel, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        for (long offset = 0; offset < size; offset += HASH_WINDOW_BYTES) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(HASH_WINDOW_BYTES, size - offset)));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256(String value) {
+        return HexFormat.of().formatHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> List<T> getAll(List<Future<T>> futures) throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private record ParseResult(UsageAggregateMap map, long events, long rejected) {
+    }
+
+    private record ShardResult(int rows, boolean skipped, boolean failed, int minDay, int maxDay, Set<Long> userIds,
+                               String error) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.turkcellcase4.ingestion.service.impl;
+
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.common.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Sunucu tarafı yüklemelerin okunabileceği dizin (ingestion.import-dir); dizin dışına çıkan yollar reddedilir
+ */
+@Component
+class ImportDirectory {
+
+    private final Path root;
+
+    ImportDirectory(@Value("${ingestion.import-dir:}") String importDir) {
+        this.root = importDir == null || importDir.isBlank() ? null : Paths.get(importDir).toAbsolutePath().normalize();
+    }
+
+    Path resolve(String relativePath) {
+        if (root == null) {
+            throw new BusinessLogicException("Sunucu dosyasından yükleme kapalı (ingestion.import-dir)");
+        }
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root)) {
+            throw new ValidationException("Dosya yolu yükleme dizini dışında: " + relativePath);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Dosya bulunamadı: " + relativePath);
+        }
+        return file;
+    }
+}
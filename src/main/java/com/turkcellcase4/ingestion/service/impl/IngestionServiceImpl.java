@@ -0,0 +1,592 @@
+package com.turkcellcase4.ingestion.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcellcase4.billing.service.LiveUsageService;
+import com.turkcellcase4.billing.service.UsageRollupService;
+import com.turkcellcase4.billing.service.UsageTimeSeriesService;
+import com.turkcellcase4.billing.timeseries.UsageTimeSeriesStore;
+import com.turkcellcase4.common.enums.IngestionFormat;
+import com.turkcellcase4.common.enums.IngestionTarget;
+import com.turkcellcase4.common.enums.UserType;
+import com.turkcellcase4.common.exception.BusinessLogicException;
+import com.turkcellcase4.common.exception.ValidationException;
+import com.turkcellcase4.ingestion.dto.IngestionReportDTO;
+import com.turkcellcase4.ingestion.parser.CsvRecordParser;
+import com.turkcellcase4.ingestion.parser.IngestionRecord;
+import com.turkcellcase4.ingestion.parser.NdjsonRecordParser;
+import com.turkcellcase4.ingestion.parser.RecordParser;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository.BillRow;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository.UsageRow;
+import com.turkcellcase4.ingestion.repository.IngestionJdbcRepository.UserRow;
+import com.turkcellcase4.ingestion.service.IngestionService;
+import com.turkcellcase4.billing.cache.BillViewCache;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
+import com.turkcellcase4.billing.repository.BillCategoryTotalsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+public class IngestionServiceImpl implements IngestionService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // Kategori toplamı yeniden hesaplamasında sorgu başına fatura sayısı (bind parametre sınırı)
+    private static final int TOTALS_BATCH_SIZE = 1000;
+
+    private final IngestionJdbcRepository ingestionJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UsageRollupService usageRollupService;
+    private final LiveUsageService liveUsageService;
+    private final UsageTimeSeriesService usageTimeSeriesService;
+    private final UsageTimeSeriesStore usageTimeSeriesStore;
+    private final BillPeriodIndex billPeriodIndex;
+    private final BillViewCache billViewCache;
+    private final BillCategoryTotalsRepository billCategoryTotalsRepository;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ImportDirectory importDirectory;
+
+    public IngestionServiceImpl(
+            IngestionJdbcRepository ingestionJdbcRepository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            UsageRollupService usageRollupService,
+            LiveUsageService liveUsageService,
+            UsageTimeSeriesService usageTimeSeriesService,
+            UsageTimeSeriesStore usageTimeSeriesStore,
+            BillPeriodIndex billPeriodIndex,
+            BillViewCache billViewCache,
+            BillCategoryTotalsRepository billCategoryTotalsRepository,
+            ImportDirectory importDirectory,
+            @Value("${ingestion.chunk-size:5000}") int chunkSize,
+            @Value("${ingestion.parallelism:4}") int parallelism) {
+        this.ingestionJdbcRepository = ingestionJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.usageRollupService = usageRollupService;
+        this.liveUsageService = liveUsageService;
+        this.usageTimeSeriesService = usageTimeSeriesService;
+        this.usageTimeSeriesStore = usageTimeSeriesStore;
+        this.billPeriodIndex = billPeriodIndex;
+        this.billViewCache = billViewCache;
+        this.billCategoryTotalsRepository = billCategoryTotalsRepository;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.importDirectory = importDirectory;
+    }
+
+    @Override
+    public IngestionReportDTO ingestFile(IngestionTarget target, IngestionFormat format, String relativePath) {
+        Path file = importDirectory.resolve(relativePath);
+        try (InputStream input = Files.newInputStream(file)) {
+            return ingest(target, format, file.getFileName().toString(), input);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Dosya okunamadı: " + relativePath, e);
+        }
+    }
+
+    @Override
+    public IngestionReportDTO ingest(IngestionTarget target, IngestionFormat format, String fileName, InputStream input) {
+        if (target == IngestionTarget.CDR || target == IngestionTarget.USAGE_EVENTS) {
+            throw new ValidationException("Bu hedef dosya yüklemesiyle kullanılamaz: " + target);
+        }
+        log.info("Ingestion started: {} {} ({})", target, format, fileName);
+        long start = System.nanoTime();
+        MessageDigest fileDigest = sha256();
+        CountingInputStream counting = new CountingInputStream(input);
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new DigestInputStream(counting, fileDigest), StandardCharsets.UTF_8), 1 << 16);
+
+        List<ChunkResult> results = new ArrayList<>();
+        LoadScope loadScope = new LoadScope();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            String header = null;
+            long lineNumber = 0;
+            if (format == IngestionFormat.CSV) {
+                header = stripBom(reader.readLine());
+                lineNumber++;
+                if (header == null) {
+                    throw new ValidationException("CSV dosyası boş");
+                }
+            }
+            RecordParser parser = format == IngestionFormat.CSV
+                    ? new CsvRecordParser(header)
+                    : new NdjsonRecordParser(objectMapper);
+            // Aynı satırlar farklı başlıkla farklı veri demektir; başlık parça özetine dahil edilir
+            String hashSeed = header != null ? header : "";
+
+            // Okuyucu ayrıştırmadan hızlı olduğunda bellekte biriken parça sayısı sınırlanır
+            Semaphore inFlight = new Semaphore(parallelism * 2);
+            List<Future<ChunkResult>> futures = new ArrayList<>();
+            List<String> lines = new ArrayList<>(chunkSize);
+            long firstLine = lineNumber + 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (lines.isEmpty()) {
+                    firstLine = lineNumber;
+                }
+                lines.add(format == IngestionFormat.NDJSON && lineNumber == 1 ? stripBom(line) : line);
+                if (lines.size() == chunkSize) {
+                    futures.add(submit(executor, inFlight, target, parser, hashSeed, fileName, loadScope,
+                            new Chunk(futures.size(), firstLine, lines)));
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                futures.add(submit(executor, inFlight, target, parser, hashSeed, fileName, loadScope,
+                        new Chunk(futures.size(), firstLine, lines)));
+            }
+            for (Future<ChunkResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Kaynak okunamadı: " + fileName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessLogicException("Yükleme kesildi: " + fileName);
+        } catch (ExecutionException e) {
+            throw new BusinessLogicException("Yükleme başarısız: " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+            awaitWorkers(executor);
+            // Yükleme yarıda kesilse de commit edilen parçaların türetilmiş verileri ve sequence'ı güncellenir
+            if (loadScope.hasLoaded()) {
+                afterLoad(target, loadScope);
+            }
+        }
+        return report(target, format, fileName, HexFormat.of().formatHex(fileDigest.digest()),
+                counting.count, System.nanoTime() - start, results);
+    }
+
+    private Future<ChunkResult> submit(ExecutorService executor, Semaphore inFlight, IngestionTarget target,
+                                       RecordParser parser, String hashSeed, String fileName, LoadScope loadScope,
+                                       Chunk chunk)
+            throws InterruptedException {
+        inFlight.acquire();
+        return executor.submit(() -> {
+            try {
+                return switch (target) {
+                    case USERS -> processChunk(target, parser, hashSeed, fileName, chunk, loadScope,
+                            this::toUserRow, this::loadUsers, rows -> { });
+                    case BILLS -> processChunk(target, parser, hashSeed, fileName, chunk, loadScope,
+                            this::toBillRow, this::loadBills, rows -> { });
+                    case USAGE_DAILY -> processChunk(target, parser, hashSeed, fileName, chunk, loadScope,
+                            this::toUsageRow, rows -> {
+                                ingestionJdbcRepository.upsertUsage(rows);
+                                return List.of();
+                            }, loadScope::addUsage);
+                    case CDR, USAGE_EVENTS -> throw new IllegalStateException("Desteklenmeyen hedef: " + target);
+                };
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Parçayı ayrıştırır, doğrular ve tek transaction'da yükler. Parça işareti de aynı transaction'da
+     * yazıldığından yarım kalan parça tekrar denendiğinde yeniden yüklenir, tamamlanan parça atlanır.
+     * loader yazmadığı satırların mesajlarını döner; committed yalnızca commit edilen satırlarla çağrılır.
+     */
+    private <T> ChunkResult processChunk(IngestionTarget target, RecordParser parser, String hashSeed, String fileName,
+                                         Chunk chunk, LoadScope loadScope, Function<IngestionRecord, T> mapper,
+                                         Function<List<T>, List<String>> loader, Consumer<List<T>> committed) {
+        String chunkHash = chunkHash(hashSeed, chunk.lines());
+        List<T> rows = new ArrayList<>(chunk.lines().size());
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < chunk.lines().size(); i++) {
+            try {
+                rows.add(mapper.apply(parser.parse(chunk.lines().get(i))));
+            } catch (ValidationException | NumberFormatException | DateTimeParseException e) {
+                errors.add("Satır " + (chunk.firstLine() + i) + ": " + e.getMessage());
+            }
+        }
+        int total = chunk.lines().size();
+        if (rows.isEmpty()) {
+            return new ChunkResult(total, 0, errors.size(), false, false, errors);
+        }
+
+        try {
+            List<String> notWritten = transactionTemplate.execute(status -> {
+                if (!ingestionJdbcRepository.claimChunk(target, chunkHash, fileName, chunk.index(), rows.size())) {
+                    return null;
+                }
+                return loader.apply(rows);
+            });
+            if (notWritten == null) {
+                log.debug("Chunk {} of {} already ingested, skipping", chunk.index(), fileName);
+                return new ChunkResult(total, 0, errors.size(), true, false, errors);
+            }
+            loadScope.markLoaded();
+            committed.accept(rows);
+            errors.addAll(notWritten);
+            return new ChunkResult(total, rows.size() - notWritten.size(), errors.size(), false, false, errors);
+        } catch (DataAccessException e) {
+            // Batch içindeki tek hatalı satır (ör. olmayan kullanıcı) tüm parçayı geri alır
+            int parseErrors = errors.size();
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Chunk {} of {} failed: {}", chunk.index(), fileName, message);
+            errors.add("Parça " + chunk.index() + " (satır " + chunk.firstLine() + "-"
+                    + (chunk.firstLine() + total - 1) + ") yüklenemedi: " + message);
+            return new ChunkResult(total, 0, rows.size() + parseErrors, false, true, errors);
+        }
+    }
+
+    private List<String> loadUsers(List<UserRow> rows) {
+        long[] ids = allocateMissingIds(rows.stream().filter(row -> row.userId() == null).count(), "users", "user_id");
+        int next = 0;
+        List<UserRow> resolved = new ArrayList<>(rows.size());
+        for (UserRow row : rows) {
+            resolved.add(row.userId() != null ? row
+                    : new UserRow(ids[next++], row.name(), row.currentPlanId(), row.type(), row.msisdn()));
+        }
+        ingestionJdbcRepository.upsertUsers(resolved);
+        return List.of();
+    }
+
+    /**
+     * Kesilmiş faturalar yüklemeyle değiştirilmez; bill_id'si ya da (kullanıcı, dönem) faturası zaten olan
+     * satırlar yazılmaz ve raporlanır
+     */
+    private List<String> loadBills(List<BillRow> rows) {
+        long[] ids = allocateMissingIds(rows.stream().filter(row -> row.billId() == null).count(), "bill_headers", "bill_id");
+        int next = 0;
+        List<BillRow> resolved = new ArrayList<>(rows.size());
+        for (BillRow row : rows) {
+            resolved.add(row.billId() != null ? row
+                    : new BillRow(ids[next++], row.userId(), row.periodStart(), row.periodEnd(), row.issueDate(),
+                    row.totalAmount(), row.currency()));
+        }
+        Set<Long> inserted = ingestionJdbcRepository.insertBills(resolved);
+        List<String> conflicts = new ArrayList<>();
+        List<BillRow> written = new ArrayList<>(inserted.size());
+        for (BillRow row : resolved) {
+            if (inserted.contains(row.billId())) {
+                written.add(row);
+            } else {
+                conflicts.add("Fatura zaten var, atlandı: bill_id " + row.billId() + ", kullanıcı " + row.userId()
+                        + ", dönem " + row.periodStart());
+            }
+        }
+        if (written.isEmpty()) {
+            return conflicts;
+        }
+        List<Long> billIds = written.stream().map(BillRow::billId).toList();
+        // Toplamlar ve özet işleri aynı transaction'da yazılır; okumada backfill'e kalmaz
+        for (int from = 0; from < billIds.size(); from += TOTALS_BATCH_SIZE) {
+            billCategoryTotalsRepository.recompute(billIds.subList(from, Math.min(from + TOTALS_BATCH_SIZE, billIds.size())));
+        }
+        ingestionJdbcRepository.insertSummaryJobs(written);
+        billPeriodIndex.invalidate(written.stream().map(BillRow::userId).distinct().toList());
+        billViewCache.invalidate(billIds);
+        return conflicts;
+    }
+
+    /**
+     * Kesilen yüklemede çalışan parçaların transaction'ı bitene kadar bekler; aksi halde sonradan commit olan
+     * parçalar afterLoad kapsamının dışında kalırdı
+     */
+    private static void awaitWorkers(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long[] allocateMissingIds(long missing, String table, String column) {
+        return missing == 0 ? new long[0] : ingestionJdbcRepository.allocateIds(table, column, (int) missing);
+    }
+
+    /**
+     * Yükleme sonrası türetilmiş verileri günceller
+     */
+    private void afterLoad(IngestionTarget target, LoadScope loadScope) {
+        switch (target) {
+            // Dosyadaki açık ID'ler sequence'ı geride bırakmış olabilir
+            case USERS -> ingestionJdbcRepository.advanceSequence("users", "user_id");
+            case BILLS -> ingestionJdbcRepository.advanceSequence("bill_headers", "bill_id");
+            case USAGE_DAILY -> {
+                // Toplu yükleme satırları değiştirdiği için artımlı rollup yerine yalnızca yüklenen aylar
+                // ve kullanıcılar yeniden hesaplanır
+                usageRollupService.rebuildMonthlyRollup(loadScope.from(), loadScope.to());
+                loadScope.userIds().forEach(liveUsageService::invalidate);
+                if (usageTimeSeriesStore.isEnabled()) {
+                    usageTimeSeriesService.refresh(loadScope.userIds(), loadScope.from(), loadScope.to());
+                }
+            }
+        }
+    }
+
+    private UserRow toUserRow(IngestionRecord record) {
+        String name = required(record, "name");
+        String msisdn = required(record, "msisdn");
+        String type = required(record, "type").toUpperCase(Locale.ROOT);
+        try {
+            UserType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Geçersiz kullanıcı tipi: " + type);
+        }
+        return new UserRow(optionalLong(record, "user_id", "userId", "id"), name,
+                optionalLong(record, "current_plan_id", "currentPlanId", "plan_id"), type, msisdn);
+    }
+
+    private BillRow toBillRow(IngestionRecord record) {
+        LocalDate periodStart = LocalDate.parse(required(record, "period_start", "periodStart"));
+        LocalDate periodEnd = LocalDate.parse(required(record, "period_end", "periodEnd"));
+        if (periodEnd.isBefore(periodStart)) {
+            throw new ValidationException("Dönem sonu başlangıçtan önce olamaz");
+        }
+        String issueDate = record.get("issue_date", "issueDate");
+        BigDecimal totalAmount = new BigDecimal(required(record, "total_amount", "totalAmount", "amount"));
+        if (totalAmount.signum() < 0) {
+            throw new ValidationException("Fatura tutarı negatif olamaz");
+        }
+        String currency = record.get("currency");
+        return new BillRow(optionalLong(record, "bill_id", "billId", "invoice_id", "id"),
+                Long.parseLong(required(record, "user_id", "userId")),
+                periodStart, periodEnd, issueDate != null ? LocalDate.parse(issueDate) : null,
+                totalAmount, currency != null ? currency : "TRY");
+    }
+
+    private UsageRow toUsageRow(IngestionRecord record) {
+        UsageRow row = new UsageRow(
+                Long.parseLong(required(record, "user_id", "userId")),
+                LocalDate.parse(required(record, "date")),
+                optionalDouble(record, "mb_used", "mbUsed"),
+                (int) optionalLongValue(record, "minutes_used", "minutesUsed"),
+                (int) optionalLongValue(record, "sms_used", "smsUsed"),
+                optionalDouble(record, "roaming_mb", "roamingMb"));
+        if (row.mbUsed() < 0 || row.minutesUsed() < 0 || row.smsUsed() < 0 || row.roamingMb() < 0) {
+            throw new ValidationException("Kullanım değerleri negatif olamaz");
+        }
+        return row;
+    }
+
+    private static String required(IngestionRecord record, String... names) {
+        String value = record.get(names);
+        if (value == null) {
+            throw new ValidationException("Zorunlu alan eksik: " + names[0]);
+        }
+        return value;
+    }
+
+    private static Long optionalLong(IngestionRecord record, String... names) {
+        String value = record.get(names);
+        return value != null ? Long.parseLong(value) : null;
+    }
+
+    private static long optionalLongValue(IngestionRecord record, String... names) {
+        String value = record.get(names);
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    private static double optionalDouble(IngestionRecord record, String... names) {
+        String value = record.get(names);
+        return value != null ? Double.parseDouble(value) : 0.0;
+    }
+
+    private IngestionReportDTO report(IngestionTarget target, IngestionFormat format, String fileName, String fileHash,
+                                      long bytes, long elapsedNanos, List<ChunkResult> results) {
+        long totalRows = 0;
+        long loadedRows = 0;
+        long rejectedRows = 0;
+        long skippedRows = 0;
+        int loadedChunks = 0;
+        int skippedChunks = 0;
+        int failedChunks = 0;
+        List<String> errors = new ArrayList<>();
+        for (ChunkResult result : results) {
+            totalRows += result.total();
+            loadedRows += result.loaded();
+            rejectedRows += result.rejected();
+            if (result.skipped()) {
+                skippedChunks++;
+                skippedRows += result.total() - result.rejected();
+            } else if (result.failed()) {
+                failedChunks++;
+            } else if (result.loaded() > 0) {
+                loadedChunks++;
+            }
+            for (String error : result.errors()) {
+                log.warn("Ingestion {} - {}", fileName, error);
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        log.info("Ingestion finished: {} {} rows loaded, {} rejected, {} skipped in {} ms ({} rows/s)",
+                fileName, loadedRows, rejectedRows, skippedRows, elapsedNanos / 1_000_000, Math.round(totalRows / seconds));
+        return IngestionReportDTO.builder()
+                .target(target)
+                .format(format)
+                .fileName(fileName)
+                .fileHash(fileHash)
+                .totalRows(totalRows)
+                .loadedRows(loadedRows)
+                .rejectedRows(rejectedRows)
+                .skippedRows(skippedRows)
+                .chunkCount(results.size())
+                .loadedChunks(loadedChunks)
+                .skippedChunks(skippedChunks)
+                .failedChunks(failedChunks)
+                .elapsedMs(elapsedNanos / 1_000_000)
+                .rowsPerSecond(totalRows / seconds)
+                .megabytesPerSecond(bytes / 1024.0 / 1024.0 / seconds)
+                .errors(errors)
+                .build();
+    }
+
+    private static String chunkHash(String seed, List<String> lines) {
+        MessageDigest digest = sha256();
+        digest.update(seed.getBytes(StandardCharsets.UTF_8));
+        for (String line : lines) {
+            digest.update((byte) '\n');
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String stripBom(String line) {
+        return line != null && !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    /**
+     * Commit edilen parçaların kapsamı: en az bir parça yüklendi mi, USAGE_DAILY'de dokunulan kullanıcılar ve
+     * tarih aralığı. Parçalar paralel yüklendiği için senkronizedir.
+     */
+    private static final class LoadScope {
+
+        private final Set<Long> userIds = new HashSet<>();
+        private boolean loaded;
+        private LocalDate from;
+        private LocalDate to;
+
+        synchronized void markLoaded() {
+            loaded = true;
+        }
+
+        synchronized boolean hasLoaded() {
+            return loaded;
+        }
+
+        synchronized void addUsage(List<UsageRow> rows) {
+            for (UsageRow row : rows) {
+                userIds.add(row.userId());
+                if (from == null || row.date().isBefore(from)) {
+                    from = row.date();
+                }
+                if (to == null || row.date().isAfter(to)) {
+                    to = row.date();
+                }
+            }
+        }
+
+        synchronized Set<Long> userIds() {
+            return new HashSet<>(userIds);
+        }
+
+        synchronized LocalDate from() {
+            return from;
+        }
+
+        synchronized LocalDate to() {
+            return to;
+        }
+    }
+
+    private record Chunk(int index, long firstLine, List<String> lines) {
+    }
+
+    private record ChunkResult(int total, int loaded, int rejected, boolean skipped, boolean failed, List<String> errors) {
+    }
+
+    /**
+     * Okunan byte sayısını tutar (MB/s raporu için)
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
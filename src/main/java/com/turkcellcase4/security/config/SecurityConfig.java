@@ -2,9 +2,11 @@ package com.turkcellcase4.security.config;
 
 import com.turkcellcase4.security.jwt.JwtAuthenticationEntryPoint;
 import com.turkcellcase4.security.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -35,16 +37,30 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
+                // SSE akışlarının async dispatch'i ilk istekte zaten doğrulanmıştır
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers("/auth/login").permitAll()
                 .requestMatchers("/auth/register").permitAll()
                 .requestMatchers("/auth/refresh").permitAll()
                 .requestMatchers("/catalog/**").permitAll()
                 .requestMatchers("/users/**").hasAnyRole("USER","ADMIN")
+                .requestMatchers("/bills/runs/**").hasRole("ADMIN")
+                .requestMatchers("/bills/batch").hasRole("ADMIN")
+                .requestMatchers("/bills/cache/**").hasRole("ADMIN")
+                .requestMatchers("/bills/archive/**").hasRole("ADMIN")
                 .requestMatchers("/bills/**").hasAnyRole("USER","ADMIN")
+                .requestMatchers("/export/**").hasAnyRole("USER","ADMIN")
                 .requestMatchers("/explain/**").hasAnyRole("USER","ADMIN")
                 .requestMatchers("/anomalies/**").hasAnyRole("USER","ADMIN")
                 .requestMatchers("/whatif/**").hasAnyRole("USER","ADMIN")
                 .requestMatchers("/checkout/**").hasRole("ADMIN")
+                .requestMatchers("/ingestion/**").hasRole("ADMIN")
+                // Kullanım yazma uçları herhangi bir kullanıcı adına veri yazar
+                .requestMatchers(HttpMethod.POST, "/usage/*/daily").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/usage/series/rebuild").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/usage/events").hasRole("ADMIN")
+                .requestMatchers("/usage/alerts/**").hasRole("ADMIN")
+                .requestMatchers("/usage/partitions/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .exceptionHandling(ex -> ex
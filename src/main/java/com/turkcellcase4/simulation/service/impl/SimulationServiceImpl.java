@@ -2,17 +2,20 @@ package com.turkcellcase4.simulation.service.impl;
 
 import com.turkcellcase4.billing.dto.BillResponseDTO;
 import com.turkcellcase4.billing.model.Bill;
-import com.turkcellcase4.billing.model.BillItem;
+import com.turkcellcase4.billing.model.BillCategoryTotals;
 import com.turkcellcase4.billing.model.UsageDaily;
-import com.turkcellcase4.billing.repository.BillRepository;
-import com.turkcellcase4.billing.repository.BillItemRepository;
+import com.turkcellcase4.billing.dto.UsageMonthlyDTO;
+import com.turkcellcase4.billing.service.BillCategoryTotalsService;
 import com.turkcellcase4.billing.service.BillService;
+import com.turkcellcase4.billing.service.UsageRollupService;
+import com.turkcellcase4.billing.rating.Money;
+import com.turkcellcase4.billing.rating.TariffCompiler;
+import com.turkcellcase4.billing.rating.TariffEvaluator;
 import com.turkcellcase4.catalog.model.Plan;
 import com.turkcellcase4.catalog.model.AddOnPack;
 import com.turkcellcase4.catalog.repository.PlanRepository;
 import com.turkcellcase4.catalog.repository.AddOnPackRepository;
 import com.turkcellcase4.billing.repository.UsageDailyRepository;
-import com.turkcellcase4.common.enums.ItemCategory;
 import com.turkcellcase4.simulation.dto.*;
 import com.turkcellcase4.simulation.service.SimulationService;
 import com.turkcellcase4.user.model.User;
@@ -24,24 +27,27 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 import com.turkcellcase4.common.exception.BusinessLogicException;
 import com.turkcellcase4.common.exception.ResourceNotFoundException;
+import com.turkcellcase4.billing.period.BillingPeriod;
+import com.turkcellcase4.billing.period.BillPeriodIndex;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SimulationServiceImpl implements SimulationService {
 
-    private final BillRepository billRepository;
-    private final BillItemRepository billItemRepository;
+    private final BillPeriodIndex billPeriodIndex;
+    private final BillCategoryTotalsService billCategoryTotalsService;
     private final PlanRepository planRepository;
     private final AddOnPackRepository addOnPackRepository;
     private final UserRepository userRepository;
     private final BillService billService;
     private final UsageDailyRepository usageDailyRepository;
+    private final UsageRollupService usageRollupService;
+    private final TariffCompiler tariffCompiler;
 
     @Override
     public SimulationResponseDTO simulateScenario(SimulationRequestDTO request) {
@@ -197,97 +203,77 @@ public class SimulationServiceImpl implements SimulationService {
 
     private BigDecimal calculateNewTotal(Bill currentBill, SimulationScenarioDTO scenario, Long userId, String period) {
         BigDecimal newTotal = BigDecimal.ZERO;
+        // Mevcut faturanın kategori toplamları bir kez okunur; kalemler yüklenmez
+        BillCategoryTotals currentTotals = billCategoryTotalsService.getTotals(currentBill.getBillId());
         
         // Get current usage data
         Map<String, BigDecimal> usageData = getUsageData(userId, period);
         
+        List<AddOnPack> addOns = new ArrayList<>();
+        if (scenario.getAddons() != null) {
+            for (Long addonId : scenario.getAddons()) {
+                addOns.add(addOnPackRepository.findById(addonId)
+                        .orElseThrow(() -> new RuntimeException("Add-on not found")));
+            }
+        }
+        
         // Calculate plan cost
         if (scenario.getPlanId() != null) {
             Plan newPlan = planRepository.findById(scenario.getPlanId())
                     .orElseThrow(() -> new RuntimeException("Plan not found"));
             
-            newTotal = newTotal.add(newPlan.getMonthlyPrice());
-            
-            // Calculate overage costs
-            newTotal = newTotal.add(calculateDataOverage(usageData.get("data_gb"), newPlan.getQuotaGb(), newPlan.getOverageGb()));
-            newTotal = newTotal.add(calculateVoiceOverage(usageData.get("voice_min"), newPlan.getQuotaMin(), newPlan.getOverageMin()));
-            newTotal = newTotal.add(calculateSMSOverage(usageData.get("sms_count"), newPlan.getQuotaSms(), newPlan.getOverageSms()));
+            // Plan ücreti, ek paketler (kotalarıyla birlikte) ve aşımlar tek tarifede fiyatlanır
+            TariffEvaluator tariff = tariffCompiler.compile(newPlan, addOns);
+            newTotal = newTotal.add(Money.toLira(tariff.rate(
+                    TariffEvaluator.milliMbOfGb(usageData.get("data_gb").doubleValue()),
+                    usageData.get("voice_min").longValue(),
+                    usageData.get("sms_count").longValue(),
+                    0)));
         } else {
             // Keep current plan cost
-            newTotal = newTotal.add(getCurrentPlanCost(currentBill));
-        }
-        
-        // Add add-on costs
-        if (scenario.getAddons() != null && !scenario.getAddons().isEmpty()) {
-            for (Long addonId : scenario.getAddons()) {
-                AddOnPack addon = addOnPackRepository.findById(addonId)
-                        .orElseThrow(() -> new RuntimeException("Add-on not found"));
-                newTotal = newTotal.add(addon.getPrice());
+            newTotal = newTotal.add(currentTotals.getPlanFeeAmount());
+            
+            // Add add-on costs
+            long addOnFees = 0;
+            for (AddOnPack addon : addOns) {
+                addOnFees += Money.ofLira(addon.getPrice());
             }
+            newTotal = newTotal.add(Money.toLira(addOnFees));
         }
         
         // Calculate VAS and Premium SMS costs (if not disabled)
         if (!Boolean.TRUE.equals(scenario.getDisableVas())) {
-            newTotal = newTotal.add(getVASCost(currentBill));
+            newTotal = newTotal.add(currentTotals.vasServicesAmount());
         }
         
         if (!Boolean.TRUE.equals(scenario.getBlockPremiumSms())) {
-            newTotal = newTotal.add(getPremiumSMSCost(currentBill));
+            newTotal = newTotal.add(currentTotals.getPremiumSmsAmount());
         }
         
         // Add taxes and other costs
-        newTotal = newTotal.add(getTaxesAndOtherCosts(currentBill));
+        newTotal = newTotal.add(currentTotals.getTaxAmount().add(currentTotals.getOneOffAmount()));
         
         return newTotal.setScale(2, RoundingMode.HALF_UP);
     }
 
-    private BigDecimal calculateDataOverage(BigDecimal usedGB, Double quotaGB, BigDecimal overageRate) {
-        if (usedGB == null || quotaGB == null || overageRate == null) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal quotaGBDecimal = BigDecimal.valueOf(quotaGB);
-        BigDecimal overageGB = usedGB.subtract(quotaGBDecimal);
-        if (overageGB.compareTo(BigDecimal.ZERO) > 0) {
-            return overageGB.multiply(overageRate);
-        }
-        return BigDecimal.ZERO;
-    }
-
-    private BigDecimal calculateVoiceOverage(BigDecimal usedMinutes, Integer quotaMinutes, BigDecimal overageRate) {
-        if (usedMinutes == null || quotaMinutes == null || overageRate == null) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal quotaMinutesDecimal = BigDecimal.valueOf(quotaMinutes);
-        BigDecimal overageMinutes = usedMinutes.subtract(quotaMinutesDecimal);
-        if (overageMinutes.compareTo(BigDecimal.ZERO) > 0) {
-            return overageMinutes.multiply(overageRate);
-        }
-        return BigDecimal.ZERO;
-    }
-
-    private BigDecimal calculateSMSOverage(BigDecimal usedSMS, Integer quotaSMS, BigDecimal overageRate) {
-        if (usedSMS == null || quotaSMS == null || overageRate == null) {
-            return BigDecimal.ZERO;
-        }
-        
-        BigDecimal quotaSMSDecimal = BigDecimal.valueOf(quotaSMS);
-        BigDecimal overageSMS = usedSMS.subtract(quotaSMSDecimal);
-        if (overageSMS.compareTo(BigDecimal.ZERO) > 0) {
-            return overageSMS.multiply(overageRate);
-        }
-        return BigDecimal.ZERO;
-    }
-
     private Map<String, BigDecimal> getUsageData(Long userId, String period) {
         // Parse period (YYYY-MM format)
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        LocalDate periodStart = LocalDate.parse(period + "-01", formatter);
-        LocalDate periodEnd = periodStart.plusMonths(1).minusDays(1);
+        BillingPeriod billingPeriod = BillingPeriod.parse(period);
+        LocalDate periodStart = billingPeriod.start();
+        LocalDate periodEnd = billingPeriod.end();
         
-        // Get real usage data from usage_daily table
+        // Get real usage data from usage_monthly rollup, falling back to usage_daily
         try {
+            Optional<UsageMonthlyDTO> monthly = usageRollupService.getMonthlyUsage(userId, periodStart);
+            if (monthly.isPresent()) {
+                Map<String, BigDecimal> usage = new HashMap<>();
+                usage.put("data_gb", BigDecimal.valueOf(monthly.get().getTotalDataGB()));
+                usage.put("voice_min", BigDecimal.valueOf(monthly.get().getTotalVoiceMinutes()));
+                usage.put("sms_count", BigDecimal.valueOf(monthly.get().getTotalSMSCount()));
+                usage.put("roaming_mb", BigDecimal.valueOf(monthly.get().getTotalRoamingGB() * 1024.0));
+                return usage;
+            }
+            
             List<UsageDaily> usageData = usageDailyRepository.findByUser_UserIdAndDateBetween(userId, periodStart, periodEnd);
             
             Map<String, BigDecimal> usage = new HashMap<>();
@@ -339,39 +325,6 @@ public class SimulationServiceImpl implements SimulationService {
         }
     }
 
-    private BigDecimal getCurrentPlanCost(Bill bill) {
-        // Extract plan cost from bill items
-        List<BillItem> items = billItemRepository.findByBill_BillId(bill.getBillId());
-        return items.stream()
-                .filter(item -> ItemCategory.VAS.equals(item.getCategory()) && "plan_fee".equals(item.getSubtype()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal getVASCost(Bill bill) {
-        List<BillItem> items = billItemRepository.findByBill_BillId(bill.getBillId());
-        return items.stream()
-                .filter(item -> ItemCategory.VAS.equals(item.getCategory()) && !"plan_fee".equals(item.getSubtype()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal getPremiumSMSCost(Bill bill) {
-        List<BillItem> items = billItemRepository.findByBill_BillId(bill.getBillId());
-        return items.stream()
-                .filter(item -> ItemCategory.PREMIUM_SMS.equals(item.getCategory()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal getTaxesAndOtherCosts(Bill bill) {
-        List<BillItem> items = billItemRepository.findByBill_BillId(bill.getBillId());
-        return items.stream()
-                .filter(item -> ItemCategory.TAX.equals(item.getCategory()) || ItemCategory.ONE_OFF.equals(item.getCategory()))
-                .map(BillItem::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     private List<SimulationScenarioDTO> generateTopScenarios(User user, List<Plan> plans, List<AddOnPack> addOns) {
         List<SimulationScenarioDTO> scenarios = new ArrayList<>();
         
@@ -636,14 +589,6 @@ public class SimulationServiceImpl implements SimulationService {
     }
 
     private Bill getCurrentBill(Long userId, String period) {
-        // Parse period and find bill
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        LocalDate periodStart = LocalDate.parse(period + "-01", formatter);
-        LocalDate periodEnd = periodStart.plusMonths(1).minusDays(1);
-        
-        return billRepository.findByUser_UserIdAndPeriodStartBetween(userId, periodStart, periodEnd)
-                .stream()
-                .findFirst()
-                .orElse(null);
+        return billPeriodIndex.findBill(userId, BillingPeriod.parse(period)).orElse(null);
     }
 }
@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.turkcellcase4")
 @EnableJpaRepositories(basePackages = "com.turkcellcase4")
 @EntityScan(basePackages = "com.turkcellcase4")
 @EnableJpaAuditing
+@EnableScheduling
 public class TrkcelApplication {
 
 	public static void main(String[] args) {
@@ -1,5 +1,6 @@
 package com.turkcellcase4.user.service.impl;
 
+import com.turkcellcase4.billing.service.LiveUsageService;
 import com.turkcellcase4.common.enums.UserType;
 import com.turkcellcase4.user.dto.UserResponseDTO;
 import com.turkcellcase4.user.dto.UserListDTO;
@@ -14,6 +15,7 @@ import com.turkcellcase4.common.exception.BusinessLogicException;
 import com.turkcellcase4.common.exception.ResourceNotFoundException;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +24,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final LiveUsageService liveUsageService;
 
     @Override
     public UserResponseDTO getUserById(Long userId) {
@@ -68,12 +71,17 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Güncellenecek kullanıcı bulunamadı: " + userId));
         
         try {
+            boolean planChanged = !Objects.equals(existingUser.getCurrentPlanId(), user.getCurrentPlanId());
             existingUser.setName(user.getName());
             existingUser.setCurrentPlanId(user.getCurrentPlanId());
             existingUser.setType(user.getType());
             existingUser.setMsisdn(user.getMsisdn());
             
             User updatedUser = userRepository.save(existingUser);
+            if (planChanged) {
+                // Kota izleyicisi yeni planla yeniden kurulsun
+                liveUsageService.invalidate(userId);
+            }
             return userMapper.toUserResponseDTO(updatedUser);
         } catch (Exception e) {
             throw new BusinessLogicException("Kullanıcı güncelleme hatası: " + e.getMessage());
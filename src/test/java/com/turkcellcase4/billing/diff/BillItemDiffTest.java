@@ -0,0 +1,116 @@
+package com.turkcellcase4.billing.diff;
+
+import com.turkcellcase4.billing.diff.BillItemDiff.Change;
+import com.turkcellcase4.billing.diff.BillItemDiff.Line;
+import com.turkcellcase4.billing.model.BillItem;
+import com.turkcellcase4.common.enums.ItemCategory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BillItemDiffTest {
+
+    @Test
+    void reportsAddedRemovedChangedAndUnchangedLines() {
+        List<BillItem> current = List.of(
+                item(ItemCategory.VAS, "plan_fee", "100.00", 1),
+                item(ItemCategory.DATA, "data_overage", "25.00", 2),
+                item(ItemCategory.PREMIUM_SMS, "game_club", "9.90", 1));
+        List<BillItem> baseline = List.of(
+                item(ItemCategory.VAS, "plan_fee", "100.00", 1),
+                item(ItemCategory.DATA, "data_overage", "12.50", 1),
+                item(ItemCategory.ROAMING, "roaming_data", "40.00", 400));
+
+        List<Line> lines = BillItemDiff.diff(current, baseline);
+
+        assertEquals(4, lines.size());
+        assertLine(lines.get(0), ItemCategory.DATA, "data_overage", Change.CHANGED, "25.00", "12.50");
+        assertEquals(new BigDecimal("12.50"), lines.get(0).delta());
+        assertEquals(2, lines.get(0).quantity());
+        assertEquals(1, lines.get(0).baselineQuantity());
+        assertLine(lines.get(1), ItemCategory.ROAMING, "roaming_data", Change.REMOVED, "0", "40.00");
+        assertEquals(400, lines.get(1).baselineQuantity());
+        assertLine(lines.get(2), ItemCategory.PREMIUM_SMS, "game_club", Change.ADDED, "9.90", "0");
+        assertLine(lines.get(3), ItemCategory.VAS, "plan_fee", Change.UNCHANGED, "100.00", "100.00");
+    }
+
+    @Test
+    void quantityChangeAloneIsReportedAsChanged() {
+        List<Line> lines = BillItemDiff.diff(
+                List.of(item(ItemCategory.VOICE, "voice_overage", "5.00", 20)),
+                List.of(item(ItemCategory.VOICE, "voice_overage", "5.00", 10)));
+
+        assertEquals(1, lines.size());
+        assertEquals(Change.CHANGED, lines.get(0).change());
+        assertEquals(0, lines.get(0).delta().signum());
+    }
+
+    @Test
+    void duplicateKeysAreSummedIntoOneLine() {
+        List<BillItem> current = List.of(
+                item(ItemCategory.SMS, "sms_overage", "1.00", 10),
+                item(ItemCategory.DATA, "data_overage", "5.00", 1),
+                item(ItemCategory.SMS, "sms_overage", "2.00", 20));
+        List<BillItem> baseline = List.of(
+                item(ItemCategory.SMS, "sms_overage", "3.00", 30),
+                item(ItemCategory.DATA, "data_overage", "2.00", 1),
+                item(ItemCategory.DATA, "data_overage", "2.00", 1));
+
+        List<Line> lines = BillItemDiff.diff(current, baseline);
+
+        assertEquals(2, lines.size());
+        assertLine(lines.get(0), ItemCategory.DATA, "data_overage", Change.CHANGED, "5.00", "4.00");
+        assertEquals(2, lines.get(0).baselineQuantity());
+        assertLine(lines.get(1), ItemCategory.SMS, "sms_overage", Change.UNCHANGED, "3.00", "3.00");
+        assertEquals(30, lines.get(1).quantity());
+    }
+
+    @Test
+    void sameSubtypeInDifferentCategoriesIsNotMatched() {
+        List<Line> lines = BillItemDiff.diff(
+                List.of(item(ItemCategory.VAS, "music", "10.00", 1)),
+                List.of(item(ItemCategory.PREMIUM_SMS, "music", "10.00", 1)));
+
+        assertEquals(2, lines.size());
+        assertLine(lines.get(0), ItemCategory.PREMIUM_SMS, "music", Change.REMOVED, "0", "10.00");
+        assertLine(lines.get(1), ItemCategory.VAS, "music", Change.ADDED, "10.00", "0");
+    }
+
+    @Test
+    void emptySidesProduceOnlyAddedOrRemovedLines() {
+        List<BillItem> items = List.of(item(ItemCategory.TAX, "kdv", "18.00", 1), item(ItemCategory.DATA, "data_overage", "5.00", 1));
+
+        List<Line> added = BillItemDiff.diff(items, List.of());
+        List<Line> removed = BillItemDiff.diff(List.of(), items);
+
+        assertEquals(2, added.size());
+        assertTrue(added.stream().allMatch(line -> line.change() == Change.ADDED));
+        assertEquals(ItemCategory.DATA, added.get(0).category());
+        assertEquals(2, removed.size());
+        assertTrue(removed.stream().allMatch(line -> line.change() == Change.REMOVED));
+        assertTrue(BillItemDiff.diff(List.of(), List.of()).isEmpty());
+    }
+
+    private static void assertLine(Line line, ItemCategory category, String subtype, Change change,
+                                   String amount, String baselineAmount) {
+        assertEquals(category, line.category());
+        assertEquals(subtype, line.subtype());
+        assertEquals(change, line.change());
+        assertEquals(0, new BigDecimal(amount).compareTo(line.amount()), "amount");
+        assertEquals(0, new BigDecimal(baselineAmount).compareTo(line.baselineAmount()), "baselineAmount");
+    }
+
+    private static BillItem item(ItemCategory category, String subtype, String amount, int quantity) {
+        BillItem item = new BillItem();
+        item.setCategory(category);
+        item.setSubtype(subtype);
+        item.setDescription(subtype);
+        item.setAmount(new BigDecimal(amount));
+        item.setQuantity(quantity);
+        return item;
+    }
+}
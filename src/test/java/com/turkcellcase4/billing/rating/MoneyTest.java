@@ -0,0 +1,67 @@
+package com.turkcellcase4.billing.rating;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void divHalfUpRoundsTiesAwayFromZero() {
+        assertEquals(3, Money.divHalfUp(5, 2));
+        assertEquals(-3, Money.divHalfUp(-5, 2));
+        assertEquals(2, Money.divHalfUp(7, 3));
+        assertEquals(3, Money.divHalfUp(8, 3));
+        assertEquals(-3, Money.divHalfUp(-8, 3));
+        assertEquals(0, Money.divHalfUp(0, 7));
+    }
+
+    @Test
+    void divHalfUpHandlesLongBounds() {
+        assertEquals(1, Money.divHalfUp(Long.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE / 2, Money.divHalfUp(Long.MIN_VALUE, 2));
+        assertEquals(-1, Money.divHalfUp(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void mulDivRoundsHalfUp() {
+        assertEquals(2, Money.mulDiv(3, 5, 10));
+        assertEquals(-2, Money.mulDiv(-3, 5, 10));
+        assertEquals(0, Money.mulDiv(1, 1, 3));
+        assertEquals(1, Money.mulDiv(2, 1, 3));
+        assertEquals(250, Money.mulDiv(512_000, 500, 1_024_000));
+    }
+
+    @Test
+    void mulDivFallsBackWhenProductOverflows() {
+        assertEquals(4_611_686_018_427_387_904L, Money.mulDiv(Long.MAX_VALUE, 4, 8));
+        assertEquals(Long.MIN_VALUE, Money.mulDiv(Long.MIN_VALUE, 3, 3));
+        assertEquals(1L << 50, Money.mulDiv(1L << 40, 1L << 30, 1L << 20));
+    }
+
+    @Test
+    void percentOfUsesBasisPoints() {
+        assertEquals(1800, Money.basisPointsOf(new BigDecimal("0.18")));
+        assertEquals(180, Money.percentOf(1_000, 1800));
+        assertEquals(1, Money.percentOf(5, 1800));
+        assertEquals(0, Money.basisPointsOf(null));
+    }
+
+    @Test
+    void convertsBetweenLiraAndKurus() {
+        assertEquals(101, Money.ofLira(new BigDecimal("1.005")));
+        assertEquals(0, Money.ofLira(null));
+        assertEquals(new BigDecimal("12.34"), Money.toLira(1_234));
+    }
+
+    @Test
+    void startedUnitsRoundsUp() {
+        assertEquals(0, Money.startedUnits(0, 1_024_000));
+        assertEquals(0, Money.startedUnits(-5, 1_024_000));
+        assertEquals(1, Money.startedUnits(1, 1_024_000));
+        assertEquals(1, Money.startedUnits(1_024_000, 1_024_000));
+        assertEquals(2, Money.startedUnits(1_024_001, 1_024_000));
+    }
+}
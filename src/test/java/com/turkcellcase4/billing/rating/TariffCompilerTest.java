@@ -0,0 +1,85 @@
+package com.turkcellcase4.billing.rating;
+
+import com.turkcellcase4.catalog.model.AddOnPack;
+import com.turkcellcase4.catalog.model.Plan;
+import com.turkcellcase4.common.enums.OverageMode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TariffCompilerTest {
+
+    @Test
+    void payAsYouGoKeepsListPriceEstimates() {
+        // Eski hesap: MB / 1024 * 0,50 TL, dakika * 0,25 TL, SMS * 0,10 TL, roaming MB * 0,01 TL (HALF_UP)
+        TariffEvaluator payg = compiler(OverageMode.PER_STARTED_UNIT).payAsYouGo();
+
+        assertEquals(15, payg.dataCharge(TariffEvaluator.milliMbOfMb(300)));
+        assertEquals(100, payg.dataCharge(TariffEvaluator.milliMbOfMb(2048)));
+        assertEquals(73, payg.dataCharge(TariffEvaluator.milliMbOfMb(1500)));
+        assertEquals(250, payg.voiceCharge(10));
+        assertEquals(30, payg.smsCharge(3));
+        assertEquals(150, payg.roamingCharge(TariffEvaluator.milliMbOfMb(150)));
+        assertEquals(1, payg.roamingCharge(TariffEvaluator.milliMbOfMb(0.5)));
+    }
+
+    @Test
+    void defaultModeProratesPlanOverage() {
+        TariffCompiler compiler = compiler(OverageMode.PRORATED);
+        TariffEvaluator tariff = compiler.compile(plan(null));
+
+        // Eski simülasyon: 100 TL + (10,3 - 10) GB * 5 TL + (110 - 100) dk * 0,25 TL = 104,00 TL
+        assertEquals(OverageMode.PRORATED, tariff.mode());
+        assertEquals(150, tariff.dataCharge(TariffEvaluator.milliMbOfGb(10.3)));
+        assertEquals(10_400, tariff.rate(TariffEvaluator.milliMbOfGb(10.3), 110, 50, 0));
+    }
+
+    @Test
+    void planModeOverridesDefault() {
+        TariffEvaluator tariff = compiler(OverageMode.PRORATED).compile(plan(OverageMode.PER_STARTED_UNIT));
+
+        assertEquals(500, tariff.dataCharge(TariffEvaluator.milliMbOfGb(10.3)));
+    }
+
+    @Test
+    void addOnsExtendQuotaAndFixedFee() {
+        AddOnPack addOn = AddOnPack.builder().extraGb(1.0).extraMin(20).price(new BigDecimal("15.00")).build();
+        TariffEvaluator tariff = compiler(OverageMode.PRORATED).compile(plan(null), List.of(addOn));
+
+        assertEquals(11_500, tariff.fixedFee());
+        assertEquals(0, tariff.dataCharge(TariffEvaluator.milliMbOfGb(10.9)));
+        assertEquals(0, tariff.voiceCharge(120));
+        assertEquals(11_500, tariff.rate(TariffEvaluator.milliMbOfGb(10.3), 110, 50, 0));
+    }
+
+    @Test
+    void taxIsRoundedHalfUp() {
+        TariffCompiler compiler = compiler(OverageMode.PRORATED);
+
+        assertEquals(1_872, compiler.tax(10_400));
+        assertEquals(2, compiler.tax(11));
+    }
+
+    private static TariffCompiler compiler(OverageMode defaultMode) {
+        return new TariffCompiler(new BigDecimal("0.18"), new BigDecimal("0.10"), new BigDecimal("0.50"),
+                new BigDecimal("0.25"), new BigDecimal("0.10"), new BigDecimal("0.01"), defaultMode);
+    }
+
+    // 100 TL, 10 GB / 100 dk / 50 SMS; aşım 5 TL/GB, 0,25 TL/dk, 0,10 TL/SMS
+    private static Plan plan(OverageMode mode) {
+        return Plan.builder()
+                .planName("Test")
+                .quotaGb(10.0)
+                .quotaMin(100)
+                .quotaSms(50)
+                .monthlyPrice(new BigDecimal("100.00"))
+                .overageGb(new BigDecimal("5.00"))
+                .overageMin(new BigDecimal("0.25"))
+                .overageSms(new BigDecimal("0.10"))
+                .overageMode(mode)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.turkcellcase4.billing.rating;
+
+import com.turkcellcase4.common.enums.OverageMode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TariffEvaluatorTest {
+
+    private static final long DATA_QUOTA = 10 * TariffEvaluator.MILLI_MB_PER_GB;
+    private static final long HALF_GB = TariffEvaluator.MILLI_MB_PER_GB / 2;
+
+    @Test
+    void chargesOnlyFixedFeeWithinQuota() {
+        TariffEvaluator tariff = tariff(OverageMode.PER_STARTED_UNIT);
+
+        assertEquals(0, tariff.dataExcess(DATA_QUOTA));
+        assertEquals(10_000, tariff.rate(DATA_QUOTA, 100, 50, 0));
+    }
+
+    @Test
+    void perStartedUnitChargesWholeUnits() {
+        TariffEvaluator tariff = tariff(OverageMode.PER_STARTED_UNIT);
+
+        assertEquals(500, tariff.dataCharge(DATA_QUOTA + 1));
+        assertEquals(500, tariff.dataCharge(DATA_QUOTA + HALF_GB));
+        assertEquals(1_000, tariff.dataCharge(DATA_QUOTA + TariffEvaluator.MILLI_MB_PER_GB + 1));
+        assertEquals(20, tariff.roamingCharge(1_500));
+    }
+
+    @Test
+    void proratedChargesUsedFraction() {
+        TariffEvaluator tariff = tariff(OverageMode.PRORATED);
+
+        assertEquals(0, tariff.dataCharge(DATA_QUOTA + 1));
+        assertEquals(250, tariff.dataCharge(DATA_QUOTA + HALF_GB));
+        assertEquals(15, tariff.roamingCharge(1_500));
+    }
+
+    @Test
+    void voiceAndSmsAreChargedPerUnitInBothModes() {
+        for (OverageMode mode : OverageMode.values()) {
+            TariffEvaluator tariff = tariff(mode);
+
+            assertEquals(5, tariff.minutesExcess(105));
+            assertEquals(125, tariff.voiceCharge(105));
+            assertEquals(30, tariff.smsCharge(53));
+            assertEquals(0, tariff.smsCharge(50));
+        }
+    }
+
+    @Test
+    void rateSumsFixedFeeOveragesAndRoaming() {
+        TariffEvaluator tariff = tariff(OverageMode.PRORATED);
+
+        long total = tariff.rate(DATA_QUOTA + HALF_GB, 105, 53, 1_500);
+
+        assertEquals(10_000 + 250 + 125 + 30 + 15, total);
+    }
+
+    @Test
+    void rateAllMatchesSingleRowRating() {
+        TariffEvaluator tariff = tariff(OverageMode.PER_STARTED_UNIT);
+        RatingBatch batch = new RatingBatch(3);
+        batch.add(DATA_QUOTA, 100, 50, 0);
+        batch.add(DATA_QUOTA + HALF_GB, 105, 53, 1_500);
+        batch.add(DATA_QUOTA * 2, 0, 0, -1_000);
+
+        tariff.rateAll(batch, 0, batch.size());
+
+        for (int row = 0; row < batch.size(); row++) {
+            assertEquals(tariff.dataCharge(batch.dataMilliMb(row)), batch.dataCharge(row));
+            assertEquals(tariff.voiceCharge(batch.minutes(row)), batch.voiceCharge(row));
+            assertEquals(tariff.smsCharge(batch.sms(row)), batch.smsCharge(row));
+            assertEquals(tariff.roamingCharge(batch.roamingMilliMb(row)), batch.roamingCharge(row));
+            assertEquals(tariff.rate(batch.dataMilliMb(row), batch.minutes(row), batch.sms(row),
+                    batch.roamingMilliMb(row)), batch.total(row));
+        }
+        assertEquals(10_000 + 500 + 125 + 30 + 20, batch.total(1));
+    }
+
+    @Test
+    void rateAllOnlyWritesGivenRange() {
+        RatingBatch batch = new RatingBatch(2);
+        batch.add(DATA_QUOTA + HALF_GB, 0, 0, 0);
+        batch.add(DATA_QUOTA + HALF_GB, 0, 0, 0);
+
+        tariff(OverageMode.PRORATED).rateAll(batch, 0, 1);
+        tariff(OverageMode.PER_STARTED_UNIT).rateAll(batch, 1, 2);
+
+        assertEquals(250, batch.dataCharge(0));
+        assertEquals(500, batch.dataCharge(1));
+    }
+
+    @Test
+    void unlimitedQuotaHasNoOverage() {
+        TariffEvaluator tariff = new TariffEvaluator(10_000, TariffEvaluator.UNLIMITED, TariffEvaluator.UNLIMITED,
+                TariffEvaluator.UNLIMITED, 500, 25, 10, 10, OverageMode.PER_STARTED_UNIT);
+
+        assertEquals(0, tariff.dataExcess(Long.MAX_VALUE / 2));
+        assertEquals(10_000, tariff.rate(DATA_QUOTA * 5, 10_000, 10_000, 0));
+    }
+
+    @Test
+    void negativeRoamingIsIgnored() {
+        assertEquals(0, tariff(OverageMode.PER_STARTED_UNIT).roamingCharge(-1_000));
+    }
+
+    @Test
+    void convertsUsageToMilliMb() {
+        assertEquals(1_536_000, TariffEvaluator.milliMbOfGb(1.5));
+        assertEquals(2_500, TariffEvaluator.milliMbOfMb(2.5));
+    }
+
+    private static TariffEvaluator tariff(OverageMode mode) {
+        // 100 TL sabit ücret, 10 GB / 100 dk / 50 SMS kota; aşım 5 TL/GB, 0,25 TL/dk, 0,10 TL/SMS, roaming 0,10 TL/MB
+        return new TariffEvaluator(10_000, DATA_QUOTA, 100, 50, 500, 25, 10, 10, mode);
+    }
+}
@@ -0,0 +1,112 @@
+package com.turkcellcase4.billing.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UsageSeriesCodecTest {
+
+    @Test
+    void roundTripsEmptySeries() {
+        UsageSeries decoded = roundTrip(UsageSeries.empty());
+
+        assertEquals(0, decoded.size());
+    }
+
+    @Test
+    void roundTripsSingleDay() {
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        builder.add(19_000, 512.25, 30, 4, 0.0);
+
+        assertSeriesEquals(builder.build(), roundTrip(builder.build()));
+    }
+
+    @Test
+    void roundTripsIrregularGapsAndEdgeValues() {
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        builder.add(-5, 0.0, 0, 0, 0.0);
+        builder.add(0, -0.0, Integer.MAX_VALUE, 1, Double.MIN_VALUE);
+        builder.add(1, Double.NaN, Integer.MIN_VALUE, -1, Double.MAX_VALUE);
+        builder.add(400, Double.POSITIVE_INFINITY, 7, 7, 1e-300);
+        builder.add(401, 1.1, 7, 7, 1e-300);
+        builder.add(100_000, 1.1, 0, 1_000_000, -3.5);
+        UsageSeries series = builder.build();
+
+        assertSeriesEquals(series, roundTrip(series));
+    }
+
+    @Test
+    void roundTripsRandomSeries() {
+        Random random = new Random(42);
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        int day = 18_000;
+        for (int i = 0; i < 5_000; i++) {
+            day += 1 + (random.nextInt(10) == 0 ? random.nextInt(60) : 0);
+            builder.add(day, Math.round(random.nextDouble() * 4096 * 100) / 100.0, random.nextInt(600),
+                    random.nextInt(200), random.nextInt(5) == 0 ? random.nextDouble() * 100 : 0.0);
+        }
+        UsageSeries series = builder.build();
+
+        assertSeriesEquals(series, roundTrip(series));
+    }
+
+    @Test
+    void decodeRangeReturnsOnlyDaysInsideBounds() {
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        for (int day = 100; day < 200; day += 2) {
+            builder.add(day, day * 1.5, day, day % 7, day / 3.0);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(UsageSeriesCodec.encode(builder.build()));
+
+        UsageSeries range = UsageSeriesCodec.decodeRange(buffer, 121, 130);
+
+        assertEquals(5, range.size());
+        for (int i = 0; i < range.size(); i++) {
+            int day = 122 + i * 2;
+            assertEquals(day, range.epochDay(i));
+            assertEquals(day * 1.5, range.mbUsed(i));
+            assertEquals(day, range.minutesUsed(i));
+            assertEquals(day % 7, range.smsUsed(i));
+            assertEquals(day / 3.0, range.roamingMb(i));
+        }
+    }
+
+    @Test
+    void decodeRangeOutsideSeriesIsEmpty() {
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        builder.add(100, 1.0, 1, 1, 1.0);
+        builder.add(110, 2.0, 2, 2, 2.0);
+        ByteBuffer buffer = ByteBuffer.wrap(UsageSeriesCodec.encode(builder.build()));
+
+        assertEquals(0, UsageSeriesCodec.decodeRange(buffer, 0, 99).size());
+        assertEquals(0, UsageSeriesCodec.decodeRange(buffer, 101, 109).size());
+        assertEquals(0, UsageSeriesCodec.decodeRange(buffer, 111, 200).size());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+
+        assertThrows(IllegalStateException.class, () -> UsageSeriesCodec.decode(buffer));
+    }
+
+    private static UsageSeries roundTrip(UsageSeries series) {
+        return UsageSeriesCodec.decode(ByteBuffer.wrap(UsageSeriesCodec.encode(series)));
+    }
+
+    static void assertSeriesEquals(UsageSeries expected, UsageSeries actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.epochDay(i), actual.epochDay(i), "epochDay[" + i + "]");
+            // Bit düzeyinde eşitlik: NaN ve -0.0 da korunmalı
+            assertEquals(Double.doubleToRawLongBits(expected.mbUsed(i)), Double.doubleToRawLongBits(actual.mbUsed(i)), "mbUsed[" + i + "]");
+            assertEquals(expected.minutesUsed(i), actual.minutesUsed(i), "minutesUsed[" + i + "]");
+            assertEquals(expected.smsUsed(i), actual.smsUsed(i), "smsUsed[" + i + "]");
+            assertEquals(Double.doubleToRawLongBits(expected.roamingMb(i)), Double.doubleToRawLongBits(actual.roamingMb(i)), "roamingMb[" + i + "]");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.turkcellcase4.billing.timeseries;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsageTimeSeriesStoreTest {
+
+    private static final long USER_ID = 7L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void upsertAppendsToLogWithoutRewritingSeriesFile() throws IOException {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+        store.replace(USER_ID, series(10, 11, 12), store.currentSequence());
+        Path seriesFile = fileWithExtension(".uts");
+        byte[] before = Files.readAllBytes(seriesFile);
+
+        store.upsertDay(USER_ID, 11, 99.0, 9, 9, 0.5);
+        store.upsertDay(USER_ID, 20, 1.0, 1, 1, 0.0);
+
+        assertEquals(2 * UsageTimeSeriesStore.LOG_RECORD_SIZE, Files.size(fileWithExtension(".utl")));
+        assertTrue(Arrays.equals(before, Files.readAllBytes(seriesFile)));
+        UsageSeries read = store.read(USER_ID);
+        assertEquals(4, read.size());
+        assertEquals(99.0, read.mbUsed(1));
+        assertEquals(20, read.epochDay(3));
+    }
+
+    @Test
+    void laterLogRecordWinsForSameDay() {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+
+        store.upsertDay(USER_ID, 5, 1.0, 1, 1, 0.0);
+        store.upsertDay(USER_ID, 5, 2.0, 2, 2, 0.0);
+
+        UsageSeries read = store.read(USER_ID);
+        assertEquals(1, read.size());
+        assertEquals(2.0, read.mbUsed(0));
+    }
+
+    @Test
+    void compactsLogIntoSeriesFileAfterThreshold() throws IOException {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 3);
+
+        store.upsertDay(USER_ID, 1, 1.0, 1, 1, 0.0);
+        store.upsertDay(USER_ID, 2, 2.0, 2, 2, 0.0);
+        store.upsertDay(USER_ID, 3, 3.0, 3, 3, 0.0);
+
+        assertTrue(files(".utl").isEmpty());
+        assertEquals(1, files(".uts").size());
+        UsageSeries read = store.read(USER_ID);
+        assertEquals(3, read.size());
+        assertEquals(3.0, read.mbUsed(2));
+    }
+
+    @Test
+    void readRangeMergesLogInsideBoundsOnly() {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+        store.replace(USER_ID, series(10, 11, 12, 13), store.currentSequence());
+        store.upsertDay(USER_ID, 12, 50.0, 5, 5, 0.0);
+        store.upsertDay(USER_ID, 30, 60.0, 6, 6, 0.0);
+
+        UsageSeries range = store.readRange(USER_ID, 11, 12);
+
+        assertEquals(2, range.size());
+        assertEquals(11, range.epochDay(0));
+        assertEquals(50.0, range.mbUsed(1));
+    }
+
+    @Test
+    void replaceKeepsLogRecordsWrittenAfterSequence() {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+        store.upsertDay(USER_ID, 1, 1.0, 1, 1, 0.0);
+        long scanStart = store.currentSequence();
+        store.upsertDay(USER_ID, 2, 2.0, 2, 2, 0.0);
+
+        store.replace(USER_ID, series(1), scanStart);
+
+        UsageSeries read = store.read(USER_ID);
+        assertEquals(2, read.size());
+        assertEquals(1, read.epochDay(0));
+        assertEquals(2.0, read.mbUsed(1));
+    }
+
+    @Test
+    void replaceWithEmptySeriesDeletesFiles() throws IOException {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+        store.replace(USER_ID, series(1, 2), store.currentSequence());
+        store.upsertDay(USER_ID, 3, 3.0, 3, 3, 0.0);
+
+        store.replace(USER_ID, UsageSeries.empty(), store.currentSequence());
+
+        assertTrue(files(".uts").isEmpty());
+        assertTrue(files(".utl").isEmpty());
+        assertTrue(store.listUserIds().isEmpty());
+    }
+
+    @Test
+    void listsUsersWithOnlyLogFile() {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+        store.upsertDay(USER_ID, 1, 1.0, 1, 1, 0.0);
+        store.replace(8L, series(1), store.currentSequence());
+
+        List<Long> userIds = store.listUserIds();
+
+        assertEquals(2, userIds.size());
+        assertTrue(userIds.contains(USER_ID));
+        assertTrue(userIds.contains(8L));
+    }
+
+    @Test
+    void ignoresTruncatedTrailingLogRecord() throws IOException {
+        UsageTimeSeriesStore store = new UsageTimeSeriesStore(directory.toString(), 100);
+        store.upsertDay(USER_ID, 1, 1.0, 1, 1, 0.0);
+        Files.write(fileWithExtension(".utl"), new byte[5], StandardOpenOption.APPEND);
+
+        store.upsertDay(USER_ID, 2, 2.0, 2, 2, 0.0);
+
+        assertEquals(2 * UsageTimeSeriesStore.LOG_RECORD_SIZE, Files.size(fileWithExtension(".utl")));
+        assertEquals(2, store.read(USER_ID).size());
+    }
+
+    private static UsageSeries series(int... days) {
+        UsageSeries.Builder builder = new UsageSeries.Builder();
+        for (int day : days) {
+            builder.add(day, day, day, day, 0.0);
+        }
+        return builder.build();
+    }
+
+    private Path fileWithExtension(String extension) throws IOException {
+        return files(extension).get(0);
+    }
+
+    private List<Path> files(String extension) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(extension)).toList();
+        }
+    }
+}
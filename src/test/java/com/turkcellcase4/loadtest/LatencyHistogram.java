@@ -0,0 +1,90 @@
+package com.turkcellcase4.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 1 ms çözünürlüklü, kilitsiz gecikme histogramı; üst sınırı aşan ölçümler son kovaya yazılır
+ */
+public class LatencyHistogram {
+
+    private final AtomicLongArray buckets;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(int maxTrackedMs) {
+        this.buckets = new AtomicLongArray(maxTrackedMs + 1);
+    }
+
+    public void record(long latencyMs, boolean error) {
+        int bucket = (int) Math.min(Math.max(0, latencyMs), buckets.length() - 1);
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sum.addAndGet(latencyMs);
+        max.accumulateAndGet(latencyMs, Math::max);
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    public long percentile(double quantile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return buckets.length() - 1;
+    }
+
+    /**
+     * Kaba aralıklı dağılımı "..50ms: 120" biçiminde satırlar olarak döner
+     */
+    public String distribution() {
+        long[] bounds = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, Long.MAX_VALUE};
+        long[] counts = new long[bounds.length];
+        for (int i = 0; i < buckets.length(); i++) {
+            long value = buckets.get(i);
+            if (value == 0) {
+                continue;
+            }
+            for (int b = 0; b < bounds.length; b++) {
+                if (i <= bounds[b]) {
+                    counts[b] += value;
+                    break;
+                }
+            }
+        }
+        StringBuilder out = new StringBuilder();
+        for (int b = 0; b < bounds.length; b++) {
+            String label = bounds[b] == Long.MAX_VALUE ? "  >10000ms" : String.format("%8dms", bounds[b]);
+            out.append(String.format("    ..%s: %d%n", label, counts[b]));
+        }
+        return out.toString();
+    }
+}
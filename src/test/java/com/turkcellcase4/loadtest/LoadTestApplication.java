@@ -0,0 +1,30 @@
+package com.turkcellcase4.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+import java.util.Map;
+
+/**
+ * Yük testi istemcisini test edilen uygulamadan ayrı, web sunucusu olmayan bir JVM'de çalıştırır.
+ * Yapılandırma loadtest.properties dosyasındadır.
+ * <pre>mvn spring-boot:test-run -Dspring-boot.run.main-class=com.turkcellcase4.loadtest.LoadTestApplication \
+ *     -Dspring-boot.run.arguments=--loadtest.msisdn=&lt;msisdn&gt;</pre>
+ * Ana uygulamanın bileşen taramasına test sınıfları da girdiğinden profil ile sınırlanmıştır.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Profile("loadtest")
+@Import(LoadTestRunner.class)
+public class LoadTestApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(LoadTestApplication.class);
+        application.setDefaultProperties(Map.of("spring.config.name", "loadtest"));
+        application.setAdditionalProfiles("loadtest");
+        application.run(args);
+    }
+}
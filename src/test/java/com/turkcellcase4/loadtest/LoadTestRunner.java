@@ -0,0 +1,321 @@
+package com.turkcellcase4.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /explain ve /bonus/llm/* uç noktalarını hedef eşzamanlılıkta çağıran yük testi.
+ * Senaryo başına gecikme histogramı ve Tomcat thread havuzu doluluğunu raporlar.
+ * Test edilen uygulamadan ayrı bir JVM'de LoadTestApplication ile çalıştırılır; thread havuzu
+ * uygulamanın JMX adresinden (loadtest.jmx-url) örneklenir.
+ */
+@Component
+@Profile("loadtest")
+@Slf4j
+public class LoadTestRunner implements ApplicationRunner {
+
+    private static final int MAX_TRACKED_MS = 60_000;
+
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+    private final HttpClient httpClient;
+
+    @Value("${loadtest.base-url:http://localhost:8080/api}")
+    private String baseUrl;
+
+    @Value("${loadtest.jmx-url:}")
+    private String jmxUrl;
+
+    @Value("${loadtest.msisdn:}")
+    private String msisdn;
+
+    @Value("${loadtest.scenarios:explain,explain-stream,llm-anomaly,llm-anomalies,llm-cohort,llm-tax}")
+    private List<String> scenarios;
+
+    @Value("${loadtest.concurrency:32}")
+    private int concurrency;
+
+    @Value("${loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${loadtest.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${loadtest.request-timeout-seconds:60}")
+    private int requestTimeoutSeconds;
+
+    @Value("${loadtest.bill-id:1}")
+    private Long billId;
+
+    @Value("${loadtest.user-id:1}")
+    private Long userId;
+
+    @Value("${loadtest.period:2025-07}")
+    private String period;
+
+    // true ise her anomali isteği farklı bağlamla gider ve LLM cache'i atlanır
+    @Value("${loadtest.bypass-cache:false}")
+    private boolean bypassCache;
+
+    @Value("${loadtest.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private final AtomicLong requestCounter = new AtomicLong();
+
+    public LoadTestRunner(ObjectMapper objectMapper, ApplicationContext applicationContext) {
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Uygulamanın açılışını bloklamamak için ayrı thread'de çalışır
+        Thread driver = new Thread(this::runLoadTest, "loadtest-driver");
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    private void runLoadTest() {
+        try {
+            String token = msisdn.isBlank() ? null : login();
+            log.info("Yük testi başlıyor - hedef: {}, eşzamanlılık: {}, senaryolar: {}", baseUrl, concurrency, scenarios);
+
+            if (warmupSeconds > 0) {
+                drive(token, Duration.ofSeconds(warmupSeconds), newHistograms(), null);
+            }
+
+            Map<String, LatencyHistogram> histograms = newHistograms();
+            try (ThreadPoolSampler sampler = new ThreadPoolSampler(jmxUrl)) {
+                drive(token, Duration.ofSeconds(durationSeconds), histograms, sampler);
+                log.info(report(histograms, sampler, token));
+            }
+        } catch (Exception e) {
+            log.error("Yük testi çalıştırılamadı: {}", e.getMessage(), e);
+        } finally {
+            if (exitOnFinish) {
+                System.exit(SpringApplication.exit(applicationContext, () -> 0));
+            }
+        }
+    }
+
+    private void drive(String token, Duration duration, Map<String, LatencyHistogram> histograms,
+                       ThreadPoolSampler sampler) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService sampling = Executors.newSingleThreadScheduledExecutor();
+        if (sampler != null) {
+            sampling.scheduleAtFixedRate(sampler::sample, 0, 250, TimeUnit.MILLISECONDS);
+        }
+
+        for (int worker = 0; worker < concurrency; worker++) {
+            int offset = worker;
+            workers.submit(() -> {
+                // Her işçi senaryoları farklı sıradan başlayarak döner
+                int index = offset;
+                while (System.nanoTime() < deadline) {
+                    String scenario = scenarios.get(index++ % scenarios.size());
+                    execute(scenario, token, histograms.get(scenario));
+                }
+            });
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(duration.getSeconds() + requestTimeoutSeconds + 5L, TimeUnit.SECONDS);
+        sampling.shutdownNow();
+    }
+
+    private void execute(String scenario, String token, LatencyHistogram histogram) {
+        long startedAt = System.nanoTime();
+        boolean error;
+        try {
+            HttpResponse<String> response = httpClient.send(buildRequest(scenario, token),
+                    HttpResponse.BodyHandlers.ofString());
+            error = response.statusCode() >= 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            error = true;
+        }
+        histogram.record((System.nanoTime() - startedAt) / 1_000_000, error);
+    }
+
+    private HttpRequest buildRequest(String scenario, String token) {
+        HttpRequest.Builder builder = switch (scenario) {
+            case "explain" -> HttpRequest.newBuilder(URI.create(baseUrl + "/explain"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"billId\":" + billId + "}"));
+            case "explain-stream" -> HttpRequest.newBuilder(URI.create(baseUrl + "/explain/" + billId + "/stream"))
+                    .header("Accept", "text/event-stream")
+                    .GET();
+            case "llm-anomaly" -> post("/bonus/llm/anomaly?anomalyId=1&userContext="
+                    + encode(bypassCache ? "loadtest-" + requestCounter.incrementAndGet() : "loadtest"));
+            case "llm-anomalies" -> post("/bonus/llm/anomalies?userId=" + userId + "&period=" + encode(period));
+            case "llm-cohort" -> post("/bonus/llm/cohort?userId=" + userId + "&period=" + encode(period));
+            case "llm-tax" -> post("/bonus/llm/tax?billId=" + billId);
+            default -> throw new IllegalArgumentException("Bilinmeyen yük testi senaryosu: " + scenario);
+        };
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.timeout(Duration.ofSeconds(requestTimeoutSeconds)).build();
+    }
+
+    private HttpRequest.Builder post(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery))
+                .POST(HttpRequest.BodyPublishers.noBody());
+    }
+
+    private String login() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(Map.of("msisdn", msisdn))))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Yük testi girişi başarısız: HTTP " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("accessToken").asText();
+    }
+
+    private String report(Map<String, LatencyHistogram> histograms, ThreadPoolSampler sampler, String token) {
+        StringBuilder out = new StringBuilder("\n===== YÜK TESTİ SONUCU =====\n");
+        out.append(String.format("Süre: %ds, eşzamanlılık: %d%n", durationSeconds, concurrency));
+        histograms.forEach((scenario, histogram) -> {
+            out.append(String.format("%n[%s] istek: %d, hata: %d, rps: %.1f%n", scenario, histogram.count(),
+                    histogram.errors(), (double) histogram.count() / durationSeconds));
+            out.append(String.format("  ort: %.0fms p50: %dms p90: %dms p95: %dms p99: %dms max: %dms%n",
+                    histogram.mean(), histogram.percentile(0.50), histogram.percentile(0.90),
+                    histogram.percentile(0.95), histogram.percentile(0.99), histogram.max()));
+            out.append(histogram.distribution());
+        });
+        out.append('\n').append(sampler.summary()).append('\n');
+        out.append("LLM istemci durumu: ").append(fetchLlmHealth(token)).append('\n');
+        return out.toString();
+    }
+
+    private String fetchLlmHealth(String token) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + "/bonus/llm/health")).GET();
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString()).body();
+        } catch (Exception e) {
+            return "alınamadı (" + e.getMessage() + ")";
+        }
+    }
+
+    private Map<String, LatencyHistogram> newHistograms() {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        scenarios.forEach(scenario -> histograms.put(scenario, new LatencyHistogram(MAX_TRACKED_MS)));
+        return histograms;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Test edilen uygulamanın Tomcat thread havuzunu uzak JMX üzerinden örnekler
+     * (uygulamada server.tomcat.mbeanregistry.enabled=true ve jmxremote portu gerekir)
+     */
+    private static class ThreadPoolSampler implements AutoCloseable {
+
+        private final JMXConnector connector;
+        private final MBeanServerConnection mBeanServer;
+        private long samples;
+        private long busySum;
+        private int maxBusy;
+        private int maxThreads;
+        private long saturatedSamples;
+
+        ThreadPoolSampler(String jmxUrl) {
+            JMXConnector opened = null;
+            MBeanServerConnection connection = null;
+            if (jmxUrl != null && !jmxUrl.isBlank()) {
+                try {
+                    opened = JMXConnectorFactory.connect(new JMXServiceURL(jmxUrl));
+                    connection = opened.getMBeanServerConnection();
+                } catch (Exception e) {
+                    log.warn("JMX bağlantısı kurulamadı ({}): {}", jmxUrl, e.getMessage());
+                }
+            }
+            this.connector = opened;
+            this.mBeanServer = connection;
+        }
+
+        synchronized void sample() {
+            if (mBeanServer == null) {
+                return;
+            }
+            try {
+                Set<ObjectName> pools = mBeanServer.queryNames(new ObjectName("Tomcat:type=ThreadPool,name=*"), null);
+                for (ObjectName pool : pools) {
+                    int busy = ((Number) mBeanServer.getAttribute(pool, "currentThreadsBusy")).intValue();
+                    maxThreads = ((Number) mBeanServer.getAttribute(pool, "maxThreads")).intValue();
+                    samples++;
+                    busySum += busy;
+                    maxBusy = Math.max(maxBusy, busy);
+                    if (busy >= maxThreads) {
+                        saturatedSamples++;
+                    }
+                }
+            } catch (Exception e) {
+                // MBean yoksa örnekleme sessizce atlanır
+            }
+        }
+
+        synchronized String summary() {
+            if (samples == 0) {
+                return "Tomcat thread havuzu: örnek yok (loadtest.jmx-url üzerinden Tomcat MBean bulunamadı)";
+            }
+            return String.format("Tomcat thread havuzu: maxThreads: %d, en yüksek meşgul: %d, ort. meşgul: %.1f, doygun örnek oranı: %%%.1f",
+                    maxThreads, maxBusy, (double) busySum / samples, 100.0 * saturatedSamples / samples);
+        }
+
+        @Override
+        public void close() {
+            if (connector != null) {
+                try {
+                    connector.close();
+                } catch (Exception e) {
+                    // Kapanış hatası raporu etkilemez
+                }
+            }
+        }
+    }
+}
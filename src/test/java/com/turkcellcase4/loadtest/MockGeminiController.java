@@ -0,0 +1,158 @@
+package com.turkcellcase4.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gemini generateContent / streamGenerateContent uç noktalarının yerel taklidi.
+ * gemini.api.url bu adrese çevrildiğinde açıklama akışları gerçek API'ye gitmeden
+ * ayarlanabilir gecikme dağılımı (log-normal), hata oranı ve stream ile yük altında ölçülebilir.
+ */
+@RestController
+@RequestMapping("/mock-llm/v1beta/models")
+@Profile("mock-llm")
+public class MockGeminiController {
+
+    private static final Pattern BATCH_MARKER = Pattern.compile("\\[\\[(\\d+)]]");
+
+    private final ObjectMapper objectMapper;
+    private final double latencyMedianMs;
+    private final double latencySigma;
+    private final long latencyMaxMs;
+    private final double errorRate;
+    private final int errorStatus;
+    private final int streamChunks;
+
+    public MockGeminiController(
+            ObjectMapper objectMapper,
+            @Value("${mock.llm.latency.median-ms:800}") double latencyMedianMs,
+            @Value("${mock.llm.latency.sigma:0.6}") double latencySigma,
+            @Value("${mock.llm.latency.max-ms:30000}") long latencyMaxMs,
+            @Value("${mock.llm.error-rate:0.0}") double errorRate,
+            @Value("${mock.llm.error-status:503}") int errorStatus,
+            @Value("${mock.llm.stream-chunks:5}") int streamChunks) {
+        this.objectMapper = objectMapper;
+        this.latencyMedianMs = latencyMedianMs;
+        this.latencySigma = latencySigma;
+        this.latencyMaxMs = latencyMaxMs;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.streamChunks = Math.max(1, streamChunks);
+    }
+
+    @PostMapping(value = "/{model}:generateContent", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<String>> generateContent(@PathVariable String model, @RequestBody String body) {
+        String text = buildAnswer(extractPrompt(body));
+        // Servlet thread'i bekletilmez; gecikme ölçülen uygulamanın thread havuzunu etkilemesin
+        return Mono.delay(sampleLatency()).map(tick -> shouldFail()
+                ? ResponseEntity.status(errorStatus).body(error(errorStatus, "Mock LLM injected failure"))
+                : ResponseEntity.ok(response(text)));
+    }
+
+    /**
+     * alt=sse biçiminde her olayda tek bir generateContent cevabı gönderir
+     */
+    @PostMapping(value = "/{model}:streamGenerateContent", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamGenerateContent(@PathVariable String model, @RequestBody String body) {
+        if (shouldFail()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.valueOf(errorStatus), "Mock LLM injected failure"));
+        }
+        List<String> chunks = split(buildAnswer(extractPrompt(body)), streamChunks);
+        Duration latency = sampleLatency();
+        // Toplam gecikmenin yarısı ilk parçaya, kalanı parçalar arasına dağıtılır
+        Duration firstChunkDelay = latency.dividedBy(2);
+        Duration interChunkDelay = latency.dividedBy(2L * chunks.size());
+        return Flux.fromIterable(chunks)
+                .index()
+                .concatMap(indexed -> Mono.delay(indexed.getT1() == 0 ? firstChunkDelay : interChunkDelay)
+                        .thenReturn(ServerSentEvent.builder(response(indexed.getT2())).build()));
+    }
+
+    private Duration sampleLatency() {
+        double sample = latencyMedianMs * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofMillis(Math.min(latencyMaxMs, Math.max(0, Math.round(sample))));
+    }
+
+    private boolean shouldFail() {
+        return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    private String extractPrompt(String body) {
+        try {
+            JsonNode parts = objectMapper.readTree(body).path("contents").path(0).path("parts");
+            StringBuilder prompt = new StringBuilder();
+            for (JsonNode part : parts) {
+                prompt.append(part.path("text").asText(""));
+            }
+            return prompt.toString();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    /**
+     * Toplu prompt'larda her [[n]] görevi için ayrı cevap üretir ki paket çözme yolu da denensin
+     */
+    private String buildAnswer(String prompt) {
+        Matcher matcher = BATCH_MARKER.matcher(prompt);
+        List<String> markers = new ArrayList<>();
+        while (matcher.find()) {
+            markers.add(matcher.group(1));
+        }
+        String sentence = "Bu bir test cevabıdır; faturanızdaki değişim kullanım artışından kaynaklanmaktadır.";
+        if (markers.isEmpty()) {
+            return sentence;
+        }
+        StringBuilder answer = new StringBuilder();
+        for (String marker : markers) {
+            answer.append("[[").append(marker).append("]] ").append(sentence).append('\n');
+        }
+        return answer.toString();
+    }
+
+    private String response(String text) {
+        Map<String, Object> body = Map.of("candidates", List.of(Map.of(
+                "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+                "finishReason", "STOP")));
+        return toJson(body);
+    }
+
+    private String error(int code, String message) {
+        return toJson(Map.of("error", Map.of("code", code, "message", message, "status", "UNAVAILABLE")));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException("Mock LLM cevabı serileştirilemedi", e);
+        }
+    }
+
+    private static List<String> split(String text, int parts) {
+        List<String> chunks = new ArrayList<>();
+        int size = Math.max(1, (int) Math.ceil((double) text.length() / parts));
+        for (int start = 0; start < text.length(); start += size) {
+            chunks.add(text.substring(start, Math.min(text.length(), start + size)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,29 @@
+package com.turkcellcase4.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+import java.util.Map;
+
+/**
+ * Gemini taklidini test edilen uygulamadan ayrı bir JVM'de çalıştırır; böylece taklidin thread'leri ve
+ * bağlantı havuzları ölçülen doygunluk değerlerine karışmaz. Yapılandırma mock-llm.properties dosyasındadır.
+ * <pre>mvn spring-boot:test-run -Dspring-boot.run.main-class=com.turkcellcase4.loadtest.MockLlmServer</pre>
+ * Ana uygulamanın bileşen taramasına test sınıfları da girdiğinden profil ile sınırlanmıştır.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Profile("mock-llm")
+@Import(MockGeminiController.class)
+public class MockLlmServer {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(MockLlmServer.class);
+        application.setDefaultProperties(Map.of("spring.config.name", "mock-llm"));
+        application.setAdditionalProfiles("mock-llm");
+        application.run(args);
+    }
+}